@@ -71,8 +71,8 @@ import org.zanata.common.LocaleId;
 import org.zanata.hibernate.search.ContainingWorkspaceBridge;
 import org.zanata.model.po.HPotEntryData;
 import org.zanata.util.HashUtil;
-import org.zanata.util.OkapiUtil;
 import org.zanata.util.StringUtil;
+import org.zanata.util.WordCounter;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Objects;
@@ -445,7 +445,7 @@ public class HTextFlow extends HTextContainer implements Serializable,
         // about the content type.
 
         long count = this.getContents().stream()
-                .mapToLong(s -> OkapiUtil.countWords(s, locale))
+                .mapToLong(s -> WordCounter.countWords(s, locale))
                 .sum();
         setWordCount(count);
     }
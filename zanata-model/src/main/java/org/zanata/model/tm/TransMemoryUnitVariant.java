@@ -23,6 +23,7 @@ package org.zanata.model.tm;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Objects;
 
 import javax.annotation.Nonnull;
 import javax.persistence.Access;
@@ -102,6 +103,11 @@ public class TransMemoryUnitVariant extends ModelEntityBase implements
     }
 
     public void setTaggedSegment(String taggedSegment) {
+        if (plainTextSegmentHash != null
+                && Objects.equals(this.taggedSegment, taggedSegment)) {
+            // plain text and hash are already up to date
+            return;
+        }
         this.taggedSegment = taggedSegment;
         updatePlainTextSegment();
     }
@@ -20,16 +20,13 @@
  */
 package org.zanata.util;
 
-import java.io.ByteArrayInputStream;
+import java.io.StringReader;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
-import javax.xml.stream.XMLEventReader;
 import javax.xml.stream.XMLInputFactory;
 import javax.xml.stream.XMLStreamConstants;
 import javax.xml.stream.XMLStreamException;
-import javax.xml.stream.events.EndElement;
-import javax.xml.stream.events.StartElement;
-import javax.xml.stream.events.XMLEvent;
+import javax.xml.stream.XMLStreamReader;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -41,6 +38,16 @@ import net.sf.okapi.steps.tokenization.tokens.Tokens;
 public class OkapiUtil {
     private static final Logger log = LoggerFactory.getLogger(OkapiUtil.class);
 
+    // XMLInputFactory implementations are not guaranteed to be thread safe,
+    // but are expensive enough to create that we don't want one per segment
+    private static final ThreadLocal<XMLInputFactory> SEG_INPUT_FACTORY =
+            ThreadLocal.withInitial(() -> {
+                XMLInputFactory inputFactory = XMLInputFactory.newFactory();
+                inputFactory.setProperty(XMLInputFactory.IS_VALIDATING, false);
+                inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+                return inputFactory;
+            });
+
     private OkapiUtil() {
     }
 
@@ -76,21 +83,30 @@ public class OkapiUtil {
             log.debug("null string");
             return 0;
         }
+        LocaleId locale;
         try {
-            LocaleId locale;
-            try {
-                locale = LocaleId.fromBCP47(bcp47Locale);
-            } catch (Exception e) {
-                log.error(
-                        "can't understand '{}' as a BCP-47 locale; defaulting to English",
-                        bcp47Locale);
-                locale = LocaleId.ENGLISH;
-            }
+            locale = LocaleId.fromBCP47(bcp47Locale);
+        } catch (Exception e) {
+            log.error(
+                    "can't understand '{}' as a BCP-47 locale; defaulting to English",
+                    bcp47Locale);
+            locale = LocaleId.ENGLISH;
+        }
+        return countWords(s, locale);
+    }
 
+    /**
+     * Count words using Okapi's WordCounter, for a locale which has already
+     * been parsed.
+     *
+     * @see #countWords(String, String)
+     */
+    static long countWords(@Nonnull String s, @Nonnull LocaleId locale) {
+        try {
             Tokens tokens = StringTokenizer.tokenizeString(s, locale, "WORD");
             return tokens.size();
         } catch (Exception e) {
-            Object[] args = new Object[] { s, bcp47Locale, e };
+            Object[] args = new Object[] { s, locale, e };
             log.error("unable to count words in string '{}' for locale '{}'",
                     args);
             return 0;
@@ -116,61 +132,75 @@ public class OkapiUtil {
         // attributes and with no leading/trailing whitespace
         assert content.startsWith("<seg") && content.endsWith("</seg>");
 
+        String plainText = extractSimpleSegment(content);
+        if (plainText != null) {
+            return plainText;
+        }
         try {
-            XMLInputFactory inputFactory = XMLInputFactory.newFactory();
-            inputFactory.setProperty(XMLInputFactory.IS_VALIDATING, false);
-            inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
-            XMLEventReader reader =
-                    inputFactory.createXMLEventReader(new ByteArrayInputStream(
-                            content.getBytes()));
-            StringBuilder writer = new StringBuilder();
+            XMLStreamReader reader = SEG_INPUT_FACTORY.get()
+                    .createXMLStreamReader(new StringReader(content));
+            StringBuilder writer = new StringBuilder(content.length());
 
             // Nesting level. When this is > 0 it means we are ignoring events
             int ignoreLevel = 0;
 
-            while (reader.hasNext()) {
-                XMLEvent nextEv = reader.nextEvent();
-
-                switch (nextEv.getEventType()) {
-                case XMLStreamConstants.START_ELEMENT:
-                    ignoreLevel =
-                            handleStartElem(ignoreLevel,
-                                    nextEv.asStartElement());
-                    break;
-                case XMLStreamConstants.END_ELEMENT:
-                    ignoreLevel =
-                            handleEndElem(ignoreLevel, nextEv.asEndElement());
-                    break;
-                case XMLStreamConstants.CHARACTERS:
-                    if (ignoreLevel == 0)
-                        writer.append(nextEv.asCharacters().getData());
-                    break;
+            try {
+                while (reader.hasNext()) {
+                    switch (reader.next()) {
+                    case XMLStreamConstants.START_ELEMENT:
+                        if (ignoreElement(reader.getLocalName())) {
+                            ignoreLevel++;
+                        }
+                        break;
+                    case XMLStreamConstants.END_ELEMENT:
+                        if (ignoreElement(reader.getLocalName())
+                                && ignoreLevel > 0) {
+                            ignoreLevel--;
+                        }
+                        break;
+                    case XMLStreamConstants.CHARACTERS:
+                        if (ignoreLevel == 0) {
+                            writer.append(reader.getTextCharacters(),
+                                    reader.getTextStart(),
+                                    reader.getTextLength());
+                        }
+                        break;
+                    }
                 }
+            } finally {
+                reader.close();
             }
-
             return writer.toString();
         } catch (XMLStreamException e) {
             throw new RuntimeException(e);
         }
     }
 
-    private static int handleStartElem(int ignoreLevel, StartElement startElem) {
-        String elemName = startElem.getName().getLocalPart();
-        if (ignoreElement(elemName)) {
-            return ignoreLevel + 1;
+    /**
+     * Handles the common case of a segment without attributes, markup,
+     * entities or carriage returns (which an XML parser would normalise),
+     * whose plain text is simply the text between the seg tags.
+     *
+     * @return the plain text, or null if the segment needs to be parsed
+     */
+    private static @Nullable
+    String extractSimpleSegment(String content) {
+        // attributes might contain '>', so leave them to the parser
+        if (!content.startsWith("<seg>")) {
+            return null;
         }
-        return ignoreLevel;
-    }
-
-    private static int handleEndElem(int ignoreLevel, EndElement endElem) {
-        String elemName = endElem.getName().getLocalPart();
-
-        if (ignoreElement(elemName)) {
-            if (ignoreLevel > 0) {
-                return ignoreLevel - 1;
+        int start = "<seg>".length();
+        int end = content.length() - "</seg>".length();
+        if (start > end) {
+            return null;
+        }
+        for (int i = start; i < end; i++) {
+            char c = content.charAt(i);
+            if (c == '<' || c == '&' || c == '\r') {
+                return null;
             }
         }
-        return ignoreLevel;
+        return content.substring(start, end);
     }
 
     private static boolean ignoreElement(String elemName) {
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.util;
+
+import java.util.concurrent.ConcurrentMap;
+
+import javax.annotation.Nullable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Maps;
+
+import net.sf.okapi.common.LocaleId;
+
+/**
+ * Counts words in the same way as {@link OkapiUtil#countWords(String, String)},
+ * but cheaply enough to be called for every text flow of a large push.
+ * <p>
+ * Parsed locales are cached, and strings which consist only of ASCII letters
+ * separated by whitespace (which Okapi always counts as one word per run of
+ * letters) are counted without going through Okapi's tokenizer at all. Only
+ * the remaining strings pay for Okapi, whose tokenizer is shared and
+ * therefore serialised.
+ */
+public final class WordCounter {
+    private static final Logger log =
+            LoggerFactory.getLogger(WordCounter.class);
+
+    // BCP-47 tag -> Okapi locale. Zanata only has a few dozen locales.
+    private static final ConcurrentMap<String, LocaleId> LOCALES =
+            Maps.newConcurrentMap();
+
+    private WordCounter() {
+    }
+
+    public static long countWords(@Nullable String s, String bcp47Locale) {
+        if (s == null) {
+            return 0;
+        }
+        long count = countSimpleWords(s);
+        if (count >= 0) {
+            return count;
+        }
+        return OkapiUtil.countWords(s, toOkapiLocale(bcp47Locale));
+    }
+
+    /**
+     * @return the number of runs of ASCII letters, or -1 if the string
+     *         contains anything other than ASCII letters and whitespace
+     */
+    @VisibleForTesting
+    static long countSimpleWords(String s) {
+        long count = 0;
+        boolean inWord = false;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z')) {
+                if (!inWord) {
+                    count++;
+                    inWord = true;
+                }
+            } else if (c == ' ' || c == '\t' || c == '\n' || c == '\r') {
+                inWord = false;
+            } else {
+                return -1;
+            }
+        }
+        return count;
+    }
+
+    private static LocaleId toOkapiLocale(String bcp47Locale) {
+        if (bcp47Locale == null) {
+            return LocaleId.ENGLISH;
+        }
+        LocaleId locale = LOCALES.get(bcp47Locale);
+        if (locale == null) {
+            try {
+                locale = LocaleId.fromBCP47(bcp47Locale);
+            } catch (Exception e) {
+                log.error(
+                        "can't understand '{}' as a BCP-47 locale; defaulting to English",
+                        bcp47Locale);
+                locale = LocaleId.ENGLISH;
+            }
+            LOCALES.putIfAbsent(bcp47Locale, locale);
+        }
+        return locale;
+    }
+}
@@ -94,4 +94,23 @@ public class OkapiUtilTest {
                         + "large animal.</sub>}}</ph> are big.</seg>"),
                 equalTo("Elephants are big."));
     }
+
+    @Test
+    public void extractPlainTextContentWithoutMarkup() throws Exception {
+        assertThat(OkapiUtil.removeFormattingMarkup("<seg>Plain text</seg>"),
+                equalTo("Plain text"));
+        assertThat(OkapiUtil.removeFormattingMarkup("<seg></seg>"),
+                equalTo(""));
+        assertThat(OkapiUtil
+                .removeFormattingMarkup("<seg a=\">\">Attribute</seg>"),
+                equalTo("Attribute"));
+        assertThat(OkapiUtil
+                .removeFormattingMarkup("<seg>Fish &amp; chips</seg>"),
+                equalTo("Fish & chips"));
+        assertThat(OkapiUtil
+                .removeFormattingMarkup("<seg>Line 1\r\nLine 2</seg>"),
+                equalTo("Line 1\nLine 2"));
+        assertThat(OkapiUtil.removeFormattingMarkup("<seg>Ünïcödé</seg>"),
+                equalTo("Ünïcödé"));
+    }
 }
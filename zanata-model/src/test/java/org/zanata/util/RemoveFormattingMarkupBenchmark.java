@@ -0,0 +1,129 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.util;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.XMLEvent;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares {@link OkapiUtil#removeFormattingMarkup(String)} with the previous
+ * implementation, which created a new XMLInputFactory and event reader for
+ * every segment. Not run as part of the build; run the main method to get
+ * numbers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RemoveFormattingMarkupBenchmark {
+    // @formatter:off
+    private final String[] segments = {
+        "<seg>This is the first entry.</seg>",
+        "<seg>Esta es la primera entrada.</seg>",
+        "<seg>Fish &amp; chips</seg>",
+        "<seg>The <bpt i=\"1\" x=\"1\">&lt;i></bpt>big<ept i=\"1\">&lt;/i></ept> black cat.</seg>",
+        "<seg>The icon <ph x=\"1\">&lt;img src=\"testNode.gif\"/></ph>represents a conditional node.</seg>",
+    };
+    // @formatter:on
+
+    @Benchmark
+    public void current(Blackhole blackhole) {
+        for (String segment : segments) {
+            blackhole.consume(OkapiUtil.removeFormattingMarkup(segment));
+        }
+    }
+
+    @Benchmark
+    public void factoryPerSegment(Blackhole blackhole)
+            throws XMLStreamException {
+        for (String segment : segments) {
+            blackhole.consume(removeWithNewFactory(segment));
+        }
+    }
+
+    private static String removeWithNewFactory(String content)
+            throws XMLStreamException {
+        XMLInputFactory inputFactory = XMLInputFactory.newFactory();
+        inputFactory.setProperty(XMLInputFactory.IS_VALIDATING, false);
+        inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        XMLEventReader reader = inputFactory.createXMLEventReader(
+                new ByteArrayInputStream(content.getBytes()));
+        StringBuilder writer = new StringBuilder();
+        int ignoreLevel = 0;
+        while (reader.hasNext()) {
+            XMLEvent nextEv = reader.nextEvent();
+            switch (nextEv.getEventType()) {
+            case XMLStreamConstants.START_ELEMENT:
+                if (isIgnored(nextEv.asStartElement().getName()
+                        .getLocalPart())) {
+                    ignoreLevel++;
+                }
+                break;
+            case XMLStreamConstants.END_ELEMENT:
+                if (isIgnored(nextEv.asEndElement().getName().getLocalPart())
+                        && ignoreLevel > 0) {
+                    ignoreLevel--;
+                }
+                break;
+            case XMLStreamConstants.CHARACTERS:
+                if (ignoreLevel == 0) {
+                    writer.append(nextEv.asCharacters().getData());
+                }
+                break;
+            }
+        }
+        return writer.toString();
+    }
+
+    private static boolean isIgnored(String elemName) {
+        return elemName.equals("bpt") || elemName.equals("ept")
+                || elemName.equals("it") || elemName.equals("ph")
+                || elemName.equals("sub");
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(RemoveFormattingMarkupBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
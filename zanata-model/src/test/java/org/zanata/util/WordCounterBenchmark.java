@@ -0,0 +1,86 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.util;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares {@link WordCounter} with the plain Okapi path in
+ * {@link OkapiUtil#countWords(String, String)}, for a mix of strings
+ * typical of a gettext push. Not run as part of the build; run the main
+ * method (from the IDE, or with the test classpath) to get numbers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class WordCounterBenchmark {
+    // @formatter:off
+    private final String[] strings = {
+        "Graphic Design",
+        "the object is passed up to the UI tier",
+        "Save file",
+        "Could not open file %s: %s",
+        "Are you sure you want to delete this project?",
+        "Cancel",
+        "Show advanced options",
+        "<b>Warning:</b> this cannot be undone.",
+    };
+    // @formatter:on
+
+    @Benchmark
+    public void okapi(Blackhole blackhole) {
+        for (String s : strings) {
+            blackhole.consume(OkapiUtil.countWords(s, "en-US"));
+        }
+    }
+
+    @Benchmark
+    public void wordCounter(Blackhole blackhole) {
+        for (String s : strings) {
+            blackhole.consume(WordCounter.countWords(s, "en-US"));
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(WordCounterBenchmark.class.getSimpleName()).build())
+                .run();
+    }
+}
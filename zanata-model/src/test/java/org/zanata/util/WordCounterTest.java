@@ -0,0 +1,75 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.util;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class WordCounterTest {
+    // @formatter:off
+    private static final String[] STRINGS = {
+        "Graphic Design",
+        "the object is passed up to the UI tier",
+        "  leading and trailing whitespace\t\n",
+        "Save file.",
+        "don't panic",
+        "3 files",
+        "https://cdn.redhat.com",
+        "/etc/rhsm/rhsm.conf",
+        "<filename class=\"directory\">/var/lib/ricci</filename>",
+        "Größe ändern",
+        "日本語のテキスト",
+        "",
+    };
+    // @formatter:on
+
+    @Test
+    public void countsSameAsOkapi() {
+        for (String s : STRINGS) {
+            for (String locale : new String[] { "en-US", "de", "ja" }) {
+                assertThat(WordCounter.countWords(s, locale))
+                        .as("'" + s + "' in " + locale)
+                        .isEqualTo(OkapiUtil.countWords(s, locale));
+            }
+        }
+    }
+
+    @Test
+    public void countsSimpleWordsWithoutOkapi() {
+        assertThat(WordCounter.countSimpleWords("Graphic Design"))
+                .isEqualTo(2);
+        assertThat(WordCounter.countSimpleWords(" a  b\tc\n")).isEqualTo(3);
+        assertThat(WordCounter.countSimpleWords("")).isEqualTo(0);
+    }
+
+    @Test
+    public void leavesOtherStringsToOkapi() {
+        assertThat(WordCounter.countSimpleWords("Save file.")).isEqualTo(-1);
+        assertThat(WordCounter.countSimpleWords("3 files")).isEqualTo(-1);
+        assertThat(WordCounter.countSimpleWords("Größe")).isEqualTo(-1);
+    }
+
+    @Test
+    public void nullStringHasNoWords() {
+        assertThat(WordCounter.countWords(null, "en-US")).isEqualTo(0);
+    }
+}
@@ -17,6 +17,7 @@ import org.joda.time.Period;
 import org.joda.time.format.PeriodFormatter;
 import org.joda.time.format.PeriodFormatterBuilder;
 import org.zanata.async.AsyncTaskHandle;
+import org.zanata.i18n.Messages;
 import org.zanata.service.SearchIndexManager;
 
 import com.google.common.base.Optional;
@@ -31,10 +32,14 @@ public class ReindexAction implements Serializable {
     private static final long serialVersionUID = 1L;
 
     private final DecimalFormat PERCENT_FORMAT = new DecimalFormat("###.##");
+    private final DecimalFormat RATE_FORMAT = new DecimalFormat("#,##0.#");
 
     @Inject
     private SearchIndexManager searchIndexManager;
 
+    @Inject
+    private Messages msgs;
+
     public List<ReindexClassOptions> getClasses() {
         return searchIndexManager.getReindexOptions();
     }
@@ -222,4 +227,14 @@ public class ReindexAction implements Serializable {
         // TODO localize (not expecting to display estimate when it is unavailable anyway).
         return "unknown";
     }
+
+    public String getThroughput() {
+        Optional<Double> rate =
+                searchIndexManager.getProcessHandle().getProgressPerSecond();
+        if (rate.isPresent()) {
+            return msgs.format("jsf.ManageSearch.Throughput",
+                    RATE_FORMAT.format(rate.get()));
+        }
+        return msgs.get("jsf.ManageSearch.ThroughputUnknown");
+    }
 }
@@ -78,13 +78,13 @@ import org.zanata.service.DocumentService;
 import org.zanata.service.LocaleService;
 import org.zanata.service.TranslationFileService;
 import org.zanata.service.TranslationService;
-import org.zanata.service.TranslationStateCache;
 import org.zanata.service.VersionStateCache;
 import org.zanata.ui.AbstractListFilter;
 import org.zanata.ui.AbstractSortAction;
 import org.zanata.ui.CopyAction;
 import org.zanata.ui.InMemoryListFilter;
 import org.zanata.ui.faces.FacesMessages;
+import org.zanata.ui.model.statistic.IterationStatistics;
 import org.zanata.ui.model.statistic.WordStatistic;
 import org.zanata.util.DateUtil;
 import org.zanata.util.FileUtil;
@@ -92,7 +92,6 @@ import org.zanata.util.PasswordUtil;
 import org.zanata.util.ServiceLocator;
 import org.zanata.util.StatisticsUtil;
 import org.zanata.util.UrlUtil;
-import org.zanata.webtrans.shared.model.DocumentStatus;
 import org.zanata.webtrans.shared.util.TokenUtil;
 
 import com.google.common.base.Optional;
@@ -135,9 +134,6 @@ public class VersionHomeAction extends AbstractSortAction implements
     @Inject
     private VersionStateCache versionStateCacheImpl;
 
-    @Inject
-    private TranslationStateCache translationStateCacheImpl;
-
     @Inject
     private Messages msgs;
 
@@ -194,6 +190,9 @@ public class VersionHomeAction extends AbstractSortAction implements
 
     private Map<DocumentLocaleKey, WordStatistic> documentStatisticMap;
 
+    // statistics of every (document, locale) pair, loaded in one pass
+    private IterationStatistics iterationStatistics;
+
     private List<HIterationGroup> groups;
 
     private HProjectIteration version;
@@ -443,11 +442,19 @@ public class VersionHomeAction extends AbstractSortAction implements
 
     @Override
     protected void loadStatistics() {
+        List<LocaleId> localeIds = Lists.newArrayList();
+        for (HLocale locale : getSupportedLocale()) {
+            localeIds.add(locale.getLocaleId());
+        }
+        iterationStatistics =
+                versionStateCacheImpl.getIterationStatistics(getVersion()
+                        .getId(), localeIds);
+
         localeStatisticMap = Maps.newHashMap();
         for (HLocale locale : getSupportedLocale()) {
             WordStatistic wordStatistic =
-                    versionStateCacheImpl.getVersionStatistics(getVersion()
-                            .getId(), locale.getLocaleId());
+                    iterationStatistics.getWordStatistic(locale
+                            .getLocaleId());
             wordStatistic.setRemainingHours(StatisticsUtil
                     .getRemainingHours(wordStatistic));
             localeStatisticMap.put(locale.getLocaleId(), wordStatistic);
@@ -544,6 +551,13 @@ public class VersionHomeAction extends AbstractSortAction implements
         this.pageRendered = pageRendered;
     }
 
+    private IterationStatistics getIterationStatistics() {
+        if (iterationStatistics == null) {
+            loadStatistics();
+        }
+        return iterationStatistics;
+    }
+
     public WordStatistic getStatisticsForLocale(LocaleId localeId) {
         return localeStatisticMap.get(localeId);
     }
@@ -553,7 +567,7 @@ public class VersionHomeAction extends AbstractSortAction implements
         DocumentLocaleKey key = new DocumentLocaleKey(documentId, localeId);
         if (!documentStatisticMap.containsKey(key)) {
             WordStatistic wordStatistic =
-                    translationStateCacheImpl.getDocumentStatistics(documentId,
+                    getIterationStatistics().getWordStatistic(documentId,
                             localeId);
             wordStatistic.setRemainingHours(StatisticsUtil
                     .getRemainingHours(wordStatistic));
@@ -588,10 +602,8 @@ public class VersionHomeAction extends AbstractSortAction implements
             if (sortOption.equals(SortingType.SortOption.LAST_SOURCE_UPDATE)) {
                 date = document.getLastChanged();
             } else {
-                DocumentStatus docStat =
-                        translationStateCacheImpl.getDocumentStatus(
-                                document.getId(), localeId);
-                date = docStat.getLastTranslatedDate();
+                date = getIterationStatistics().getLastTranslatedDate(
+                        document.getId(), localeId);
             }
         }
 
@@ -1150,16 +1162,12 @@ public class VersionHomeAction extends AbstractSortAction implements
             } else if (selectedSortOption
                     .equals(SortingType.SortOption.LAST_TRANSLATED)) {
                 if (selectedLocaleId != null) {
-                    DocumentStatus docStat1 =
-                            translationStateCacheImpl.getDocumentStatus(
-                                    o1.getId(), selectedLocaleId);
-                    DocumentStatus docStat2 =
-                            translationStateCacheImpl.getDocumentStatus(
-                                    o2.getId(), selectedLocaleId);
-
+                    IterationStatistics statistics = getIterationStatistics();
                     return DateUtil.compareDate(
-                            docStat1.getLastTranslatedDate(),
-                            docStat2.getLastTranslatedDate());
+                            statistics.getLastTranslatedDate(o1.getId(),
+                                    selectedLocaleId),
+                            statistics.getLastTranslatedDate(o2.getId(),
+                                    selectedLocaleId));
                 }
             } else {
                 WordStatistic wordStatistic1;
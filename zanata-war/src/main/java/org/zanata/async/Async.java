@@ -20,6 +20,7 @@
  */
 package org.zanata.async;
 
+import javax.enterprise.util.Nonbinding;
 import javax.interceptor.InterceptorBinding;
 import java.lang.annotation.Documented;
 import java.lang.annotation.ElementType;
@@ -31,6 +32,7 @@ import java.lang.annotation.Target;
  * Marks a method as running asynchronously. This means the actual method
  * execution will happen in its own thread. Methods marked with this annotation
  * must return an object of type {@link java.util.concurrent.Future} or void.
+ * The priority decides which thread pool the method runs on.
  *
  * @author Carlos Munoz <a
  *         href="mailto:camunoz@redhat.com">camunoz@redhat.com</a>
@@ -40,4 +42,6 @@ import java.lang.annotation.Target;
 @Retention(RetentionPolicy.RUNTIME)
 @Documented
 public @interface Async {
+    @Nonbinding
+    AsyncTaskPriority priority() default AsyncTaskPriority.NORMAL;
 }
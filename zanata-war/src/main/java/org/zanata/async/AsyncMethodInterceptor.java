@@ -29,6 +29,7 @@ import javax.interceptor.AroundInvoke;
 import javax.interceptor.Interceptor;
 import javax.interceptor.InvocationContext;
 import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
 import java.util.concurrent.Future;
 
 /**
@@ -102,8 +103,12 @@ public class AsyncMethodInterceptor {
                 }
             };
 
+            Method method = ctx.getMethod();
+            String taskType = method.getDeclaringClass().getSimpleName() + "."
+                    + method.getName();
             ListenableFuture<Object> futureResult =
-                    taskManager.startTask(asyncTask);
+                    taskManager.startTask(asyncTask, getPriority(method),
+                            taskType);
             if (handle.isPresent()) {
                 handle.get().setFutureResult(futureResult);
             }
@@ -114,6 +119,14 @@ public class AsyncMethodInterceptor {
         }
     }
 
+    private static AsyncTaskPriority getPriority(Method method) {
+        Async async = method.getAnnotation(Async.class);
+        if (async == null) {
+            async = method.getDeclaringClass().getAnnotation(Async.class);
+        }
+        return async != null ? async.priority() : AsyncTaskPriority.NORMAL;
+    }
+
     private AsyncTaskHandle findHandleIfPresent(Object[] params) {
         for (Object param : params) {
             if (param instanceof AsyncTaskHandle) {
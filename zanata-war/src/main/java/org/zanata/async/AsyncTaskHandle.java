@@ -53,7 +53,7 @@ public class AsyncTaskHandle<V> {
 
     @Getter
     @Setter
-    public int currentProgress = 0;
+    public volatile int currentProgress = 0;
 
     @Getter
     private long startTime = -1;
@@ -61,7 +61,7 @@ public class AsyncTaskHandle<V> {
     @Getter
     private long finishTime = -1;
 
-    public int increaseProgress(int increaseBy) {
+    public synchronized int increaseProgress(int increaseBy) {
         currentProgress += increaseBy;
         return currentProgress;
     }
@@ -132,6 +132,20 @@ public class AsyncTaskHandle<V> {
         }
     }
 
+    /**
+     * @return An optional container with the average number of progress units
+     *         completed per second, or an empty container if no progress has
+     *         been timed yet.
+     */
+    public Optional<Double> getProgressPerSecond() {
+        long executingTime = getExecutingTime();
+        if (executingTime > 0 && currentProgress > 0) {
+            return Optional.of(currentProgress * 1000d / executingTime);
+        } else {
+            return Optional.absent();
+        }
+    }
+
     /**
      * @return The estimated elapsed time (in milliseconds) from the start of
      *         the process.
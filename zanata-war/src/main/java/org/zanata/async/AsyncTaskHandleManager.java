@@ -31,6 +31,7 @@ import javax.inject.Named;
 
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.MapMaker;
 import com.google.common.collect.Maps;
 
 /**
@@ -44,6 +45,11 @@ public class AsyncTaskHandleManager {
     private Map<Serializable, AsyncTaskHandle> handlesByKey = Maps
             .newConcurrentMap();
 
+    // reverse index of handlesByKey, so that finished tasks can be found
+    // without a scan. Handles are compared by identity.
+    private Map<AsyncTaskHandle, Serializable> keysByHandle = new MapMaker()
+            .weakKeys().makeMap();
+
     // Cache of recently completed tasks
     private Cache<Serializable, AsyncTaskHandle> finishedTasks = CacheBuilder
             .newBuilder().expireAfterWrite(10, TimeUnit.MINUTES)
@@ -55,6 +61,11 @@ public class AsyncTaskHandleManager {
             throw new RuntimeException("Task handle with key " + key
                     + " already exists");
         }
+        if (keysByHandle.containsKey(handle)) {
+            throw new RuntimeException("Task handle is already registered"
+                    + " with key " + keysByHandle.get(handle));
+        }
+        keysByHandle.put(handle, key);
         handlesByKey.put(key, handle);
     }
 
@@ -70,15 +81,12 @@ public class AsyncTaskHandleManager {
     }
 
     void taskFinished(AsyncTaskHandle taskHandle) {
-        synchronized (handlesByKey) {
-            // TODO This operation is O(n). Maybe we can do better?
-            for (Map.Entry<Serializable, AsyncTaskHandle> entry : handlesByKey
-                    .entrySet()) {
-                if (entry.getValue().equals(taskHandle)) {
-                    handlesByKey.remove(entry.getKey());
-                    finishedTasks.put(entry.getKey(), entry.getValue());
-                }
-            }
+        Serializable key = keysByHandle.remove(taskHandle);
+        if (key != null) {
+            // add to the finished tasks first, so that the handle can always
+            // be found by its key
+            finishedTasks.put(key, taskHandle);
+            handlesByKey.remove(key, taskHandle);
         }
     }
 
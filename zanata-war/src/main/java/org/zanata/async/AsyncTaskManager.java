@@ -21,8 +21,11 @@
 package org.zanata.async;
 
 import java.security.Principal;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
 import java.util.concurrent.Future;
 
 import javax.annotation.Nonnull;
@@ -44,8 +47,12 @@ import org.zanata.seam.security.ZanataJpaIdentityStore;
 import org.zanata.security.ZanataIdentity;
 import org.zanata.security.annotations.Authenticated;
 import org.zanata.security.annotations.AuthenticatedLiteral;
+import org.zanata.util.Introspectable;
 import org.zanata.util.ServiceLocator;
 
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.google.common.util.concurrent.ListenableFuture;
 
 /**
@@ -56,27 +63,49 @@ import com.google.common.util.concurrent.ListenableFuture;
 @javax.enterprise.context.ApplicationScoped
 @Slf4j
 // TODO consider switching from Guava's ListenableFuture to Java 8's CompletableFuture
-public class AsyncTaskManager {
+public class AsyncTaskManager implements Introspectable {
+
+    public static final String INTROSPECTABLE_FIELD_POOLS = "Pools";
+    public static final String INTROSPECTABLE_FIELD_TASK_TYPES = "TaskTypes";
+
+    /**
+     * Task type for tasks which were started without one.
+     */
+    public static final String UNNAMED_TASK_TYPE = "unnamed";
 
     // TODO use ManagedExecutorService on Java EE 7, so that we can eg inject UserTransaction
-    private ExecutorService scheduler;
+    private final Map<AsyncTaskPriority, AsyncTaskPool> pools =
+            new EnumMap<>(AsyncTaskPriority.class);
+
+    private final ConcurrentMap<String, AsyncTaskTypeStats> statsByTaskType =
+            Maps.newConcurrentMap();
 
     @Inject
     private AsyncConfig asyncConfig;
 
+    public static AsyncTaskManager getInstance() {
+        return ServiceLocator.instance().getInstance(AsyncTaskManager.class);
+    }
+
     @PostConstruct
     public void init() {
-        scheduler =
-                Executors.newFixedThreadPool(asyncConfig.getThreadPoolSize());
+        pools.put(AsyncTaskPriority.HIGH, new AsyncTaskPool("high",
+                asyncConfig.getHighPriorityThreadPoolSize()));
+        pools.put(AsyncTaskPriority.NORMAL, new AsyncTaskPool("normal",
+                asyncConfig.getThreadPoolSize()));
+        pools.put(AsyncTaskPriority.LOW, new AsyncTaskPool("low",
+                asyncConfig.getLowPriorityThreadPoolSize()));
     }
 
     @PreDestroy
     public void cleanup() {
-        scheduler.shutdown();
+        for (AsyncTaskPool pool : pools.values()) {
+            pool.shutdown();
+        }
     }
 
     /**
-     * Starts a task asynchronously.
+     * Starts a task asynchronously, with normal priority.
      * In its present implementation can only run tasks which expect a
      * {@code Future} result.
      * @param task The task to run.
@@ -85,6 +114,46 @@ public class AsyncTaskManager {
      */
     public <V> ListenableFuture<V> startTask(
             final @Nonnull AsyncTask<Future<V>> task) {
+        return startTask(task, AsyncTaskPriority.NORMAL, UNNAMED_TASK_TYPE);
+    }
+
+    /**
+     * Starts a task asynchronously on the pool for the given priority.
+     * Queued tasks are shared fairly between the users who started them.
+     * @param task The task to run.
+     * @param priority The priority of the task.
+     * @param taskType The name to record queue and run times under.
+     * @param <V> The type of result expected.
+     * @return A listenable future for the expected result.
+     */
+    public <V> ListenableFuture<V> startTask(
+            final @Nonnull AsyncTask<Future<V>> task,
+            final @Nonnull AsyncTaskPriority priority,
+            final @Nonnull String taskType) {
+        AsyncTaskPool pool = pools.get(priority);
+        return startTask(task, taskType,
+                (owner, command) -> pool.execute(owner, command));
+    }
+
+    /**
+     * Starts a task asynchronously on the given executor, with the same
+     * contexts and security context as {@link #startTask(AsyncTask)}.
+     * @param task The task to run.
+     * @param executor The executor to run the task on.
+     * @param <V> The type of result expected.
+     * @return A listenable future for the expected result.
+     */
+    public <V> ListenableFuture<V> startTask(
+            final @Nonnull AsyncTask<Future<V>> task,
+            final @Nonnull Executor executor) {
+        return startTask(task, UNNAMED_TASK_TYPE,
+                (owner, command) -> executor.execute(command));
+    }
+
+    private <V> ListenableFuture<V> startTask(
+            final @Nonnull AsyncTask<Future<V>> task,
+            final @Nonnull String taskType,
+            final @Nonnull OwnedExecutor executor) {
         HAccount taskOwner = ServiceLocator.instance()
                 .getInstance(HAccount.class, new AuthenticatedLiteral());
         ZanataIdentity ownerIdentity = ZanataIdentity.instance();
@@ -98,9 +167,15 @@ public class AsyncTaskManager {
         // final result
         final AsyncTaskResult<V> taskFuture = new AsyncTaskResult<V>();
 
+        final AsyncTaskTypeStats stats = statsByTaskType
+                .computeIfAbsent(taskType, type -> new AsyncTaskTypeStats());
+        final long queuedAt = stats.taskQueued();
+
         // The logic to run to setup all necessary contexts and specific logic
         final Runnable executableCommand = () -> {
             ContextControl ctxCtrl = null;
+            long startedAt = stats.taskStarted(queuedAt);
+            boolean succeeded = false;
 
             try {
                 // Start CDI contexts
@@ -114,6 +189,7 @@ public class AsyncTaskManager {
                 // run the task and capture the result
                 V returnValue = getReturnValue(task.call());
                 taskFuture.set(returnValue);
+                succeeded = true;
             } catch (Throwable t) {
                 taskFuture.setException(t);
                 log.error(
@@ -124,10 +200,16 @@ public class AsyncTaskManager {
                     ctxCtrl.stopContext(RequestScoped.class);
                     ctxCtrl.stopContext(SessionScoped.class);
                 }
+                stats.taskFinished(startedAt, succeeded);
             }
         };
 
-        scheduler.execute(executableCommand);
+        try {
+            executor.execute(taskOwnerUsername, executableCommand);
+        } catch (RuntimeException e) {
+            stats.taskDropped();
+            throw e;
+        }
         return taskFuture;
     }
 
@@ -164,4 +246,37 @@ public class AsyncTaskManager {
         }
         ZanataIdentity.instance().acceptExternalSubjectAndPpal(subject, ppal);
     }
+
+    // below are all monitoring stuff
+    @Override
+    public String getIntrospectableId() {
+        return getClass().getCanonicalName();
+    }
+
+    @Override
+    public Collection<String> getIntrospectableFieldNames() {
+        return Lists.newArrayList(INTROSPECTABLE_FIELD_POOLS,
+                INTROSPECTABLE_FIELD_TASK_TYPES);
+    }
+
+    @Override
+    public String getFieldValueAsString(String fieldName) {
+        switch (fieldName) {
+            case INTROSPECTABLE_FIELD_POOLS:
+                return Iterables.toString(pools.values());
+            case INTROSPECTABLE_FIELD_TASK_TYPES:
+                return statsByTaskType.toString();
+            default:
+                throw new IllegalArgumentException(
+                        "unknown field:" + fieldName);
+        }
+    }
+
+    /**
+     * Runs a command on behalf of a user.
+     */
+    @FunctionalInterface
+    private interface OwnedExecutor {
+        void execute(String owner, Runnable command);
+    }
 }
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.async;
+
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import com.google.common.base.Strings;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * A named, fixed size thread pool which shares its threads fairly between
+ * task owners.
+ * <p>
+ * Queued tasks are ordered by how many unfinished tasks their owner already
+ * had in the pool when they were submitted, and then by submission order. So
+ * a user who starts one task will not have to wait behind all of the tasks
+ * another user started earlier.
+ */
+class AsyncTaskPool {
+    private final String name;
+    private final ThreadPoolExecutor executor;
+    private final AtomicLong sequence = new AtomicLong();
+    // owner -> number of tasks which are queued or running
+    private final ConcurrentMap<String, Integer> pendingByOwner =
+            Maps.newConcurrentMap();
+
+    AsyncTaskPool(String name, int size) {
+        this.name = name;
+        this.executor = new ThreadPoolExecutor(size, size, 0L,
+                TimeUnit.MILLISECONDS, new PriorityBlockingQueue<>(),
+                new ThreadFactoryBuilder().setNameFormat("async-" + name + "-%d")
+                        .build());
+    }
+
+    /**
+     * @param owner
+     *            the user who started the task, or null for system tasks
+     * @param command
+     *            the task
+     */
+    void execute(@Nullable String owner, @Nonnull Runnable command) {
+        String ownerKey = Strings.nullToEmpty(owner);
+        int ordinal = pendingByOwner.merge(ownerKey, 1, Integer::sum);
+        try {
+            executor.execute(new FairTask(ownerKey, ordinal,
+                    sequence.getAndIncrement(), command));
+        } catch (RuntimeException e) {
+            release(ownerKey);
+            throw e;
+        }
+    }
+
+    private void release(String ownerKey) {
+        pendingByOwner.computeIfPresent(ownerKey,
+                (key, pending) -> pending == 1 ? null : pending - 1);
+    }
+
+    int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    @Override
+    public String toString() {
+        return name + "{size=" + executor.getMaximumPoolSize() + ", active="
+                + executor.getActiveCount() + ", queued=" + getQueueDepth()
+                + ", owners=" + pendingByOwner.size() + "}";
+    }
+
+    private class FairTask implements Runnable, Comparable<FairTask> {
+        private final String ownerKey;
+        private final int ordinal;
+        private final long seq;
+        private final Runnable command;
+
+        private FairTask(String ownerKey, int ordinal, long seq,
+                Runnable command) {
+            this.ownerKey = ownerKey;
+            this.ordinal = ordinal;
+            this.seq = seq;
+            this.command = command;
+        }
+
+        @Override
+        public void run() {
+            try {
+                command.run();
+            } finally {
+                release(ownerKey);
+            }
+        }
+
+        @Override
+        public int compareTo(FairTask other) {
+            int result = Integer.compare(ordinal, other.ordinal);
+            if (result != 0) {
+                return result;
+            }
+            return Long.compare(seq, other.seq);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.async;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Queue and run time counters for one type of async task.
+ */
+class AsyncTaskTypeStats {
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger running = new AtomicInteger();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final LongAdder totalRunNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    /**
+     * @return the time the task was queued
+     */
+    long taskQueued() {
+        queued.incrementAndGet();
+        return System.nanoTime();
+    }
+
+    /**
+     * For a task which was queued but will never run.
+     */
+    void taskDropped() {
+        queued.decrementAndGet();
+    }
+
+    /**
+     * @return the time the task started
+     */
+    long taskStarted(long queuedAt) {
+        long now = System.nanoTime();
+        long wait = now - queuedAt;
+        queued.decrementAndGet();
+        running.incrementAndGet();
+        totalWaitNanos.add(wait);
+        maxWaitNanos.accumulateAndGet(wait, Math::max);
+        return now;
+    }
+
+    void taskFinished(long startedAt, boolean succeeded) {
+        totalRunNanos.add(System.nanoTime() - startedAt);
+        running.decrementAndGet();
+        if (succeeded) {
+            completed.increment();
+        } else {
+            failed.increment();
+        }
+    }
+
+    @Override
+    public String toString() {
+        long finished = completed.sum() + failed.sum();
+        long started = finished + running.get();
+        return "{queued=" + queued.get() + ", running=" + running.get()
+                + ", completed=" + completed.sum() + ", failed=" + failed.sum()
+                + ", avgWaitMs=" + average(totalWaitNanos.sum(), started)
+                + ", maxWaitMs=" + toMillis(maxWaitNanos.get())
+                + ", avgRunMs=" + average(totalRunNanos.sum(), finished) + "}";
+    }
+
+    private static long average(long totalNanos, long count) {
+        return count == 0 ? 0 : toMillis(totalNanos / count);
+    }
+
+    private static long toMillis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+}
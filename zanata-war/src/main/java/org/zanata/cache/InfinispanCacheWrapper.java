@@ -67,7 +67,9 @@ public class InfinispanCacheWrapper<K, V> implements CacheWrapper<K, V> {
                 throw new RuntimeException(
                         "Unable to load entry with cache loader ", e);
             }
-            getCache().put(key, cachedValue);
+            // unlike put, this doesn't invalidate other nodes' copies in a
+            // cluster: the loaded value is no newer than theirs
+            getCache().putForExternalRead(key, cachedValue);
         }
         return cachedValue;
     }
@@ -40,6 +40,23 @@ public class AsyncConfig {
 
     public static final String THREAD_POOL_SIZE = "async.threadpool.size";
 
+    public static final String HIGH_PRIORITY_THREAD_POOL_SIZE =
+            "async.threadpool.high.size";
+
+    public static final String LOW_PRIORITY_THREAD_POOL_SIZE =
+            "async.threadpool.low.size";
+
+    public static final String COPY_TRANS_THREAD_POOL_SIZE =
+            "async.copytrans.threadpool.size";
+
+    public static final String COPY_TRANS_THREADS_PER_PROJECT =
+            "async.copytrans.threads.per.project";
+
+    public static final String REINDEX_THREAD_POOL_SIZE =
+            "async.reindex.threadpool.size";
+
+    public static final String REINDEX_RANGE_SIZE = "async.reindex.range.size";
+
     @Inject
     private SystemPropertyConfigStore systemPropertyConfigStore;
 
@@ -50,4 +67,53 @@ public class AsyncConfig {
     public int getThreadPoolSize() {
         return systemPropertyConfigStore.get(THREAD_POOL_SIZE, 10);
     }
+
+    /**
+     * @return size of the pool for high priority tasks, which users are
+     *         waiting for
+     */
+    public int getHighPriorityThreadPoolSize() {
+        return systemPropertyConfigStore.get(HIGH_PRIORITY_THREAD_POOL_SIZE, 4);
+    }
+
+    /**
+     * @return size of the pool for low priority, long-running tasks
+     */
+    public int getLowPriorityThreadPoolSize() {
+        return systemPropertyConfigStore.get(LOW_PRIORITY_THREAD_POOL_SIZE, 2);
+    }
+
+    /**
+     * @return size of the pool which runs (document, locale) units of
+     *         CopyTrans in parallel. A size of 1 (the default) disables
+     *         parallel CopyTrans.
+     */
+    public int getCopyTransThreadPoolSize() {
+        return systemPropertyConfigStore.get(COPY_TRANS_THREAD_POOL_SIZE, 1);
+    }
+
+    /**
+     * @return maximum number of CopyTrans units which may run at once for a
+     *         single project
+     */
+    public int getCopyTransThreadsPerProject() {
+        return systemPropertyConfigStore.get(COPY_TRANS_THREADS_PER_PROJECT,
+                4);
+    }
+
+    /**
+     * @return number of threads which load and index id ranges in parallel
+     *         during a mass reindex
+     */
+    public int getReindexThreadPoolSize() {
+        return systemPropertyConfigStore.get(REINDEX_THREAD_POOL_SIZE,
+                Math.min(4, Runtime.getRuntime().availableProcessors()));
+    }
+
+    /**
+     * @return number of primary key values in each range of a mass reindex
+     */
+    public int getReindexRangeSize() {
+        return systemPropertyConfigStore.get(REINDEX_RANGE_SIZE, 1000);
+    }
 }
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.config;
+
+import javax.enterprise.context.Dependent;
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import lombok.NoArgsConstructor;
+
+/**
+ * Holds the configuration values for webhook delivery.
+ */
+@Named("webhookConfig")
+@Dependent
+@NoArgsConstructor
+public class WebhookConfig {
+
+    public static final String THREAD_POOL_SIZE = "webhook.threadpool.size";
+
+    public static final String QUEUE_SIZE = "webhook.queue.size";
+
+    public static final String MAX_RETRIES = "webhook.retries.max";
+
+    public static final String MILESTONE_BATCH_SIZE =
+            "webhook.milestone.batch.size";
+
+    @Inject
+    private SystemPropertyConfigStore systemPropertyConfigStore;
+
+    public WebhookConfig(SystemPropertyConfigStore systemPropertyConfigStore) {
+        this.systemPropertyConfigStore = systemPropertyConfigStore;
+    }
+
+    /**
+     * @return number of threads which post webhook events. Each endpoint
+     *         uses at most one of them at a time.
+     */
+    public int getThreadPoolSize() {
+        return systemPropertyConfigStore.get(THREAD_POOL_SIZE, 4);
+    }
+
+    /**
+     * @return maximum number of events waiting for delivery to a single
+     *         endpoint
+     */
+    public int getQueueSize() {
+        return systemPropertyConfigStore.get(QUEUE_SIZE, 1000);
+    }
+
+    /**
+     * @return how many times a failed delivery is retried before the event
+     *         is given up on
+     */
+    public int getMaxRetries() {
+        return systemPropertyConfigStore.get(MAX_RETRIES, 5);
+    }
+
+    /**
+     * @return maximum number of document milestone events which are posted
+     *         to an endpoint together, as a JSON array. The default of 1
+     *         posts every event on its own, as a JSON object.
+     */
+    public int getMilestoneBatchSize() {
+        return systemPropertyConfigStore.get(MILESTONE_BATCH_SIZE, 1);
+    }
+}
@@ -1,6 +1,7 @@
 package org.zanata.dao;
 
 import java.sql.Timestamp;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -21,7 +22,6 @@ import org.zanata.common.TransUnitCount;
 import org.zanata.common.TransUnitWords;
 import org.zanata.file.GlobalDocumentId;
 import org.zanata.model.HDocument;
-import org.zanata.model.HLocale;
 import org.zanata.model.HProjectIteration;
 import org.zanata.model.HRawDocument;
 import org.zanata.model.HTextFlowTarget;
@@ -498,28 +498,18 @@ public class DocumentDAO extends AbstractDAOImpl<HDocument, Long> {
     }
 
     /**
-     * Calculates a translated document's hash.
+     * Finds the latest change to a document, or to its translations
+     * (including comments and PO headers) in a locale.
      *
-     * @param projectSlug
-     *            Project identifier
-     * @param iterationSlug
-     *            Iteration identifier
-     * @param docId
-     *            Document identifier
-     * @param locale
-     *            Translated document's locale.
-     * @return A Hash string (checksum) for a translated document.
+     * @param documentId
+     *            document id
+     * @param localeId
+     *            locale of the translations
+     * @return the latest change, or null if the document does not exist
      */
     @NativeQuery
-    public String
-            getTranslatedDocumentStateHash(final String projectSlug,
-                    final String iterationSlug, final String docId,
-                    final HLocale locale) {
-        HDocument doc =
-                getByProjectIterationAndDocId(projectSlug, iterationSlug, docId);
-        if (doc == null) {
-            return "";
-        }
+    public @Nullable Date getTranslatedDocumentLastChanged(Long documentId,
+            LocaleId localeId) {
         // NB: This method uses a native SQL query tested on mysql and h2
         // databases.
         String sql =
@@ -528,25 +518,26 @@ public class DocumentDAO extends AbstractDAOImpl<HDocument, Long> {
                         + "  max(ifnull(c.lastChanged, {d '1753-01-01'})),\n"
                         + "  max(ifnull(poth.lastChanged, {d '1753-01-01'}))\n"
                         + ") as latest\n" + "from HDocument d\n"
+                        + "  inner join HLocale l\n"
+                        + "    on l.localeId = :localeId\n"
                         + "  left outer join HTextFlow tf\n"
                         + "    on d.id = tf.document_id\n"
                         + "  left outer join HTextFlowTarget tft\n"
-                        + "    on tft.tf_id = tf.id and tft.locale = :locale\n"
+                        + "    on tft.tf_id = tf.id and tft.locale = l.id\n"
                         + "  left outer join HSimpleComment c\n"
                         + "    on c.id = tft.comment_id\n"
                         + "  left outer join HPoTargetHeader poth\n"
                         + "    on poth.document_id = d.id\n"
-                        + "    and poth.targetLanguage = :locale\n"
+                        + "    and poth.targetLanguage = l.id\n"
                         + "where d.id = :doc\n" + "group by d.lastChanged";
 
         Query query =
                 getSession().createSQLQuery(sql)
                         // ensure that mysql driver doesn't return byte[] :
                         .addScalar("latest", TimestampType.INSTANCE)
-                        .setParameter("locale", locale)
-                        .setParameter("doc", doc);
-        Timestamp timestamp = (Timestamp) query.uniqueResult();
-        return timestamp.toString();
+                        .setParameter("localeId", localeId.getId())
+                        .setParameter("doc", documentId);
+        return (Timestamp) query.uniqueResult();
     }
 
     /**
@@ -27,8 +27,14 @@ import org.hibernate.ScrollMode;
 import org.hibernate.ScrollableResults;
 import org.hibernate.Session;
 
+import com.google.common.collect.ImmutableList;
+
 import javax.enterprise.context.RequestScoped;
 import javax.inject.Named;
+import org.zanata.common.ContentState;
+import org.zanata.common.EntityStatus;
+import org.zanata.model.HDocument;
+import org.zanata.model.HLocale;
 import org.zanata.model.HProject;
 import org.zanata.model.HProjectIteration;
 import org.zanata.model.HTextFlowTarget;
@@ -130,4 +136,60 @@ public class HTextFlowTargetStreamingDAO extends
                 .setParameter("iteration", iteration)
                 .scroll(ScrollMode.FORWARD_ONLY);
     }
+
+    /**
+     * Streams the translations which CopyTrans could copy into the given
+     * document, as scalar rows of (target id, text flow id, content hash,
+     * resId, docId, project id, last changed). Only translated and approved
+     * targets in non-obsolete versions and projects are returned.
+     *
+     * @param document
+     *            copyTrans copy target document
+     * @param targetLocale
+     *            target locale
+     * @param sameDocIdOnly
+     *            whether to only return candidates with the document's docId
+     * @param sameProjectOnly
+     *            whether to only return candidates from the document's project
+     * @return scrollable result set of candidate rows
+     */
+    public ScrollableResults getCopyTransCandidates(HDocument document,
+            HLocale targetLocale, boolean sameDocIdOnly,
+            boolean sameProjectOnly) {
+        StringBuilder queryString = new StringBuilder(
+                "select tft.id, tf.id, tf.contentHash, tf.resId, doc.docId, "
+                        + "project.id, tft.lastChanged "
+                        + "from HTextFlowTarget tft "
+                        + "join tft.textFlow tf "
+                        + "join tf.document doc "
+                        + "join doc.projectIteration iter "
+                        + "join iter.project project "
+                        + "where tft.locale = :locale "
+                        + "and tft.state in (:states) "
+                        + "and iter.status <> :obsolete "
+                        + "and project.status <> :obsolete");
+        if (sameDocIdOnly) {
+            queryString.append(" and doc.docId = :docId");
+        }
+        if (sameProjectOnly) {
+            queryString.append(" and project = :project");
+        }
+        Query query = getSession().createQuery(queryString.toString())
+                .setParameter("locale", targetLocale)
+                .setParameterList("states",
+                        ImmutableList.of(ContentState.Translated,
+                                ContentState.Approved))
+                .setParameter("obsolete", EntityStatus.OBSOLETE);
+        if (sameDocIdOnly) {
+            query.setParameter("docId", document.getDocId());
+        }
+        if (sameProjectOnly) {
+            query.setParameter("project",
+                    document.getProjectIteration().getProject());
+        }
+        return query.setFetchSize(Integer.MIN_VALUE)
+                .setReadOnly(true)
+                .setComment("HTextFlowTargetStreamingDAO.getCopyTransCandidates")
+                .scroll(ScrollMode.FORWARD_ONLY);
+    }
 }
@@ -21,10 +21,13 @@
 package org.zanata.dao;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -46,18 +49,24 @@ import org.zanata.model.HProject;
 import org.zanata.model.HProjectIteration;
 import org.zanata.model.StatusCount;
 import org.zanata.rest.service.DateRange;
+import org.zanata.ui.model.statistic.IterationStatistics;
 import org.zanata.ui.model.statistic.MessageStatistic;
 import org.zanata.ui.model.statistic.WordStatistic;
 import org.zanata.util.HashUtil;
 import org.zanata.util.StatisticsUtil;
 
+import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
 
 @Named("projectIterationDAO")
 @RequestScoped
 public class ProjectIterationDAO extends
         AbstractDAOImpl<HProjectIteration, Long> {
 
+    // maximum number of dates in one IN clause when looking up translators
+    private static final int LAST_TRANSLATED_BATCH_SIZE = 500;
+
     public ProjectIterationDAO() {
         super(HProjectIteration.class);
     }
@@ -416,6 +425,110 @@ public class ProjectIterationDAO extends
         return totalCount;
     }
 
+    /**
+     * Loads the statistics of every (document, locale) pair of a version with
+     * a few grouped queries, instead of a set of queries per document.
+     *
+     * @param iterationId
+     *            The numeric id for a Project iteration.
+     * @param localeIds
+     *            locales to load statistics for
+     * @param includeLastTranslatedBy
+     *            whether to look up the author of the last translation of
+     *            each document, in one more query
+     */
+    public IterationStatistics getIterationStatistics(Long iterationId,
+            Collection<LocaleId> localeIds, boolean includeLastTranslatedBy) {
+        IterationStatistics result = new IterationStatistics(localeIds);
+
+        @SuppressWarnings("unchecked")
+        List<Object[]> totals = getSession()
+                .createQuery("select tf.document.id, count(tf), "
+                        + "sum(tf.wordCount) from HTextFlow tf "
+                        + "where tf.document.projectIteration.id = :id "
+                        + "and tf.obsolete = false "
+                        + "and tf.document.obsolete = false "
+                        + "group by tf.document.id")
+                .setParameter("id", iterationId)
+                .setComment("ProjectIterationDAO.getIterationStatistics-totals")
+                .list();
+        for (Object[] row : totals) {
+            result.addDocument((Long) row[0], (Long) row[1],
+                    row[2] == null ? 0L : (Long) row[2]);
+        }
+        if (localeIds.isEmpty()) {
+            return result;
+        }
+
+        @SuppressWarnings("unchecked")
+        List<Object[]> targets = getSession()
+                .createQuery("select tft.textFlow.document.id, "
+                        + "tft.locale.localeId, tft.state, count(tft), "
+                        + "sum(tft.textFlow.wordCount), max(tft.lastChanged) "
+                        + "from HTextFlowTarget tft "
+                        + "where tft.textFlow.document.projectIteration.id = :id "
+                        + "and tft.locale.localeId in (:localeIds) "
+                        + "and tft.textFlow.obsolete = false "
+                        + "and tft.textFlow.document.obsolete = false "
+                        + "group by tft.textFlow.document.id, "
+                        + "tft.locale.localeId, tft.state")
+                .setParameter("id", iterationId)
+                .setParameterList("localeIds", localeIds)
+                .setComment("ProjectIterationDAO.getIterationStatistics-targets")
+                .list();
+        // the latest change of each (document, locale), for the translators
+        Set<Date> lastChangedDates = Sets.newHashSet();
+        for (Object[] row : targets) {
+            result.addTargets((Long) row[0], (LocaleId) row[1],
+                    (ContentState) row[2], (Long) row[3],
+                    row[4] == null ? 0L : (Long) row[4], (Date) row[5]);
+            if (row[5] != null) {
+                lastChangedDates.add((Date) row[5]);
+            }
+        }
+        if (!includeLastTranslatedBy) {
+            return result;
+        }
+
+        // only the targets changed at one of the latest times; the ones which
+        // are not the latest of their own (document, locale) are skipped
+        // below. Ordered by id so that on a tie the newest target wins.
+        for (List<Date> dates : Iterables.partition(lastChangedDates,
+                LAST_TRANSLATED_BATCH_SIZE)) {
+            @SuppressWarnings("unchecked")
+            List<Object[]> translators = getSession()
+                    .createQuery("select tft.textFlow.document.id, "
+                            + "tft.locale.localeId, tft.lastChanged, "
+                            + "account.username "
+                            + "from HTextFlowTarget tft "
+                            + "join tft.lastModifiedBy person "
+                            + "join person.account account "
+                            + "where tft.textFlow.document.projectIteration.id = :id "
+                            + "and tft.locale.localeId in (:localeIds) "
+                            + "and tft.textFlow.obsolete = false "
+                            + "and tft.textFlow.document.obsolete = false "
+                            + "and tft.lastChanged in (:dates) "
+                            + "order by tft.id")
+                    .setParameter("id", iterationId)
+                    .setParameterList("localeIds", localeIds)
+                    .setParameterList("dates", dates)
+                    .setComment(
+                            "ProjectIterationDAO.getIterationStatistics-translators")
+                    .list();
+            for (Object[] row : translators) {
+                Long documentId = (Long) row[0];
+                LocaleId localeId = (LocaleId) row[1];
+                Date latest = result.getLastTranslatedDate(documentId, localeId);
+                if (latest != null
+                        && latest.getTime() == ((Date) row[2]).getTime()) {
+                    result.setLastTranslatedBy(documentId, localeId,
+                            (String) row[3]);
+                }
+            }
+        }
+        return result;
+    }
+
     public int getTotalProjectIterCount() {
         String query = "select count(*) from HProjectIteration";
         Query q = getSession().createQuery(query.toString());
@@ -27,6 +27,8 @@ import java.util.List;
 import java.util.Map;
 
 import org.hibernate.Query;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
 import org.hibernate.Session;
 import org.hibernate.transform.ResultTransformer;
 
@@ -34,6 +36,7 @@ import javax.enterprise.context.RequestScoped;
 import javax.inject.Inject;
 import javax.inject.Named;
 import org.zanata.common.ContentState;
+import org.zanata.common.HasContents;
 import org.zanata.common.LocaleId;
 import org.zanata.model.HDocument;
 import org.zanata.model.HLocale;
@@ -42,8 +45,10 @@ import org.zanata.search.FilterConstraintToQuery;
 import org.zanata.search.FilterConstraints;
 import org.zanata.webtrans.shared.model.DocumentId;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import lombok.extern.slf4j.Slf4j;
 
 @Named("textFlowDAO")
@@ -54,6 +59,22 @@ public class TextFlowDAO extends AbstractDAOImpl<HTextFlow, Long> {
 
     // TODO replace all getSession() code to use entityManager
 
+    private static final String TEXT_FLOW_WITH_TARGET_QUERY =
+            "select tf, tft from HTextFlow tf "
+                    + "left join fetch tf.comment "
+                    + "left join tf.targets tft with tft.locale.id = :localeId "
+                    + "left join fetch tft.comment ";
+
+    // source contents, target id, target contents
+    private static final String VALIDATION_CONTENTS =
+            "tf.content0, tf.content1, tf.content2, "
+                    + "tf.content3, tf.content4, tf.content5, tft.id, "
+                    + "tft.content0, tft.content1, tft.content2, "
+                    + "tft.content3, tft.content4, tft.content5 ";
+
+    // rows fetched from the database at a time while validating
+    private static final int VALIDATION_FETCH_SIZE = 500;
+
     @Inject
     LocaleDAO localeDAO;
 
@@ -191,6 +212,193 @@ public class TextFlowDAO extends AbstractDAOImpl<HTextFlow, Long> {
         return q.list();
     }
 
+    /**
+     * Loads a page of active text flows in a document, together with their
+     * comments and their targets (and target comments) for one locale, in a
+     * single query.
+     * <p>
+     * Active text flows have contiguous positions starting from 0, so the
+     * page is selected by a range of positions, rather than by skipping over
+     * the preceding rows.
+     *
+     * @param documentId
+     *            document id (NOT the String type docId)
+     * @param localeId
+     *            locale id (NOT the LocaleId type)
+     * @param fromPos
+     *            position of the first text flow
+     * @param maxResults
+     *            page size
+     * @return pairs of [HTextFlow, HTextFlowTarget or null] in document order
+     */
+    @SuppressWarnings("unchecked")
+    public List<Object[]> getTextFlowPageWithTargets(Long documentId,
+            Long localeId, int fromPos, int maxResults) {
+        Query q = getSession().createQuery(TEXT_FLOW_WITH_TARGET_QUERY
+                + "where tf.obsolete = false and tf.document.id = :documentId "
+                + "and tf.pos >= :fromPos and tf.pos < :toPos "
+                + "order by tf.pos");
+        q.setParameter("localeId", localeId);
+        q.setParameter("documentId", documentId);
+        q.setParameter("fromPos", fromPos);
+        q.setParameter("toPos", fromPos + maxResults);
+        q.setMaxResults(maxResults);
+        q.setComment("TextFlowDAO.getTextFlowPageWithTargets");
+        return q.list();
+    }
+
+    /**
+     * Loads the given text flows, together with their comments and their
+     * targets (and target comments) for one locale, in a single query.
+     *
+     * @param idList
+     *            text flow ids
+     * @param localeId
+     *            locale id (NOT the LocaleId type)
+     * @return pairs of [HTextFlow, HTextFlowTarget or null] in document order
+     */
+    @SuppressWarnings("unchecked")
+    public List<Object[]> getTextFlowsWithTargets(List<Long> idList,
+            Long localeId) {
+        if (idList.isEmpty()) {
+            return new ArrayList<Object[]>();
+        }
+        Query q = getSession().createQuery(TEXT_FLOW_WITH_TARGET_QUERY
+                + "where tf.id in (:idList) order by tf.document.id, tf.pos");
+        q.setParameter("localeId", localeId);
+        q.setParameterList("idList", idList);
+        q.setComment("TextFlowDAO.getTextFlowsWithTargets");
+        return q.list();
+    }
+
+    /**
+     * Returns the source and target contents of every active text flow in a
+     * document, in document order, as rows of (text flow id, target id,
+     * source contents, target contents). The contents are lists of plural
+     * forms. The target columns are null for text flows which have no target
+     * in the given locale.
+     *
+     * @param documentId
+     *            document id (NOT the String type docId)
+     * @param localeId
+     *            locale
+     */
+    public List<Object[]> getContentsForValidation(Long documentId,
+            LocaleId localeId) {
+        return getContentsForValidation(ImmutableList.of(documentId),
+                localeId).get(documentId);
+    }
+
+    /**
+     * Like {@link #getContentsForValidation(Long, LocaleId)}, for several
+     * documents at once. Text flows and their targets are read with one
+     * join, scrolling through the results rather than loading them into
+     * intermediate lists.
+     *
+     * @param documentIds
+     *            document ids (NOT the String type docId)
+     * @param localeId
+     *            locale
+     * @return document id -> rows of (text flow id, target id, source
+     *         contents, target contents) in document order, for every
+     *         requested document
+     */
+    public Map<Long, List<Object[]>> getContentsForValidation(
+            Collection<Long> documentIds, LocaleId localeId) {
+        Map<Long, List<Object[]>> result =
+                Maps.newHashMapWithExpectedSize(documentIds.size());
+        for (Long documentId : documentIds) {
+            result.put(documentId, Lists.newArrayList());
+        }
+        if (documentIds.isEmpty()) {
+            return result;
+        }
+        ScrollableResults rows = getSession()
+                .createQuery("select tf.document.id, tf.id, "
+                        + VALIDATION_CONTENTS
+                        + "from HTextFlow tf "
+                        + "left join tf.targets tft "
+                        + "with tft.locale.localeId = :localeId "
+                        + "where tf.obsolete = false "
+                        + "and tf.document.id in (:documentIds) "
+                        + "order by tf.document.id, tf.pos")
+                .setParameterList("documentIds", documentIds)
+                .setParameter("localeId", localeId)
+                .setReadOnly(true)
+                .setFetchSize(VALIDATION_FETCH_SIZE)
+                .setComment("TextFlowDAO.getContentsForValidation")
+                .scroll(ScrollMode.FORWARD_ONLY);
+        try {
+            while (rows.next()) {
+                Object[] row = rows.get();
+                result.get(row[0]).add(toValidationRow(row, 1));
+            }
+        } finally {
+            rows.close();
+        }
+        return result;
+    }
+
+    /**
+     * Returns the source and target contents of the given targets, as rows
+     * of (text flow id, target id, source contents, target contents), in no
+     * particular order.
+     *
+     * @param targetIds
+     *            text flow target ids
+     */
+    @SuppressWarnings("unchecked")
+    public List<Object[]> getTargetContentsForValidation(
+            Collection<Long> targetIds) {
+        List<Object[]> result =
+                Lists.newArrayListWithCapacity(targetIds.size());
+        if (targetIds.isEmpty()) {
+            return result;
+        }
+        List<Object[]> rows = getSession()
+                .createQuery("select tf.id, " + VALIDATION_CONTENTS
+                        + "from HTextFlowTarget tft join tft.textFlow tf "
+                        + "where tft.id in (:targetIds)")
+                .setParameterList("targetIds", targetIds)
+                .setReadOnly(true)
+                .setComment("TextFlowDAO.getTargetContentsForValidation")
+                .list();
+        for (Object[] row : rows) {
+            result.add(toValidationRow(row, 0));
+        }
+        return result;
+    }
+
+    /**
+     * Converts the columns of {@link #VALIDATION_CONTENTS}, preceded by the
+     * text flow id at the given position, to (text flow id, target id, source
+     * contents, target contents).
+     */
+    private static Object[] toValidationRow(Object[] row, int textFlowIdCol) {
+        int sourceCol = textFlowIdCol + 1;
+        int targetIdCol = sourceCol + HasContents.MAX_PLURALS;
+        Long targetId = (Long) row[targetIdCol];
+        return new Object[] { row[textFlowIdCol], targetId,
+                toContents(row, sourceCol),
+                targetId == null ? null : toContents(row, targetIdCol + 1) };
+    }
+
+    /**
+     * Collects the plural forms in the columns starting at the given
+     * position, without trailing nulls (as in HTextFlow.getContents()).
+     */
+    private static List<String> toContents(Object[] row, int firstCol) {
+        int count = HasContents.MAX_PLURALS;
+        while (count > 0 && row[firstCol + count - 1] == null) {
+            count--;
+        }
+        List<String> contents = Lists.newArrayListWithCapacity(count);
+        for (int i = 0; i < count; i++) {
+            contents.add((String) row[firstCol + i]);
+        }
+        return contents;
+    }
+
     /**
      * for a given locale, we can filter it by content state or search in source
      * and target.
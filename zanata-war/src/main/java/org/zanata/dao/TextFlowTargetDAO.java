@@ -1,11 +1,23 @@
 package org.zanata.dao;
 
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.Nullable;
 
 import org.hibernate.Query;
 import org.hibernate.SQLQuery;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
 import org.hibernate.Session;
+import org.hibernate.type.LongType;
+import org.hibernate.type.StringType;
+import org.hibernate.type.TimestampType;
 
 import javax.enterprise.context.RequestScoped;
 import javax.inject.Named;
@@ -18,15 +30,29 @@ import org.zanata.model.HProject;
 import org.zanata.model.HProjectIteration;
 import org.zanata.model.HTextFlow;
 import org.zanata.model.HTextFlowTarget;
+import org.zanata.search.BestMatchSelector;
 import org.zanata.service.TranslationFinder;
 
 import com.google.common.base.Optional;
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.primitives.Longs;
 
 @Named("textFlowTargetDAO")
 @RequestScoped
 public class TextFlowTargetDAO extends AbstractDAOImpl<HTextFlowTarget, Long>
         implements TranslationFinder {
 
+    /**
+     * Maximum number of content hashes (or ids) in a single IN clause for
+     * batched TM lookups.
+     */
+    private static final int BEST_MATCH_BATCH_SIZE = 500;
+
     public TextFlowTargetDAO() {
         super(HTextFlowTarget.class);
     }
@@ -203,6 +229,40 @@ public class TextFlowTargetDAO extends AbstractDAOImpl<HTextFlowTarget, Long>
         return q.list();
     }
 
+    /**
+     * Finds non-obsolete translations for several documents in 'locale', with
+     * the text flow, document, comment and translator fetched.
+     *
+     * @param documentIds
+     *            ids of the documents
+     * @param locale
+     *            locale of the translations
+     * @return translations ordered by document and text flow position
+     */
+    @SuppressWarnings("unchecked")
+    public List<HTextFlowTarget> findTranslations(
+            Collection<Long> documentIds, HLocale locale) {
+        if (documentIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Query q =
+                getSession().createQuery(
+                        "from HTextFlowTarget tft "
+                                + "join fetch tft.textFlow tf "
+                                + "join fetch tf.document doc "
+                                + "left join fetch tft.comment "
+                                + "left join fetch tft.translator "
+                                + "where doc.id in (:documentIds) "
+                                + "and tf.obsolete = false "
+                                + "and tft.locale = :locale "
+                                + "order by doc.id, tf.pos");
+        q.setParameterList("documentIds", documentIds);
+        q.setParameter("locale", locale);
+        q.setReadOnly(true);
+        q.setComment("TextFlowTargetDAO.findTranslations");
+        return q.list();
+    }
+
     /**
      * Finds the best matching translations for a single text flow and a locale.
      * Other parameters (context, document id, and project) can also influence
@@ -274,6 +334,352 @@ public class TextFlowTargetDAO extends AbstractDAOImpl<HTextFlowTarget, Long>
         return Optional.fromNullable((HTextFlowTarget) sqlQuery.uniqueResult());
     }
 
+    /**
+     * Batch version of
+     * {@link #searchBestMatchTransMemory(HTextFlow, LocaleId, LocaleId, boolean, boolean, boolean)}
+     * which looks up matches for many text flows and locales at once.
+     *
+     * @return the best match for each text flow id, by target locale. Text
+     *         flows without a match in any of the locales are not included.
+     */
+    public Map<Long, Map<LocaleId, HTextFlowTarget>> searchBestMatchTransMemory(
+            List<HTextFlow> textFlows, Set<LocaleId> targetLocaleIds,
+            LocaleId sourceLocaleId, boolean checkContext,
+            boolean checkDocument, boolean checkProject) {
+        Map<Long, Map<LocaleId, HTextFlowTarget>> result = Maps.newHashMap();
+        if (textFlows.isEmpty() || targetLocaleIds.isEmpty()) {
+            return result;
+        }
+        ListMultimap<String, BestMatchSelector.Source> sourcesByHash =
+                ArrayListMultimap.create();
+        Set<Long> projectIds = Sets.newHashSet();
+        Set<String> docIds = Sets.newHashSet();
+        for (HTextFlow textFlow : textFlows) {
+            BestMatchSelector.Source source =
+                    BestMatchSelector.Source.of(textFlow);
+            sourcesByHash.put(source.getContentHash(), source);
+            projectIds.add(source.getProjectId());
+            docIds.add(source.getDocId());
+        }
+        // when every text flow shares the restriction, let the database
+        // apply it
+        Long restrictProject = checkProject && projectIds.size() == 1
+                ? projectIds.iterator().next() : null;
+        String restrictDocument = checkDocument && docIds.size() == 1
+                ? docIds.iterator().next() : null;
+
+        // rank groups of alike candidates rather than every candidate, one
+        // chunk of content hashes at a time, then look up the target ids of
+        // just the winning groups
+        Map<Long, Map<LocaleId, Long>> bestIds = Maps.newHashMap();
+        Set<Long> targetIds = Sets.newHashSet();
+        for (List<String> hashes : Iterables.partition(
+                sourcesByHash.keySet(), BEST_MATCH_BATCH_SIZE)) {
+            BestMatchGroups groups = new BestMatchGroups();
+            for (String hash : hashes) {
+                groups.addSources(sourcesByHash.get(hash));
+            }
+            BestMatchSelector selector =
+                    new BestMatchSelector(checkContext, checkDocument,
+                            checkProject);
+            for (BestMatchSelector.Candidate group : findBestMatchGroups(
+                    hashes, targetLocaleIds, groups, restrictProject,
+                    restrictDocument)) {
+                selector.addCandidate(group);
+            }
+
+            // source text flow id -> locale -> winning group
+            Map<Long, Map<LocaleId, BestMatchSelector.Candidate>> winners =
+                    Maps.newHashMap();
+            Set<Date> winningDates = Sets.newHashSet();
+            for (String hash : hashes) {
+                for (BestMatchSelector.Source source : sourcesByHash
+                        .get(hash)) {
+                    Map<LocaleId, BestMatchSelector.Candidate> best =
+                            selector.selectBestMatches(source);
+                    if (!best.isEmpty()) {
+                        winners.put(source.getTextFlowId(), best);
+                        for (BestMatchSelector.Candidate group : best
+                                .values()) {
+                            winningDates.add(group.getLastChanged());
+                        }
+                    }
+                }
+            }
+            if (winners.isEmpty()) {
+                continue;
+            }
+            Map<List<Object>, Long> winnerIds =
+                    resolveBestMatchGroups(hashes, targetLocaleIds, groups,
+                            winningDates, restrictProject, restrictDocument);
+            for (Map.Entry<Long, Map<LocaleId, BestMatchSelector.Candidate>> entry : winners
+                    .entrySet()) {
+                Map<LocaleId, Long> ids = Maps.newHashMap();
+                for (Map.Entry<LocaleId, BestMatchSelector.Candidate> best : entry
+                        .getValue().entrySet()) {
+                    Long targetId = winnerIds.get(
+                            BestMatchGroups.keyOf(best.getValue()));
+                    if (targetId != null) {
+                        ids.put(best.getKey(), targetId);
+                        targetIds.add(targetId);
+                    }
+                }
+                if (!ids.isEmpty()) {
+                    bestIds.put(entry.getKey(), ids);
+                }
+            }
+        }
+
+        // now load only the winning targets
+        Map<Long, HTextFlowTarget> targetsById = Maps.newHashMap();
+        for (List<Long> ids : Iterables.partition(targetIds,
+                BEST_MATCH_BATCH_SIZE)) {
+            @SuppressWarnings("unchecked")
+            List<HTextFlowTarget> targets = getSession()
+                    .createQuery("from HTextFlowTarget where id in (:ids)")
+                    .setParameterList("ids", ids)
+                    .setComment(
+                            "TextFlowTargetDAO.searchBestMatchTransMemory(load)")
+                    .list();
+            for (HTextFlowTarget target : targets) {
+                targetsById.put(target.getId(), target);
+            }
+        }
+        for (Map.Entry<Long, Map<LocaleId, Long>> entry : bestIds.entrySet()) {
+            Map<LocaleId, HTextFlowTarget> matches = Maps.newHashMap();
+            for (Map.Entry<LocaleId, Long> idEntry : entry.getValue()
+                    .entrySet()) {
+                HTextFlowTarget target = targetsById.get(idEntry.getValue());
+                if (target != null) {
+                    matches.put(idEntry.getKey(), target);
+                }
+            }
+            if (!matches.isEmpty()) {
+                result.put(entry.getKey(), matches);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Finds the most recent translated/approved target in each group of
+     * targets which are alike as far as ranking for the batch is concerned.
+     * A resId, docId or project id which no text flow in the batch has is
+     * replaced by null (it can only ever count as a mismatch), as is the text
+     * flow id of any target which is not itself in the batch. This bounds the
+     * number of candidates per content hash by the size of the batch, rather
+     * than by the number of matching targets in the database.
+     *
+     * @return one candidate per group, without a target id
+     */
+    @NativeQuery
+    private List<BestMatchSelector.Candidate> findBestMatchGroups(
+            List<String> hashes, Set<LocaleId> targetLocaleIds,
+            BestMatchGroups groups, @Nullable Long restrictProject,
+            @Nullable String restrictDocument) {
+        StringBuilder queryBuilder = new StringBuilder();
+        queryBuilder
+                .append("SELECT c.contentHash, c.localeId, c.resId, c.docId, ")
+                .append("c.projectId, c.textFlowId, ")
+                .append("MAX(c.lastChanged) AS lastChanged FROM (")
+                .append("SELECT tf.contentHash AS contentHash, ")
+                .append("locale.localeId AS localeId, ")
+                .append("CASE WHEN tf.resId IN (:resIds) THEN tf.resId END AS resId, ")
+                .append("CASE WHEN hDoc.docId IN (:docIds) THEN hDoc.docId END AS docId, ")
+                .append("CASE WHEN project.id IN (:projectIds) THEN project.id END AS projectId, ")
+                .append("CASE WHEN tf.id IN (:textFlowIds) THEN tf.id END AS textFlowId, ")
+                .append("tft.lastChanged AS lastChanged ")
+                .append("FROM HTextFlowTarget tft ")
+                .append("JOIN HTextFlow tf ON tf.id = tft.tf_id ")
+                .append("JOIN HLocale locale ON locale.id = tft.locale ")
+                .append("JOIN HDocument hDoc ON hDoc.id = tf.document_id ")
+                .append("JOIN HProjectIteration iter ON iter.id = hDoc.project_iteration_id ")
+                .append("JOIN HProject project ON project.id = iter.project_id ")
+                .append("WHERE tf.contentHash IN (:contentHashes) ")
+                .append("AND locale.localeId IN (:localeIds) ")
+                .append("AND tft.state in (2, 3) AND iter.status <> 'O' AND project.status <> 'O' ");
+        if (restrictProject != null) {
+            queryBuilder.append("AND project.id = :projectId ");
+        }
+        if (restrictDocument != null) {
+            queryBuilder.append("AND hDoc.docId = :docId ");
+        }
+        queryBuilder
+                .append(") c ")
+                .append("GROUP BY c.contentHash, c.localeId, c.resId, c.docId, ")
+                .append("c.projectId, c.textFlowId ")
+                .append("ORDER BY c.contentHash, c.localeId, c.resId, c.docId, ")
+                .append("c.projectId, c.textFlowId");
+        SQLQuery query =
+                getSession().createSQLQuery(queryBuilder.toString());
+        query.setParameterList("resIds", groups.resIds)
+                .setParameterList("docIds", groups.docIds)
+                .setParameterList("projectIds", groups.projectIds)
+                .setParameterList("textFlowIds", groups.textFlowIds)
+                .setParameterList("contentHashes", hashes)
+                .setParameterList("localeIds", toLocaleIdStrings(targetLocaleIds))
+                .setComment("TextFlowTargetDAO.searchBestMatchTransMemory(groups)");
+        if (restrictProject != null) {
+            query.setParameter("projectId", restrictProject);
+        }
+        if (restrictDocument != null) {
+            query.setParameter("docId", restrictDocument);
+        }
+        query.addScalar("contentHash", StringType.INSTANCE)
+                .addScalar("localeId", StringType.INSTANCE)
+                .addScalar("resId", StringType.INSTANCE)
+                .addScalar("docId", StringType.INSTANCE)
+                .addScalar("projectId", LongType.INSTANCE)
+                .addScalar("textFlowId", LongType.INSTANCE)
+                .addScalar("lastChanged", TimestampType.INSTANCE);
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = query.list();
+        List<BestMatchSelector.Candidate> candidates =
+                Lists.newArrayListWithCapacity(rows.size());
+        for (Object[] row : rows) {
+            candidates.add(new BestMatchSelector.Candidate(null,
+                    (Long) row[5], (String) row[0],
+                    new LocaleId((String) row[1]), (String) row[2],
+                    (String) row[3], (Long) row[4], (Date) row[6]));
+        }
+        return candidates;
+    }
+
+    /**
+     * Finds the targets which make up the winning groups from
+     * {@link #findBestMatchGroups}, by looking up only the targets changed at
+     * one of the winning times.
+     *
+     * @return target id by group key (see {@link BestMatchGroups#keyOf}).
+     *         When several targets in a group were changed at the same time,
+     *         the one with the highest id is chosen, as in
+     *         {@link BestMatchSelector}.
+     */
+    private Map<List<Object>, Long> resolveBestMatchGroups(
+            List<String> hashes, Set<LocaleId> targetLocaleIds,
+            BestMatchGroups groups, Set<Date> lastChangedDates,
+            @Nullable Long restrictProject, @Nullable String restrictDocument) {
+        List<Date> dates = Lists.newArrayList(lastChangedDates);
+        boolean includeUnchanged = dates.remove(null);
+        StringBuilder queryBuilder = new StringBuilder();
+        queryBuilder
+                .append("select tft.id, tf.id, tf.contentHash, ")
+                .append("tft.locale.localeId, tf.resId, doc.docId, ")
+                .append("project.id, tft.lastChanged ")
+                .append("from HTextFlowTarget tft ")
+                .append("join tft.textFlow tf ")
+                .append("join tf.document doc ")
+                .append("join doc.projectIteration iter ")
+                .append("join iter.project project ")
+                .append("where tf.contentHash in (:contentHashes) ")
+                .append("and tft.locale.localeId in (:localeIds) ")
+                .append("and tft.state in (:states) ")
+                .append("and iter.status <> :obsolete ")
+                .append("and project.status <> :obsolete ");
+        if (dates.isEmpty()) {
+            queryBuilder.append("and tft.lastChanged is null ");
+        } else if (includeUnchanged) {
+            queryBuilder.append("and (tft.lastChanged in (:lastChanged) ")
+                    .append("or tft.lastChanged is null) ");
+        } else {
+            queryBuilder.append("and tft.lastChanged in (:lastChanged) ");
+        }
+        if (restrictProject != null) {
+            queryBuilder.append("and project.id = :projectId ");
+        }
+        if (restrictDocument != null) {
+            queryBuilder.append("and doc.docId = :docId ");
+        }
+        Query query = getSession().createQuery(queryBuilder.toString())
+                .setParameterList("contentHashes", hashes)
+                .setParameterList("localeIds", targetLocaleIds)
+                .setParameterList("states", Lists.newArrayList(
+                        ContentState.Translated, ContentState.Approved))
+                .setParameter("obsolete", EntityStatus.OBSOLETE)
+                .setComment(
+                        "TextFlowTargetDAO.searchBestMatchTransMemory(resolve)");
+        if (!dates.isEmpty()) {
+            query.setParameterList("lastChanged", dates);
+        }
+        if (restrictProject != null) {
+            query.setParameter("projectId", restrictProject);
+        }
+        if (restrictDocument != null) {
+            query.setParameter("docId", restrictDocument);
+        }
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = query.list();
+        Map<List<Object>, Long> targetIds = Maps.newHashMap();
+        for (Object[] row : rows) {
+            Long targetId = (Long) row[0];
+            List<Object> key = BestMatchGroups.keyOf(groups.groupOf(
+                    new BestMatchSelector.Candidate(targetId, (Long) row[1],
+                            (String) row[2], (LocaleId) row[3],
+                            (String) row[4], (String) row[5],
+                            (Long) row[6], (Date) row[7])));
+            Long current = targetIds.get(key);
+            if (current == null || current < targetId) {
+                targetIds.put(key, targetId);
+            }
+        }
+        return targetIds;
+    }
+
+    private static List<String> toLocaleIdStrings(Set<LocaleId> localeIds) {
+        List<String> ids = Lists.newArrayListWithCapacity(localeIds.size());
+        for (LocaleId localeId : localeIds) {
+            ids.add(localeId.getId());
+        }
+        return ids;
+    }
+
+    /**
+     * The resIds, docIds, project ids and text flow ids of a batch of text
+     * flows, which decide how candidate targets are grouped.
+     */
+    private static final class BestMatchGroups {
+        private final Set<String> resIds = Sets.newHashSet();
+        private final Set<String> docIds = Sets.newHashSet();
+        private final Set<Long> projectIds = Sets.newHashSet();
+        private final Set<Long> textFlowIds = Sets.newHashSet();
+
+        void addSources(Collection<BestMatchSelector.Source> sources) {
+            for (BestMatchSelector.Source source : sources) {
+                resIds.add(source.getResId());
+                docIds.add(source.getDocId());
+                projectIds.add(source.getProjectId());
+                textFlowIds.add(source.getTextFlowId());
+            }
+        }
+
+        /**
+         * @return the group which the given target belongs to, as returned
+         *         by {@link #findBestMatchGroups}
+         */
+        BestMatchSelector.Candidate groupOf(
+                BestMatchSelector.Candidate target) {
+            return new BestMatchSelector.Candidate(null,
+                    textFlowIds.contains(target.getTextFlowId())
+                            ? target.getTextFlowId() : null,
+                    target.getContentHash(), target.getLocaleId(),
+                    resIds.contains(target.getResId())
+                            ? target.getResId() : null,
+                    docIds.contains(target.getDocId())
+                            ? target.getDocId() : null,
+                    projectIds.contains(target.getProjectId())
+                            ? target.getProjectId() : null,
+                    target.getLastChanged());
+        }
+
+        static List<Object> keyOf(BestMatchSelector.Candidate group) {
+            Date lastChanged = group.getLastChanged();
+            return Arrays.<Object> asList(group.getContentHash(),
+                    group.getLocaleId(), group.getResId(), group.getDocId(),
+                    group.getProjectId(), group.getTextFlowId(),
+                    lastChanged == null ? null : lastChanged.getTime());
+        }
+    }
+
     /**
      * Look up the {@link HTextFlowTarget} for the given hLocale in hTextFlow,
      * creating a new one if none is present.
@@ -358,6 +764,33 @@ public class TextFlowTargetDAO extends AbstractDAOImpl<HTextFlowTarget, Long>
         return query.list();
     }
 
+    /**
+     * @return the latest change to any of the given targets or their
+     *         comments, or null if none of them exist
+     */
+    public @Nullable Date getLastChanged(Collection<Long> targetIds) {
+        if (targetIds.isEmpty()) {
+            return null;
+        }
+        Object[] result =
+                (Object[]) getSession()
+                        .createQuery(
+                                "select max(tft.lastChanged), max(c.lastChanged) "
+                                        + "from HTextFlowTarget tft "
+                                        + "left join tft.comment c "
+                                        + "where tft.id in (:targetIds)")
+                        .setParameterList("targetIds", targetIds)
+                        .setComment("TextFlowTargetDAO.getLastChanged")
+                        .uniqueResult();
+        Date targetChanged = (Date) result[0];
+        Date commentChanged = (Date) result[1];
+        if (targetChanged == null || commentChanged != null
+                && commentChanged.after(targetChanged)) {
+            return commentChanged;
+        }
+        return targetChanged;
+    }
+
     public HTextFlowTarget getTextFlowTarget(HTextFlow hTextFlow,
             LocaleId localeId) {
         HTextFlowTarget hTextFlowTarget =
@@ -471,4 +904,35 @@ public class TextFlowTargetDAO extends AbstractDAOImpl<HTextFlowTarget, Long>
                                 "TextFlowTargetDAO.getTranslationCandidateCountWithProjectAndLocale");
         return (Long) query.uniqueResult();
     }
+
+    /**
+     * @param documentId
+     *            document id (NOT the String type docId)
+     * @param localeId
+     *            id of the HLocale
+     * @return the ids of the document's active text flows which have a
+     *         target in the locale, in ascending order
+     */
+    public long[] getTextFlowIdsWithTarget(Long documentId, Long localeId) {
+        List<Long> textFlowIds = Lists.newArrayList();
+        ScrollableResults results = getSession()
+                .createQuery("select tft.textFlow.id from HTextFlowTarget tft "
+                        + "where tft.textFlow.document.id = :documentId "
+                        + "and tft.textFlow.obsolete = false "
+                        + "and tft.locale.id = :localeId "
+                        + "order by tft.textFlow.id")
+                .setParameter("documentId", documentId)
+                .setParameter("localeId", localeId)
+                .setReadOnly(true)
+                .setComment("TextFlowTargetDAO.getTextFlowIdsWithTarget")
+                .scroll(ScrollMode.FORWARD_ONLY);
+        try {
+            while (results.next()) {
+                textFlowIds.add(results.getLong(0));
+            }
+        } finally {
+            results.close();
+        }
+        return Longs.toArray(textFlowIds);
+    }
 }
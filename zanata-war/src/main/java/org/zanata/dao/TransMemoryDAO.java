@@ -20,7 +20,9 @@
  */
 package org.zanata.dao;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
@@ -38,6 +40,7 @@ import org.zanata.jpa.FullText;
 import org.zanata.model.tm.TransMemory;
 import org.zanata.model.tm.TransMemoryUnit;
 import com.google.common.base.Optional;
+import com.google.common.collect.Maps;
 
 /**
  * Data Access Object for Translation Memory and related entities.
@@ -140,6 +143,30 @@ public class TransMemoryDAO extends AbstractDAOImpl<TransMemory, Long> {
                 .setCacheable(false).uniqueResult();
     }
 
+    /**
+     * Finds the translation units with the given unique ids in one query.
+     *
+     * @return a mutable map of unique id to translation unit, containing only
+     *         the units which exist
+     */
+    @SuppressWarnings("unchecked")
+    public Map<String, TransMemoryUnit> findTranslationUnits(
+            @Nonnull String tmSlug, @Nonnull Collection<String> uniqueIds) {
+        Map<String, TransMemoryUnit> units = Maps.newHashMap();
+        if (uniqueIds.isEmpty()) {
+            return units;
+        }
+        List<TransMemoryUnit> results = getSession()
+                .createQuery(
+                        "from TransMemoryUnit tu where tu.uniqueId in (:uniqueIds) and tu.translationMemory.slug = :tmSlug")
+                .setParameterList("uniqueIds", uniqueIds)
+                .setString("tmSlug", tmSlug).setCacheable(false).list();
+        for (TransMemoryUnit unit : results) {
+            units.put(unit.getUniqueId(), unit);
+        }
+        return units;
+    }
+
     public long getTranslationMemorySize(@Nonnull String tmSlug) {
         return (Long) getSession()
                 .createQuery(
@@ -2,9 +2,9 @@ package org.zanata.limits;
 
 import java.util.Collection;
 import java.util.Map;
-import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import com.google.common.annotations.VisibleForTesting;
 import lombok.AccessLevel;
@@ -18,13 +18,13 @@ import org.zanata.async.Async;
 import org.zanata.events.ConfigurationChanged;
 import org.zanata.util.Introspectable;
 import com.google.common.base.Function;
-import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.zanata.util.ServiceLocator;
+import org.zanata.util.SysProperties;
 
 import javax.enterprise.event.Observes;
 import javax.enterprise.event.TransactionPhase;
@@ -41,8 +41,21 @@ public class RateLimitManager implements Introspectable {
 
     public static final String INTROSPECTABLE_FIELD_RATE_LIMITERS =
             "RateLimiters";
-    private final Cache<RateLimiterToken, RestCallLimiter> activeCallers = CacheBuilder
-            .newBuilder().maximumSize(100).build();
+    // how often to look for idle limiters
+    private static final long SWEEP_INTERVAL_NANOS =
+            TimeUnit.MINUTES.toNanos(1);
+
+    // one limiter per active caller; idle limiters are swept away, so the
+    // map is only as big as the number of recent callers
+    private final ConcurrentMap<RateLimiterToken, RestCallLimiter> activeCallers =
+            Maps.newConcurrentMap();
+    private final AtomicLong nextSweep =
+            new AtomicLong(System.nanoTime() + SWEEP_INTERVAL_NANOS);
+    private final long idleExpiryNanos = TimeUnit.MINUTES.toNanos(SysProperties
+            .getLong(SysProperties.RATE_LIMIT_IDLE_EXPIRY_MINUTES, 10));
+    // a system property, so it is only read at startup
+    private final boolean rejectWhenBusy =
+            Boolean.getBoolean(SysProperties.RATE_LIMIT_REJECT_WHEN_BUSY);
 
     @Getter(AccessLevel.PROTECTED)
     @VisibleForTesting
@@ -50,7 +63,6 @@ public class RateLimitManager implements Introspectable {
     @Getter(AccessLevel.PROTECTED)
     @VisibleForTesting
     private int maxActive;
-
     @Inject
     private ApplicationConfiguration appConfig;
 
@@ -90,8 +102,7 @@ public class RateLimitManager implements Introspectable {
             changed = true;
         }
         if (changed) {
-            for (RestCallLimiter restCallLimiter : activeCallers.asMap()
-                    .values()) {
+            for (RestCallLimiter restCallLimiter : activeCallers.values()) {
                 restCallLimiter.changeConfig(maxConcurrent, maxActive);
             }
         }
@@ -118,8 +129,7 @@ public class RateLimitManager implements Introspectable {
     }
 
     private Iterable<String> peekCurrentBuckets() {
-        ConcurrentMap<RateLimiterToken, RestCallLimiter> map = activeCallers.asMap();
-        return Iterables.transform(map.entrySet(),
+        return Iterables.transform(activeCallers.entrySet(),
                 new Function<Map.Entry<RateLimiterToken, RestCallLimiter>, String>() {
 
                     @Override
@@ -138,23 +148,48 @@ public class RateLimitManager implements Introspectable {
     public RestCallLimiter getLimiter(final RateLimiterToken key) {
 
         if (getMaxConcurrent() == 0 && getMaxActive() == 0) {
-            if (activeCallers.size() > 0) {
-                activeCallers.invalidateAll();
+            if (!activeCallers.isEmpty()) {
+                activeCallers.clear();
             }
             // short circuit if we don't want limiting
             return NoLimitLimiter.INSTANCE;
         }
-        try {
-            return activeCallers.get(key, new Callable<RestCallLimiter>() {
-                @Override
-                public RestCallLimiter call() throws Exception {
-                    log.debug("creating rate limiter for key: {}", key);
-                    return new RestCallLimiter(getMaxConcurrent(),
-                            getMaxActive());
+        sweepIdleLimitersIfDue();
+        // reserve the limiter while holding the map entry, so that a
+        // concurrent sweep can't remove it before the caller uses it
+        return activeCallers.compute(key, (k, limiter) -> {
+            if (limiter == null) {
+                log.debug("creating rate limiter for key: {}", k);
+                limiter = new RestCallLimiter(getMaxConcurrent(),
+                        getMaxActive(), rejectWhenBusy);
+            }
+            limiter.reserve();
+            return limiter;
+        });
+    }
+
+    /**
+     * Removes limiters which have not been used for a while. At most one
+     * caller per interval does the sweep; everyone else returns immediately.
+     */
+    private void sweepIdleLimitersIfDue() {
+        long now = System.nanoTime();
+        long due = nextSweep.get();
+        if (now - due < 0
+                || !nextSweep.compareAndSet(due, now + SWEEP_INTERVAL_NANOS)) {
+            return;
+        }
+        long idleSince = now - idleExpiryNanos;
+        for (RateLimiterToken key : activeCallers.keySet()) {
+            // checked while holding the map entry, so getLimiter can't reserve
+            // the limiter between the check and the removal
+            activeCallers.computeIfPresent(key, (k, limiter) -> {
+                if (limiter.isIdleSince(idleSince)) {
+                    log.debug("removed idle rate limiter for key: {}", k);
+                    return null;
                 }
+                return limiter;
             });
-        } catch (ExecutionException e) {
-            throw new RuntimeException(e);
         }
     }
 
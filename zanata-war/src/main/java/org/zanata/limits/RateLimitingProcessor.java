@@ -22,6 +22,8 @@ import javax.servlet.http.HttpServletResponse;
 public class RateLimitingProcessor {
     // http://tools.ietf.org/html/rfc6585
     public static final int TOO_MANY_REQUEST = 429;
+    // seconds a rejected client is asked to wait before retrying
+    static final int RETRY_AFTER_SECONDS = 1;
     private RateLimitManager rateLimitManager;
 
     // for seam to use
@@ -29,7 +31,7 @@ public class RateLimitingProcessor {
         rateLimitManager = RateLimitManager.getInstance();
     }
 
-    private final LeakyBucket logLimiter = new LeakyBucket(1, 5,
+    private final TokenBucket logLimiter = new TokenBucket(1, 5,
             TimeUnit.MINUTES);
 
     public void processForApiKey(String apiKey, HttpServletResponse response,
@@ -53,25 +55,33 @@ public class RateLimitingProcessor {
 
         log.debug("check semaphore for {}", this);
 
-        if (!rateLimiter.tryAcquireAndRun(taskToRun)) {
+        RestCallLimiter.Result result = rateLimiter.tryAcquireAndRun(taskToRun);
+        if (result != RestCallLimiter.Result.RAN) {
+            boolean concurrent =
+                    result == RestCallLimiter.Result.CONCURRENT_LIMIT;
+            String limitName = concurrent ? "concurrent" : "active";
+            int maximum = concurrent ? rateLimiter.getMaxConcurrentPermits()
+                    : rateLimiter.getMaxActivePermits();
             if (logLimiter.tryAcquire()) {
                 log.warn(
-                        "{} has too many concurrent requests. Returning status 429",
-                        key);
+                        "{} has too many {} requests. Returning status 429",
+                        key, limitName);
             }
 
             String errorMessage;
             if (key.getType().equals(RateLimiterToken.TYPE.API_KEY)) {
                 errorMessage =
                         String.format(
-                                "Too many concurrent requests for client API key (maximum is %d)",
-                                rateLimiter.getMaxConcurrentPermits());
+                                "Too many %s requests for client API key (maximum is %d)",
+                                limitName, maximum);
             } else  {
                 errorMessage =
                         String.format(
-                                "Too many concurrent requests for client '%s' (maximum is %d)",
-                                key.getValue(), rateLimiter.getMaxConcurrentPermits());
+                                "Too many %s requests for client '%s' (maximum is %d)",
+                                limitName, key.getValue(), maximum);
             }
+            response.setHeader("Retry-After",
+                    String.valueOf(RETRY_AFTER_SECONDS));
             response.sendError(TOO_MANY_REQUEST, errorMessage);
         }
     }
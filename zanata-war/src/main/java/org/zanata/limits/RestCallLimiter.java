@@ -2,6 +2,7 @@ package org.zanata.limits;
 
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Objects;
@@ -15,10 +16,29 @@ import org.zanata.util.RunnableEx;
  */
 @Slf4j
 class RestCallLimiter {
+    /**
+     * Outcome of {@link #tryAcquireAndRun(RunnableEx)}.
+     */
+    enum Result {
+        /** the task was run */
+        RAN,
+        /** rejected: too many concurrent requests */
+        CONCURRENT_LIMIT,
+        /** rejected: too many active requests (when rejecting busy requests) */
+        ACTIVE_LIMIT
+    }
+
     private volatile Semaphore maxConcurrentSemaphore;
     private volatile Semaphore maxActiveSemaphore;
     private int maxConcurrent;
     private int maxActive;
+    private final boolean rejectWhenBusy;
+    // callers which have been handed this limiter but haven't called
+    // tryAcquireAndRun yet
+    private final AtomicInteger reserved = new AtomicInteger();
+    // requests which are currently inside tryAcquireAndRun
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile long lastUsed = System.nanoTime();
 
     /**
      * Creates a limiter which limits maximum concurrent requests and maximum
@@ -34,8 +54,19 @@ class RestCallLimiter {
      *            maximum allowed active requests/threads for a single user.
      */
     RestCallLimiter(int maxConcurrent, int maxActive) {
+        this(maxConcurrent, maxActive, false);
+    }
+
+    /**
+     * @param rejectWhenBusy
+     *            if true, a request which can't get an [active] permit
+     *            straight away is rejected rather than blocked
+     * @see #RestCallLimiter(int, int)
+     */
+    RestCallLimiter(int maxConcurrent, int maxActive, boolean rejectWhenBusy) {
         this.maxConcurrent = maxConcurrent;
         this.maxActive = maxActive;
+        this.rejectWhenBusy = rejectWhenBusy;
         this.maxConcurrentSemaphore = makeSemaphore(maxConcurrent);
         this.maxActiveSemaphore = makeSemaphore(maxActive);
     }
@@ -49,34 +80,64 @@ class RestCallLimiter {
     /**
      * This method is potentially blocking on available active permits. It may
      * throw an exception if it takes too long to obtain one of the semaphores.
-     * It may immediately return false if there is not enough concurrent
-     * permits.
+     * It may immediately reject the request if there is not enough concurrent
+     * permits, or (when rejecting busy requests) not enough active permits.
      *
      * @param taskAfterAcquire
      *            task to perform after acquire
+     * @return whether the task was run, or which limit rejected it
      */
-    public boolean tryAcquireAndRun(RunnableEx taskAfterAcquire)
+    public Result tryAcquireAndRun(RunnableEx taskAfterAcquire)
             throws Exception {
-        // hang on to the semaphore, so that we can be certain of
-        // releasing the same one we acquired
-        final Semaphore concSem = maxConcurrentSemaphore;
-        boolean gotConcurrentPermit = concSem.tryAcquire();
-        if (gotConcurrentPermit) {
+        inFlight.incrementAndGet();
+        // the reservation (if any) is now covered by inFlight
+        reserved.updateAndGet(n -> n > 0 ? n - 1 : 0);
+        try {
+            lastUsed = System.nanoTime();
+            // hang on to the semaphore, so that we can be certain of
+            // releasing the same one we acquired
+            final Semaphore concSem = maxConcurrentSemaphore;
+            if (!concSem.tryAcquire()) {
+                log.debug("failed to acquire [concurrent] permit");
+                return Result.CONCURRENT_LIMIT;
+            }
             // if acquired, immediately enter try finally (release)
             try {
                 log.debug("acquired [concurrent] permit");
-                if (!acquireActivePermit(taskAfterAcquire)) {
-                    throw new RuntimeException(
-                            "Couldn't get an [active] permit before timeout");
+                if (acquireActivePermit(taskAfterAcquire)) {
+                    return Result.RAN;
                 }
+                if (rejectWhenBusy) {
+                    log.debug("failed to acquire [active] permit");
+                    return Result.ACTIVE_LIMIT;
+                }
+                throw new RuntimeException(
+                        "Couldn't get an [active] permit before timeout");
             } finally {
                 concSem.release();
                 log.debug("released [concurrent] semaphore");
             }
-        } else {
-            log.debug("failed to acquire [concurrent] permit");
+        } finally {
+            lastUsed = System.nanoTime();
+            inFlight.decrementAndGet();
         }
-        return gotConcurrentPermit;
+    }
+
+    /**
+     * Marks this limiter as about to be used, so that it won't be considered
+     * idle until the caller has called {@link #tryAcquireAndRun(RunnableEx)}.
+     */
+    void reserve() {
+        reserved.incrementAndGet();
+    }
+
+    /**
+     * @return true if no request is using this limiter, and none has since
+     *         the given {@link System#nanoTime()}
+     */
+    boolean isIdleSince(long nanoTime) {
+        return reserved.get() == 0 && inFlight.get() == 0
+                && lastUsed - nanoTime <= 0;
     }
 
     private boolean acquireActivePermit(RunnableEx taskAfterAcquire)
@@ -86,7 +147,8 @@ class RestCallLimiter {
             // hang on to the semaphore, so that we can be certain of
             // releasing the same one we acquired
             final Semaphore activeSem = maxActiveSemaphore;
-            boolean gotActivePermit = activeSem.tryAcquire(5, TimeUnit.MINUTES);
+            boolean gotActivePermit = rejectWhenBusy ? activeSem.tryAcquire()
+                    : activeSem.tryAcquire(5, TimeUnit.MINUTES);
             if (gotActivePermit) {
                 // if acquired, immediately enter try finally (release)
                 try {
@@ -179,6 +241,10 @@ class RestCallLimiter {
         return maxConcurrent;
     }
 
+    public int getMaxActivePermits() {
+        return maxActive;
+    }
+
     /**
      * Overrides tryAcquire method to return true all the time.
      */
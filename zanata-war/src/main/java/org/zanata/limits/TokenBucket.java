@@ -0,0 +1,113 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.zanata.limits;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Ticker;
+import lombok.AllArgsConstructor;
+import lombok.ToString;
+
+/**
+ * Lock-free token bucket. Starts off full, and refills continuously at
+ * {@code capacity} permits per refill period, so that after half a period
+ * half of the permits are back (rather than none until the period is over).
+ * <p>
+ * All state lives in a single immutable snapshot which is swapped with
+ * compare-and-set, so callers never block each other.
+ */
+@ToString
+public class TokenBucket {
+    private final double capacity;
+    // permits added per nanosecond
+    private final double refillRate;
+    private final Ticker ticker;
+    private final AtomicReference<State> state;
+
+    /**
+     * @param capacity
+     *            maximum number of permits
+     * @param refillDuration
+     *            time it takes to refill an empty bucket
+     * @param refillTimeUnit
+     *            refill time unit
+     */
+    public TokenBucket(long capacity, long refillDuration,
+            TimeUnit refillTimeUnit) {
+        this(capacity, refillDuration, refillTimeUnit, Ticker.systemTicker());
+    }
+
+    @VisibleForTesting
+    TokenBucket(long capacity, long refillDuration, TimeUnit refillTimeUnit,
+            Ticker ticker) {
+        this.capacity = capacity;
+        this.refillRate =
+                (double) capacity / refillTimeUnit.toNanos(refillDuration);
+        this.ticker = ticker;
+        this.state = new AtomicReference<>(new State(capacity, ticker.read()));
+    }
+
+    /**
+     * Try acquire 1 permit. Will not block.
+     *
+     * @return true if there is enough permit
+     */
+    public boolean tryAcquire() {
+        return tryAcquire(1);
+    }
+
+    /**
+     * Try acquire a number of permits. Will not block.
+     *
+     * @return true if there is enough permits
+     */
+    public boolean tryAcquire(long requestPermits) {
+        while (true) {
+            State current = state.get();
+            // never move the refill time backwards if another thread has
+            // read the ticker after us
+            long now = Math.max(ticker.read(), current.lastRefill);
+            double available = current.availableAt(now);
+            if (available < requestPermits) {
+                return false;
+            }
+            if (state.compareAndSet(current,
+                    new State(available - requestPermits, now))) {
+                return true;
+            }
+        }
+    }
+
+    @AllArgsConstructor
+    @ToString
+    private final class State {
+        private final double permits;
+        private final long lastRefill;
+
+        private double availableAt(long now) {
+            double refilled =
+                    permits + Math.max(0, now - lastRefill) * refillRate;
+            return Math.min(capacity, refilled);
+        }
+    }
+}
@@ -2,6 +2,8 @@ package org.zanata.rest.service;
 
 import static org.zanata.common.EntityStatus.OBSOLETE;
 
+import java.sql.Timestamp;
+import java.util.Date;
 import java.util.List;
 import java.util.Set;
 
@@ -18,6 +20,7 @@ import org.zanata.model.HProjectIteration;
 import org.zanata.model.po.HPoHeader;
 import org.zanata.rest.NoSuchEntityException;
 import org.zanata.rest.dto.extensions.gettext.PoHeader;
+import org.zanata.service.TranslatedDocumentStateCache;
 import org.zanata.util.HashUtil;
 
 @Named("eTagUtils")
@@ -30,6 +33,9 @@ public class ETagUtils {
     @Inject
     private DocumentDAO documentDAO;
 
+    @Inject
+    private TranslatedDocumentStateCache translatedDocumentStateCache;
+
     /**
      * Retrieves the ETag for the Project
      *
@@ -128,16 +134,20 @@ public class ETagUtils {
         return EntityTag.valueOf(String.valueOf(hashcode));
     }
 
+    /**
+     * Retrieves the ETag for a translated document, from the cached "last
+     * changed" watermark of its translations.
+     */
     public EntityTag generateETagForTranslatedDocument(
             HProjectIteration iteration, String docId, HLocale locale) {
-        String stateHash =
-                documentDAO.getTranslatedDocumentStateHash(iteration
-                        .getProject().getSlug(), iteration.getSlug(), docId,
-                        locale);
-
-        if (stateHash == null) {
-            stateHash = "";
+        HDocument doc = documentDAO.getByDocIdAndIteration(iteration, docId);
+        if (doc == null) {
+            return EntityTag.valueOf("");
         }
-        return EntityTag.valueOf(stateHash);
+        Date lastChanged =
+                translatedDocumentStateCache.getLastChanged(doc,
+                        locale.getLocaleId());
+        return EntityTag.valueOf(new Timestamp(lastChanged.getTime())
+                .toString());
     }
 }
@@ -24,10 +24,13 @@ import org.apache.deltaspike.jpa.api.transaction.Transactional;
 import org.zanata.security.annotations.CheckLoggedIn;
 import org.zanata.security.annotations.CheckPermission;
 import org.zanata.security.annotations.CheckRole;
+import org.zanata.async.AsyncTaskManager;
 import org.zanata.common.Namespaces;
 import org.zanata.rest.MediaTypes;
 import org.zanata.rest.dto.Link;
 import org.zanata.limits.RateLimitManager;
+import org.zanata.service.impl.TransMemorySuggestionCache;
+import org.zanata.service.impl.WebHooksPublisher;
 import org.zanata.util.Introspectable;
 import com.google.common.annotations.Beta;
 import com.google.common.base.Function;
@@ -59,6 +62,9 @@ public class IntrospectableObjectMonitorService {
     private static List<Introspectable> introspectables = ImmutableList
             .<Introspectable> builder()
             .add(RateLimitManager.getInstance())
+            .add(TransMemorySuggestionCache.getInstance())
+            .add(AsyncTaskManager.getInstance())
+            .add(WebHooksPublisher.getInstance())
             .build();
 
     /** Type of media requested. */
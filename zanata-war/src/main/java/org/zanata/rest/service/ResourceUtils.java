@@ -37,6 +37,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang.StringUtils;
 import org.fedorahosted.tennera.jgettext.HeaderFields;
+import org.hibernate.Hibernate;
 import javax.inject.Inject;
 import javax.inject.Named;
 import org.richfaces.exception.FileUploadException;
@@ -76,6 +77,8 @@ import org.zanata.util.ServiceLocator;
 import org.zanata.util.StringUtil;
 
 import com.google.common.base.Optional;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
 
 import static org.apache.commons.lang.StringUtils.isBlank;
 import static org.apache.commons.lang.StringUtils.isEmpty;
@@ -122,6 +125,9 @@ public class ResourceUtils {
 
     public static final int MAX_TARGET_CONTENTS = 6;
 
+    // text flows loaded per persistence context batch when pushing changes
+    private static final int PUSH_BATCH_SIZE = 100;
+
     private static Properties pluralForms;
 
     @Inject
@@ -150,6 +156,9 @@ public class ResourceUtils {
     /**
      * Merges the list of TextFlows into the target HDocument, adding and
      * obsoleting TextFlows as necessary.
+     * <p>
+     * If the push doesn't add, remove or reorder any TextFlows, only the
+     * TextFlows whose fingerprints differ from the stored ones are loaded.
      *
      * @param from
      * @param to
@@ -157,22 +166,21 @@ public class ResourceUtils {
      */
     boolean transferFromTextFlows(List<TextFlow> from, HDocument to,
             Set<String> enabledExtensions, int nextDocRev) {
+        checkNoDuplicateIds(from);
+        if (to.getId() != null) {
+            TextFlowDiff diff = TextFlowDiff.compute(from,
+                    getStoredTextFlows(to), enabledExtensions);
+            if (diff.isSameSequence()) {
+                return transferChangedTextFlows(from, diff, to,
+                        enabledExtensions, nextDocRev);
+            }
+        }
         boolean changed = false;
         to.getTextFlows().clear();
-        Set<String> incomingIds = new HashSet<String>();
         Set<String> previousIds =
                 new HashSet<String>(to.getAllTextFlows().keySet());
         int count = 0;
         for (TextFlow tf : from) {
-            if (!incomingIds.add(tf.getId())) {
-                Response response =
-                        Response.status(Status.BAD_REQUEST)
-                                .entity("encountered TextFlow with duplicate ID "
-                                        + tf.getId()).build();
-                log.warn("encountered TextFlow with duplicate ID "
-                        + tf.getId());
-                throw new WebApplicationException(response);
-            }
             HTextFlow textFlow;
             if (previousIds.contains(tf.getId())) {
                 previousIds.remove(tf.getId());
@@ -180,19 +188,9 @@ public class ResourceUtils {
                 textFlow.setObsolete(false);
                 to.getTextFlows().add(textFlow);
                 // avoid changing revision when resurrecting an unchanged TF
-                if (transferFromTextFlow(tf, textFlow, enabledExtensions)) {// content
-                                                                            // has
-                                                                            // changed
-                    textFlow.setRevision(nextDocRev);
+                if (transferFromTextFlow(tf, textFlow, enabledExtensions)) {
+                    contentChanged(textFlow, nextDocRev);
                     changed = true;
-                    for (HTextFlowTarget targ : textFlow.getTargets().values()) {
-                        // if (targ.getState() != ContentState.New)
-                        if (targ.getState().isTranslated()) {
-                            targ.setState(ContentState.NeedReview);
-                            targ.setVersionNum(targ.getVersionNum() + 1);
-                        }
-                    }
-                    log.debug("TextFlow with id {} has changed", tf.getId());
                 }
             } else {
                 textFlow = new HTextFlow();
@@ -242,6 +240,133 @@ public class ResourceUtils {
         return changed;
     }
 
+    private static void checkNoDuplicateIds(List<TextFlow> textFlows) {
+        Set<String> incomingIds = new HashSet<String>();
+        for (TextFlow tf : textFlows) {
+            if (!incomingIds.add(tf.getId())) {
+                Response response =
+                        Response.status(Status.BAD_REQUEST)
+                                .entity("encountered TextFlow with duplicate ID "
+                                        + tf.getId()).build();
+                log.warn("encountered TextFlow with duplicate ID "
+                        + tf.getId());
+                throw new WebApplicationException(response);
+            }
+        }
+    }
+
+    /**
+     * Marks the translations of a text flow whose content has changed as
+     * needing review.
+     */
+    private static void contentChanged(HTextFlow textFlow, int nextDocRev) {
+        textFlow.setRevision(nextDocRev);
+        for (HTextFlowTarget targ : textFlow.getTargets().values()) {
+            // if (targ.getState() != ContentState.New)
+            if (targ.getState().isTranslated()) {
+                targ.setState(ContentState.NeedReview);
+                targ.setVersionNum(targ.getVersionNum() + 1);
+            }
+        }
+        log.debug("TextFlow with id {} has changed", textFlow.getResId());
+    }
+
+    /**
+     * @return the fields of the document's text flows which a push may
+     *         change, active text flows first in document order
+     */
+    private List<TextFlowDiff.StoredTextFlow> getStoredTextFlows(
+            HDocument document) {
+        List<Object[]> rows = entityManager.createQuery(
+                "select tf.id, tf.resId, tf.plural, tf.obsolete, "
+                        + "p.id, p.context, p.flags, p.references, "
+                        + "c.comment, tf.content0, tf.content1, "
+                        + "tf.content2, tf.content3, tf.content4, "
+                        + "tf.content5 "
+                        + "from HTextFlow tf "
+                        + "left join tf.potEntryData p "
+                        + "left join tf.comment c "
+                        + "where tf.document.id = :documentId "
+                        + "order by tf.obsolete, tf.pos", Object[].class)
+                .setParameter("documentId", document.getId())
+                .getResultList();
+        List<TextFlowDiff.StoredTextFlow> result =
+                Lists.newArrayListWithCapacity(rows.size());
+        for (Object[] row : rows) {
+            result.add(new TextFlowDiff.StoredTextFlow((Long) row[0],
+                    (String) row[1], contentsOf(row, 9), (Boolean) row[2],
+                    (Boolean) row[3], row[4] != null, (String) row[5],
+                    (String) row[6], (String) row[7], (String) row[8]));
+        }
+        return result;
+    }
+
+    /**
+     * @return the contents in the columns from the given index on, without
+     *         trailing nulls (like HTextFlow.getContents())
+     */
+    private static List<String> contentsOf(Object[] row, int firstColumn) {
+        int end = row.length;
+        while (end > firstColumn && row[end - 1] == null) {
+            end--;
+        }
+        List<String> contents =
+                Lists.newArrayListWithCapacity(end - firstColumn);
+        for (int i = firstColumn; i < end; i++) {
+            contents.add((String) row[i]);
+        }
+        return contents;
+    }
+
+    /**
+     * Applies a push which didn't add, remove or reorder any text flows, by
+     * loading only the text flows which may have changed, in batches. Unless
+     * the document's text flow list was already loaded, each batch is
+     * detached once it has been flushed, so the persistence context doesn't
+     * grow with the size of the document.
+     */
+    private boolean transferChangedTextFlows(List<TextFlow> from,
+            TextFlowDiff diff, HDocument to, Set<String> enabledExtensions,
+            int nextDocRev) {
+        if (enabledExtensions.contains(PotEntryHeader.ID)) {
+            // unchanged text flows must be rejected as before
+            for (TextFlow tf : from) {
+                PotEntryHeader entryHeader = tf.getExtensions(true)
+                        .findByType(PotEntryHeader.class);
+                if (entryHeader != null) {
+                    checkNoFuzzyFlag(entryHeader, tf);
+                }
+            }
+        }
+        boolean detachBatches = !Hibernate.isInitialized(to.getTextFlows());
+        boolean changed = false;
+        for (List<Long> ids : Iterables.partition(diff.getChanged().keySet(),
+                PUSH_BATCH_SIZE)) {
+            List<HTextFlow> textFlows = entityManager
+                    .createQuery("from HTextFlow tf where tf.id in (:ids)",
+                            HTextFlow.class)
+                    .setParameter("ids", ids)
+                    .getResultList();
+            for (HTextFlow textFlow : textFlows) {
+                TextFlow tf = diff.getChanged().get(textFlow.getId());
+                if (transferFromTextFlow(tf, textFlow, enabledExtensions)) {
+                    contentChanged(textFlow, nextDocRev);
+                    changed = true;
+                }
+            }
+            entityManager.flush();
+            if (detachBatches) {
+                textFlows.forEach(entityManager::detach);
+            }
+        }
+        log.debug("pushed {} changed text flows of {}",
+                diff.getChanged().size(), to.getDocId());
+        if (changed) {
+            to.setRevision(nextDocRev);
+        }
+        return changed;
+    }
+
     /**
      * Merges from the DTO Resource into HDocument, adding and obsoleting
      * textflows, including metadata and the specified extensions
@@ -460,15 +585,8 @@ public class ResourceUtils {
             to.setContext(from.getContext());
         }
 
+        checkNoFuzzyFlag(from, textFlow);
         List<String> flagList = from.getFlags();
-        // rhbz1012502 - should not store fuzzy tag in source document
-        if (flagList.contains("fuzzy")) {
-            throw new FileUploadException(String.format(
-                    "Please remove fuzzy flags from document. "
-                            + "First fuzzy flag was found on "
-                            + "text flow %s with content %s", textFlow.getId(),
-                    textFlow.getContents()));
-        }
         String flags = StringUtil.concat(flagList, ',');
         if (flagList.isEmpty()) {
             flags = null;
@@ -491,6 +609,18 @@ public class ResourceUtils {
         return changed;
     }
 
+    private static void checkNoFuzzyFlag(PotEntryHeader entryHeader,
+            TextFlow textFlow) {
+        // rhbz1012502 - should not store fuzzy tag in source document
+        if (entryHeader.getFlags().contains("fuzzy")) {
+            throw new FileUploadException(String.format(
+                    "Please remove fuzzy flags from document. "
+                            + "First fuzzy flag was found on "
+                            + "text flow %s with content %s", textFlow.getId(),
+                    textFlow.getContents()));
+        }
+    }
+
     /**
      *
      * @param from
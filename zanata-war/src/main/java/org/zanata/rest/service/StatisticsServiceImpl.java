@@ -24,6 +24,7 @@ import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
@@ -60,7 +61,6 @@ import org.zanata.model.HDocument;
 import org.zanata.model.HLocale;
 import org.zanata.model.HPerson;
 import org.zanata.model.HProjectIteration;
-import org.zanata.model.HTextFlowTarget;
 import org.zanata.rest.NoSuchEntityException;
 import org.zanata.rest.dto.Link;
 import org.zanata.rest.dto.TranslationMatrix;
@@ -72,6 +72,9 @@ import org.zanata.rest.dto.stats.contribution.ContributionStatistics;
 import org.zanata.rest.dto.stats.contribution.LocaleStatistics;
 import org.zanata.service.TranslationStateCache;
 import org.zanata.service.impl.LocaleServiceImpl;
+import org.zanata.ui.model.statistic.IterationStatistics;
+import org.zanata.ui.model.statistic.MessageStatistic;
+import org.zanata.ui.model.statistic.WordStatistic;
 import org.zanata.util.DateUtil;
 import org.zanata.util.StatisticsUtil;
 import org.zanata.webtrans.shared.model.DocumentStatus;
@@ -150,12 +153,10 @@ public class StatisticsServiceImpl implements StatisticsResource {
             throw new NoSuchEntityException(projectSlug + "/" + iterationSlug);
         }
 
-        Map<String, TransUnitCount> transUnitIterationStats =
-                projectIterationDAO.getAllStatisticsForContainer(iteration
-                        .getId());
-        Map<String, TransUnitWords> wordIterationStats =
-                projectIterationDAO
-                        .getAllWordStatsStatistics(iteration.getId());
+        // every (document, locale) pair at once, for version and details
+        IterationStatistics statistics =
+                projectIterationDAO.getIterationStatistics(iteration.getId(),
+                        Arrays.asList(localeIds), true);
 
         ContainerTranslationStatistics iterationStats =
                 new ContainerTranslationStatistics();
@@ -163,41 +164,25 @@ public class StatisticsServiceImpl implements StatisticsResource {
         iterationStats.addRef(new Link(URI.create(zPathService
                 .generatePathForProjectIteration(iteration)), "statSource",
                 "PROJ_ITER"));
-        long iterationTotalMssgs =
-                projectIterationDAO
-                        .getTotalMessageCountForIteration(iteration.getId());
-        long iterationTotalWords =
-                projectIterationDAO.getTotalWordCountForIteration(iteration
-                        .getId());
 
         for (LocaleId locId : localeIds) {
             // trans unit level stats
-            TransUnitCount count = transUnitIterationStats.get(locId.getId());
-            // Stats might not return anything if nothing is translated
-            if (count == null) {
-                count = new TransUnitCount(0, 0, (int) iterationTotalMssgs);
-            }
-
-            HTextFlowTarget target =
-                    localeServiceImpl.getLastTranslated(projectSlug,
-                            iterationSlug, locId);
+            TransUnitCount count =
+                    toTransUnitCount(statistics.getMessageStatistic(locId));
 
             String lastModifiedBy = "";
             Date lastModifiedDate = null;
 
-            if (target != null) {
-                lastModifiedDate = target.getLastChanged();
-                if (target.getLastModifiedBy() != null) {
-                    lastModifiedBy =
-                            target.getLastModifiedBy().getAccount()
-                                    .getUsername();
-                }
+            Long lastDocumentId = statistics.getLastTranslatedDocument(locId);
+            if (lastDocumentId != null) {
+                lastModifiedDate = statistics.getLastTranslatedDate(
+                        lastDocumentId, locId);
+                lastModifiedBy = statistics.getLastTranslatedBy(
+                        lastDocumentId, locId);
             }
 
-            TransUnitWords wordCount = wordIterationStats.get(locId.getId());
-            if (wordCount == null) {
-                wordCount = new TransUnitWords(0, 0, (int) iterationTotalWords);
-            }
+            TransUnitWords wordCount =
+                    toTransUnitWords(statistics.getWordStatistic(locId));
 
             TranslationStatistics transUnitStats =
                     getMessageStats(count, locId, lastModifiedDate,
@@ -217,17 +202,75 @@ public class StatisticsServiceImpl implements StatisticsResource {
             }
         }
 
-        // TODO Do in a single query
         if (includeDetails) {
-            for (String docId : iteration.getDocuments().keySet()) {
-                iterationStats.addDetailedStats(this.getStatistics(projectSlug,
-                        iterationSlug, docId, includeWordStats, locales));
+            for (HDocument document : iteration.getDocuments().values()) {
+                iterationStats.addDetailedStats(getDocStatistics(document,
+                        localeIds, statistics, includeWordStats));
             }
         }
 
         return iterationStats;
     }
 
+    /**
+     * Document statistics, assembled from the statistics of the whole version
+     * without any further queries.
+     */
+    private ContainerTranslationStatistics getDocStatistics(
+            HDocument document, LocaleId[] localeIds,
+            IterationStatistics statistics, boolean includeWordStats) {
+        ContainerTranslationStatistics docStatistics =
+                new ContainerTranslationStatistics();
+        docStatistics.setId(document.getDocId());
+        docStatistics.addRef(new Link(URI.create(zPathService
+                .generatePathForDocument(document)), "statSource", "DOC"));
+
+        for (LocaleId localeId : localeIds) {
+            TransUnitWords wordCount = toTransUnitWords(statistics
+                    .getWordStatistic(document.getId(), localeId));
+            Date lastTranslatedDate = statistics.getLastTranslatedDate(
+                    document.getId(), localeId);
+            String lastTranslatedBy = statistics.getLastTranslatedBy(
+                    document.getId(), localeId);
+
+            TranslationStatistics docWordStatistic =
+                    getWordsStats(wordCount, localeId, lastTranslatedDate,
+                            lastTranslatedBy);
+            docWordStatistic.setRemainingHours(StatisticsUtil
+                    .getRemainingHours(docWordStatistic));
+
+            TranslationStatistics docMsgStatistic =
+                    getMessageStats(toTransUnitCount(statistics
+                            .getMessageStatistic(document.getId(), localeId)),
+                            localeId, lastTranslatedDate, lastTranslatedBy);
+            docMsgStatistic.setRemainingHours(StatisticsUtil
+                    .getRemainingHours(docWordStatistic));
+            docStatistics.addStats(docMsgStatistic);
+
+            // word level stats
+            if (includeWordStats) {
+                docStatistics.addStats(docWordStatistic);
+            }
+        }
+        return docStatistics;
+    }
+
+    private static TransUnitCount toTransUnitCount(MessageStatistic stats) {
+        TransUnitCount count = new TransUnitCount();
+        for (ContentState state : ContentState.values()) {
+            count.set(state, stats.get(state));
+        }
+        return count;
+    }
+
+    private static TransUnitWords toTransUnitWords(WordStatistic stats) {
+        TransUnitWords words = new TransUnitWords();
+        for (ContentState state : ContentState.values()) {
+            words.set(state, stats.get(state));
+        }
+        return words;
+    }
+
     @Override
     public ContainerTranslationStatistics getStatistics(String projectSlug,
             String iterationSlug, String docId, boolean includeWordStats,
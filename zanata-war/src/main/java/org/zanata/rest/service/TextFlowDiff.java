@@ -0,0 +1,175 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.rest.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+
+import lombok.Value;
+
+import org.zanata.rest.dto.extensions.comment.SimpleComment;
+import org.zanata.rest.dto.extensions.gettext.PotEntryHeader;
+import org.zanata.rest.dto.extensions.gettext.TextFlowExtension;
+import org.zanata.rest.dto.resource.ExtensionSet;
+import org.zanata.rest.dto.resource.TextFlow;
+import org.zanata.util.StringUtil;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+
+/**
+ * Works out which text flows of a pushed source document need to be loaded
+ * and updated, by comparing the incoming text flows with a projection of the
+ * fields of the text flows which are already stored.
+ * <p>
+ * The comparison is conservative: a text flow which differs in any field is
+ * loaded and compared field by field as before, so a false alarm only costs an
+ * extra load. If text flows were added, removed or reordered, the positions of
+ * the document's text flows change, and the diff can't be used.
+ */
+public class TextFlowDiff {
+    private final boolean sameSequence;
+    // stored text flow id -> incoming text flow, in document order
+    private final Map<Long, TextFlow> changed;
+
+    private TextFlowDiff(boolean sameSequence, Map<Long, TextFlow> changed) {
+        this.sameSequence = sameSequence;
+        this.changed = changed;
+    }
+
+    /**
+     * @param incoming
+     *            the pushed text flows, in document order
+     * @param stored
+     *            the stored text flows (active ones in document order)
+     * @param enabledExtensions
+     *            extensions which are being pushed
+     */
+    public static TextFlowDiff compute(List<TextFlow> incoming,
+            List<StoredTextFlow> stored, Set<String> enabledExtensions) {
+        Map<Long, TextFlow> changed = Maps.newLinkedHashMap();
+        int i = 0;
+        for (StoredTextFlow storedTextFlow : stored) {
+            if (storedTextFlow.isObsolete()) {
+                continue;
+            }
+            if (i >= incoming.size()) {
+                return new TextFlowDiff(false, ImmutableMap.of());
+            }
+            TextFlow textFlow = incoming.get(i++);
+            if (!textFlow.getId().equals(storedTextFlow.getResId())) {
+                return new TextFlowDiff(false, ImmutableMap.of());
+            }
+            if (isContentChanged(textFlow, storedTextFlow)
+                    || isMetadataChanged(textFlow, storedTextFlow,
+                            enabledExtensions)) {
+                changed.put(storedTextFlow.getId(), textFlow);
+            }
+        }
+        if (i != incoming.size()) {
+            return new TextFlowDiff(false, ImmutableMap.of());
+        }
+        return new TextFlowDiff(true, changed);
+    }
+
+    /**
+     * @return true if the incoming text flows are exactly the stored active
+     *         text flows, in the same order
+     */
+    public boolean isSameSequence() {
+        return sameSequence;
+    }
+
+    /**
+     * @return stored text flow id -> incoming text flow, for each text flow
+     *         whose content or metadata may have changed
+     */
+    public Map<Long, TextFlow> getChanged() {
+        return changed;
+    }
+
+    /**
+     * Compares the contents themselves rather than content hashes: the hash
+     * of '|'-joined plural forms can't tell ["a|b", "c"] from ["a", "b|c"].
+     */
+    private static boolean isContentChanged(TextFlow textFlow,
+            StoredTextFlow stored) {
+        return textFlow.isPlural() != stored.isPlural()
+                || !textFlow.getContents().equals(stored.getContents());
+    }
+
+    private static boolean isMetadataChanged(TextFlow textFlow,
+            StoredTextFlow stored, Set<String> enabledExtensions) {
+        ExtensionSet<TextFlowExtension> extensions =
+                textFlow.getExtensions(true);
+        if (enabledExtensions.contains(PotEntryHeader.ID)) {
+            PotEntryHeader entryHeader =
+                    extensions.findByType(PotEntryHeader.class);
+            if (entryHeader != null
+                    && (!stored.isPotEntryData()
+                            || !ResourceUtils.equals(entryHeader.getContext(),
+                                    stored.getContext())
+                            || !ResourceUtils.equals(
+                                    concatOrNull(entryHeader.getFlags()),
+                                    stored.getFlags())
+                            || !ResourceUtils.equals(
+                                    concatOrNull(entryHeader.getReferences()),
+                                    stored.getReferences()))) {
+                return true;
+            }
+        }
+        if (enabledExtensions.contains(SimpleComment.ID)) {
+            SimpleComment comment = extensions.findByType(SimpleComment.class);
+            if (comment != null && !ResourceUtils.equals(comment.getValue(),
+                    stored.getComment())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static @Nullable String concatOrNull(List<String> values) {
+        return values.isEmpty() ? null : StringUtil.concat(values, ',');
+    }
+
+    /**
+     * The fields of a stored text flow which a push may change, as loaded by
+     * a projection query.
+     */
+    @Value
+    public static class StoredTextFlow {
+        Long id;
+        String resId;
+        // as returned by HTextFlow.getContents()
+        List<String> contents;
+        boolean plural;
+        boolean obsolete;
+        // whether the text flow has an HPotEntryData
+        boolean potEntryData;
+        @Nullable String context;
+        @Nullable String flags;
+        @Nullable String references;
+        @Nullable String comment;
+    }
+}
@@ -20,14 +20,20 @@
  */
 package org.zanata.rest.service;
 
+import java.io.InputStream;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.function.BiFunction;
 
 import javax.enterprise.context.RequestScoped;
+import javax.ws.rs.Consumes;
+import javax.ws.rs.DefaultValue;
 import javax.ws.rs.HeaderParam;
+import javax.ws.rs.PUT;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
+import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.EntityTag;
 import javax.ws.rs.core.HttpHeaders;
@@ -59,6 +65,7 @@ import org.zanata.rest.dto.resource.TranslationsResource;
 import org.zanata.security.ZanataIdentity;
 import org.zanata.service.CopyTransService;
 import org.zanata.service.LocaleService;
+import org.zanata.service.TranslatedDocumentStateCache;
 import org.zanata.service.TranslationService;
 
 import com.google.common.base.Optional;
@@ -125,6 +132,9 @@ public class TranslatedDocResourceService implements TranslatedDocResource {
     @Inject
     private ETagUtils eTagUtils;
 
+    @Inject
+    private TranslatedDocumentStateCache translatedDocumentStateCache;
+
     @Inject
     private CopyTransService copyTransServiceImpl;
     @Inject
@@ -227,6 +237,8 @@ public class TranslatedDocResourceService implements TranslatedDocResource {
         // we also need to delete the extensions here
         document.getPoTargetHeaders().remove(hLocale);
         textFlowTargetDAO.flush();
+        // no events are fired for this, so the ETag watermark must be reset
+        translatedDocumentStateCache.clear(document.getId(), locale);
 
         return Response.ok().build();
 
@@ -236,6 +248,40 @@ public class TranslatedDocResourceService implements TranslatedDocResource {
     public Response putTranslations(String idNoSlash, LocaleId locale,
             TranslationsResource messageBody, Set<String> extensions,
             String merge) {
+        //assignCreditToUploader is not supported from here
+        return putTranslations(idNoSlash, locale, merge,
+                (id, mergeType) -> translationServiceImpl.translateAllInDoc(
+                        projectSlug, iterationSlug, id, locale, messageBody,
+                        extensions, mergeType, false,
+                        TranslationSourceType.API_UPLOAD));
+    }
+
+    /**
+     * Like {@link #putTranslations(String, LocaleId, TranslationsResource,
+     * Set, String)}, but reads the XML request body as it saves each batch of
+     * translations, instead of unmarshalling the whole document first.
+     */
+    @PUT
+    @Path("/r/{id}/translations/{locale}/stream")
+    @Consumes(MediaType.APPLICATION_XML)
+    public Response putTranslationsStream(@PathParam("id") String idNoSlash,
+            @PathParam("locale") LocaleId locale, InputStream messageBody,
+            @QueryParam("ext") Set<String> extensions,
+            @QueryParam("merge") @DefaultValue("auto") String merge) {
+        return putTranslations(idNoSlash, locale, merge, (id, mergeType) -> {
+            TranslationsResourceStreamReader streamReader =
+                    new TranslationsResourceStreamReader(messageBody);
+            //assignCreditToUploader is not supported from here
+            return translationServiceImpl.translateAllInDoc(projectSlug,
+                    iterationSlug, id, locale, streamReader.getExtensions(),
+                    streamReader.getTextFlowTargets(), extensions, mergeType,
+                    false, null, TranslationSourceType.API_UPLOAD);
+        });
+    }
+
+    private Response putTranslations(String idNoSlash, LocaleId locale,
+            String merge,
+            BiFunction<String, MergeType, List<String>> translate) {
         // check security (cannot be on @Restrict as it refers to method
         // parameters)
         identity.checkPermission("modify-translation", this.localeServiceImpl
@@ -266,15 +312,8 @@ public class TranslatedDocResourceService implements TranslatedDocResource {
             return response.build();
         }
 
-        //assignCreditToUploader is not supported from here
-        boolean assignCreditToUploader = false;
-
         // Translate
-        List<String> warnings =
-                this.translationServiceImpl.translateAllInDoc(projectSlug,
-                        iterationSlug, id, locale, messageBody, extensions,
-                        mergeType, assignCreditToUploader,
-                        TranslationSourceType.API_UPLOAD);
+        List<String> warnings = translate.apply(id, mergeType);
 
         // Regenerate etag in case it has changed
         etag =
@@ -57,6 +57,7 @@ import org.zanata.model.tm.TransMemoryUnit;
 import org.zanata.security.ZanataIdentity;
 import org.zanata.service.LocaleService;
 import org.zanata.service.LockManagerService;
+import org.zanata.service.impl.TransMemorySuggestionCache;
 import org.zanata.tmx.TMXParser;
 import org.zanata.util.CloseableIterator;
 
@@ -88,6 +89,8 @@ public class TranslationMemoryResourceService implements
     private TMXParser tmxParser;
     @Inject
     private ZanataIdentity identity;
+    @Inject
+    private TransMemorySuggestionCache transMemorySuggestionCache;
 
     @Override
     @CheckRole("admin")
@@ -165,6 +168,8 @@ public class TranslationMemoryResourceService implements
             tmxParser.parseAndSaveTMX(input, getTM(tm, slug));
             return Response.ok().build();
         } finally {
+            // batches may have been committed even if the import failed
+            transMemorySuggestionCache.invalidateAll();
             lockManagerServiceImpl.release(tmLock);
         }
     }
@@ -185,6 +190,7 @@ public class TranslationMemoryResourceService implements
             Optional<TransMemory> transMemory = transMemoryDAO.getBySlug(slug);
             if (transMemory.isPresent()) {
                 transMemoryDAO.makeTransient(transMemory.get());
+                transMemorySuggestionCache.invalidateAll();
                 return "Translation memory '" + slug + "' deleted";
             } else {
                 throw new EntityMissingException(slug);
@@ -211,6 +217,7 @@ public class TranslationMemoryResourceService implements
         Lock tmLock = lockTM(slug);
         try {
             int numDeleted = transMemoryDAO.deleteTransMemoryContents(slug);
+            transMemorySuggestionCache.invalidateAll();
             return numDeleted + " translation units deleted";
         } finally {
             lockManagerServiceImpl.release(tmLock);
@@ -0,0 +1,193 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.rest.service;
+
+import java.io.InputStream;
+import java.util.Iterator;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.JAXBIntrospector;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.jboss.resteasy.spi.BadRequestException;
+import org.zanata.rest.dto.extensions.gettext.PoTargetHeader;
+import org.zanata.rest.dto.extensions.gettext.TranslationsResourceExtension;
+import org.zanata.rest.dto.resource.ExtensionSet;
+import org.zanata.rest.dto.resource.TextFlowTarget;
+import org.zanata.rest.dto.resource.TranslationsResource;
+
+import com.google.common.collect.AbstractIterator;
+
+/**
+ * Reads the XML form of a {@link TranslationsResource} one target at a time,
+ * so that a large upload never has to be unmarshalled in full.
+ * <p>
+ * The extensions (eg PO header) precede the targets, so they are read
+ * straight away. Each target is then unmarshalled with JAXB as the iterator
+ * reaches it.
+ */
+@Slf4j
+public class TranslationsResourceStreamReader {
+    private static final String TRANSLATIONS = "translations";
+    private static final String EXTENSIONS = "extensions";
+    private static final String TARGET = "target";
+
+    private static final JAXBContext JAXB_CONTEXT = createContext();
+
+    private final XMLStreamReader reader;
+    private final Unmarshaller unmarshaller;
+    private final ExtensionSet<TranslationsResourceExtension> extensions;
+
+    /**
+     * Reads the start of the document, up to the first target.
+     *
+     * @throws BadRequestException
+     *             if the input is not a translations document
+     */
+    public TranslationsResourceStreamReader(InputStream input) {
+        try {
+            XMLInputFactory factory = XMLInputFactory.newInstance();
+            factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+            factory.setProperty(
+                    XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+            reader = factory.createXMLStreamReader(input);
+            unmarshaller = JAXB_CONTEXT.createUnmarshaller();
+            if (!nextStartElement()
+                    || !TRANSLATIONS.equals(reader.getLocalName())) {
+                throw new BadRequestException(
+                        "Wrong root element: expected " + TRANSLATIONS);
+            }
+            reader.next();
+            extensions = new TranslationsResource().getExtensions(true);
+            if (nextStartElement()
+                    && EXTENSIONS.equals(reader.getLocalName())) {
+                readExtensions();
+            }
+        } catch (XMLStreamException | JAXBException e) {
+            throw new BadRequestException("Invalid translations document", e);
+        }
+    }
+
+    private static JAXBContext createContext() {
+        try {
+            return JAXBContext.newInstance(TranslationsResource.class,
+                    PoTargetHeader.class);
+        } catch (JAXBException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public ExtensionSet<TranslationsResourceExtension> getExtensions() {
+        return extensions;
+    }
+
+    /**
+     * @return the targets of the document, each one unmarshalled when the
+     *         iterator reaches it. The iterator throws
+     *         {@link BadRequestException} if the rest of the document is
+     *         invalid.
+     */
+    public Iterator<TextFlowTarget> getTextFlowTargets() {
+        return new AbstractIterator<TextFlowTarget>() {
+            @Override
+            protected TextFlowTarget computeNext() {
+                try {
+                    while (nextStartElement()) {
+                        if (TARGET.equals(reader.getLocalName())) {
+                            return unmarshaller.unmarshal(reader,
+                                    TextFlowTarget.class).getValue();
+                        }
+                        log.debug("skipping unexpected element: {}",
+                                reader.getName());
+                        skipElement();
+                    }
+                    reader.close();
+                    return endOfData();
+                } catch (XMLStreamException | JAXBException e) {
+                    throw new BadRequestException(
+                            "Invalid translations document", e);
+                }
+            }
+        };
+    }
+
+    /**
+     * Reads each extension inside the extensions element, leaving the reader
+     * just after it.
+     */
+    private void readExtensions() throws XMLStreamException, JAXBException {
+        reader.next();
+        while (nextStartElement()) {
+            Object extension =
+                    JAXBIntrospector.getValue(unmarshaller.unmarshal(reader));
+            if (extension instanceof TranslationsResourceExtension) {
+                extensions.add((TranslationsResourceExtension) extension);
+            } else {
+                log.debug("skipping unknown extension: {}", extension);
+            }
+        }
+        // move past the end of the extensions element
+        reader.next();
+    }
+
+    /**
+     * Advances the reader to the next start element at the current level.
+     *
+     * @return true if the reader is at a start element, or false if it has
+     *         reached the end of the enclosing element
+     */
+    private boolean nextStartElement() throws XMLStreamException {
+        while (true) {
+            switch (reader.getEventType()) {
+            case XMLStreamConstants.START_ELEMENT:
+                return true;
+            case XMLStreamConstants.END_ELEMENT:
+            case XMLStreamConstants.END_DOCUMENT:
+                return false;
+            default:
+                reader.next();
+            }
+        }
+    }
+
+    /**
+     * Skips the element at the reader's position, including its children.
+     */
+    private void skipElement() throws XMLStreamException {
+        int depth = 0;
+        do {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        } while (depth >= 0);
+        reader.next();
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.search;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import org.zanata.common.LocaleId;
+import org.zanata.model.HDocument;
+import org.zanata.model.HTextFlow;
+
+import com.google.common.base.Objects;
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Ordering;
+
+/**
+ * Chooses the best exact (content hash) match for each of a batch of text
+ * flows, from a set of candidate translations which were fetched in bulk.
+ * <p>
+ * The ranking is the same as for a single text flow in
+ * {@link org.zanata.dao.TextFlowTargetDAO#searchBestMatchTransMemory}: a
+ * match from the same resId is preferred, then the same docId, then the same
+ * project, then the most recently changed translation.
+ */
+public class BestMatchSelector {
+
+    private final boolean checkContext;
+    private final boolean checkDocument;
+    private final boolean checkProject;
+
+    // candidates grouped by content hash
+    private final ListMultimap<String, Candidate> candidates =
+            ArrayListMultimap.create();
+
+    public BestMatchSelector(boolean checkContext, boolean checkDocument,
+            boolean checkProject) {
+        this.checkContext = checkContext;
+        this.checkDocument = checkDocument;
+        this.checkProject = checkProject;
+    }
+
+    public void addCandidate(Candidate candidate) {
+        candidates.put(candidate.getContentHash(), candidate);
+    }
+
+    /**
+     * @param textFlow
+     *            the text flow which needs a translation
+     * @return the best candidate for each locale, if any
+     */
+    public Map<LocaleId, Candidate> selectBestMatches(Source textFlow) {
+        Map<LocaleId, Candidate> best = new HashMap<LocaleId, Candidate>();
+        List<Candidate> sameContent = candidates.get(textFlow.getContentHash());
+        for (Candidate candidate : sameContent) {
+            if (!isAcceptable(textFlow, candidate)) {
+                continue;
+            }
+            Candidate current = best.get(candidate.getLocaleId());
+            if (current == null
+                    || compare(textFlow, candidate, current) < 0) {
+                best.put(candidate.getLocaleId(), candidate);
+            }
+        }
+        return best;
+    }
+
+    private boolean isAcceptable(Source textFlow, Candidate candidate) {
+        if (Objects.equal(candidate.getTextFlowId(),
+                textFlow.getTextFlowId())) {
+            // never copy a text flow's translation to itself
+            return false;
+        }
+        if (checkContext
+                && !Objects.equal(textFlow.getResId(), candidate.getResId())) {
+            return false;
+        }
+        if (checkDocument
+                && !Objects.equal(textFlow.getDocId(), candidate.getDocId())) {
+            return false;
+        }
+        if (checkProject
+                && !Objects.equal(textFlow.getProjectId(),
+                        candidate.getProjectId())) {
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return negative if c1 is a better match than c2
+     */
+    private static int compare(Source textFlow, Candidate c1, Candidate c2) {
+        int result = compareMatch(
+                Objects.equal(textFlow.getResId(), c1.getResId()),
+                Objects.equal(textFlow.getResId(), c2.getResId()));
+        if (result != 0) {
+            return result;
+        }
+        result = compareMatch(
+                Objects.equal(textFlow.getDocId(), c1.getDocId()),
+                Objects.equal(textFlow.getDocId(), c2.getDocId()));
+        if (result != 0) {
+            return result;
+        }
+        result = compareMatch(
+                Objects.equal(textFlow.getProjectId(), c1.getProjectId()),
+                Objects.equal(textFlow.getProjectId(), c2.getProjectId()));
+        if (result != 0) {
+            return result;
+        }
+        // most recent first
+        result = compareDates(c2.getLastChanged(), c1.getLastChanged());
+        if (result != 0) {
+            return result;
+        }
+        // arbitrary but stable
+        return Ordering.<Long> natural().nullsFirst().compare(c2.getTargetId(),
+                c1.getTargetId());
+    }
+
+    private static int compareMatch(boolean match1, boolean match2) {
+        if (match1 == match2) {
+            return 0;
+        }
+        return match1 ? -1 : 1;
+    }
+
+    private static int compareDates(@Nullable Date d1, @Nullable Date d2) {
+        if (d1 == null) {
+            return d2 == null ? 0 : -1;
+        }
+        if (d2 == null) {
+            return 1;
+        }
+        return d1.compareTo(d2);
+    }
+
+    /**
+     * A text flow which needs a translation.
+     */
+    @AllArgsConstructor
+    @Getter
+    @ToString
+    public static class Source {
+        private final Long textFlowId;
+        private final String contentHash;
+        private final String resId;
+        private final String docId;
+        private final Long projectId;
+
+        public static Source of(HTextFlow textFlow) {
+            HDocument document = textFlow.getDocument();
+            return new Source(textFlow.getId(), textFlow.getContentHash(),
+                    textFlow.getResId(), document.getDocId(),
+                    document.getProjectIteration().getProject().getId());
+        }
+    }
+
+    /**
+     * A translation which could be copied, with just enough information to
+     * rank it. A candidate may also stand for the most recent of a group of
+     * alike translations, in which case it has no target id, and no text flow
+     * id unless its text flow is one of those being matched.
+     */
+    @AllArgsConstructor
+    @Getter
+    @ToString
+    public static class Candidate {
+        private final @Nullable Long targetId;
+        private final @Nullable Long textFlowId;
+        private final String contentHash;
+        private final LocaleId localeId;
+        private final String resId;
+        private final String docId;
+        private final Long projectId;
+        private final @Nullable Date lastChanged;
+    }
+}
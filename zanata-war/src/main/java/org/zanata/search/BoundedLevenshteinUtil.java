@@ -0,0 +1,479 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.search;
+
+import java.util.List;
+
+/**
+ * Threshold-aware variants of {@link LevenshteinUtil} and
+ * {@link LevenshteinTokenUtil}.
+ * <p>
+ * Each distance method takes a cap {@code maxDistance}. If the real distance
+ * is less than or equal to the cap, it is returned exactly. Otherwise the
+ * method stops as soon as the cap is known to be exceeded and returns
+ * {@code maxDistance + 1}. Similarity methods take a minimum similarity and
+ * return the exact similarity when it reaches the minimum, or some value
+ * below the minimum when it doesn't.
+ * <p>
+ * Character distances for strings of up to 64 chars use Myers' bit-parallel
+ * algorithm (as formulated by Hyyro). Longer strings and token arrays use a
+ * banded (Ukkonen) dynamic programme which only fills the diagonals within
+ * the cap. Row buffers are kept per thread, so no arrays are allocated per
+ * comparison once a thread has warmed up.
+ */
+public final class BoundedLevenshteinUtil {
+
+    private static final int MAX_BIT_PARALLEL_LENGTH = 64;
+
+    private static final ThreadLocal<RowBuffers> rowBuffers =
+            new ThreadLocal<RowBuffers>() {
+                @Override
+                protected RowBuffers initialValue() {
+                    return new RowBuffers();
+                }
+            };
+
+    private static final ThreadLocal<CharMaskTable> charMasks =
+            new ThreadLocal<CharMaskTable>() {
+                @Override
+                protected CharMaskTable initialValue() {
+                    return new CharMaskTable();
+                }
+            };
+
+    private BoundedLevenshteinUtil() {
+    }
+
+    /**
+     * Character-level Levenshtein distance between s and t, or
+     * {@code maxDistance + 1} if the distance is greater than maxDistance.
+     */
+    public static int getLevenshteinDistance(String s, String t,
+            int maxDistance) {
+        if (s == null || t == null) {
+            throw new IllegalArgumentException("Strings must not be null");
+        }
+        if (maxDistance < 0) {
+            throw new IllegalArgumentException(
+                    "maxDistance must not be negative");
+        }
+        // make s the shorter of the two
+        if (s.length() > t.length()) {
+            String tmp = s;
+            s = t;
+            t = tmp;
+        }
+        int n = s.length();
+        int m = t.length();
+        if (m - n > maxDistance) {
+            return maxDistance + 1;
+        }
+        if (n == 0) {
+            return m;
+        }
+        if (n <= MAX_BIT_PARALLEL_LENGTH) {
+            return bitParallelDistance(s, t, maxDistance);
+        }
+        return bandedDistance(s, t, maxDistance);
+    }
+
+    /**
+     * Token-level Levenshtein distance between s and t, or
+     * {@code maxDistance + 1} if the distance is greater than maxDistance.
+     */
+    public static int getLevenshteinDistanceInWords(String[] s, String[] t,
+            int maxDistance) {
+        if (s == null || t == null) {
+            throw new IllegalArgumentException("Strings must not be null");
+        }
+        if (maxDistance < 0) {
+            throw new IllegalArgumentException(
+                    "maxDistance must not be negative");
+        }
+        if (s.length > t.length) {
+            String[] tmp = s;
+            s = t;
+            t = tmp;
+        }
+        int n = s.length;
+        int m = t.length;
+        if (m - n > maxDistance) {
+            return maxDistance + 1;
+        }
+        if (n == 0) {
+            return m;
+        }
+        int k = Math.min(maxDistance, m);
+        RowBuffers buffers = rowBuffers.get();
+        int[] p = buffers.previous(n + 1);
+        int[] d = buffers.current(n + 1);
+        int inf = k + 1;
+
+        for (int i = 0; i <= n; i++) {
+            p[i] = i <= k ? i : inf;
+        }
+        for (int j = 1; j <= m; j++) {
+            String t_j = t[j - 1];
+            int lo = Math.max(1, j - k);
+            int hi = Math.min(n, j + k);
+            d[lo - 1] = lo == 1 ? j : inf;
+            int rowMin = d[lo - 1];
+            for (int i = lo; i <= hi; i++) {
+                int cost = s[i - 1].equals(t_j) ? 0 : 1;
+                int v = Math.min(Math.min(d[i - 1] + 1, p[i] + 1),
+                        p[i - 1] + cost);
+                d[i] = v;
+                if (v < rowMin) {
+                    rowMin = v;
+                }
+            }
+            if (hi < n) {
+                d[hi + 1] = inf;
+            }
+            if (rowMin > k) {
+                return maxDistance + 1;
+            }
+            int[] tmp = p;
+            p = d;
+            d = tmp;
+        }
+        return p[n] <= maxDistance ? p[n] : maxDistance + 1;
+    }
+
+    /**
+     * Equivalent to {@link LevenshteinUtil#getSimilarity(String, List)} when
+     * the result is at least minSimilarity.
+     */
+    public static double getSimilarity(final String s1,
+            final List<String> strings2, double minSimilarity) {
+        int stringCount = strings2.size();
+        double required = minSimilarity * stringCount;
+        double totalSimilarity = 0.0;
+        for (int i = 0; i < stringCount; i++) {
+            String s2 = strings2.get(i);
+            int maxLength = Math.max(s1.length(), s2.length());
+            if (maxLength == 0) {
+                // same as the unbounded version: 0/0
+                return Double.NaN;
+            }
+            // the best case for the remaining strings is a perfect match
+            double needed = required - totalSimilarity - (stringCount - i - 1);
+            int cap = distanceCap(maxLength, needed);
+            if (cap < 0) {
+                return belowMinimum(minSimilarity);
+            }
+            int distance = getLevenshteinDistance(s1, s2, cap);
+            if (distance > cap) {
+                return belowMinimum(minSimilarity);
+            }
+            totalSimilarity += (maxLength - distance) / (double) maxLength;
+        }
+        return totalSimilarity / stringCount;
+    }
+
+    /**
+     * Equivalent to {@link LevenshteinUtil#getSimilarity(List, List)} when the
+     * result is at least minSimilarity.
+     */
+    public static double getSimilarity(final List<String> strings1,
+            final List<String> strings2, double minSimilarity) {
+        final int minListSize = Math.min(strings1.size(), strings2.size());
+        final List<String> longestList =
+                strings1.size() > minListSize ? strings1 : strings2;
+
+        int extraStringLengths = 0;
+        for (int i = minListSize; i < longestList.size(); i++) {
+            extraStringLengths += longestList.get(i).length();
+        }
+        int totalMaxDistance = extraStringLengths;
+        for (int i = 0; i < minListSize; i++) {
+            totalMaxDistance += Math.max(strings1.get(i).length(),
+                    strings2.get(i).length());
+        }
+        if (totalMaxDistance == 0) {
+            return Double.NaN;
+        }
+        int budget = distanceCap(totalMaxDistance, minSimilarity);
+        int totalLevDistance = extraStringLengths;
+        if (totalLevDistance > budget) {
+            return belowMinimum(minSimilarity);
+        }
+        for (int i = 0; i < minListSize; i++) {
+            int remaining = budget - totalLevDistance;
+            int distance = getLevenshteinDistance(strings1.get(i),
+                    strings2.get(i), remaining);
+            if (distance > remaining) {
+                return belowMinimum(minSimilarity);
+            }
+            totalLevDistance += distance;
+        }
+        return (totalMaxDistance - totalLevDistance)
+                / (double) totalMaxDistance;
+    }
+
+    /**
+     * Equivalent to {@link LevenshteinTokenUtil#getSimilarity(String, List)}
+     * when the result is at least minSimilarity.
+     */
+    public static double getTokenSimilarity(final String s1,
+            final List<String> strings2, double minSimilarity) {
+        String[] s1s = LevenshteinTokenUtil.tokenise(s1);
+        int stringCount = strings2.size();
+        double required = minSimilarity * stringCount;
+        double totalSimilarity = 0.0;
+        for (int i = 0; i < stringCount; i++) {
+            String[] s2s = LevenshteinTokenUtil.tokenise(strings2.get(i));
+            int maxLength = Math.max(s1s.length, s2s.length);
+            if (maxLength == 0) {
+                // same as the unbounded version: 0/0
+                return Double.NaN;
+            }
+            double needed = required - totalSimilarity - (stringCount - i - 1);
+            int cap = distanceCap(maxLength, needed);
+            if (cap < 0) {
+                return belowMinimum(minSimilarity);
+            }
+            int distance = getLevenshteinDistanceInWords(s1s, s2s, cap);
+            if (distance > cap) {
+                return belowMinimum(minSimilarity);
+            }
+            totalSimilarity += (maxLength - distance) / (double) maxLength;
+        }
+        return totalSimilarity / stringCount;
+    }
+
+    /**
+     * Equivalent to {@link LevenshteinTokenUtil#getSimilarity(List, List)}
+     * when the result is at least minSimilarity.
+     */
+    public static double getTokenSimilarity(final List<String> strings1,
+            final List<String> strings2, double minSimilarity) {
+        if (strings1.isEmpty() && strings2.isEmpty()) {
+            return 1.0;
+        }
+        final int minListSize = Math.min(strings1.size(), strings2.size());
+        final List<String> longestList =
+                strings1.size() > minListSize ? strings1 : strings2;
+
+        int extraStringLengths = 0;
+        for (int i = minListSize; i < longestList.size(); i++) {
+            extraStringLengths +=
+                    LevenshteinTokenUtil.tokenise(longestList.get(i)).length;
+        }
+        String[][] tokens1 = new String[minListSize][];
+        String[][] tokens2 = new String[minListSize][];
+        int totalMaxDistance = extraStringLengths;
+        for (int i = 0; i < minListSize; i++) {
+            tokens1[i] = LevenshteinTokenUtil.tokenise(strings1.get(i));
+            tokens2[i] = LevenshteinTokenUtil.tokenise(strings2.get(i));
+            totalMaxDistance +=
+                    Math.max(tokens1[i].length, tokens2[i].length);
+        }
+        if (totalMaxDistance == 0) {
+            return 0.0;
+        }
+        int budget = distanceCap(totalMaxDistance, minSimilarity);
+        int totalLevDistance = extraStringLengths;
+        if (totalLevDistance > budget) {
+            return belowMinimum(minSimilarity);
+        }
+        for (int i = 0; i < minListSize; i++) {
+            int remaining = budget - totalLevDistance;
+            int distance = getLevenshteinDistanceInWords(tokens1[i],
+                    tokens2[i], remaining);
+            if (distance > remaining) {
+                return belowMinimum(minSimilarity);
+            }
+            totalLevDistance += distance;
+        }
+        return (totalMaxDistance - totalLevDistance)
+                / (double) totalMaxDistance;
+    }
+
+    /**
+     * The largest distance which still gives a similarity of at least
+     * minSimilarity for strings whose maximum distance is maxLength.
+     */
+    static int distanceCap(int maxLength, double minSimilarity) {
+        if (minSimilarity <= 0) {
+            return maxLength;
+        }
+        if (minSimilarity > 1) {
+            return -1;
+        }
+        // small epsilon so that floating point error never makes us reject
+        // a candidate which the unbounded calculation would have accepted
+        int cap = (int) Math.floor(maxLength * (1 - minSimilarity) + 1e-9);
+        return Math.max(0, Math.min(cap, maxLength));
+    }
+
+    private static double belowMinimum(double minSimilarity) {
+        return Math.min(0.0, minSimilarity) - 1.0;
+    }
+
+    private static int bitParallelDistance(String pattern, String text,
+            int maxDistance) {
+        int m = pattern.length();
+        int n = text.length();
+        CharMaskTable peq = charMasks.get();
+        peq.load(pattern);
+        try {
+            long last = 1L << (m - 1);
+            long pv = -1L;
+            long mv = 0L;
+            int score = m;
+            for (int j = 0; j < n; j++) {
+                long eq = peq.get(text.charAt(j));
+                long xv = eq | mv;
+                long xh = (((eq & pv) + pv) ^ pv) | eq;
+                long ph = mv | ~(xh | pv);
+                long mh = pv & xh;
+                if ((ph & last) != 0) {
+                    score++;
+                } else if ((mh & last) != 0) {
+                    score--;
+                }
+                // the score can fall by at most one per remaining char
+                if (score - (n - j - 1) > maxDistance) {
+                    return maxDistance + 1;
+                }
+                ph = (ph << 1) | 1L;
+                mh = mh << 1;
+                pv = mh | ~(xv | ph);
+                mv = ph & xv;
+            }
+            return score <= maxDistance ? score : maxDistance + 1;
+        } finally {
+            peq.clear(pattern);
+        }
+    }
+
+    private static int bandedDistance(String s, String t, int maxDistance) {
+        int n = s.length();
+        int m = t.length();
+        int k = Math.min(maxDistance, m);
+        RowBuffers buffers = rowBuffers.get();
+        int[] p = buffers.previous(n + 1);
+        int[] d = buffers.current(n + 1);
+        int inf = k + 1;
+
+        for (int i = 0; i <= n; i++) {
+            p[i] = i <= k ? i : inf;
+        }
+        for (int j = 1; j <= m; j++) {
+            char t_j = t.charAt(j - 1);
+            int lo = Math.max(1, j - k);
+            int hi = Math.min(n, j + k);
+            // cells outside the band are treated as "more than k"
+            d[lo - 1] = lo == 1 ? j : inf;
+            int rowMin = d[lo - 1];
+            for (int i = lo; i <= hi; i++) {
+                int cost = s.charAt(i - 1) == t_j ? 0 : 1;
+                int v = Math.min(Math.min(d[i - 1] + 1, p[i] + 1),
+                        p[i - 1] + cost);
+                d[i] = v;
+                if (v < rowMin) {
+                    rowMin = v;
+                }
+            }
+            if (hi < n) {
+                d[hi + 1] = inf;
+            }
+            if (rowMin > k) {
+                return maxDistance + 1;
+            }
+            int[] tmp = p;
+            p = d;
+            d = tmp;
+        }
+        return p[n] <= maxDistance ? p[n] : maxDistance + 1;
+    }
+
+    /**
+     * Pair of reusable DP rows, grown on demand.
+     */
+    private static final class RowBuffers {
+        private int[] previous = new int[128];
+        private int[] current = new int[128];
+
+        int[] previous(int size) {
+            if (previous.length < size) {
+                previous = new int[size * 2];
+            }
+            return previous;
+        }
+
+        int[] current(int size) {
+            if (current.length < size) {
+                current = new int[size * 2];
+            }
+            return current;
+        }
+    }
+
+    /**
+     * Open-addressing map from char to the bit mask of its positions in the
+     * pattern. A pattern has at most 64 distinct chars, so a table of 128
+     * slots is never more than half full.
+     */
+    private static final class CharMaskTable {
+        private static final int SIZE = 128;
+        private static final int MASK = SIZE - 1;
+        private final char[] keys = new char[SIZE];
+        private final long[] masks = new long[SIZE];
+        private final boolean[] used = new boolean[SIZE];
+
+        void load(String pattern) {
+            for (int i = 0; i < pattern.length(); i++) {
+                char c = pattern.charAt(i);
+                int slot = c & MASK;
+                while (used[slot] && keys[slot] != c) {
+                    slot = (slot + 1) & MASK;
+                }
+                used[slot] = true;
+                keys[slot] = c;
+                masks[slot] |= 1L << i;
+            }
+        }
+
+        long get(char c) {
+            int slot = c & MASK;
+            while (used[slot]) {
+                if (keys[slot] == c) {
+                    return masks[slot];
+                }
+                slot = (slot + 1) & MASK;
+            }
+            return 0L;
+        }
+
+        void clear(String pattern) {
+            for (int i = 0; i < pattern.length(); i++) {
+                int slot = pattern.charAt(i) & MASK;
+                while (used[slot]) {
+                    used[slot] = false;
+                    masks[slot] = 0L;
+                    slot = (slot + 1) & MASK;
+                }
+            }
+        }
+    }
+}
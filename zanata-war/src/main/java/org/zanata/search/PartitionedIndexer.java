@@ -0,0 +1,274 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.search;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.hibernate.CacheMode;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.hibernate.search.FullTextSession;
+import org.hibernate.search.Search;
+import org.zanata.async.AsyncTaskHandle;
+import org.zanata.model.HTextFlowTarget;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Optional;
+import com.google.common.base.Stopwatch;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Reindexes all instances of an entity class by splitting the table into
+ * ranges of primary keys, and loading and indexing the ranges on several
+ * threads at once.
+ * <p>
+ * Each range is loaded (with the relationships its index fields need) by a
+ * short-lived session of its own, indexed, and flushed to the indexes as one
+ * batch. The highest id below which every range has completed is saved in
+ * {@link ReindexCheckpoints}, so that a reindex which was cancelled, failed or
+ * interrupted by a restart resumes from there next time.
+ */
+@Slf4j
+public class PartitionedIndexer<T> {
+    private static final long LOG_INTERVAL_SECONDS = 30;
+
+    private final Class<T> entityType;
+    private final EntityManagerFactory entityManagerFactory;
+    private final ReindexCheckpoints checkpoints;
+    private final AsyncTaskHandle<?> handle;
+    private final int threads;
+    private final int rangeSize;
+    private final String rangeQuery;
+
+    // guarded by this
+    private final CompletedRanges completedRanges = new CompletedRanges();
+    private long indexedCount;
+    private final Stopwatch stopwatch = Stopwatch.createUnstarted();
+    private long lastLogSeconds;
+
+    public PartitionedIndexer(Class<T> entityType,
+            EntityManagerFactory entityManagerFactory,
+            ReindexCheckpoints checkpoints, AsyncTaskHandle<?> handle,
+            int threads, int rangeSize) {
+        this.entityType = entityType;
+        this.entityManagerFactory = entityManagerFactory;
+        this.checkpoints = checkpoints;
+        this.handle = handle;
+        this.threads = Math.max(1, threads);
+        this.rangeSize = Math.max(1, rangeSize);
+        this.rangeQuery = "select e from " + entityType.getName() + " e"
+                + fetches(entityType)
+                + " where e.id between :from and :to";
+    }
+
+    /**
+     * @return the joins which eagerly load everything the index fields of the
+     *         given class depend on
+     */
+    private static String fetches(Class<?> entityType) {
+        if (entityType.equals(HTextFlowTarget.class)) {
+            return " join fetch e.locale"
+                    + " join fetch e.textFlow"
+                    + " join fetch e.textFlow.document"
+                    + " join fetch e.textFlow.document.locale"
+                    + " join fetch e.textFlow.document.projectIteration"
+                    + " join fetch e.textFlow.document.projectIteration.project";
+        }
+        return "";
+    }
+
+    /**
+     * @return number of entities still to be indexed, ie those after the
+     *         checkpoint of an unfinished reindex (if any)
+     */
+    public int getEntityCount(FullTextSession session) {
+        Long result = (Long) session
+                .createQuery("select count(*) from " + entityType.getName()
+                        + " e where e.id > :after")
+                .setParameter("after", getStartAfter())
+                .uniqueResult();
+        return result.intValue();
+    }
+
+    private long getStartAfter() {
+        return checkpoints.get(entityType).or(Long.MIN_VALUE);
+    }
+
+    public void index() throws InterruptedException, ExecutionException {
+        Optional<Long> checkpoint = checkpoints.get(entityType);
+        if (checkpoint.isPresent()) {
+            log.info("resuming reindex of {} after id {}",
+                    entityType.getName(), checkpoint.get());
+        }
+        Object[] bounds = getIdBounds(getStartAfter());
+        if (bounds[0] == null) {
+            checkpoints.remove(entityType);
+            return;
+        }
+        long minId = (Long) bounds[0];
+        long maxId = (Long) bounds[1];
+        long rangeCount = (maxId - minId) / rangeSize + 1;
+        log.info("reindexing {} ids {} to {} in {} ranges on {} threads",
+                entityType.getName(), minId, maxId, rangeCount, threads);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads,
+                new ThreadFactoryBuilder().setNameFormat("reindex-%d")
+                        .setDaemon(true).build());
+        // bounds the number of loaded ranges waiting for a thread
+        Semaphore permits = new Semaphore(threads * 2);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        stopwatch.start();
+        try {
+            for (long i = 0; i < rangeCount; i++) {
+                if (handle.isCancelled() || failure.get() != null) {
+                    break;
+                }
+                permits.acquire();
+                int rangeIndex = (int) i;
+                long from = minId + i * rangeSize;
+                long to = Math.min(maxId, from + rangeSize - 1);
+                executor.execute(() -> {
+                    try {
+                        int count = indexRange(from, to);
+                        handle.increaseProgress(count);
+                        rangeCompleted(rangeIndex, count, minId, maxId);
+                    } catch (Throwable e) {
+                        failure.compareAndSet(null, e);
+                    } finally {
+                        permits.release();
+                    }
+                });
+            }
+        } finally {
+            executor.shutdown();
+            // never leave ranges running behind the caller's back
+            while (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                log.info("waiting for reindex of {} ranges to finish",
+                        entityType.getName());
+            }
+        }
+        logThroughput("reindexed");
+        if (failure.get() != null) {
+            throw new ExecutionException(
+                    "reindexing " + entityType.getName() + " failed",
+                    failure.get());
+        }
+        if (!handle.isCancelled()) {
+            checkpoints.remove(entityType);
+        }
+    }
+
+    private Object[] getIdBounds(long startAfter) {
+        EntityManager entityManager =
+                entityManagerFactory.createEntityManager();
+        try {
+            return (Object[]) entityManager.unwrap(Session.class)
+                    .createQuery("select min(e.id), max(e.id) from "
+                            + entityType.getName() + " e where e.id > :after")
+                    .setParameter("after", startAfter)
+                    .uniqueResult();
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    private int indexRange(long from, long to) {
+        EntityManager entityManager =
+                entityManagerFactory.createEntityManager();
+        try {
+            FullTextSession session = Search.getFullTextSession(
+                    entityManager.unwrap(Session.class));
+            session.setFlushMode(FlushMode.MANUAL);
+            session.setCacheMode(CacheMode.IGNORE);
+            session.setDefaultReadOnly(true);
+            List<?> entities = session.createQuery(rangeQuery)
+                    .setParameter("from", from)
+                    .setParameter("to", to)
+                    .list();
+            for (Object entity : entities) {
+                session.index(entity);
+            }
+            session.flushToIndexes(); // apply changes to indexes
+            session.clear();
+            return entities.size();
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    private synchronized void rangeCompleted(int rangeIndex, int count,
+            long minId, long maxId) {
+        indexedCount += count;
+        int before = completedRanges.getContiguous();
+        int after = completedRanges.markDone(rangeIndex);
+        if (after > before) {
+            long lastId = Math.min(maxId, minId + (long) after * rangeSize - 1);
+            checkpoints.save(entityType, lastId);
+        }
+        long seconds = stopwatch.elapsed(TimeUnit.SECONDS);
+        if (seconds - lastLogSeconds >= LOG_INTERVAL_SECONDS) {
+            lastLogSeconds = seconds;
+            logThroughput("reindexing");
+        }
+    }
+
+    private synchronized void logThroughput(String verb) {
+        long millis = Math.max(1, stopwatch.elapsed(TimeUnit.MILLISECONDS));
+        log.info("{} {}: {} entities in {}s ({} per second)", verb,
+                entityType.getName(), indexedCount, millis / 1000,
+                indexedCount * 1000 / millis);
+    }
+
+    /**
+     * Keeps track of which ranges have completed, since ranges running on
+     * different threads can complete in any order.
+     */
+    @VisibleForTesting
+    static class CompletedRanges {
+        private final BitSet done = new BitSet();
+        private int contiguous;
+
+        /**
+         * @return the number of leading ranges which have all completed
+         */
+        int markDone(int rangeIndex) {
+            done.set(rangeIndex);
+            contiguous = done.nextClearBit(contiguous);
+            return contiguous;
+        }
+
+        int getContiguous() {
+            return contiguous;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.search;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+
+import javax.annotation.Nullable;
+
+import lombok.extern.slf4j.Slf4j;
+
+import com.google.common.base.Optional;
+
+/**
+ * Remembers, for each entity class, the highest primary key up to which a
+ * mass reindex has completed, so that an interrupted reindex can carry on from
+ * there instead of starting again.
+ * <p>
+ * Checkpoints are kept in a properties file next to the Lucene indexes, so
+ * they survive a restart. Without an index directory (eg in-memory indexes)
+ * nothing is remembered.
+ */
+@Slf4j
+public class ReindexCheckpoints {
+    static final String FILE_NAME = ".reindex-checkpoints.properties";
+
+    private final @Nullable Path file;
+
+    public ReindexCheckpoints(@Nullable Path file) {
+        this.file = file;
+    }
+
+    /**
+     * @return checkpoints stored in the directory named by the system
+     *         property hibernate.search.default.indexBase, if any
+     */
+    public static ReindexCheckpoints fromSystemProperties() {
+        String indexBase =
+                System.getProperty("hibernate.search.default.indexBase");
+        return new ReindexCheckpoints(
+                indexBase == null ? null : Paths.get(indexBase, FILE_NAME));
+    }
+
+    /**
+     * @return the highest id which has been indexed for the class, if there
+     *         is an unfinished reindex
+     */
+    public synchronized Optional<Long> get(Class<?> entityType) {
+        String value = load().getProperty(entityType.getName());
+        if (value == null) {
+            return Optional.absent();
+        }
+        try {
+            return Optional.of(Long.valueOf(value));
+        } catch (NumberFormatException e) {
+            log.warn("ignoring invalid reindex checkpoint for {}: {}",
+                    entityType.getName(), value);
+            return Optional.absent();
+        }
+    }
+
+    public synchronized void save(Class<?> entityType, long lastIndexedId) {
+        Properties props = load();
+        props.setProperty(entityType.getName(), String.valueOf(lastIndexedId));
+        store(props);
+    }
+
+    public synchronized void remove(Class<?> entityType) {
+        Properties props = load();
+        if (props.remove(entityType.getName()) != null) {
+            store(props);
+        }
+    }
+
+    private Properties load() {
+        Properties props = new Properties();
+        if (file == null || !Files.exists(file)) {
+            return props;
+        }
+        try (Reader reader =
+                Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            props.load(reader);
+        } catch (IOException e) {
+            log.warn("unable to read reindex checkpoints from " + file, e);
+        }
+        return props;
+    }
+
+    private void store(Properties props) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.createDirectories(file.getParent());
+            Path tmp = file.resolveSibling(FILE_NAME + ".tmp");
+            try (Writer writer =
+                    Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                props.store(writer, "last indexed id for each entity class");
+            }
+            try {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            // a missing checkpoint only means more work after a restart
+            log.warn("unable to save reindex checkpoints to " + file, e);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.search;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause.Occur;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermQuery;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
+/**
+ * Builds a Lucene query which finds every indexed text which might contain a
+ * search string as a plain substring. The query can match more than that, so
+ * its results must be checked (see {@link TextMatcher}).
+ * <p>
+ * The search string is split on whitespace. A word with whitespace on both
+ * sides must be a whole word of any matching text, so its terms are
+ * required. A word with whitespace only before it must start a word of the
+ * text, so it is required as a prefix. The first and last words of the
+ * search string may be part of longer words, so they can't be looked up,
+ * unless the analyzer indexes every character on its own (n-grams). If
+ * nothing can be looked up, there is no query, and the caller must search
+ * some other way.
+ */
+public class SubstringCandidateQuery {
+
+    private static final int MIN_PREFIX_LENGTH = 2;
+
+    // each term becomes one clause per field; stay well below Lucene's
+    // default BooleanQuery.maxClauseCount (1024)
+    private static final int MAX_TERMS = 20;
+
+    private SubstringCandidateQuery() {
+    }
+
+    /**
+     * @param searchString
+     *            the substring to search for
+     * @param fields
+     *            the content fields, one for each plural form
+     * @param analyzer
+     *            the analyzer which the fields were indexed with
+     * @param unigram
+     *            true if the analyzer indexes every character as a term
+     * @return the query, or absent if the index can't narrow the search
+     */
+    public static Optional<Query> build(String searchString, String[] fields,
+            Analyzer analyzer, boolean unigram) {
+        Set<String> terms = Sets.newLinkedHashSet();
+        Set<String> prefixes = Sets.newLinkedHashSet();
+        int length = searchString.length();
+        int i = 0;
+        while (i < length) {
+            if (Character.isWhitespace(searchString.charAt(i))) {
+                i++;
+                continue;
+            }
+            int start = i;
+            while (i < length
+                    && !Character.isWhitespace(searchString.charAt(i))) {
+                i++;
+            }
+            String word = searchString.substring(start, i);
+            boolean wordStart = start > 0;
+            boolean wordEnd = i < length;
+            if (unigram || (wordStart && wordEnd)) {
+                terms.addAll(analyze(analyzer, fields[0], word));
+            } else if (wordStart && word.length() >= MIN_PREFIX_LENGTH
+                    && isLetters(word)) {
+                List<String> tokens = analyze(analyzer, fields[0], word);
+                if (tokens.size() == 1) {
+                    prefixes.add(tokens.get(0));
+                }
+            }
+        }
+        if (terms.isEmpty() && prefixes.isEmpty()) {
+            return Optional.absent();
+        }
+        List<String> requiredTerms = Lists.newArrayList(terms);
+        if (requiredTerms.size() > MAX_TERMS) {
+            // fewer required terms still find every match
+            requiredTerms = requiredTerms.subList(0, MAX_TERMS);
+        }
+        BooleanQuery anyContent = new BooleanQuery();
+        for (String field : fields) {
+            BooleanQuery content = new BooleanQuery();
+            for (String term : requiredTerms) {
+                content.add(new TermQuery(new Term(field, term)), Occur.MUST);
+            }
+            for (String prefix : prefixes) {
+                content.add(new PrefixQuery(new Term(field, prefix)),
+                        Occur.MUST);
+            }
+            anyContent.add(content, Occur.SHOULD);
+        }
+        return Optional.of(anyContent);
+    }
+
+    private static boolean isLetters(String word) {
+        return word.codePoints().allMatch(Character::isLetter);
+    }
+
+    private static List<String> analyze(Analyzer analyzer, String field,
+            String text) {
+        List<String> tokens = Lists.newArrayList();
+        try (TokenStream stream =
+                analyzer.tokenStream(field, new StringReader(text))) {
+            CharTermAttribute term =
+                    stream.addAttribute(CharTermAttribute.class);
+            stream.reset();
+            while (stream.incrementToken()) {
+                if (term.length() > 0) {
+                    tokens.add(term.toString());
+                }
+            }
+            stream.end();
+        } catch (IOException e) {
+            // reading from a string
+            throw new RuntimeException(e);
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.search;
+
+import java.util.List;
+
+import lombok.Value;
+
+import org.zanata.model.HTextFlow;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * One page of the text flows which match an editor search.
+ */
+@Value
+public class TextFlowSearchResult {
+
+    List<Hit> hits;
+
+    /**
+     * true if the search stopped before reading all of the candidates, so
+     * that a later page may have more matches
+     */
+    boolean more;
+
+    /**
+     * offset to pass when asking for the next page
+     */
+    int nextOffset;
+
+    /**
+     * true if the search index was used to find the matches, false if they
+     * were found with a database query
+     */
+    boolean indexed;
+
+    public static TextFlowSearchResult empty() {
+        return new TextFlowSearchResult(ImmutableList.of(), false, 0, false);
+    }
+
+    /**
+     * A matching text flow, with the location of each match so that it can
+     * be highlighted.
+     */
+    @Value
+    public static class Hit {
+        HTextFlow textFlow;
+        List<TextMatcher.Match> sourceMatches;
+        List<TextMatcher.Match> targetMatches;
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.search;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Value;
+
+import com.ibm.icu.lang.UCharacter;
+
+/**
+ * Finds the occurrences of a search string in text flow contents, the same
+ * way the editor's project-wide search does: a plain substring match,
+ * optionally ignoring case.
+ */
+public class TextMatcher {
+
+    private final String searchString;
+    private final boolean caseSensitive;
+
+    public TextMatcher(String searchString, boolean caseSensitive) {
+        this.caseSensitive = caseSensitive;
+        this.searchString =
+                caseSensitive ? searchString : foldCase(searchString);
+    }
+
+    /**
+     * @param contents
+     *            the contents (plural forms) of a text flow or target
+     * @return the non-overlapping occurrences of the search string, in order
+     */
+    public List<Match> findMatches(List<String> contents) {
+        List<Match> matches = new ArrayList<>();
+        if (searchString.isEmpty()) {
+            return matches;
+        }
+        for (int i = 0; i < contents.size(); i++) {
+            String content = contents.get(i);
+            if (content == null) {
+                continue;
+            }
+            if (!caseSensitive) {
+                content = foldCase(content);
+            }
+            int begin = content.indexOf(searchString);
+            while (begin >= 0) {
+                int end = begin + searchString.length();
+                matches.add(new Match(i, begin, end));
+                begin = content.indexOf(searchString, end);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Folds case one char at a time, so that offsets in the folded string
+     * are the same as in the original.
+     */
+    private static String foldCase(String original) {
+        char[] buffer = original.toCharArray();
+        for (int i = 0; i < buffer.length; i++) {
+            buffer[i] = (char) UCharacter.foldCase(buffer[i], true);
+        }
+        return new String(buffer);
+    }
+
+    /**
+     * One occurrence of the search string.
+     */
+    @Value
+    public static class Match {
+        // index of the plural form
+        int contentIndex;
+        int begin;
+        int end;
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.security.permission;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.annotation.Nullable;
+
+import lombok.Value;
+
+import org.hibernate.proxy.HibernateProxyHelper;
+import org.zanata.common.LocaleId;
+import org.zanata.model.ModelEntityBase;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.Maps;
+
+/**
+ * Remembers the outcome of permission checks, keyed by the authenticated
+ * user, the action and the identities of the targets.
+ * <p>
+ * Every decision is tagged with the {@link PermissionEvaluator}'s generation
+ * at the time it was made, and is ignored once the generation has moved on
+ * (eg because someone joined or left a language team). Decisions may also
+ * expire after a fixed time.
+ * <p>
+ * Decisions are only cached when every target has a stable identity: an
+ * immutable value, or a persisted entity (identified by class and id). The
+ * state of an entity is not part of the key, so a decision may not reflect
+ * changes made to the entity later in the same scope.
+ */
+public abstract class PermissionDecisionCache implements Serializable {
+    private static final long serialVersionUID = 1L;
+    // no scope should need more than this; start again if it does
+    private static final int MAX_ENTRIES = 1000;
+
+    private final long ttlMillis;
+    private final ConcurrentMap<DecisionKey, Decision> decisions =
+            Maps.newConcurrentMap();
+
+    /**
+     * @param ttlMillis
+     *            time after which a decision expires, or 0 if decisions only
+     *            expire with the scope of the cache
+     */
+    protected PermissionDecisionCache(long ttlMillis) {
+        this.ttlMillis = ttlMillis;
+    }
+
+    public boolean isEnabled() {
+        return true;
+    }
+
+    /**
+     * @return the decision, or null if there is no current decision
+     */
+    public @Nullable Boolean get(DecisionKey key, long generation) {
+        Decision decision = decisions.get(key);
+        if (decision == null) {
+            return null;
+        }
+        if (decision.getGeneration() != generation
+                || decision.getExpiresAt() < System.currentTimeMillis()) {
+            decisions.remove(key, decision);
+            return null;
+        }
+        return decision.isGranted();
+    }
+
+    public void put(DecisionKey key, boolean granted, long generation) {
+        if (decisions.size() >= MAX_ENTRIES) {
+            decisions.clear();
+        }
+        long expiresAt = ttlMillis > 0
+                ? System.currentTimeMillis() + ttlMillis : Long.MAX_VALUE;
+        decisions.put(key, new Decision(granted, generation, expiresAt));
+    }
+
+    /**
+     * @return a key for the permission check, or absent if any of the targets
+     *         has no stable identity
+     */
+    public static Optional<DecisionKey> keyFor(String principal,
+            String action, Object... targets) {
+        List<Serializable> targetIds = new ArrayList<>(targets.length);
+        for (Object target : targets) {
+            Serializable targetId = identityOf(target);
+            if (target != null && targetId == null) {
+                return Optional.absent();
+            }
+            targetIds.add(targetId);
+        }
+        return Optional.of(new DecisionKey(principal, action, targetIds));
+    }
+
+    private static @Nullable Serializable identityOf(@Nullable Object target) {
+        if (target instanceof String || target instanceof Number
+                || target instanceof Boolean || target instanceof Enum
+                || target instanceof LocaleId) {
+            return (Serializable) target;
+        }
+        if (target instanceof ModelEntityBase) {
+            ModelEntityBase entity = (ModelEntityBase) target;
+            if (entity.getId() == null) {
+                // not persisted yet
+                return null;
+            }
+            return new EntityId(HibernateProxyHelper
+                    .getClassWithoutInitializingProxy(entity), entity.getId());
+        }
+        return null;
+    }
+
+    @Value
+    public static class DecisionKey implements Serializable {
+        private static final long serialVersionUID = 1L;
+        String principal;
+        String action;
+        // may contain nulls
+        List<Serializable> targetIds;
+    }
+
+    @Value
+    private static class EntityId implements Serializable {
+        private static final long serialVersionUID = 1L;
+        Class<?> entityClass;
+        Long id;
+    }
+
+    @Value
+    private static class Decision implements Serializable {
+        private static final long serialVersionUID = 1L;
+        boolean granted;
+        long generation;
+        long expiresAt;
+    }
+}
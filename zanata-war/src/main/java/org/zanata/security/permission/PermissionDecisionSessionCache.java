@@ -0,0 +1,56 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.security.permission;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.enterprise.context.SessionScoped;
+
+import org.zanata.util.SysProperties;
+
+/**
+ * Permission decisions for the current session, which expire after a short
+ * time. Disabled unless
+ * {@link SysProperties#PERMISSION_CACHE_SESSION_TTL_SECONDS} is set, because
+ * changes other than language team membership (eg project maintainers or
+ * roles) only take effect for the session once its decisions expire.
+ */
+@SessionScoped
+public class PermissionDecisionSessionCache extends PermissionDecisionCache {
+    private static final long serialVersionUID = 1L;
+
+    private final boolean enabled;
+
+    public PermissionDecisionSessionCache() {
+        this(SysProperties.getLong(
+                SysProperties.PERMISSION_CACHE_SESSION_TTL_SECONDS, 0));
+    }
+
+    private PermissionDecisionSessionCache(long ttlSeconds) {
+        super(TimeUnit.SECONDS.toMillis(ttlSeconds));
+        this.enabled = ttlSeconds > 0;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+}
@@ -20,19 +20,44 @@
  */
 package org.zanata.security.permission;
 
-import com.google.common.collect.ArrayListMultimap;
-import com.google.common.collect.Multimap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.annotation.PostConstruct;
 import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.context.ContextNotActiveException;
+import javax.enterprise.event.Observes;
 import javax.enterprise.inject.Instance;
 import javax.inject.Inject;
 import javax.inject.Named;
-import java.util.Collection;
+
+import lombok.Value;
+
+import org.zanata.events.JoinedLanguageTeam;
+import org.zanata.events.LanguageTeamPermissionChangedEvent;
+import org.zanata.events.LeftLanguageTeam;
+import org.zanata.model.HAccount;
+import org.zanata.security.annotations.Authenticated;
+import org.zanata.security.permission.PermissionDecisionCache.DecisionKey;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Optional;
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Multimap;
 
 /**
  * Holds all application permissions and provides a way to evaluate these
  * permissions for an object and an action.
+ * <p>
+ * The granters which apply to an action and a combination of target types
+ * are worked out once, and decisions are remembered for the rest of the
+ * request (and optionally the session) by {@link PermissionDecisionCache}.
  *
  * @author Carlos Munoz <a
  *         href="mailto:camunoz@redhat.com">camunoz@redhat.com</a>
@@ -46,9 +71,25 @@ public class PermissionEvaluator {
     private final Multimap<String, PermissionGranter> permissionGrantMethods =
             ArrayListMultimap.create();
 
+    private final ConcurrentMap<GranterDispatchKey, List<PermissionGranter>>
+            granterDispatch = Maps.newConcurrentMap();
+
+    // incremented whenever cached decisions may have become wrong
+    private final AtomicLong generation = new AtomicLong();
+
     @Inject
     private Instance<PermissionProvider> permissionProviders;
 
+    @Inject
+    @Authenticated
+    private Instance<HAccount> authenticatedAccount;
+
+    @Inject
+    private Instance<PermissionDecisionRequestCache> requestCache;
+
+    @Inject
+    private Instance<PermissionDecisionSessionCache> sessionCache;
+
     @PostConstruct
     public void buildIndex() {
         permissionProviders.iterator().forEachRemaining(provider -> {
@@ -59,6 +100,7 @@ public class PermissionEvaluator {
     public <T extends PermissionProvider> void registerPermissionGranters(
             T provider) {
         permissionGrantMethods.putAll(provider.getPermissionGranters());
+        granterDispatch.clear();
     }
 
     /**
@@ -74,28 +116,127 @@ public class PermissionEvaluator {
      * @return True, if the permission has been granted. False otherwise.
      */
     public boolean checkPermission(String action, Object... targets) {
-        boolean permissionGranted = false;
-        // Get granters for all actions (those with no declared action)
-        Collection<PermissionGranter> allActionGranters =
-                permissionGrantMethods.get(ALL_ACTION_GRANTER);
-        for (PermissionGranter granter : allActionGranters) {
-            if (granter.shouldInvokeGranter(targets)) {
-                if (granter.invoke(action, targets)) {
-                    return true;
-                }
+        Optional<DecisionKey> key = decisionKey(action, targets);
+        if (!key.isPresent()) {
+            return evaluate(action, targets);
+        }
+        long currentGeneration = generation.get();
+        List<PermissionDecisionCache> caches = activeCaches();
+        for (PermissionDecisionCache cache : caches) {
+            Boolean granted = cache.get(key.get(), currentGeneration);
+            if (granted != null) {
+                return granted;
             }
         }
+        boolean granted = evaluate(action, targets);
+        for (PermissionDecisionCache cache : caches) {
+            cache.put(key.get(), granted, currentGeneration);
+        }
+        return granted;
+    }
 
-        // Get granters for specific actions
-        Collection<PermissionGranter> actionGranters =
-                permissionGrantMethods.get(action);
-        for (PermissionGranter granter : actionGranters) {
-            if (granter.shouldInvokeGranter(targets)) {
-                if (granter.invoke(action, targets)) {
-                    return true;
-                }
+    private boolean evaluate(String action, Object[] targets) {
+        for (PermissionGranter granter : getGranters(action, targets)) {
+            if (granter.invoke(action, targets)) {
+                return true;
             }
         }
         return false;
     }
+
+    /**
+     * @return the granters which should be invoked for the action and the
+     *         types of the targets: first those for all actions, then those
+     *         for the specific action
+     */
+    @VisibleForTesting
+    List<PermissionGranter> getGranters(String action, Object[] targets) {
+        List<Class<?>> targetTypes = new ArrayList<>(targets.length);
+        for (Object target : targets) {
+            targetTypes.add(target == null ? null : target.getClass());
+        }
+        return granterDispatch.computeIfAbsent(
+                new GranterDispatchKey(action, targetTypes), key -> {
+                    ImmutableList.Builder<PermissionGranter> granters =
+                            ImmutableList.builder();
+                    addInvokableGranters(granters,
+                            permissionGrantMethods.get(ALL_ACTION_GRANTER),
+                            targets);
+                    addInvokableGranters(granters,
+                            permissionGrantMethods.get(action), targets);
+                    return granters.build();
+                });
+    }
+
+    private static void addInvokableGranters(
+            ImmutableList.Builder<PermissionGranter> granters,
+            Collection<PermissionGranter> candidates, Object[] targets) {
+        for (PermissionGranter granter : candidates) {
+            if (granter.shouldInvokeGranter(targets)) {
+                granters.add(granter);
+            }
+        }
+    }
+
+    private Optional<DecisionKey> decisionKey(String action,
+            Object[] targets) {
+        if (authenticatedAccount == null) {
+            // not managed by CDI (eg in tests)
+            return Optional.absent();
+        }
+        try {
+            HAccount account = authenticatedAccount.get();
+            String principal = account != null ? account.getUsername() : "";
+            return PermissionDecisionCache.keyFor(principal, action, targets);
+        } catch (ContextNotActiveException e) {
+            return Optional.absent();
+        }
+    }
+
+    private List<PermissionDecisionCache> activeCaches() {
+        List<PermissionDecisionCache> caches = Lists.newArrayListWithCapacity(2);
+        addIfActive(caches, requestCache);
+        addIfActive(caches, sessionCache);
+        return caches;
+    }
+
+    private static void addIfActive(List<PermissionDecisionCache> caches,
+            Instance<? extends PermissionDecisionCache> cacheInstance) {
+        try {
+            PermissionDecisionCache cache = cacheInstance.get();
+            // calling the proxy fails if the context is not active
+            if (cache.isEnabled()) {
+                caches.add(cache);
+            }
+        } catch (ContextNotActiveException e) {
+            // eg an async task: no cache for this scope
+        }
+    }
+
+    /**
+     * Invalidates all cached decisions.
+     */
+    public void clearDecisions() {
+        generation.incrementAndGet();
+    }
+
+    public void onLanguageTeamPermissionChanged(
+            @Observes LanguageTeamPermissionChangedEvent event) {
+        clearDecisions();
+    }
+
+    public void onJoinedLanguageTeam(@Observes JoinedLanguageTeam event) {
+        clearDecisions();
+    }
+
+    public void onLeftLanguageTeam(@Observes LeftLanguageTeam event) {
+        clearDecisions();
+    }
+
+    @Value
+    private static class GranterDispatchKey {
+        String action;
+        // may contain nulls
+        List<Class<?>> targetTypes;
+    }
 }
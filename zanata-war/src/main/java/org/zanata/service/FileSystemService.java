@@ -62,6 +62,32 @@ public interface FileSystemService {
      */
     File createDownloadStagingFile(String fileExtension) throws IOException;
 
+    /**
+     * Keeps a copy of a finished download file, so that identical downloads
+     * can be served from it. Cached files expire like other download files.
+     * @param downloadFile
+     *            The finished download file.
+     * @param cacheKey
+     *            A key which identifies the content of the file.
+     * @throws IOException
+     */
+    void cacheDownloadFile(File downloadFile, String cacheKey)
+            throws IOException;
+
+    /**
+     * Returns a new staging file with the content of a previously cached
+     * download file.
+     * @param cacheKey
+     *            The key which the file was cached with.
+     * @param fileExtension
+     *            File extension of the staging file.
+     * @return The staging file, or null if there is no cached file for the
+     *         key.
+     * @throws IOException
+     */
+    File createDownloadStagingFileFromCache(String cacheKey,
+            String fileExtension) throws IOException;
+
     /**
      * Returns all download files that are expired.
      */
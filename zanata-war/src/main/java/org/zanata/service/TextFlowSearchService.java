@@ -22,8 +22,11 @@ package org.zanata.service;
 
 import java.util.List;
 
+import javax.annotation.Nullable;
+
 import org.zanata.model.HTextFlow;
 import org.zanata.search.FilterConstraints;
+import org.zanata.search.TextFlowSearchResult;
 import org.zanata.webtrans.shared.model.DocumentId;
 import org.zanata.webtrans.shared.model.WorkspaceId;
 
@@ -78,4 +81,25 @@ public interface TextFlowSearchService {
     List<HTextFlow> findTextFlows(WorkspaceId workspace,
             FilterConstraints constraints);
 
+    /**
+     * Find one page of matching textflows in a given workspace, with the
+     * location of each match in source and target content.
+     *
+     * @param workspace
+     * @param documents
+     *            list of documents to search, null or empty to search all
+     *            documents in the workspace
+     * @param constraints
+     *            determine fields that will be checked for searchTerm
+     * @param offset
+     *            0 for the first page, otherwise the nextOffset of the
+     *            previous page
+     * @param maxResults
+     *            maximum number of matching textflows to return
+     * @return
+     */
+    TextFlowSearchResult searchTextFlows(WorkspaceId workspace,
+            @Nullable List<String> documents, FilterConstraints constraints,
+            int offset, int maxResults);
+
 }
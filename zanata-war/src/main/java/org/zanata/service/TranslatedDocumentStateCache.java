@@ -0,0 +1,58 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.service;
+
+import java.util.Date;
+
+import org.zanata.common.LocaleId;
+import org.zanata.events.DocumentUploadedEvent;
+import org.zanata.events.TextFlowTargetStateEvent;
+import org.zanata.model.HDocument;
+
+/**
+ * Keeps a "last changed" watermark for the translations of each document and
+ * locale, so that translated document ETags can be worked out without
+ * scanning the document's text flows.
+ */
+public interface TranslatedDocumentStateCache {
+
+    /**
+     * @return the latest change to the document or to its translations
+     *         (including comments and PO headers) in the locale
+     */
+    Date getLastChanged(HDocument document, LocaleId localeId);
+
+    /**
+     * Moves the watermark forward for changed targets.
+     */
+    void textFlowStateUpdated(TextFlowTargetStateEvent event);
+
+    /**
+     * Drops watermarks which a document upload may have invalidated.
+     */
+    void documentUploaded(DocumentUploadedEvent event);
+
+    /**
+     * Drops the watermark for a document's translations in a locale, for
+     * changes which are not announced by events.
+     */
+    void clear(Long documentId, LocaleId localeId);
+}
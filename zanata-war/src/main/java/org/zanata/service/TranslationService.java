@@ -20,6 +20,7 @@
  */
 package org.zanata.service;
 
+import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.Future;
@@ -30,6 +31,9 @@ import org.zanata.common.LocaleId;
 import org.zanata.common.MergeType;
 import org.zanata.model.HTextFlowTarget;
 import org.zanata.model.type.TranslationSourceType;
+import org.zanata.rest.dto.extensions.gettext.TranslationsResourceExtension;
+import org.zanata.rest.dto.resource.ExtensionSet;
+import org.zanata.rest.dto.resource.TextFlowTarget;
 import org.zanata.rest.dto.resource.TranslationsResource;
 import org.zanata.webtrans.shared.model.TransUnitUpdateInfo;
 import org.zanata.webtrans.shared.model.TransUnitUpdateRequest;
@@ -151,6 +155,29 @@ public interface TranslationService {
             boolean assignCreditToUploader,
             TranslationSourceType translationSourceType);
 
+    /**
+     * Translates all text flows in a document, taking the translations from
+     * an iterator one batch at a time, so that they never need to be held in
+     * memory all at once. Unlike the other variants, this does not set the
+     * maximum progress of the handle, since the number of translations may
+     * not be known in advance.
+     *
+     * @param resourceExtensions
+     *            The extensions of the translations resource (eg PO header)
+     * @param targets
+     *            The translations to save to the document
+     * @see #translateAllInDoc(String, String, String, LocaleId,
+     *      TranslationsResource, Set, MergeType, boolean, AsyncTaskHandle,
+     *      TranslationSourceType)
+     */
+    List<String> translateAllInDoc(String projectSlug, String iterationSlug,
+            String docId, LocaleId locale,
+            ExtensionSet<TranslationsResourceExtension> resourceExtensions,
+            Iterator<TextFlowTarget> targets, Set<String> extensions,
+            MergeType mergeType, boolean assignCreditToUploader,
+            AsyncTaskHandle handle,
+            TranslationSourceType translationSourceType);
+
     public interface TranslationResult {
         boolean isTranslationSuccessful();
 
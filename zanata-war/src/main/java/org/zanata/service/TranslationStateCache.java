@@ -21,6 +21,10 @@
  */
 package org.zanata.service;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
 import org.zanata.common.LocaleId;
 import org.zanata.events.DocStatsEvent;
 import org.zanata.events.TextFlowTargetStateEvent;
@@ -64,6 +68,35 @@ public interface TranslationStateCache {
     Boolean textFlowTargetHasWarningOrError(Long textFlowTargetId,
         ValidationId validationId);
 
+    /**
+     * Returns the active text flows of a document whose target in the given
+     * locale fails any of the given validations. The answer comes from a
+     * per-locale index of the document, which is kept up to date as targets
+     * change, so the text flows and targets are not loaded.
+     *
+     * @param documentId
+     * @param localeId
+     * @param validationIds
+     * @return text flow ids in document order
+     */
+    List<Long> getTextFlowIdsWithWarningOrError(Long documentId,
+            LocaleId localeId, Collection<ValidationId> validationIds);
+
+    /**
+     * Returns which of several documents have an active text flow whose
+     * target in the given locale fails any of the given validations. The
+     * indexes of documents which are not cached yet are built together, with
+     * one query per batch of documents.
+     *
+     * @param documentIds
+     * @param localeId
+     * @param validationIds
+     * @return document id -> whether any of its targets fails
+     */
+    Map<Long, Boolean> getDocumentsWithWarningOrError(
+            Collection<Long> documentIds, LocaleId localeId,
+            Collection<ValidationId> validationIds);
+
     /**
      * Return document wordStatistic in given localeId
      *
@@ -27,27 +27,34 @@ import java.io.IOException;
 import org.zanata.exception.ValidationException;
 import org.zanata.webtrans.client.resources.ValidationMessages;
 import org.zanata.webtrans.server.locale.Gwti18nReader;
+import org.zanata.webtrans.server.validation.ServerValidationFactory;
 import org.zanata.webtrans.shared.validation.ValidationFactory;
 
 /**
- * Provide new instance of ValidationFactory Used on server side -
+ * Provide the shared instance of ValidationFactory Used on server side -
  * org.zanata.webtrans.client.resources.ValidationMessages is client side
  * localisation. used Gwti18nReader as a basic parser for ValidationMessages.
  */
 public final class ValidationFactoryProvider {
-    private static ValidationFactory validationFactory;
 
     public static ValidationFactory getFactoryInstance() {
-        if (validationFactory == null) {
+        return Holder.VALIDATION_FACTORY;
+    }
+
+    // initialised on first use, once for all threads
+    private static final class Holder {
+        private static final ValidationFactory VALIDATION_FACTORY =
+                createFactory();
+
+        private static ValidationFactory createFactory() {
             try {
                 ValidationMessages valMessages =
                         Gwti18nReader.create(ValidationMessages.class);
-                validationFactory = new ValidationFactory(valMessages);
+                return new ServerValidationFactory(valMessages);
             } catch (IOException e) {
                 throw new ValidationException(
                         "Unable to load validation messages");
             }
         }
-        return validationFactory;
     }
 }
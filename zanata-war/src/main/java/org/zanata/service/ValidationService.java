@@ -6,6 +6,7 @@ package org.zanata.service;
 import java.io.IOException;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 import org.zanata.common.LocaleId;
 import org.zanata.model.HDocument;
@@ -54,6 +55,19 @@ public interface ValidationService {
     boolean runDocValidations(Long hDocId, List<ValidationId> validationIds,
             LocaleId localeId);
 
+    /**
+     * Run validation check on several documents at once, loading the
+     * translations of many documents per query.
+     *
+     * @param hDocIds
+     *            document ids (NOT the String type docId)
+     * @param validationIds
+     * @param localeId
+     * @return document id -> whether any translation has an error
+     */
+    Map<Long, Boolean> runDocValidations(Collection<Long> hDocIds,
+            List<ValidationId> validationIds, LocaleId localeId);
+
     /**
      * Filter list of text flow with those only contains validation error
      *
@@ -66,6 +80,22 @@ public interface ValidationService {
             List<ValidationId> validationIds, LocaleId localeId,
             int startIndex, int maxSize);
 
+    /**
+     * Find the text flows of a document whose target contains a validation
+     * error, without loading the text flows.
+     *
+     * @param documentId
+     *            document id (NOT the String type docId)
+     * @param validationIds
+     * @param localeId
+     * @param startIndex
+     * @param maxSize
+     * @return a page of text flow ids, in document order
+     */
+    List<Long> findHasWarningOrErrorTextFlowIds(Long documentId,
+            List<ValidationId> validationIds, LocaleId localeId,
+            int startIndex, int maxSize);
+
     /**
      * Run validation check on HTextFlow and HTextFlowTarget with specific
      * locale from HDocument against validations rules defined in version
@@ -22,8 +22,11 @@
 
 package org.zanata.service;
 
+import java.util.Collection;
+
 import org.zanata.common.LocaleId;
 import org.zanata.events.DocStatsEvent;
+import org.zanata.ui.model.statistic.IterationStatistics;
 import org.zanata.ui.model.statistic.WordStatistic;
 
 /**
@@ -43,6 +46,13 @@ public interface VersionStateCache {
     WordStatistic getVersionStatistics(Long projectIterationId,
             LocaleId localeId);
 
+    /**
+     * @return statistics of every document of the version in (at least) the
+     *         given locales, without the last translators
+     */
+    IterationStatistics getIterationStatistics(Long projectIterationId,
+            Collection<LocaleId> localeIds);
+
     /**
      * Clears all caches for a single project version (all locales).
      * @param versionId All cached stats for this version will be cleared.
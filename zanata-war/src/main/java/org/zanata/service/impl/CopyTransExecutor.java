@@ -0,0 +1,158 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.zanata.service.impl;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.zanata.async.AsyncTask;
+import org.zanata.async.AsyncTaskHandle;
+import org.zanata.async.AsyncTaskManager;
+import org.zanata.config.AsyncConfig;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Runs units of CopyTrans work, normally one (document, locale) pair each, on
+ * a dedicated bounded thread pool.
+ * <p>
+ * Each unit runs with its own request context (and thus its own persistence
+ * context and transactions), like any other async task. The number of units
+ * in flight for a single project is capped, so that one huge version cannot
+ * starve CopyTrans for other projects.
+ */
+@Named("copyTransExecutor")
+@ApplicationScoped
+@Slf4j
+public class CopyTransExecutor {
+
+    private ExecutorService executor;
+
+    private int poolSize;
+
+    private int maxUnitsPerProject;
+
+    // project id -> permits for units in flight
+    private final ConcurrentMap<Long, Semaphore> projectPermits =
+            Maps.newConcurrentMap();
+
+    @Inject
+    private AsyncConfig asyncConfig;
+
+    @Inject
+    private AsyncTaskManager asyncTaskManager;
+
+    @PostConstruct
+    public void init() {
+        poolSize = Math.max(1, asyncConfig.getCopyTransThreadPoolSize());
+        maxUnitsPerProject =
+                Math.max(1, asyncConfig.getCopyTransThreadsPerProject());
+        executor = Executors.newFixedThreadPool(poolSize,
+                new ThreadFactoryBuilder().setNameFormat("copytrans-%d")
+                        .build());
+    }
+
+    @PreDestroy
+    public void cleanup() {
+        executor.shutdown();
+    }
+
+    /**
+     * @return true if CopyTrans units should be run in parallel
+     */
+    public boolean isParallel() {
+        return poolSize > 1;
+    }
+
+    /**
+     * Runs the given units on the CopyTrans pool, and waits for them to
+     * finish. The caller's thread blocks while the project already has the
+     * maximum number of units in flight, so pool threads never wait for
+     * permits. No more units are started once the task handle is cancelled.
+     *
+     * @param projectId
+     *            the project which the units belong to
+     * @param units
+     *            the units of work
+     * @param taskHandleOpt
+     *            Optional task handle for the overall operation
+     * @throws ExecutionException
+     *             if any unit failed
+     */
+    public void runAll(Long projectId, List<AsyncTask<Future<Void>>> units,
+            Optional<? extends AsyncTaskHandle<?>> taskHandleOpt)
+            throws InterruptedException, ExecutionException {
+        Semaphore permits = projectPermits.computeIfAbsent(projectId,
+                id -> new Semaphore(maxUnitsPerProject));
+        List<ListenableFuture<Void>> futures = Lists.newArrayList();
+        try {
+            for (AsyncTask<Future<Void>> unit : units) {
+                if (taskHandleOpt.isPresent()
+                        && taskHandleOpt.get().isCancelled()) {
+                    break;
+                }
+                permits.acquire();
+                ListenableFuture<Void> future;
+                try {
+                    future = asyncTaskManager.startTask(unit, executor);
+                } catch (RuntimeException e) {
+                    permits.release();
+                    throw e;
+                }
+                future.addListener(permits::release,
+                        MoreExecutors.directExecutor());
+                futures.add(future);
+            }
+        } finally {
+            // never leave units running behind the caller's back
+            for (ListenableFuture<Void> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    // reported below
+                }
+            }
+        }
+        for (ListenableFuture<Void> future : futures) {
+            future.get();
+        }
+        log.debug("copyTrans: ran {} of {} units for project {}",
+                futures.size(), units.size(), projectId);
+    }
+}
@@ -20,7 +20,11 @@
  */
 package org.zanata.service.impl;
 
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 
 import javax.annotation.Nonnull;
@@ -34,10 +38,14 @@ import lombok.AllArgsConstructor;
 import lombok.NoArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import org.hibernate.ScrollableResults;
 import org.zanata.async.Async;
+import org.zanata.async.AsyncTask;
 import org.zanata.async.AsyncTaskResult;
 import org.zanata.async.handle.CopyTransTaskHandle;
+import org.zanata.common.LocaleId;
 import org.zanata.dao.DocumentDAO;
+import org.zanata.dao.HTextFlowTargetStreamingDAO;
 import org.zanata.dao.ProjectDAO;
 import org.zanata.dao.TextFlowDAO;
 import org.zanata.dao.TextFlowTargetDAO;
@@ -46,13 +54,20 @@ import org.zanata.model.HDocument;
 import org.zanata.model.HLocale;
 import org.zanata.model.HProjectIteration;
 import org.zanata.model.HTextFlow;
+import org.zanata.search.BestMatchSelector;
 import org.zanata.service.CopyTransService;
 import org.zanata.service.LocaleService;
+import org.zanata.service.TranslatedDocumentStateCache;
 import org.zanata.service.TranslationStateCache;
 import org.zanata.util.ServiceLocator;
 
 import com.google.common.base.Optional;
 import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 
 @Named("copyTransServiceImpl")
 @RequestScoped
@@ -63,6 +78,13 @@ public class CopyTransServiceImpl implements CopyTransService {
 
     private static final int COPY_TRANS_BATCH_SIZE = 20;
 
+    // the inverted strategy holds matching candidates in memory
+    private static final long MAX_CANDIDATES_TO_ITERATE = 200000;
+
+    // streaming a candidate row is much cheaper than a match query per text
+    // flow, so iterate candidates even if there are a few more of them
+    private static final int CANDIDATES_PER_TEXT_FLOW_TO_ITERATE = 4;
+
     @Inject
     private LocaleService localeServiceImpl;
     @Inject
@@ -77,6 +99,12 @@ public class CopyTransServiceImpl implements CopyTransService {
     private TranslationStateCache translationStateCacheImpl;
     @Inject
     private TextFlowDAO textFlowDAO;
+    @Inject
+    private HTextFlowTargetStreamingDAO textFlowTargetStreamingDAO;
+    @Inject
+    private CopyTransExecutor copyTransExecutor;
+    @Inject
+    private TranslatedDocumentStateCache translatedDocumentStateCache;
 
     /**
      * Copies previous matching translations for the given locale into a
@@ -91,7 +119,7 @@ public class CopyTransServiceImpl implements CopyTransService {
      * @param targetLocale
      *            the locale of translations to copy
      */
-    private void copyTransForDocumentLocale(HDocument document,
+    void copyTransForDocumentLocale(HDocument document,
             final HLocale targetLocale, final HCopyTransOptions options,
             Optional<CopyTransTaskHandle> taskHandleOpt) throws Exception {
 
@@ -104,6 +132,8 @@ public class CopyTransServiceImpl implements CopyTransService {
         // heuristic optimization
         Stopwatch stopwatch = Stopwatch.createStarted();
         boolean hasTranslationToCopy = true;
+        // smallest known number of candidates, or -1 if unbounded
+        long candidateCount = -1;
         if (options.getDocIdMismatchAction() ==
                 HCopyTransOptions.ConditionRuleAction.REJECT) {
             long translationCandidate =
@@ -111,6 +141,7 @@ public class CopyTransServiceImpl implements CopyTransService {
                             .getTranslationCandidateCountWithDocIdAndLocale(
                                     document, targetLocale);
             hasTranslationToCopy = (translationCandidate != 0);
+            candidateCount = translationCandidate;
         }
         if (hasTranslationToCopy && options.getProjectMismatchAction() ==
                 HCopyTransOptions.ConditionRuleAction.REJECT) {
@@ -120,22 +151,30 @@ public class CopyTransServiceImpl implements CopyTransService {
                                     document,
                                     targetLocale);
             hasTranslationToCopy = (translationCandidate != 0);
+            candidateCount = candidateCount < 0 ? translationCandidate
+                    : Math.min(candidateCount, translationCandidate);
         }
-        // TODO if the translation candidate number is small (compare to large
-        // number of copy targets), it's better to inverse the process, i.e.
-        // iterate through candidates and inject matches
 
         if (hasTranslationToCopy) {
             boolean requireTranslationReview =
                     document.getProjectIteration().getRequireTranslationReview();
 
-            while (start < document.getTextFlows().size()) {
-                numCopied +=
-                        copyTransForBatch(document, start, COPY_TRANS_BATCH_SIZE,
-                                targetLocale, options, taskHandleOpt,
+            if (shouldIterateCandidates(candidateCount,
+                    document.getTextFlows().size())) {
+                numCopied =
+                        copyTransFromCandidates(document, targetLocale,
+                                options, taskHandleOpt,
                                 requireTranslationReview);
-                start += COPY_TRANS_BATCH_SIZE;
-                documentDAO.clear();
+            } else {
+                while (start < document.getTextFlows().size()) {
+                    numCopied +=
+                            copyTransForBatch(document, start,
+                                    COPY_TRANS_BATCH_SIZE, targetLocale,
+                                    options, taskHandleOpt,
+                                    requireTranslationReview);
+                    start += COPY_TRANS_BATCH_SIZE;
+                    documentDAO.clear();
+                }
             }
         } else if (taskHandleOpt.isPresent()) {
             int totalActiveTextFlows =
@@ -150,6 +189,9 @@ public class CopyTransServiceImpl implements CopyTransService {
         if (numCopied > 0) {
             translationStateCacheImpl.clearDocumentStatistics(document.getId(),
                     targetLocale.getLocaleId());
+            // CopyTrans does not fire TextFlowTargetStateEvent
+            translatedDocumentStateCache.clear(document.getId(),
+                    targetLocale.getLocaleId());
         }
 
         stopwatch.stop();
@@ -159,6 +201,123 @@ public class CopyTransServiceImpl implements CopyTransService {
                 document.getName(), stopwatch);
     }
 
+    /**
+     * Decides whether to use the inverted strategy, i.e. to iterate through
+     * the translation candidates and inject matches, rather than to search
+     * for a match for every text flow. This pays off when the options limit
+     * the candidates to a set which is small compared to the document, e.g.
+     * for a new version which shares few strings with older versions.
+     *
+     * @param candidateCount
+     *            number of translation candidates, or a negative number if
+     *            the candidates are not limited by the options
+     * @param textFlowCount
+     *            number of text flows in the document
+     */
+    @VisibleForTesting
+    static boolean shouldIterateCandidates(long candidateCount,
+            int textFlowCount) {
+        return candidateCount >= 0
+                && candidateCount <= MAX_CANDIDATES_TO_ITERATE
+                && candidateCount < (long) textFlowCount
+                        * CANDIDATES_PER_TEXT_FLOW_TO_ITERATE;
+    }
+
+    /**
+     * Inverted copy trans: streams the translation candidates for the document
+     * once, matches them against the document's text flows with an in-memory
+     * index on content hash, then saves the best matches in batches.
+     *
+     * @return The number of actual copied translations for the document.
+     */
+    private int copyTransFromCandidates(HDocument document,
+            HLocale targetLocale, HCopyTransOptions options,
+            Optional<CopyTransTaskHandle> taskHandleOpt,
+            boolean requireTranslationReview) throws Exception {
+        boolean checkContext = options.getContextMismatchAction() ==
+                HCopyTransOptions.ConditionRuleAction.REJECT;
+        boolean checkDocument = options.getDocIdMismatchAction() ==
+                HCopyTransOptions.ConditionRuleAction.REJECT;
+        boolean checkProject = options.getProjectMismatchAction() ==
+                HCopyTransOptions.ConditionRuleAction.REJECT;
+        LocaleId localeId = targetLocale.getLocaleId();
+        List<HTextFlow> textFlows = document.getTextFlows();
+
+        Set<String> contentHashes = Sets.newHashSet();
+        for (HTextFlow textFlow : textFlows) {
+            contentHashes.add(textFlow.getContentHash());
+        }
+        BestMatchSelector selector =
+                new BestMatchSelector(checkContext, checkDocument,
+                        checkProject);
+        ScrollableResults candidates =
+                textFlowTargetStreamingDAO.getCopyTransCandidates(document,
+                        targetLocale, checkDocument, checkProject);
+        try {
+            while (candidates.next()) {
+                String contentHash = (String) candidates.get(2);
+                if (contentHashes.contains(contentHash)) {
+                    selector.addCandidate(new BestMatchSelector.Candidate(
+                            (Long) candidates.get(0),
+                            (Long) candidates.get(1), contentHash, localeId,
+                            (String) candidates.get(3),
+                            (String) candidates.get(4),
+                            (Long) candidates.get(5),
+                            (Date) candidates.get(6)));
+                }
+            }
+        } finally {
+            candidates.close();
+        }
+
+        // copy target text flow id -> matching text flow target id
+        Map<Long, Long> matches = Maps.newLinkedHashMap();
+        // copy target text flow id -> number of text flows up to and
+        // including it, for progress reporting
+        Map<Long, Integer> textFlowsDone = Maps.newHashMap();
+        int position = 0;
+        for (HTextFlow textFlow : textFlows) {
+            position++;
+            BestMatchSelector.Candidate best =
+                    selector.selectBestMatches(
+                            BestMatchSelector.Source.of(textFlow)).get(localeId);
+            if (best != null) {
+                matches.put(textFlow.getId(), best.getTargetId());
+                textFlowsDone.put(textFlow.getId(), position);
+            }
+        }
+        int textFlowCount = textFlows.size();
+        documentDAO.clear();
+
+        int numCopied = 0;
+        int progress = 0;
+        for (List<Map.Entry<Long, Long>> batch : Iterables.partition(
+                matches.entrySet(), COPY_TRANS_BATCH_SIZE)) {
+            Map<Long, Long> batchMatches = Maps.newLinkedHashMap();
+            for (Map.Entry<Long, Long> entry : batch) {
+                batchMatches.put(entry.getKey(), entry.getValue());
+            }
+            numCopied +=
+                    copyTransWorkFactory.runCopyTransForMatchesInNewTx(
+                            targetLocale, options, requireTranslationReview,
+                            batchMatches);
+            documentDAO.clear();
+            // unmatched text flows before the batch's last match are done too
+            int done = textFlowsDone.get(
+                    batch.get(batch.size() - 1).getKey());
+            if (taskHandleOpt.isPresent()) {
+                taskHandleOpt.get().increaseProgress(done - progress);
+            }
+            progress = done;
+        }
+        if (taskHandleOpt.isPresent()) {
+            taskHandleOpt.get().increaseProgress(textFlowCount - progress);
+        }
+        log.debug("copyTrans: {} matches from candidates for document \"{}\"",
+                matches.size(), document.getDocId());
+        return numCopied;
+    }
+
     /**
      * Perform copy trans on a batch of text flows for a document.
      *
@@ -242,15 +401,22 @@ public class CopyTransServiceImpl implements CopyTransService {
                         document.getProjectIteration().getProject().getSlug(),
                         document.getProjectIteration().getSlug());
 
-        for (HLocale targetLocale : localeList) {
-            if (taskHandleOpt.isPresent() && taskHandleOpt.get().isCancelled()) {
-                return;
-            }
-            try {
-                copyTransForDocumentLocale(document, targetLocale, copyTransOpts,
-                        taskHandleOpt);
-            } catch (Exception e) {
-                Throwables.propagate(e);
+        if (copyTransExecutor.isParallel()) {
+            copyTransInParallel(document.getProjectIteration(),
+                    ImmutableList.of(document), localeList, copyTransOpts,
+                    taskHandleOpt);
+        } else {
+            for (HLocale targetLocale : localeList) {
+                if (taskHandleOpt.isPresent()
+                        && taskHandleOpt.get().isCancelled()) {
+                    return;
+                }
+                try {
+                    copyTransForDocumentLocale(document, targetLocale,
+                            copyTransOpts, taskHandleOpt);
+                } catch (Exception e) {
+                    Throwables.propagate(e);
+                }
             }
         }
         log.info("copyTrans finished: document \"{}\"", document.getDocId());
@@ -299,6 +465,7 @@ public class CopyTransServiceImpl implements CopyTransService {
             prepareCopyTransHandle(iteration, taskHandleOpt.get());
         }
 
+        List<HDocument> parallelDocs = Lists.newArrayList();
         for (HDocument doc : iteration.getDocuments().values()) {
             if (taskHandleOpt.isPresent() && taskHandleOpt.get().isCancelled()) {
                 return;
@@ -317,8 +484,78 @@ public class CopyTransServiceImpl implements CopyTransService {
                     return;
                 }
             }
-            this.copyTransForDocument(doc, copyTransOptions, handle);
+            if (copyTransExecutor.isParallel()) {
+                parallelDocs.add(doc);
+            } else {
+                this.copyTransForDocument(doc, copyTransOptions, handle);
+            }
         }
+        if (!parallelDocs.isEmpty()) {
+            List<HLocale> localeList =
+                    localeServiceImpl.getSupportedLanguageByProjectIteration(
+                            iteration.getProject().getSlug(),
+                            iteration.getSlug());
+            copyTransInParallel(iteration, parallelDocs, localeList,
+                    copyTransOptions, taskHandleOpt);
+        }
+    }
+
+    /**
+     * Fans out one unit of work for each (document, locale) pair onto the
+     * CopyTrans pool, and waits for all of them to finish.
+     * <p>
+     * Units only capture ids and a detached copy of the options: entities
+     * belong to the caller's session, so each unit reloads what it needs in
+     * its own request context.
+     */
+    private void copyTransInParallel(HProjectIteration iteration,
+            List<HDocument> documents, List<HLocale> localeList,
+            HCopyTransOptions options,
+            final Optional<CopyTransTaskHandle> taskHandleOpt) {
+        final HCopyTransOptions detachedOptions =
+                new HCopyTransOptions(options.getContextMismatchAction(),
+                        options.getDocIdMismatchAction(),
+                        options.getProjectMismatchAction());
+        List<AsyncTask<Future<Void>>> units = Lists.newArrayList();
+        for (HDocument document : documents) {
+            final Long documentId = document.getId();
+            for (HLocale targetLocale : localeList) {
+                final LocaleId localeId = targetLocale.getLocaleId();
+                units.add(() -> {
+                    if (!taskHandleOpt.isPresent()
+                            || !taskHandleOpt.get().isCancelled()) {
+                        // each unit runs in its own request context
+                        ServiceLocator.instance()
+                                .getInstance(CopyTransServiceImpl.class)
+                                .copyTransForDocumentLocale(documentId,
+                                        localeId, detachedOptions,
+                                        taskHandleOpt);
+                    }
+                    return AsyncTaskResult.taskResult();
+                });
+            }
+        }
+        try {
+            copyTransExecutor.runAll(iteration.getProject().getId(), units,
+                    taskHandleOpt);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            Throwables.propagate(e);
+        } catch (ExecutionException e) {
+            Throwables.propagate(e.getCause());
+        }
+    }
+
+    /**
+     * Runs a single CopyTrans unit, loading the document and locale in the
+     * current persistence context.
+     */
+    void copyTransForDocumentLocale(Long documentId, LocaleId localeId,
+            HCopyTransOptions options,
+            Optional<CopyTransTaskHandle> taskHandleOpt) throws Exception {
+        copyTransForDocumentLocale(documentDAO.findById(documentId),
+                localeServiceImpl.getByLocaleId(localeId), options,
+                taskHandleOpt);
     }
 
     private void prepareCopyTransHandle(HProjectIteration iteration, CopyTransTaskHandle handle) {
@@ -38,6 +38,8 @@ import lombok.extern.slf4j.Slf4j;
 import javax.inject.Inject;
 import javax.inject.Named;
 import org.zanata.common.ContentState;
+import org.zanata.common.LocaleId;
+import org.zanata.dao.TextFlowDAO;
 import org.zanata.dao.TextFlowTargetDAO;
 import org.zanata.events.DocStatsEvent;
 import org.zanata.events.DocumentLocaleKey;
@@ -56,9 +58,10 @@ import org.zanata.service.VersionStateCache;
 import org.zanata.util.TranslationUtil;
 import org.zanata.webtrans.shared.model.ValidationAction;
 
-import com.google.common.base.Optional;
 import com.google.common.base.Supplier;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 
 /**
@@ -77,6 +80,9 @@ public class CopyTransWorkFactory {
     @Inject
     private TextFlowTargetDAO textFlowTargetDAO;
 
+    @Inject
+    private TextFlowDAO textFlowDAO;
+
     @Inject
     private ValidationService validationServiceImpl;
 
@@ -113,22 +119,68 @@ public class CopyTransWorkFactory {
         }
 
         Long actorId = authenticatedAccount.getPerson().getId();
+        List<HTextFlow> toMatch = Lists.newArrayList();
         for (HTextFlow textFlow : copyTargets) {
             if (shouldFindMatch(textFlow, targetLocale,
                     requireTranslationReview)) {
+                toMatch.add(textFlow);
+            }
+        }
+        if (toMatch.isEmpty()) {
+            return numCopied;
+        }
+        // look up matches for the whole batch at once, rather than one query
+        // per text flow
+        LocaleId localeId = targetLocale.getLocaleId();
+        Map<Long, Map<LocaleId, HTextFlowTarget>> bestMatches =
+                translationFinder.searchBestMatchTransMemory(toMatch,
+                        ImmutableSet.of(localeId),
+                        document.getLocale().getLocaleId(), checkContext,
+                        checkDocument, checkProject);
+        for (HTextFlow textFlow : toMatch) {
+            Map<LocaleId, HTextFlowTarget> matches =
+                    bestMatches.get(textFlow.getId());
+            if (matches != null && matches.containsKey(localeId)) {
+                numCopied++;
+
+                saveCopyTransMatch(actorId, matches.get(localeId), textFlow,
+                    options, requireTranslationReview);
+            }
+        }
+        return numCopied;
+    }
 
-                Optional<HTextFlowTarget> bestMatch =
-                        translationFinder.searchBestMatchTransMemory(textFlow,
-                                targetLocale.getLocaleId(), document
-                                        .getLocale().getLocaleId(),
-                                checkContext, checkDocument, checkProject);
-                if (bestMatch.isPresent()) {
-                    numCopied++;
+    public Integer runCopyTransForMatchesInNewTx(HLocale targetLocale,
+            HCopyTransOptions options, boolean requireTranslationReview,
+            Map<Long, Long> matches) throws Exception {
+        return runInTransaction(() -> runCopyTransForMatches(targetLocale,
+                options, requireTranslationReview, matches));
+    }
 
-                    saveCopyTransMatch(actorId, bestMatch.get(), textFlow,
-                        options, requireTranslationReview);
+    /**
+     * Copies translations which have already been chosen by the caller, e.g.
+     * by the inverted CopyTrans strategy in {@link CopyTransServiceImpl}.
+     *
+     * @param matches
+     *            map of copy target text flow id to the id of the best
+     *            matching text flow target
+     * @return the number of copied translations
+     */
+    public Integer runCopyTransForMatches(HLocale targetLocale,
+            HCopyTransOptions options, boolean requireTranslationReview,
+            Map<Long, Long> matches) {
+        int numCopied = 0;
+        Long actorId = authenticatedAccount.getPerson().getId();
+        for (Map.Entry<Long, Long> entry : matches.entrySet()) {
+            HTextFlow textFlow = textFlowDAO.findById(entry.getKey());
+            if (textFlow != null && shouldFindMatch(textFlow, targetLocale,
+                    requireTranslationReview)) {
+                HTextFlowTarget match =
+                        textFlowTargetDAO.findById(entry.getValue());
+                numCopied++;
 
-                }
+                saveCopyTransMatch(actorId, match, textFlow, options,
+                        requireTranslationReview);
             }
         }
         return numCopied;
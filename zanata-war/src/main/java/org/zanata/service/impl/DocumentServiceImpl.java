@@ -127,6 +127,9 @@ public class DocumentServiceImpl implements DocumentService {
     @Inject
     private Messages msgs;
 
+    @Inject
+    private WebHooksPublisher webHooksPublisher;
+
     @Inject
     private Event<DocumentUploadedEvent> documentUploadedEvent;
 
@@ -324,7 +327,7 @@ public class DocumentServiceImpl implements DocumentService {
     public void publishDocumentMilestoneEvent(List<WebHook> webHooks,
             DocumentMilestoneEvent event) {
         for (WebHook webHook : webHooks) {
-            WebHooksPublisher.publish(webHook.getUrl(), event,
+            webHooksPublisher.publish(webHook.getUrl(), event,
                     Optional.fromNullable(webHook.getSecret()));
         }
     }
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.service.impl;
+
+import java.io.Serializable;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.zanata.webtrans.shared.model.ValidationId;
+
+/**
+ * Which text flows of a document fail which validations, for one locale.
+ * <p>
+ * Text flows are held in document order, and each validation has a bit set of
+ * the positions whose target fails it, so that the text flows failing any of
+ * several validations can be found without loading their targets.
+ * <p>
+ * Not thread safe; callers synchronize on the index.
+ */
+class DocumentValidationIndex implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final List<Long> textFlowIds;
+    private final Map<Long, Integer> indexByTextFlowId;
+    private final Map<ValidationId, BitSet> failures =
+            Maps.newEnumMap(ValidationId.class);
+
+    DocumentValidationIndex(List<Long> textFlowIds) {
+        this.textFlowIds = ImmutableList.copyOf(textFlowIds);
+        this.indexByTextFlowId =
+                Maps.newHashMapWithExpectedSize(textFlowIds.size());
+        for (int i = 0; i < textFlowIds.size(); i++) {
+            indexByTextFlowId.put(textFlowIds.get(i), i);
+        }
+    }
+
+    boolean hasValidation(ValidationId validationId) {
+        return failures.containsKey(validationId);
+    }
+
+    Collection<ValidationId> getValidationIds() {
+        return failures.keySet();
+    }
+
+    /**
+     * @param failed
+     *            for each text flow in document order, whether its target
+     *            fails the validation
+     */
+    void putValidation(ValidationId validationId, BitSet failed) {
+        failures.put(validationId, failed);
+    }
+
+    /**
+     * Marks the text flows which fail a validation in a range of the index.
+     *
+     * @param failed
+     *            failures in the range, relative to its start
+     * @param offset
+     *            start of the range
+     */
+    void mergeFailures(ValidationId validationId, BitSet failed, int offset) {
+        BitSet bits = failures.get(validationId);
+        for (int i = failed.nextSetBit(0); i >= 0; i = failed.nextSetBit(i + 1)) {
+            bits.set(offset + i);
+        }
+    }
+
+    /**
+     * @return false if the text flow is not in the index
+     */
+    boolean update(Long textFlowId, ValidationId validationId,
+            boolean failed) {
+        Integer index = indexByTextFlowId.get(textFlowId);
+        BitSet bits = failures.get(validationId);
+        if (index == null || bits == null) {
+            return false;
+        }
+        bits.set(index, failed);
+        return true;
+    }
+
+    /**
+     * @return whether any text flow fails any of the validations
+     */
+    boolean hasFailures(Collection<ValidationId> validationIds) {
+        for (ValidationId validationId : validationIds) {
+            BitSet bits = failures.get(validationId);
+            if (bits != null && !bits.isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return text flows which fail any of the validations, in document order
+     */
+    List<Long> getFailingTextFlowIds(Collection<ValidationId> validationIds) {
+        BitSet union = new BitSet(textFlowIds.size());
+        for (ValidationId validationId : validationIds) {
+            BitSet bits = failures.get(validationId);
+            if (bits != null) {
+                union.or(bits);
+            }
+        }
+        List<Long> result = Lists.newArrayListWithCapacity(union.cardinality());
+        for (int i = union.nextSetBit(0); i >= 0; i = union.nextSetBit(i + 1)) {
+            result.add(textFlowIds.get(i));
+        }
+        return result;
+    }
+}
@@ -25,6 +25,9 @@ import java.io.FileFilter;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardCopyOption;
 import java.util.Calendar;
 import java.util.Properties;
 
@@ -49,6 +52,10 @@ public class FileSystemServiceImpl implements FileSystemService {
 
     private static final String DOWNLOAD_FILE_DESCRIPTOR_SUFFIX = ".xml";
 
+    // starts with DOWNLOAD_FILE_PREFIX, so that cached files expire too
+    private static final String CACHED_FILE_PREFIX = DOWNLOAD_FILE_PREFIX
+            + "-cache-";
+
     /**
      * @see org.zanata.service.FileSystemService#createDownloadDescriptorFile(java.io.File,
      *      java.lang.String, java.lang.String)
@@ -104,6 +111,44 @@ public class FileSystemServiceImpl implements FileSystemService {
                 STAGING_DIR);
     }
 
+    @Override
+    public void cacheDownloadFile(File downloadFile, String cacheKey)
+            throws IOException {
+        File cached = new File(STAGING_DIR, CACHED_FILE_PREFIX + cacheKey);
+        // copy under a temporary name first, so that a partially copied file
+        // is never served
+        File temp =
+                File.createTempFile(CACHED_FILE_PREFIX, ".tmp", STAGING_DIR);
+        try {
+            Files.copy(downloadFile.toPath(), temp.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING);
+            Files.move(temp.toPath(), cached.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp.toPath());
+        }
+    }
+
+    @Override
+    public File createDownloadStagingFileFromCache(String cacheKey,
+            String fileExtension) throws IOException {
+        File cached = new File(STAGING_DIR, CACHED_FILE_PREFIX + cacheKey);
+        if (!cached.exists()) {
+            return null;
+        }
+        File staging = createDownloadStagingFile(fileExtension);
+        try {
+            Files.copy(cached.toPath(), staging.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING);
+        } catch (NoSuchFileException e) {
+            // expired in the meantime
+            staging.delete();
+            return null;
+        }
+        return staging;
+    }
+
     /**
      * @see org.zanata.service.FileSystemService#getAllExpiredDownloadFiles()
      */
@@ -37,14 +37,14 @@ import javax.inject.Named;
 import org.zanata.action.ReindexClassOptions;
 import org.zanata.async.Async;
 import org.zanata.async.AsyncTaskHandle;
+import org.zanata.async.AsyncTaskPriority;
 import org.zanata.async.AsyncTaskResult;
+import org.zanata.config.AsyncConfig;
 import org.zanata.dao.HTextFlowTargetStreamingDAO;
 import org.zanata.model.HProject;
-import org.zanata.model.HTextFlowTarget;
-import org.zanata.search.AbstractIndexingStrategy;
-import org.zanata.search.ClassIndexer;
 import org.zanata.search.HTextFlowTargetIndexingStrategy;
-import org.zanata.search.SimpleClassIndexingStrategy;
+import org.zanata.search.PartitionedIndexer;
+import org.zanata.search.ReindexCheckpoints;
 import org.zanata.service.IndexingService;
 import org.zanata.util.Zanata;
 
@@ -63,16 +63,27 @@ public class IndexingServiceImpl implements IndexingService {
     @Inject
     private HTextFlowTargetStreamingDAO hTextFlowTargetStreamingDAO;
 
+    @Inject
+    private AsyncConfig asyncConfig;
+
     @Override
-    @Async
+    @Async(priority = AsyncTaskPriority.LOW)
     public Future<Void> startIndexing(
             Map<Class<?>, ReindexClassOptions> indexingOptions,
             AsyncTaskHandle<Void> handle)
             throws Exception {
+        ReindexCheckpoints checkpoints =
+                ReindexCheckpoints.fromSystemProperties();
+        for (Class<?> clazz : indexingOptions.keySet()) {
+            if (indexingOptions.get(clazz).isPurge()) {
+                // purging means starting again from the beginning
+                checkpoints.remove(clazz);
+            }
+        }
         FullTextSession session = openFullTextSession();
         try {
             handle.setMaxProgress(getTotalOperations(session, indexingOptions,
-                    handle));
+                    checkpoints, handle));
             // TODO this is necessary because isInProgress checks number of
             // operations, which may be 0
             // look at updating isInProgress not to care about count
@@ -92,7 +103,7 @@ public class IndexingServiceImpl implements IndexingService {
                         && indexingOptions.get(clazz).isReindex()) {
                     log.info("reindexing {}", clazz);
                     // currentClass = clazz;
-                    getIndexer(clazz, handle).index(session);
+                    getIndexer(clazz, checkpoints, handle).index();
                 }
                 if (!handle.isCancelled()
                         && indexingOptions.get(clazz).isOptimize()) {
@@ -139,7 +150,7 @@ public class IndexingServiceImpl implements IndexingService {
      */
     private int getTotalOperations(FullTextSession session,
             Map<Class<?>, ReindexClassOptions> indexingOptions,
-            AsyncTaskHandle handle) {
+            ReindexCheckpoints checkpoints, AsyncTaskHandle<?> handle) {
         // set up progress counter
         int totalOperations = 0;
         for (Class<?> clazz : indexingOptions.keySet()) {
@@ -150,7 +161,8 @@ public class IndexingServiceImpl implements IndexingService {
 
             if (opts.isReindex()) {
                 totalOperations +=
-                        getIndexer(clazz, handle).getEntityCount(session);
+                        getIndexer(clazz, checkpoints, handle)
+                                .getEntityCount(session);
             }
 
             if (opts.isOptimize()) {
@@ -160,21 +172,15 @@ public class IndexingServiceImpl implements IndexingService {
         return totalOperations;
     }
 
-    private <T> ClassIndexer<T> getIndexer(Class<T> clazz,
-            AsyncTaskHandle handle) {
-        AbstractIndexingStrategy<T> strategy;
-        // TODO add a strategy which uses TransMemoryStreamingDAO
-        if (clazz.equals(HTextFlowTarget.class)) {
-            strategy =
-                    (AbstractIndexingStrategy<T>) new HTextFlowTargetIndexingStrategy();
-        } else {
-            strategy = new SimpleClassIndexingStrategy<T>(clazz);
-        }
-        return new ClassIndexer<T>(handle, clazz, strategy);
+    private <T> PartitionedIndexer<T> getIndexer(Class<T> clazz,
+            ReindexCheckpoints checkpoints, AsyncTaskHandle<?> handle) {
+        return new PartitionedIndexer<T>(clazz, entityManagerFactory,
+                checkpoints, handle, asyncConfig.getReindexThreadPoolSize(),
+                asyncConfig.getReindexRangeSize());
     }
 
     @Override
-    @Async
+    @Async(priority = AsyncTaskPriority.LOW)
     public Future<Void> reindexHTextFlowTargetsForProject(HProject hProject,
             AsyncTaskHandle<Void> handle)
             throws Exception {
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.service.impl;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import lombok.AllArgsConstructor;
+
+/**
+ * Writes zip entries whose content is still being produced elsewhere, in the
+ * order they were added. At most {@code maxPending} entries are kept waiting,
+ * after which adding an entry blocks until the oldest one has been written.
+ */
+class OrderedZipWriter {
+    private final ZipOutputStream zipOutput;
+    private final int maxPending;
+    private final Deque<PendingEntry> pending = new ArrayDeque<>();
+
+    OrderedZipWriter(ZipOutputStream zipOutput, int maxPending) {
+        this.zipOutput = zipOutput;
+        this.maxPending = Math.max(1, maxPending);
+    }
+
+    void add(String name, Future<byte[]> content)
+            throws IOException, InterruptedException, ExecutionException {
+        pending.add(new PendingEntry(name, content));
+        while (pending.size() > maxPending) {
+            writeNext();
+        }
+    }
+
+    /**
+     * Writes all remaining entries.
+     */
+    void finish()
+            throws IOException, InterruptedException, ExecutionException {
+        while (!pending.isEmpty()) {
+            writeNext();
+        }
+    }
+
+    /**
+     * Drops all remaining entries without writing them.
+     */
+    void abort() {
+        for (PendingEntry entry : pending) {
+            entry.content.cancel(true);
+        }
+        pending.clear();
+    }
+
+    private void writeNext()
+            throws IOException, InterruptedException, ExecutionException {
+        PendingEntry entry = pending.remove();
+        byte[] content = entry.content.get();
+        zipOutput.putNextEntry(new ZipEntry(entry.name));
+        zipOutput.write(content);
+        zipOutput.closeEntry();
+    }
+
+    @AllArgsConstructor
+    private static class PendingEntry {
+        private final String name;
+        private final Future<byte[]> content;
+    }
+}
@@ -21,26 +21,28 @@
 package org.zanata.service.impl;
 
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.Nullable;
 
 import lombok.extern.slf4j.Slf4j;
 
+import org.apache.commons.lang.StringUtils;
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.index.Term;
-import org.apache.lucene.queryParser.MultiFieldQueryParser;
-import org.apache.lucene.queryParser.ParseException;
-import org.apache.lucene.queryParser.QueryParser;
 import org.apache.lucene.search.BooleanClause.Occur;
 import org.apache.lucene.search.BooleanQuery;
-import org.apache.lucene.search.MultiPhraseQuery;
 import org.apache.lucene.search.Query;
+import org.apache.lucene.search.Sort;
 import org.apache.lucene.search.TermQuery;
-import org.apache.lucene.util.Version;
+import org.hibernate.FetchMode;
+import org.hibernate.search.FullTextQuery;
 import org.hibernate.search.FullTextSession;
-import org.hibernate.search.jpa.FullTextEntityManager;
-import org.hibernate.search.jpa.FullTextQuery;
 
 import javax.enterprise.context.RequestScoped;
 import javax.inject.Inject;
@@ -48,18 +50,21 @@ import javax.inject.Named;
 import org.zanata.common.ContentState;
 import org.zanata.common.LocaleId;
 import org.zanata.dao.DocumentDAO;
-import org.zanata.dao.ProjectIterationDAO;
+import org.zanata.dao.TextFlowTargetDAO;
 import org.zanata.exception.ZanataServiceException;
+import org.zanata.hibernate.search.Analyzers;
 import org.zanata.hibernate.search.IndexFieldLabels;
 import org.zanata.hibernate.search.TextContainerAnalyzerDiscriminator;
 import org.zanata.jpa.FullText;
 import org.zanata.model.HDocument;
 import org.zanata.model.HLocale;
-import org.zanata.model.HProjectIteration;
 import org.zanata.model.HTextFlow;
 import org.zanata.model.HTextFlowTarget;
 import org.zanata.search.FilterConstraintToQuery;
 import org.zanata.search.FilterConstraints;
+import org.zanata.search.SubstringCandidateQuery;
+import org.zanata.search.TextFlowSearchResult;
+import org.zanata.search.TextMatcher;
 import org.zanata.service.LocaleService;
 import org.zanata.service.TextFlowSearchService;
 import org.zanata.webtrans.shared.model.ContentStateGroup;
@@ -67,9 +72,22 @@ import org.zanata.webtrans.shared.model.DocumentId;
 import org.zanata.webtrans.shared.model.WorkspaceId;
 
 import com.google.common.base.Function;
+import com.google.common.base.Optional;
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 
 /**
+ * Searches text flows for the editor's project-wide search.
+ * <p>
+ * Searches in target content use the HTextFlowTarget index to find candidate
+ * translations when they can; everything else (and anything the index can't
+ * narrow down) uses a database query. Either way, the matches in each result
+ * are located so that they can be highlighted, and the results are returned
+ * one page at a time.
+ *
  * @author David Mason, <a
  *         href="mailto:damason@redhat.com">damason@redhat.com</a>
  */
@@ -78,12 +96,23 @@ import com.google.common.collect.Lists;
 @Slf4j
 public class TextFlowSearchServiceImpl implements TextFlowSearchService {
 
+    // candidates fetched from the index or database at a time
+    private static final int PAGE_SIZE = 500;
+
+    // stay well below Lucene's default BooleanQuery.maxClauseCount (1024)
+    private static final int MAX_INDEX_DOCUMENT_TERMS = 500;
+
+    private static final int TARGET_BATCH_SIZE = 500;
+
     @Inject
     private LocaleService localeServiceImpl;
 
     @Inject
     private DocumentDAO documentDAO;
 
+    @Inject
+    private TextFlowTargetDAO textFlowTargetDAO;
+
     @Inject @FullText
     private FullTextSession session;
 
@@ -99,18 +128,25 @@ public class TextFlowSearchServiceImpl implements TextFlowSearchService {
         return findTextFlowsByDocumentPaths(workspace, documents, constraints);
     }
 
-    /**
-     * @param workspace
-     *            workspace
-     * @param documentPaths
-     *            null or empty to search entire project, otherwise only results
-     *            for the given document paths will be returned
-     * @param constraints
-     *            filter constraints
-     * @return list of matching text flows
-     */
     private List<HTextFlow> findTextFlowsByDocumentPaths(WorkspaceId workspace,
-            List<String> documentPaths, FilterConstraints constraints) {
+            @Nullable List<String> documentPaths,
+            FilterConstraints constraints) {
+        TextFlowSearchResult result = searchTextFlows(workspace,
+                documentPaths, constraints, 0, Integer.MAX_VALUE);
+        List<HTextFlow> textFlows = Lists.newArrayList(Lists.transform(
+                result.getHits(), TextFlowSearchResult.Hit::getTextFlow));
+        // index hits are in index order, callers list the hits of each
+        // document in document order
+        textFlows.sort(Comparator.comparing(
+                (HTextFlow textFlow) -> textFlow.getDocument().getId())
+                .thenComparing(HTextFlow::getPos));
+        return textFlows;
+    }
+
+    @Override
+    public TextFlowSearchResult searchTextFlows(WorkspaceId workspace,
+            @Nullable List<String> documentPaths,
+            FilterConstraints constraints, int offset, int maxResults) {
         LocaleId localeId = workspace.getLocaleId();
         String projectSlug = workspace.getProjectIterationId().getProjectSlug();
         String iterationSlug =
@@ -132,7 +168,7 @@ public class TextFlowSearchServiceImpl implements TextFlowSearchService {
 
         if (!constraints.isSearchInSource() && !constraints.isSearchInTarget()) {
             // searching nowhere
-            return Collections.emptyList();
+            return TextFlowSearchResult.empty();
         }
 
         // FIXME this looks like it assumes only 3 states and would not work
@@ -142,39 +178,166 @@ public class TextFlowSearchServiceImpl implements TextFlowSearchService {
         if (!includedStates.hasNew() && !includedStates.hasFuzzy()
                 && !includedStates.hasTranslated()) {
             // including nothing
-            return Collections.emptyList();
+            return TextFlowSearchResult.empty();
+        }
+
+        List<HDocument> documents =
+                findDocuments(projectSlug, iterationSlug, documentPaths);
+        if (documents.isEmpty()) {
+            return TextFlowSearchResult.empty();
         }
 
-        return findTextFlowsWithDatabaseSearch(projectSlug, iterationSlug,
-                documentPaths, constraints, hLocale);
+        if (isIndexSearchable(constraints)) {
+            Optional<TextFlowSearchResult> result =
+                    findTextFlowsWithIndexSearch(projectSlug, documentPaths,
+                            documents, constraints, hLocale, offset,
+                            maxResults);
+            if (result.isPresent()) {
+                return result.get();
+            }
+        }
+        return findTextFlowsWithDatabaseSearch(documents, constraints,
+                hLocale, offset, maxResults);
     }
 
-    /**
-     *
-     * @see org.zanata.dao.TextFlowDAO#getTextFlowByDocumentIdWithConstraints(org.zanata.webtrans.shared.model.DocumentId,
-     *      org.zanata.model.HLocale, org.zanata.search.FilterConstraints, int,
-     *      int)
-     */
-    private List<HTextFlow> findTextFlowsWithDatabaseSearch(String projectSlug,
-            String iterationSlug, List<String> documentPaths,
-            FilterConstraints constraints, HLocale hLocale) {
+    private List<HDocument> findDocuments(String projectSlug,
+            String iterationSlug, @Nullable List<String> documentPaths) {
         boolean hasDocumentPaths =
                 documentPaths != null && !documentPaths.isEmpty();
         log.debug("document paths: {}", documentPaths);
-        List<HDocument> documents;
         if (hasDocumentPaths) {
             // TODO this won't scale. But looks like at the moment documentPaths
             // is sourced from url in
             // org.zanata.webtrans.client.presenter.SearchResultsPresenter.updateViewAndRun
             // so it should be ok.
-            documents =
-                    documentDAO.getByProjectIterationAndDocIdList(projectSlug,
-                            iterationSlug, documentPaths);
-        } else {
-            documents =
-                    documentDAO.getAllByProjectIteration(projectSlug,
-                            iterationSlug);
+            return documentDAO.getByProjectIterationAndDocIdList(projectSlug,
+                    iterationSlug, documentPaths);
         }
+        return documentDAO.getAllByProjectIteration(projectSlug,
+                iterationSlug);
+    }
+
+    /**
+     * The index only holds translations (with their source text embedded), so
+     * it can only answer searches in target content, and only for the
+     * constraints which are indexed.
+     */
+    private static boolean isIndexSearchable(FilterConstraints constraints) {
+        return constraints.isSearchInTarget()
+                && !constraints.isSearchInSource()
+                && !Strings.isNullOrEmpty(constraints.getSearchString())
+                && StringUtils.isEmpty(constraints.getResId())
+                && constraints.getChangedBefore() == null
+                && constraints.getChangedAfter() == null
+                && StringUtils.isEmpty(constraints.getLastModifiedByUser())
+                && StringUtils.isEmpty(constraints.getSourceComment())
+                && StringUtils.isEmpty(constraints.getTransComment())
+                && StringUtils.isEmpty(constraints.getMsgContext());
+    }
+
+    /**
+     * Finds candidate translations in the HTextFlowTarget index, then checks
+     * each candidate's content, state and version. The offsets are positions
+     * in the list of candidates, so that each page carries on reading where
+     * the last one stopped.
+     *
+     * @return absent if the index can't narrow down this search
+     */
+    private Optional<TextFlowSearchResult> findTextFlowsWithIndexSearch(
+            String projectSlug, @Nullable List<String> documentPaths,
+            List<HDocument> documents, FilterConstraints constraints,
+            HLocale hLocale, int offset, int maxResults) {
+        String localeId = hLocale.getLocaleId().getId();
+        String analyzerName = TextContainerAnalyzerDiscriminator
+                .getAnalyzerDefinitionName(localeId);
+        Analyzer analyzer =
+                session.getSearchFactory().getAnalyzer(analyzerName);
+        Optional<Query> contentQuery = SubstringCandidateQuery.build(
+                constraints.getSearchString(), IndexFieldLabels.CONTENT_FIELDS,
+                analyzer, Analyzers.UNIGRAM.equals(analyzerName));
+        if (!contentQuery.isPresent()) {
+            log.debug("search string can't be looked up in the index: [{}]",
+                    constraints.getSearchString());
+            return Optional.absent();
+        }
+
+        BooleanQuery query = new BooleanQuery();
+        query.add(contentQuery.get(), Occur.MUST);
+        query.add(new TermQuery(new Term(IndexFieldLabels.LOCALE_ID_FIELD,
+                localeId)), Occur.MUST);
+        query.add(new TermQuery(new Term(IndexFieldLabels.PROJECT_FIELD,
+                projectSlug)), Occur.MUST);
+        if (documentPaths != null && !documentPaths.isEmpty()
+                && documentPaths.size() <= MAX_INDEX_DOCUMENT_TERMS) {
+            BooleanQuery documentQuery = new BooleanQuery();
+            for (String docId : documentPaths) {
+                documentQuery.add(new TermQuery(new Term(
+                        IndexFieldLabels.DOCUMENT_ID_FIELD, docId)),
+                        Occur.SHOULD);
+            }
+            query.add(documentQuery, Occur.MUST);
+        }
+        log.debug("index query for searching: {}", query);
+
+        // other versions of the project have the same project and document
+        // fields, so the version is checked with the document ids
+        Set<Long> documentIds = Sets.newHashSet(
+                Lists.transform(documents, HDocumentToId.FUNCTION));
+        Set<ContentState> states = getStates(constraints);
+        TextMatcher matcher = new TextMatcher(constraints.getSearchString(),
+                constraints.isCaseSensitive());
+
+        FullTextQuery ftQuery =
+                session.createFullTextQuery(query, HTextFlowTarget.class);
+        // index order keeps the candidate offsets stable between pages
+        ftQuery.setSort(Sort.INDEXORDER);
+        // every candidate is checked against its text flow and document
+        ftQuery.setCriteriaQuery(session
+                .createCriteria(HTextFlowTarget.class)
+                .setFetchMode("textFlow", FetchMode.JOIN)
+                .setFetchMode("textFlow.document", FetchMode.JOIN));
+        Page page = new Page(offset, maxResults);
+        while (!page.isFull()) {
+            ftQuery.setFirstResult(page.getPosition())
+                    .setMaxResults(PAGE_SIZE);
+            @SuppressWarnings("unchecked")
+            List<HTextFlowTarget> candidates = ftQuery.list();
+            for (HTextFlowTarget target : candidates) {
+                if (page.isFull()) {
+                    break;
+                }
+                HTextFlow textFlow = target.getTextFlow();
+                List<TextMatcher.Match> matches =
+                        matcher.findMatches(target.getContents());
+                if (!textFlow.isObsolete()
+                        && documentIds.contains(textFlow.getDocument().getId())
+                        && states.contains(target.getState())
+                        && !matches.isEmpty()) {
+                    page.add(new TextFlowSearchResult.Hit(textFlow,
+                            ImmutableList.of(), matches));
+                }
+                page.next();
+            }
+            if (candidates.size() < PAGE_SIZE) {
+                break;
+            }
+        }
+        return Optional.of(page.toResult(true));
+    }
+
+    /**
+     * Finds text flows with a database query. The content table uses a
+     * case-insensitive (and accent-insensitive) collation, so only
+     * case-sensitive results need to be checked again. The offsets are
+     * positions in the query results.
+     *
+     * @see org.zanata.dao.TextFlowDAO#getTextFlowByDocumentIdWithConstraints(org.zanata.webtrans.shared.model.DocumentId,
+     *      org.zanata.model.HLocale, org.zanata.search.FilterConstraints, int,
+     *      int)
+     */
+    private TextFlowSearchResult findTextFlowsWithDatabaseSearch(
+            List<HDocument> documents, FilterConstraints constraints,
+            HLocale hLocale, int offset, int maxResults) {
         List<Long> documentIds =
                 Lists.transform(documents, HDocumentToId.FUNCTION);
 
@@ -186,61 +349,72 @@ public class TextFlowSearchServiceImpl implements TextFlowSearchService {
         org.hibernate.Query query = session.createQuery(hql);
         toQuery.setQueryParameters(query, hLocale);
         query.setComment("TextFlowSearchServiceImpl.findTextFlowsWithDatabaseSearch");
-        @SuppressWarnings("unchecked")
-        List<HTextFlow> result = query.list();
-        if (constraints.isCaseSensitive()) {
-            // Query results are post-filtered because the content table uses
-            // case-insensitive collation
-            // so results will always be case-insensitive at this point.
-            // This can be removed if the table or query can be updated to
-            // specify a case-sensitive
-            // collation.
-            result = filterCaseSensitive(result, constraints, hLocale.getId());
+
+        boolean hasSearch =
+                !Strings.isNullOrEmpty(constraints.getSearchString());
+        TextMatcher matcher = new TextMatcher(
+                Strings.nullToEmpty(constraints.getSearchString()),
+                constraints.isCaseSensitive());
+        Page page = new Page(offset, maxResults);
+        while (!page.isFull()) {
+            query.setFirstResult(page.getPosition()).setMaxResults(PAGE_SIZE);
+            @SuppressWarnings("unchecked")
+            List<HTextFlow> rows = query.list();
+            Map<Long, HTextFlowTarget> targets =
+                    hasSearch && constraints.isSearchInTarget()
+                            ? findTargets(rows, hLocale.getLocaleId())
+                            : Collections.emptyMap();
+            for (HTextFlow textFlow : rows) {
+                if (page.isFull()) {
+                    break;
+                }
+                List<TextMatcher.Match> sourceMatches =
+                        constraints.isSearchInSource()
+                                ? matcher.findMatches(textFlow.getContents())
+                                : ImmutableList.of();
+                HTextFlowTarget target = targets.get(textFlow.getId());
+                List<TextMatcher.Match> targetMatches = target != null
+                        ? matcher.findMatches(target.getContents())
+                        : ImmutableList.of();
+                // a case-insensitive result may only match through the
+                // collation (eg accents), so it is kept without highlights
+                if (!hasSearch || !constraints.isCaseSensitive()
+                        || !sourceMatches.isEmpty()
+                        || !targetMatches.isEmpty()) {
+                    page.add(new TextFlowSearchResult.Hit(textFlow,
+                            sourceMatches, targetMatches));
+                }
+                page.next();
+            }
+            if (rows.size() < PAGE_SIZE) {
+                break;
+            }
         }
-        return result;
+        return page.toResult(false);
     }
 
     /**
-     * Filter a list of text flows to include only those that have a case
-     * sensitive match of the search string in the contents of interest.
-     *
-     * @param results
-     *            the list to filter
-     * @param constraints
-     *            describing search term and whether to match in source, target
-     *            or both
-     * @param localeId
-     *            used to look up targets if target content is checked
-     * @return filtered list
+     * Loads the targets of many text flows in a few queries, rather than
+     * initialising every text flow's targets in all locales.
      */
-    private List<HTextFlow> filterCaseSensitive(List<HTextFlow> results,
-            FilterConstraints constraints, Long localeId) {
-        List<HTextFlow> matchingTextFlows = new ArrayList<HTextFlow>();
-        String search = constraints.getSearchString();
-
-        scanning_text_flows: for (HTextFlow tf : results) {
-            if (constraints.isSearchInSource()) {
-                for (String content : tf.getContents()) {
-                    if (content.contains(search)) {
-                        matchingTextFlows.add(tf);
-                        continue scanning_text_flows;
-                    }
-                }
-            }
-            if (constraints.isSearchInTarget()) {
-                HTextFlowTarget tft = tf.getTargets().get(localeId);
-                if (tft != null) {
-                    for (String content : tft.getContents()) {
-                        if (content.contains(search)) {
-                            matchingTextFlows.add(tf);
-                            continue scanning_text_flows;
-                        }
-                    }
-                }
+    private Map<Long, HTextFlowTarget> findTargets(List<HTextFlow> textFlows,
+            LocaleId localeId) {
+        Map<Long, HTextFlowTarget> targets = Maps.newHashMap();
+        List<Long> textFlowIds = Lists.transform(textFlows, HTextFlow::getId);
+        for (List<Long> ids : Lists.partition(textFlowIds,
+                TARGET_BATCH_SIZE)) {
+            for (HTextFlowTarget target : textFlowTargetDAO
+                    .findByTextFlowIdList(ids, localeId)) {
+                targets.put(target.getTextFlow().getId(), target);
             }
         }
+        return targets;
+    }
 
-        return matchingTextFlows;
+    private static Set<ContentState> getStates(FilterConstraints constraints) {
+        Set<ContentState> states = EnumSet.noneOf(ContentState.class);
+        states.addAll(constraints.getIncludedStates().asList());
+        return states;
     }
 
     @Override
@@ -261,4 +435,45 @@ public class TextFlowSearchServiceImpl implements TextFlowSearchService {
             return input.getId();
         }
     }
+
+    /**
+     * Collects one page of hits while walking through the candidates, and
+     * keeps track of the position of the next candidate.
+     */
+    private static class Page {
+        private final int maxResults;
+        private final List<TextFlowSearchResult.Hit> hits =
+                Lists.newArrayList();
+        private int position;
+
+        private Page(int offset, int maxResults) {
+            this.position = offset;
+            this.maxResults = maxResults;
+        }
+
+        private void add(TextFlowSearchResult.Hit hit) {
+            hits.add(hit);
+        }
+
+        /**
+         * Moves past the current candidate.
+         */
+        private void next() {
+            position++;
+        }
+
+        private int getPosition() {
+            return position;
+        }
+
+        private boolean isFull() {
+            return hits.size() >= maxResults;
+        }
+
+        private TextFlowSearchResult toResult(boolean indexed) {
+            // a full page may have stopped before the last candidate
+            return new TextFlowSearchResult(hits, isFull(), position,
+                    indexed);
+        }
+    }
 }
@@ -0,0 +1,359 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.service.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nullable;
+import javax.enterprise.event.Observes;
+import javax.enterprise.event.TransactionPhase;
+import javax.inject.Named;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+import org.zanata.common.LocaleId;
+import org.zanata.events.TextFlowTargetStateEvent;
+import org.zanata.rest.editor.dto.suggestion.Suggestion;
+import org.zanata.util.HashUtil;
+import org.zanata.util.Introspectable;
+import org.zanata.util.ServiceLocator;
+import org.zanata.util.SysProperties;
+import org.zanata.webtrans.shared.model.TransMemoryQuery;
+import org.zanata.webtrans.shared.model.TransMemoryResultItem;
+import org.zanata.webtrans.shared.rpc.HasSearchType.SearchType;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Optional;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.Weigher;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+
+/**
+ * Application-wide cache of translation memory search results.
+ * <p>
+ * Entries are keyed by a hash of the query contents plus everything else
+ * which affects the results (locales, search type and filter conditions).
+ * <p>
+ * Every entry remembers the "generation" of its target locale when it was
+ * loaded. A {@link TextFlowTargetStateEvent} bumps the generation of the
+ * affected locale, and a translation memory import or deletion bumps the
+ * global generation, so that stale entries are reloaded on next use. Entries
+ * also expire after a short time, since not every change which can affect TM
+ * results (eg a source push or an obsolete project) raises one of these events.
+ *
+ * @see TranslationMemoryServiceImpl
+ */
+@Named("transMemorySuggestionCache")
+@javax.enterprise.context.ApplicationScoped
+public class TransMemorySuggestionCache implements Introspectable {
+
+    public static final String INTROSPECTABLE_FIELD_HITS = "Hits";
+    public static final String INTROSPECTABLE_FIELD_MISSES = "Misses";
+    public static final String INTROSPECTABLE_FIELD_STALE = "StaleEntries";
+    public static final String INTROSPECTABLE_FIELD_EVICTIONS = "Evictions";
+    public static final String INTROSPECTABLE_FIELD_SIZE = "Size";
+
+    private static final long MAX_WEIGHT = SysProperties.getLong(
+            SysProperties.TM_CACHE_MAX_WEIGHT, 20L * 1024 * 1024);
+
+    private static final long EXPIRY_MINUTES = SysProperties.getLong(
+            SysProperties.TM_CACHE_EXPIRY_MINUTES, 10L);
+
+    // fixed per-entry overhead (key, list, item objects) in chars
+    private static final int ENTRY_OVERHEAD = 64;
+
+    private final Cache<Key, Entry> cache;
+
+    private final ConcurrentMap<LocaleId, AtomicLong> localeGenerations =
+            new ConcurrentHashMap<LocaleId, AtomicLong>();
+
+    private final AtomicLong globalGeneration = new AtomicLong();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong staleEntries = new AtomicLong();
+
+    public TransMemorySuggestionCache() {
+        this(MAX_WEIGHT, EXPIRY_MINUTES);
+    }
+
+    @VisibleForTesting
+    TransMemorySuggestionCache(long maxWeight, long expiryMinutes) {
+        cache = CacheBuilder.newBuilder()
+                .maximumWeight(maxWeight)
+                .weigher(new Weigher<Key, Entry>() {
+                    @Override
+                    public int weigh(Key key, Entry entry) {
+                        return entry.weight;
+                    }
+                })
+                .expireAfterWrite(expiryMinutes, TimeUnit.MINUTES)
+                .recordStats()
+                .build();
+    }
+
+    public static TransMemorySuggestionCache getInstance() {
+        return ServiceLocator.instance().getInstance(
+                TransMemorySuggestionCache.class);
+    }
+
+    /**
+     * Returns the cached results of a GWT editor TM search, running loader if
+     * there is no current entry.
+     */
+    public List<TransMemoryResultItem> getResults(LocaleId targetLocaleId,
+            LocaleId sourceLocaleId, TransMemoryQuery query,
+            Callable<List<TransMemoryResultItem>> loader) {
+        Key key = Key.of(ResultType.RESULT_ITEMS, targetLocaleId,
+                sourceLocaleId, query, Optional.<Long> absent());
+        Entry entry = getEntry(key, loader);
+        return new ArrayList<TransMemoryResultItem>(
+                entry.<TransMemoryResultItem> results());
+    }
+
+    /**
+     * Returns the cached results of an editor REST suggestion search,
+     * running loader if there is no current entry.
+     */
+    public List<Suggestion> getSuggestions(LocaleId targetLocaleId,
+            LocaleId sourceLocaleId, TransMemoryQuery query,
+            Optional<Long> textFlowTargetId, Callable<List<Suggestion>> loader) {
+        Key key = Key.of(ResultType.SUGGESTIONS, targetLocaleId,
+                sourceLocaleId, query, textFlowTargetId);
+        Entry entry = getEntry(key, loader);
+        return new ArrayList<Suggestion>(entry.<Suggestion> results());
+    }
+
+    /**
+     * Invalidates all results for the target locale of the changed
+     * translations.
+     */
+    public void textFlowStateUpdated(
+            @Observes(during = TransactionPhase.AFTER_SUCCESS)
+            TextFlowTargetStateEvent event) {
+        invalidateLocale(event.getKey().getLocaleId());
+    }
+
+    /**
+     * Invalidates all results for a target locale.
+     */
+    public void invalidateLocale(LocaleId localeId) {
+        generationOf(localeId).incrementAndGet();
+    }
+
+    /**
+     * Invalidates every result, eg after a translation memory has been
+     * imported or deleted.
+     */
+    public void invalidateAll() {
+        globalGeneration.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    private <T> Entry getEntry(Key key, Callable<List<T>> loader) {
+        long localeGeneration = generationOf(key.targetLocaleId).get();
+        long global = globalGeneration.get();
+        Entry entry = cache.getIfPresent(key);
+        if (entry != null) {
+            if (entry.isCurrent(localeGeneration, global)) {
+                hits.incrementAndGet();
+                return entry;
+            }
+            staleEntries.incrementAndGet();
+        }
+        misses.incrementAndGet();
+        List<T> results;
+        try {
+            results = loader.call();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+        // generations were read before loading, so a change during the load
+        // makes this entry stale immediately rather than hiding the change
+        entry = new Entry(ImmutableList.copyOf(results), localeGeneration,
+                global, weigh(results));
+        cache.put(key, entry);
+        return entry;
+    }
+
+    private AtomicLong generationOf(LocaleId localeId) {
+        AtomicLong generation = localeGenerations.get(localeId);
+        if (generation == null) {
+            AtomicLong newGeneration = new AtomicLong();
+            generation = localeGenerations.putIfAbsent(localeId, newGeneration);
+            if (generation == null) {
+                generation = newGeneration;
+            }
+        }
+        return generation;
+    }
+
+    private static int weigh(List<?> results) {
+        int weight = ENTRY_OVERHEAD;
+        for (Object result : results) {
+            if (result instanceof TransMemoryResultItem) {
+                TransMemoryResultItem item = (TransMemoryResultItem) result;
+                weight += ENTRY_OVERHEAD + length(item.getSourceContents())
+                        + length(item.getTargetContents());
+            } else if (result instanceof Suggestion) {
+                Suggestion suggestion = (Suggestion) result;
+                weight += ENTRY_OVERHEAD
+                        * (1 + suggestion.getMatchDetails().size())
+                        + length(suggestion.getSourceContents())
+                        + length(suggestion.getTargetContents());
+            } else {
+                weight += ENTRY_OVERHEAD;
+            }
+        }
+        return weight;
+    }
+
+    private static int length(@Nullable Collection<String> strings) {
+        if (strings == null) {
+            return 0;
+        }
+        int length = 0;
+        for (String s : strings) {
+            if (s != null) {
+                length += s.length();
+            }
+        }
+        return length;
+    }
+
+    // below are all monitoring stuff
+    @Override
+    public String getIntrospectableId() {
+        return getClass().getCanonicalName();
+    }
+
+    @Override
+    public Collection<String> getIntrospectableFieldNames() {
+        return Lists.newArrayList(INTROSPECTABLE_FIELD_HITS,
+                INTROSPECTABLE_FIELD_MISSES, INTROSPECTABLE_FIELD_STALE,
+                INTROSPECTABLE_FIELD_EVICTIONS, INTROSPECTABLE_FIELD_SIZE);
+    }
+
+    @Override
+    public String getFieldValueAsString(String fieldName) {
+        if (INTROSPECTABLE_FIELD_HITS.equals(fieldName)) {
+            return String.valueOf(getHitCount());
+        }
+        if (INTROSPECTABLE_FIELD_MISSES.equals(fieldName)) {
+            return String.valueOf(getMissCount());
+        }
+        if (INTROSPECTABLE_FIELD_STALE.equals(fieldName)) {
+            return String.valueOf(staleEntries.get());
+        }
+        if (INTROSPECTABLE_FIELD_EVICTIONS.equals(fieldName)) {
+            return String.valueOf(cache.stats().evictionCount());
+        }
+        if (INTROSPECTABLE_FIELD_SIZE.equals(fieldName)) {
+            return String.valueOf(cache.size());
+        }
+        throw new IllegalArgumentException("unknown field:" + fieldName);
+    }
+
+    @VisibleForTesting
+    long getHitCount() {
+        return hits.get();
+    }
+
+    @VisibleForTesting
+    long getMissCount() {
+        return misses.get();
+    }
+
+    private enum ResultType {
+        RESULT_ITEMS, SUGGESTIONS
+    }
+
+    private static final class Entry {
+        private final ImmutableList<?> results;
+        private final long localeGeneration;
+        private final long globalGeneration;
+        private final int weight;
+
+        Entry(ImmutableList<?> results, long localeGeneration,
+                long globalGeneration, int weight) {
+            this.results = results;
+            this.localeGeneration = localeGeneration;
+            this.globalGeneration = globalGeneration;
+            this.weight = weight;
+        }
+
+        boolean isCurrent(long localeGeneration, long globalGeneration) {
+            return this.localeGeneration == localeGeneration
+                    && this.globalGeneration == globalGeneration;
+        }
+
+        @SuppressWarnings("unchecked")
+        <T> List<T> results() {
+            return (List<T>) results;
+        }
+    }
+
+    /**
+     * Everything which can change the results of a TM search. The query
+     * contents are stored as a hash, so that long segments don't bloat the
+     * keys.
+     */
+    @AllArgsConstructor(access = AccessLevel.PRIVATE)
+    @EqualsAndHashCode
+    @ToString
+    static final class Key {
+        private final ResultType resultType;
+        private final String contentHash;
+        private final SearchType searchType;
+        private final LocaleId sourceLocaleId;
+        private final LocaleId targetLocaleId;
+        private final TransMemoryQuery.Condition project;
+        private final TransMemoryQuery.Condition document;
+        private final TransMemoryQuery.Condition res;
+        private final TransMemoryQuery.Condition includeOwnTranslation;
+        private final @Nullable Long textFlowTargetId;
+
+        static Key of(ResultType resultType, LocaleId targetLocaleId,
+                LocaleId sourceLocaleId, TransMemoryQuery query,
+                Optional<Long> textFlowTargetId) {
+            return new Key(resultType,
+                    HashUtil.generateHash(query.getQueries()),
+                    query.getSearchType(), sourceLocaleId, targetLocaleId,
+                    query.getProject(), query.getDocument(), query.getRes(),
+                    query.getIncludeOwnTranslation(),
+                    textFlowTargetId.orNull());
+        }
+    }
+}
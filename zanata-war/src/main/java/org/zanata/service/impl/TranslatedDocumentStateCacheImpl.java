@@ -0,0 +1,212 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.service.impl;
+
+import java.util.Date;
+import java.util.List;
+
+import javax.annotation.Nullable;
+import javax.annotation.PostConstruct;
+import javax.enterprise.event.Observes;
+import javax.enterprise.event.TransactionPhase;
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import org.infinispan.manager.CacheContainer;
+import org.zanata.cache.CacheWrapper;
+import org.zanata.cache.InfinispanCacheWrapper;
+import org.zanata.common.LocaleId;
+import org.zanata.dao.DocumentDAO;
+import org.zanata.dao.LocaleDAO;
+import org.zanata.dao.TextFlowTargetDAO;
+import org.zanata.events.DocumentLocaleKey;
+import org.zanata.events.DocumentUploadedEvent;
+import org.zanata.events.TextFlowTargetStateEvent;
+import org.zanata.model.HDocument;
+import org.zanata.model.HLocale;
+import org.zanata.service.TranslatedDocumentStateCache;
+import org.zanata.util.IServiceLocator;
+import org.zanata.util.ServiceLocator;
+import org.zanata.util.Zanata;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.CacheLoader;
+import com.google.common.collect.Lists;
+
+/**
+ * Watermarks are loaded with one aggregate query the first time a document
+ * and locale is asked for, and after that are moved forward from
+ * {@link TextFlowTargetStateEvent}s by looking up only the changed targets.
+ * The document's own lastChanged is applied when reading, so source changes
+ * never need to evict anything.
+ */
+@Named("translatedDocumentStateCacheImpl")
+@javax.enterprise.context.ApplicationScoped
+public class TranslatedDocumentStateCacheImpl implements
+        TranslatedDocumentStateCache {
+    private static final String BASE =
+            TranslatedDocumentStateCacheImpl.class.getName();
+
+    private static final String LAST_CHANGED_CACHE_NAME = BASE
+            + ".lastChangedCache";
+
+    // above this many changed targets, reload the watermark instead
+    private static final int MAX_DELTA_TARGETS = 500;
+
+    private CacheWrapper<DocumentLocaleKey, Date> lastChangedCache;
+    private CacheLoader<DocumentLocaleKey, Date> lastChangedLoader;
+
+    private final Object lastChangedLock = new Object();
+
+    @Inject @Zanata
+    private CacheContainer cacheContainer;
+
+    @Inject
+    private TextFlowTargetDAO textFlowTargetDAO;
+
+    @Inject
+    private IServiceLocator serviceLocator;
+
+    // constructor for CDI
+    public TranslatedDocumentStateCacheImpl() {
+    }
+
+    // Constructor for testing
+    @VisibleForTesting
+    public TranslatedDocumentStateCacheImpl(
+            CacheLoader<DocumentLocaleKey, Date> lastChangedLoader,
+            TextFlowTargetDAO textFlowTargetDAO) {
+        this.lastChangedLoader = lastChangedLoader;
+        this.textFlowTargetDAO = textFlowTargetDAO;
+    }
+
+    @PostConstruct
+    public void create() {
+        if (lastChangedLoader == null) {
+            lastChangedLoader = new LastChangedLoader();
+        }
+        lastChangedCache =
+                InfinispanCacheWrapper.create(LAST_CHANGED_CACHE_NAME,
+                        cacheContainer, lastChangedLoader);
+    }
+
+    @Override
+    public Date getLastChanged(HDocument document, LocaleId localeId) {
+        DocumentLocaleKey key =
+                new DocumentLocaleKey(document.getId(), localeId);
+        Date translationsChanged = lastChangedCache.get(key);
+        if (translationsChanged == null) {
+            // loads hold the lock, so that an event can't slip in between
+            // the query and the put
+            synchronized (lastChangedLock) {
+                translationsChanged = lastChangedCache.getWithLoader(key);
+            }
+        }
+        return latest(translationsChanged, document.getLastChanged());
+    }
+
+    @Override
+    public void textFlowStateUpdated(
+            @Observes(during = TransactionPhase.AFTER_SUCCESS)
+            TextFlowTargetStateEvent event) {
+        DocumentLocaleKey key = event.getKey();
+        synchronized (lastChangedLock) {
+            // waits for any load in progress, which may have read the
+            // targets before this change was committed
+            if (lastChangedCache.get(key) == null) {
+                // will be loaded when it is next needed
+                return;
+            }
+            if (event.getStates().size() > MAX_DELTA_TARGETS) {
+                lastChangedCache.remove(key);
+                return;
+            }
+        }
+        List<Long> targetIds = Lists.newArrayList();
+        for (TextFlowTargetStateEvent.TextFlowTargetStateChange state : event
+                .getStates()) {
+            targetIds.add(state.getTextFlowTargetId());
+        }
+        Date changed = textFlowTargetDAO.getLastChanged(targetIds);
+        synchronized (lastChangedLock) {
+            Date cached = lastChangedCache.get(key);
+            if (changed == null) {
+                lastChangedCache.remove(key);
+            } else if (cached != null && changed.getTime() > cached.getTime()) {
+                lastChangedCache.put(key, new Date(changed.getTime()));
+            }
+        }
+    }
+
+    @Override
+    public void documentUploaded(
+            @Observes(during = TransactionPhase.AFTER_SUCCESS)
+            DocumentUploadedEvent event) {
+        if (!event.isSourceDocument()) {
+            clear(event.getDocumentId(), event.getLocaleId());
+            return;
+        }
+        // a source upload can change the state of targets in any locale
+        LocaleDAO localeDAO = serviceLocator.getInstance(LocaleDAO.class);
+        for (HLocale locale : localeDAO.findAll()) {
+            clear(event.getDocumentId(), locale.getLocaleId());
+        }
+    }
+
+    @Override
+    public void clear(Long documentId, LocaleId localeId) {
+        synchronized (lastChangedLock) {
+            lastChangedCache.remove(
+                    new DocumentLocaleKey(documentId, localeId));
+        }
+    }
+
+    @VisibleForTesting
+    public void setCacheContainer(CacheContainer cacheContainer) {
+        this.cacheContainer = cacheContainer;
+    }
+
+    /**
+     * Compares by {@link Date#getTime()}, since Date and Timestamp do not
+     * compare correctly with each other.
+     */
+    private static Date latest(@Nullable Date d1, Date d2) {
+        if (d1 == null || d2.getTime() > d1.getTime()) {
+            return d2;
+        }
+        return d1;
+    }
+
+    private static class LastChangedLoader extends
+            CacheLoader<DocumentLocaleKey, Date> {
+
+        @Override
+        public Date load(DocumentLocaleKey key) throws Exception {
+            DocumentDAO documentDAO =
+                    ServiceLocator.instance().getInstance(DocumentDAO.class);
+            Date lastChanged = documentDAO.getTranslatedDocumentLastChanged(
+                    key.getDocumentId(), key.getLocaleId());
+            // the cache does not accept nulls; the document's own lastChanged
+            // is later than this anyway
+            return new Date(lastChanged == null ? 0 : lastChanged.getTime());
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.service.impl;
+
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Named;
+
+import org.zanata.adapter.po.PoWriter2;
+import org.zanata.rest.dto.resource.Resource;
+import org.zanata.rest.dto.resource.TranslationsResource;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Renders PO files for translation archives on a small bounded pool, so that
+ * an archive's documents are rendered in parallel while they are loaded and
+ * zipped by the requesting thread.
+ * <p>
+ * Only DTOs are handed to the pool; all database access stays on the
+ * requesting thread.
+ */
+@Named("translationArchiveExecutor")
+@ApplicationScoped
+public class TranslationArchiveExecutor {
+
+    private ExecutorService executor;
+
+    private int poolSize;
+
+    @PostConstruct
+    public void init() {
+        poolSize =
+                Math.max(1, Math.min(4,
+                        Runtime.getRuntime().availableProcessors() - 1));
+        executor = Executors.newFixedThreadPool(poolSize,
+                new ThreadFactoryBuilder().setNameFormat("archive-render-%d")
+                        .setDaemon(true).build());
+    }
+
+    @PreDestroy
+    public void cleanup() {
+        executor.shutdown();
+    }
+
+    /**
+     * @return how many documents should be rendered ahead of the zip writer
+     */
+    public int getMaxPending() {
+        return poolSize * 2;
+    }
+
+    /**
+     * @param offlinePo
+     *            true if text flow ids should be written to msgctxt (for
+     *            non-PO projects)
+     * @return the UTF-8 PO file
+     */
+    public Future<byte[]> renderPo(Resource resource,
+            TranslationsResource translations, boolean offlinePo) {
+        return executor.submit(() -> {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            new PoWriter2(false, offlinePo).writePo(out, "UTF-8", resource,
+                    translations);
+            return out.toByteArray();
+        });
+    }
+}
@@ -21,14 +21,17 @@
 package org.zanata.service.impl;
 
 import com.google.common.base.Optional;
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Lists;
 import lombok.extern.slf4j.Slf4j;
 
 import javax.enterprise.context.RequestScoped;
 import javax.inject.Inject;
 import javax.inject.Named;
-import org.zanata.adapter.po.PoWriter2;
 import org.zanata.async.Async;
 import org.zanata.async.AsyncTaskHandle;
+import org.zanata.async.AsyncTaskPriority;
 import org.zanata.async.AsyncTaskResult;
 import org.zanata.common.LocaleId;
 import org.zanata.common.ProjectType;
@@ -45,10 +48,13 @@ import org.zanata.rest.dto.resource.TranslationsResource;
 import org.zanata.rest.service.ResourceUtils;
 import org.zanata.service.ConfigurationService;
 import org.zanata.service.FileSystemService;
+import org.zanata.service.TranslatedDocumentStateCache;
 import org.zanata.service.TranslationArchiveService;
+import org.zanata.util.HashUtil;
 
 import java.io.File;
 import java.io.FileOutputStream;
+import java.util.Date;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -68,6 +74,9 @@ import static org.zanata.common.ProjectType.*;
 public class TranslationArchiveServiceImpl implements
         TranslationArchiveService {
 
+    // documents whose translations are loaded and kept in the session at once
+    private static final int DOCUMENT_BATCH_SIZE = 50;
+
     @Inject
     private DocumentDAO documentDAO;
 
@@ -83,6 +92,12 @@ public class TranslationArchiveServiceImpl implements
     @Inject
     private TextFlowTargetDAO textFlowTargetDAO;
 
+    @Inject
+    private TranslationArchiveExecutor translationArchiveExecutor;
+
+    @Inject
+    private TranslatedDocumentStateCache translatedDocumentStateCache;
+
     @Inject
     private FileSystemService fileSystemServiceImpl;
 
@@ -98,22 +113,53 @@ public class TranslationArchiveServiceImpl implements
         Optional<AsyncTaskHandle<String>> handleOpt =
                 Optional.fromNullable(handle);
 
+        final List<HDocument> allIterationDocs =
+                documentDAO
+                        .getAllByProjectIteration(projectSlug, iterationSlug);
         if (handleOpt.isPresent()) {
-            prepareHandle(handleOpt.get(), projectSlug, iterationSlug);
+            // all files plus the zanata.xml file
+            handleOpt.get().setMaxProgress(allIterationDocs.size() + 1);
         }
-        boolean isPoProject = isPoProject(projectSlug, iterationSlug);
+        final HProjectIteration projectIteration =
+                projectIterationDAO.getBySlug(projectSlug, iterationSlug);
+        boolean isPoProject = isPoProject(projectIteration);
         final String projectDirectory = projectSlug + "-" + iterationSlug + "/";
         final HLocale hLocale =
                 localeDAO.findByLocaleId(new LocaleId(localeId));
         final String mappedLocale = hLocale.getLocaleId().getId();
         final String localeDirectory = projectDirectory + mappedLocale + "/";
+        final String downloadFileName =
+                projectSlug + "_" + iterationSlug + "_" + localeId + ".zip";
+
+        String configFilename =
+                projectDirectory
+                        + configurationServiceImpl.getConfigurationFileName();
+        String config =
+                configurationServiceImpl.getConfigForOfflineTranslation(
+                        projectSlug, iterationSlug, hLocale);
+
+        String cacheKey =
+                archiveCacheKey(projectDirectory + mappedLocale, isPoProject,
+                        config, allIterationDocs, hLocale);
+        File cachedFile =
+                fileSystemServiceImpl.createDownloadStagingFileFromCache(
+                        cacheKey, "zip");
+        if (cachedFile != null) {
+            log.debug("serving cached translation archive for {}",
+                    downloadFileName);
+            if (handleOpt.isPresent()) {
+                handleOpt.get().increaseProgress(
+                        allIterationDocs.size() + 1);
+            }
+            return fileSystemServiceImpl.createDownloadDescriptorFile(
+                    cachedFile, downloadFileName, userName);
+        }
 
         final File downloadFile =
                 fileSystemServiceImpl.createDownloadStagingFile("zip");
         final FileOutputStream output = new FileOutputStream(downloadFile);
         final ZipOutputStream zipOutput = new ZipOutputStream(output);
         zipOutput.setMethod(ZipOutputStream.DEFLATED);
-        final PoWriter2 poWriter = new PoWriter2(false, !isPoProject);
         final Set<String> extensions = new HashSet<String>();
 
         extensions.add("gettext");
@@ -122,59 +168,126 @@ public class TranslationArchiveServiceImpl implements
         // Generate the download descriptor file
         String downloadId =
                 fileSystemServiceImpl.createDownloadDescriptorFile(downloadFile,
-                        projectSlug + "_" + iterationSlug + "_" + localeId
-                                + ".zip", userName);
+                        downloadFileName, userName);
 
         // Add the config file at the root of the project directory
-        String configFilename =
-                projectDirectory
-                        + configurationServiceImpl.getConfigurationFileName();
         zipOutput.putNextEntry(new ZipEntry(configFilename));
-        zipOutput.write(configurationServiceImpl.getConfigForOfflineTranslation(
-                projectSlug, iterationSlug, hLocale).getBytes());
+        zipOutput.write(config.getBytes());
         zipOutput.closeEntry();
-        handle.increaseProgress(1);
+        if (handleOpt.isPresent()) {
+            handleOpt.get().increaseProgress(1);
+        }
 
-        final List<HDocument> allIterationDocs =
-                documentDAO
-                        .getAllByProjectIteration(projectSlug, iterationSlug);
+        List<Long> documentIds = Lists.newArrayList();
         for (HDocument document : allIterationDocs) {
-            // Stop the process if signaled to do so
-            if (handleOpt.isPresent() && handleOpt.get().isCancelled()) {
-                zipOutput.close();
-                downloadFile.delete();
-                fileSystemServiceImpl.deleteDownloadDescriptorFile(downloadId);
-                return null;
-            }
+            documentIds.add(document.getId());
+        }
+        // the documents are reloaded batch by batch below
+        documentDAO.clear();
 
-            TranslationsResource translationResource =
-                    new TranslationsResource();
-            List<HTextFlowTarget> hTargets =
-                    textFlowTargetDAO.findTranslations(document, hLocale);
-            resourceUtils.transferToTranslationsResource(translationResource,
-                    document, hLocale, extensions, hTargets,
-                    Optional.<String> absent());
+        // PO files are rendered on the archive pool while the next documents
+        // are loaded here, and zipped in document order
+        OrderedZipWriter zipWriter =
+                new OrderedZipWriter(zipOutput,
+                        translationArchiveExecutor.getMaxPending());
+        try {
+            for (List<Long> batch : Lists.partition(documentIds,
+                    DOCUMENT_BATCH_SIZE)) {
+                HLocale batchLocale = localeDAO.findById(hLocale.getId());
+                ListMultimap<Long, HTextFlowTarget> targetsByDocument =
+                        findTranslations(batch, batchLocale);
+                for (Long documentId : batch) {
+                    // Stop the process if signaled to do so
+                    if (handleOpt.isPresent()
+                            && handleOpt.get().isCancelled()) {
+                        zipWriter.abort();
+                        zipOutput.close();
+                        downloadFile.delete();
+                        fileSystemServiceImpl
+                                .deleteDownloadDescriptorFile(downloadId);
+                        return null;
+                    }
+                    HDocument document = documentDAO.findById(documentId);
 
-            Resource res = resourceUtils.buildResource(document);
+                    TranslationsResource translationResource =
+                            new TranslationsResource();
+                    resourceUtils.transferToTranslationsResource(
+                            translationResource, document, batchLocale,
+                            extensions, targetsByDocument.get(documentId),
+                            Optional.<String> absent());
 
-            String filename = localeDirectory + document.getDocId() + ".po";
-            zipOutput.putNextEntry(new ZipEntry(filename));
-            poWriter.writePo(zipOutput, "UTF-8", res, translationResource);
-            zipOutput.closeEntry();
+                    Resource res = resourceUtils.buildResource(document);
 
-            if (handleOpt.isPresent()) {
-                handleOpt.get().increaseProgress(1);
+                    String filename =
+                            localeDirectory + document.getDocId() + ".po";
+                    zipWriter.add(filename,
+                            translationArchiveExecutor.renderPo(res,
+                                    translationResource, !isPoProject));
+
+                    if (handleOpt.isPresent()) {
+                        handleOpt.get().increaseProgress(1);
+                    }
+                }
+                // only DTOs are passed on, so the entities can go
+                documentDAO.clear();
             }
+            zipWriter.finish();
+        } catch (Exception e) {
+            zipWriter.abort();
+            zipOutput.close();
+            downloadFile.delete();
+            fileSystemServiceImpl.deleteDownloadDescriptorFile(downloadId);
+            throw e;
         }
 
         zipOutput.flush();
         zipOutput.close();
 
+        fileSystemServiceImpl.cacheDownloadFile(downloadFile, cacheKey);
         return downloadId;
     }
 
+    /**
+     * Loads the translations of a batch of documents with a single query,
+     * instead of one query per document.
+     */
+    private ListMultimap<Long, HTextFlowTarget> findTranslations(
+            List<Long> documentIds, HLocale hLocale) {
+        ListMultimap<Long, HTextFlowTarget> targetsByDocument =
+                ArrayListMultimap.create();
+        for (HTextFlowTarget target : textFlowTargetDAO.findTranslations(
+                documentIds, hLocale)) {
+            targetsByDocument.put(
+                    target.getTextFlow().getDocument().getId(), target);
+        }
+        return targetsByDocument;
+    }
+
+    /**
+     * An archive is identified by everything which goes into it: the
+     * configuration file, and the documents with the state of their
+     * translations. CopyTrans and other changes which do not fire state
+     * events drop the translation watermark, so the key changes with them.
+     */
+    private String archiveCacheKey(String localeDirectory,
+            boolean isPoProject, String config, List<HDocument> documents,
+            HLocale hLocale) {
+        StringBuilder key = new StringBuilder(localeDirectory)
+                .append('\n').append(isPoProject)
+                .append('\n').append(config);
+        for (HDocument document : documents) {
+            Date lastChanged =
+                    translatedDocumentStateCache.getLastChanged(document,
+                            hLocale.getLocaleId());
+            key.append('\n').append(document.getDocId())
+                    .append(':').append(document.getRevision())
+                    .append(':').append(lastChanged.getTime());
+        }
+        return HashUtil.generateHash(key.toString());
+    }
+
     @Override
-    @Async
+    @Async(priority = AsyncTaskPriority.HIGH)
     public Future<String> startBuildingTranslationFileArchive(String projectSlug,
             String iterationSlug, String localeId, String userName,
             AsyncTaskHandle<String> handle) throws Exception {
@@ -184,20 +297,7 @@ public class TranslationArchiveServiceImpl implements
         return AsyncTaskResult.taskResult(archiveId);
     }
 
-    private void prepareHandle(AsyncTaskHandle<String> handle,
-            String projectSlug, String iterationSlug) {
-        // Max documents to process
-        final List<HDocument> allIterationDocs =
-                documentDAO
-                        .getAllByProjectIteration(projectSlug, iterationSlug);
-        handle.setMaxProgress(allIterationDocs.size() + 1); // all files plus
-        // the zanata.xml
-        // file
-    }
-
-    private boolean isPoProject(String projectSlug, String versionSlug) {
-        HProjectIteration projectIteration =
-                projectIterationDAO.getBySlug(projectSlug, versionSlug);
+    private boolean isPoProject(HProjectIteration projectIteration) {
         ProjectType type = projectIteration.getProjectType();
         if (type == null) {
             type = projectIteration.getProject().getDefaultProjectType();
@@ -65,8 +65,7 @@ import org.zanata.rest.editor.dto.suggestion.Suggestion;
 import org.zanata.rest.editor.dto.suggestion.SuggestionDetail;
 import org.zanata.rest.editor.dto.suggestion.TextFlowSuggestionDetail;
 import org.zanata.rest.editor.dto.suggestion.TransMemoryUnitSuggestionDetail;
-import org.zanata.search.LevenshteinTokenUtil;
-import org.zanata.search.LevenshteinUtil;
+import org.zanata.search.BoundedLevenshteinUtil;
 import org.zanata.service.TranslationMemoryService;
 import org.zanata.util.SysProperties;
 import org.zanata.webtrans.shared.model.TransMemoryDetails;
@@ -88,6 +87,7 @@ import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
 
 import javax.annotation.Nonnull;
 
@@ -128,6 +128,9 @@ public class TranslationMemoryServiceImpl implements TranslationMemoryService {
     @Inject @FullText
     private FullTextEntityManager entityManager;
 
+    @Inject
+    private TransMemorySuggestionCache suggestionCache;
+
     private static final Version LUCENE_VERSION = Version.LUCENE_29;
 
     // sort desc by lastChanged of HTextFlowTarget
@@ -224,7 +227,8 @@ public class TranslationMemoryServiceImpl implements TranslationMemoryService {
                         checkContext, checkDocument, checkProject, true);
 
         List<TransMemoryResultItem> tmResults =
-                searchTransMemory(targetLocaleId, sourceLocaleId, query);
+                searchTransMemory(targetLocaleId, sourceLocaleId, query,
+                        Math.max(MINIMUM_SIMILARITY, thresholdPercent));
 
         // findTMAboveThreshold
         Collection<TransMemoryResultItem> aboveThreshold =
@@ -240,8 +244,27 @@ public class TranslationMemoryServiceImpl implements TranslationMemoryService {
 
     @Override
     public List<TransMemoryResultItem> searchTransMemory(
+            final LocaleId targetLocaleId, final LocaleId sourceLocaleId,
+            final TransMemoryQuery transMemoryQuery) {
+        return suggestionCache.getResults(targetLocaleId, sourceLocaleId,
+                transMemoryQuery, new Callable<List<TransMemoryResultItem>>() {
+                    @Override
+                    public List<TransMemoryResultItem> call() {
+                        return searchTransMemory(targetLocaleId,
+                                sourceLocaleId, transMemoryQuery,
+                                MINIMUM_SIMILARITY);
+                    }
+                });
+    }
+
+    /**
+     * Search TM, ignoring matches which are less similar than
+     * minimumPercent. Scoring of each match stops as soon as it is known to
+     * be below minimumPercent.
+     */
+    private List<TransMemoryResultItem> searchTransMemory(
             LocaleId targetLocaleId, LocaleId sourceLocaleId,
-            TransMemoryQuery transMemoryQuery) {
+            TransMemoryQuery transMemoryQuery, double minimumPercent) {
         // NB: If we want to, we could pass the TFT id from the editor
         // via GWT-RPC(TransMemoryQuery), allowing Lucene to rank results
         // by metadata too.
@@ -256,7 +279,7 @@ public class TranslationMemoryServiceImpl implements TranslationMemoryService {
                 new LinkedHashMap<TMKey, TransMemoryResultItem>(matches.size());
         for (Object[] match : matches) {
             processIndexMatch(transMemoryQuery, matchesMap, match,
-                    sourceLocaleId, targetLocaleId);
+                    sourceLocaleId, targetLocaleId, minimumPercent);
         }
         List<TransMemoryResultItem> results =
                 Lists.newArrayList(matchesMap.values());
@@ -266,10 +289,19 @@ public class TranslationMemoryServiceImpl implements TranslationMemoryService {
 
     @Override
     public List<Suggestion> searchTransMemoryWithDetails(
-            LocaleId targetLocaleId, LocaleId sourceLocaleId,
-            TransMemoryQuery transMemoryQuery, Optional<Long> textFlowTargetId) {
-        return new QueryMatchProcessor(transMemoryQuery, sourceLocaleId, targetLocaleId, textFlowTargetId)
-                .process();
+            final LocaleId targetLocaleId, final LocaleId sourceLocaleId,
+            final TransMemoryQuery transMemoryQuery,
+            final Optional<Long> textFlowTargetId) {
+        return suggestionCache.getSuggestions(targetLocaleId, sourceLocaleId,
+                transMemoryQuery, textFlowTargetId,
+                new Callable<List<Suggestion>>() {
+                    @Override
+                    public List<Suggestion> call() {
+                        return new QueryMatchProcessor(transMemoryQuery,
+                                sourceLocaleId, targetLocaleId,
+                                textFlowTargetId).process();
+                    }
+                });
     }
 
     private TransMemoryQuery buildTMQuery(HTextFlow textFlow,
@@ -349,7 +381,8 @@ public class TranslationMemoryServiceImpl implements TranslationMemoryService {
 
     private void processIndexMatch(TransMemoryQuery transMemoryQuery,
             Map<TMKey, TransMemoryResultItem> matchesMap, Object[] match,
-            LocaleId sourceLocaleId, LocaleId targetLocaleId) {
+            LocaleId sourceLocaleId, LocaleId targetLocaleId,
+            double minimumPercent) {
         Object entity = match[1];
         if (entity instanceof HTextFlowTarget) {
             HTextFlowTarget textFlowTarget = (HTextFlowTarget) entity;
@@ -364,10 +397,10 @@ public class TranslationMemoryServiceImpl implements TranslationMemoryService {
 
             double percent =
                 calculateSimilarityPercentage(transMemoryQuery,
-                    textFlowContents);
-            if (percent < MINIMUM_SIMILARITY) {
+                    textFlowContents, minimumPercent);
+            if (percent < minimumPercent) {
                 log.info("Ignoring TM - {} with less than {}% matching.",
-                    textFlowContents, MINIMUM_SIMILARITY);
+                    textFlowContents, minimumPercent);
                 return;
             }
             TransMemoryResultItem item = createOrGetResultItem(
@@ -383,10 +416,11 @@ public class TranslationMemoryServiceImpl implements TranslationMemoryService {
                     Lists.newArrayList(transUnit.getTransUnitVariants()
                             .get(targetLocaleId.getId()).getPlainTextSegment());
             double percent =
-                calculateSimilarityPercentage(transMemoryQuery, sourceContents);
-            if (percent < MINIMUM_SIMILARITY) {
+                calculateSimilarityPercentage(transMemoryQuery, sourceContents,
+                        minimumPercent);
+            if (percent < minimumPercent) {
                 log.info("Ignoring TM - {} with less than {}% matching.",
-                        sourceContents, MINIMUM_SIMILARITY);
+                        sourceContents, minimumPercent);
                 return;
             }
             TransMemoryResultItem item =
@@ -397,33 +431,42 @@ public class TranslationMemoryServiceImpl implements TranslationMemoryService {
         }
     }
 
+    /**
+     * Calculate the similarity (0-100) of the query to sourceContents.
+     *
+     * If the similarity is below minimumPercent, scoring stops early and the
+     * returned value is only guaranteed to be less than minimumPercent.
+     */
     private static double calculateSimilarityPercentage(TransMemoryQuery query,
-            List<String> sourceContents) {
+            List<String> sourceContents, double minimumPercent) {
+        double minSimilarity = minimumPercent / 100;
         double percent;
         if (query.getSearchType() == HasSearchType.SearchType.CONTENT_HASH) {
             return 100;
         } else if (query.getSearchType() == HasSearchType.SearchType.FUZZY_PLURAL) {
             percent =
-                    100 * LevenshteinTokenUtil.getSimilarity(
-                            query.getQueries(), sourceContents);
+                    100 * BoundedLevenshteinUtil.getTokenSimilarity(
+                            query.getQueries(), sourceContents,
+                            minSimilarity);
             if (percent > 99.99) {
                 // make sure we only get 100% similarity if every character
                 // matches
                 percent =
-                        100 * LevenshteinUtil.getSimilarity(query.getQueries(),
-                                sourceContents);
+                        100 * BoundedLevenshteinUtil.getSimilarity(
+                                query.getQueries(), sourceContents,
+                                minSimilarity);
             }
         } else {
             final String searchText = query.getQueries().get(0);
             percent =
-                    100 * LevenshteinTokenUtil.getSimilarity(searchText,
-                            sourceContents);
+                    100 * BoundedLevenshteinUtil.getTokenSimilarity(
+                            searchText, sourceContents, minSimilarity);
             if (percent > 99.99) {
                 // make sure we only get 100% similarity if every character
                 // matches
                 percent =
-                        100 * LevenshteinUtil.getSimilarity(searchText,
-                                sourceContents);
+                        100 * BoundedLevenshteinUtil.getSimilarity(searchText,
+                                sourceContents, minSimilarity);
             }
         }
         return percent;
@@ -1088,7 +1131,8 @@ public class TranslationMemoryServiceImpl implements TranslationMemoryService {
          * @return the created suggestion object
          */
         private Suggestion createSuggestion(QueryMatch match) {
-            double similarity = calculateSimilarityPercentage(query, match.getSourceContents());
+            double similarity = calculateSimilarityPercentage(query,
+                    match.getSourceContents(), 0);
             return new Suggestion(match.getScore(), similarity, match.getSourceContents(), match.getTargetContents());
         }
 
@@ -24,8 +24,9 @@ import static org.zanata.transaction.TransactionUtil.runInTransaction;
 
 import java.text.MessageFormat;
 import java.util.ArrayList;
-import java.util.Collection;
-import java.util.HashSet;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -72,6 +73,8 @@ import org.zanata.model.HTextFlowTarget;
 import org.zanata.model.HTextFlowTargetHistory;
 import org.zanata.model.type.EntityType;
 import org.zanata.model.type.TranslationSourceType;
+import org.zanata.rest.dto.extensions.gettext.TranslationsResourceExtension;
+import org.zanata.rest.dto.resource.ExtensionSet;
 import org.zanata.rest.dto.resource.TextFlowTarget;
 import org.zanata.rest.dto.resource.TranslationsResource;
 import org.zanata.rest.service.ResourceUtils;
@@ -93,6 +96,7 @@ import com.google.common.base.Function;
 import com.google.common.base.Optional;
 import com.google.common.base.Predicate;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Iterators;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 
@@ -628,6 +632,27 @@ public class TranslationServiceImpl implements TranslationService {
             final Set<String> extensions, final MergeType mergeType,
             final boolean assignCreditToUploader, AsyncTaskHandle handle,
             final TranslationSourceType translationSourceType) {
+        log.debug("start put translations entity:{}", translations);
+        if (handle != null) {
+            handle.setMaxProgress(translations.getTextFlowTargets().size());
+        }
+        return translateAllInDoc(projectSlug, iterationSlug, docId, locale,
+                translations.getExtensions(true),
+                translations.getTextFlowTargets().iterator(), extensions,
+                mergeType, assignCreditToUploader, handle,
+                translationSourceType);
+    }
+
+    @Override
+    // can't use @Transactional because we call runInTransaction
+    public List<String> translateAllInDoc(final String projectSlug,
+            final String iterationSlug, final String docId,
+            final LocaleId locale,
+            final ExtensionSet<TranslationsResourceExtension> resourceExtensions,
+            final Iterator<TextFlowTarget> targets,
+            final Set<String> extensions, final MergeType mergeType,
+            final boolean assignCreditToUploader, AsyncTaskHandle handle,
+            final TranslationSourceType translationSourceType) {
         final HProjectIteration hProjectIteration =
                 projectIterationDAO.getBySlug(projectSlug, iterationSlug);
 
@@ -649,8 +674,6 @@ public class TranslationServiceImpl implements TranslationService {
             throw new ZanataServiceException("A document was not found.", 404);
         }
 
-        log.debug("start put translations entity:{}", translations);
-
         boolean changed = false;
 
         final HLocale hLocale =
@@ -659,17 +682,12 @@ public class TranslationServiceImpl implements TranslationService {
         final Optional<AsyncTaskHandle> handleOp =
                 Optional.fromNullable(handle);
 
-        if (handleOp.isPresent()) {
-            handleOp.get().setMaxProgress(
-                    translations.getTextFlowTargets().size());
-        }
-
         try {
             changed |= runInTransaction(() ->
                             // handle extensions
                             resourceUtils
                                     .transferFromTranslationsResourceExtensions(
-                                            translations.getExtensions(true),
+                                            resourceExtensions,
                                             document, extensions, hLocale,
                                             mergeType)
             );
@@ -679,31 +697,27 @@ public class TranslationServiceImpl implements TranslationService {
                     e);
         }
 
-        // NB: removedTargets only applies for MergeType.IMPORT
-        final Collection<Long> removedTextFlowTargetIds =
-                new HashSet<>();
+        // NB: untouched targets only apply for MergeType.IMPORT. These are
+        // the active text flows whose existing target has not been
+        // overwritten (yet).
+        final UntouchedTargets untouched =
+                new UntouchedTargets(mergeType == MergeType.IMPORT
+                        ? textFlowTargetDAO.getTextFlowIdsWithTarget(
+                                document.getId(), hLocale.getId())
+                        : new long[0]);
         final List<String> warnings = new ArrayList<String>();
 
-        if (mergeType == MergeType.IMPORT) {
-            for (HTextFlow textFlow : document.getTextFlows()) {
-                HTextFlowTarget hTarget =
-                        textFlow.getTargets().get(hLocale.getId());
-                if (hTarget != null) {
-                    removedTextFlowTargetIds.add(hTarget.getId());
-                }
-            }
-        }
-
-        // Break the target into batches
-        List<List<TextFlowTarget>> batches =
-                Lists.partition(translations.getTextFlowTargets(), BATCH_SIZE);
+        // Break the targets into batches
+        Iterator<List<TextFlowTarget>> batches =
+                Iterators.partition(targets, BATCH_SIZE);
 
-        for (final List<TextFlowTarget> batch : batches) {
+        while (batches.hasNext()) {
+            final List<TextFlowTarget> batch = batches.next();
             try {
                 changed |=
                         runInTransaction(() -> saveBatch(
                                 extensions, warnings, hLocale, document,
-                                mergeType, removedTextFlowTargetIds, handleOp,
+                                mergeType, untouched, handleOp,
                                 hProjectIteration.getId(),
                                 batch, assignCreditToUploader,
                                 translationSourceType));
@@ -716,20 +730,24 @@ public class TranslationServiceImpl implements TranslationService {
 
         }
 
-        if (changed || !removedTextFlowTargetIds.isEmpty()) {
+        if (changed || !untouched.isEmpty()) {
             try {
-                runInTransaction(() -> {
-                    for (Long targetId : removedTextFlowTargetIds) {
+                for (List<Long> textFlowIds : Lists.partition(
+                        untouched.getTextFlowIds(), BATCH_SIZE)) {
+                    runInTransaction(() -> {
                         // need to refresh from persistence
-                        HTextFlowTarget target =
-                                textFlowTargetDAO.findById(targetId, true);
-                        target.clear();
-                    }
-                    textFlowTargetDAO.flush();
+                        textFlowTargetDAO.clear();
+                        for (HTextFlowTarget target : textFlowTargetDAO
+                                .findByTextFlowIdList(textFlowIds,
+                                        hLocale.getLocaleId())) {
+                            target.clear();
+                        }
+                        textFlowTargetDAO.flush();
 
-                    documentDAO.flush();
-                    return null;
-                });
+                        documentDAO.flush();
+                        return null;
+                    });
+                }
 
                 Long actorId = authenticatedAccount.getPerson().getId();
                 documentUploadedEvent.fire(new DocumentUploadedEvent(
@@ -764,7 +782,7 @@ public class TranslationServiceImpl implements TranslationService {
             final HLocale locale,
             HDocument document,
             final MergeType mergeType,
-            final Collection<Long> removedTextFlowTargetIds,
+            final UntouchedTargets untouched,
             final Optional<AsyncTaskHandle> handleOp,
             final Long projectIterationId,
             final List<TextFlowTarget> batch,
@@ -842,7 +860,7 @@ public class TranslationServiceImpl implements TranslationService {
                 if (hTarget != null) {
                     oldState = hTarget.getState();
                     if (mergeType == MergeType.IMPORT) {
-                        removedTextFlowTargetIds.remove(hTarget.getId());
+                        untouched.touch(textFlow.getId());
                     }
                 }
                 TranslationMergeServiceFactory.MergeContext mergeContext =
@@ -1077,4 +1095,43 @@ public class TranslationServiceImpl implements TranslationService {
         result.errorMessage = null;
         return result;
     }
+
+    /**
+     * The text flows of a document whose target in a locale has not been
+     * overwritten by an import, tracked by text flow id so that a concurrent
+     * push which moves text flows around does not affect it.
+     */
+    private static final class UntouchedTargets {
+        // ids of the text flows which had a target, in ascending order
+        private final long[] textFlowIds;
+        // indexes into textFlowIds of the targets not overwritten so far
+        private final BitSet untouched;
+
+        UntouchedTargets(long[] textFlowIds) {
+            this.textFlowIds = textFlowIds;
+            this.untouched = new BitSet(textFlowIds.length);
+            untouched.set(0, textFlowIds.length);
+        }
+
+        void touch(Long textFlowId) {
+            int index = Arrays.binarySearch(textFlowIds, textFlowId);
+            if (index >= 0) {
+                untouched.clear(index);
+            }
+        }
+
+        boolean isEmpty() {
+            return untouched.isEmpty();
+        }
+
+        List<Long> getTextFlowIds() {
+            List<Long> result =
+                    Lists.newArrayListWithCapacity(untouched.cardinality());
+            for (int i = untouched.nextSetBit(0); i >= 0; i =
+                    untouched.nextSetBit(i + 1)) {
+                result.add(textFlowIds[i]);
+            }
+            return result;
+        }
+    }
 }
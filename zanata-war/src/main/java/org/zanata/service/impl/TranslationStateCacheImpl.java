@@ -20,15 +20,33 @@
  */
 package org.zanata.service.impl;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import com.google.common.annotations.VisibleForTesting;
 
+import org.infinispan.AdvancedCache;
+import org.infinispan.context.Flag;
 import org.infinispan.manager.CacheContainer;
+import org.infinispan.notifications.Listener;
+import org.infinispan.notifications.cachelistener.annotation.CacheEntriesEvicted;
+import org.infinispan.notifications.cachelistener.annotation.CacheEntryCreated;
+import org.infinispan.notifications.cachelistener.annotation.CacheEntryInvalidated;
+import org.infinispan.notifications.cachelistener.annotation.CacheEntryModified;
+import org.infinispan.notifications.cachelistener.annotation.CacheEntryRemoved;
+import org.infinispan.notifications.cachelistener.event.CacheEntriesEvictedEvent;
+import org.infinispan.notifications.cachelistener.event.CacheEntryEvent;
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.enterprise.event.Observes;
 import javax.enterprise.event.TransactionPhase;
 import javax.inject.Inject;
@@ -36,21 +54,21 @@ import javax.inject.Named;
 
 import org.zanata.cache.CacheWrapper;
 import org.zanata.cache.InfinispanCacheWrapper;
+import org.zanata.common.ContentState;
 import org.zanata.common.LocaleId;
 import org.zanata.dao.DocumentDAO;
-import org.zanata.dao.LocaleDAO;
 import org.zanata.dao.TextFlowDAO;
 import org.zanata.dao.TextFlowTargetDAO;
 import org.zanata.events.DocStatsEvent;
 import org.zanata.events.DocumentLocaleKey;
 import org.zanata.events.TextFlowTargetStateEvent;
 import org.zanata.model.HDocument;
-import org.zanata.model.HLocale;
 import org.zanata.model.HTextFlowTarget;
 import org.zanata.service.TranslationStateCache;
 import org.zanata.service.ValidationFactoryProvider;
 import org.zanata.ui.model.statistic.WordStatistic;
 import org.zanata.util.ServiceLocator;
+import org.zanata.util.StatisticsUtil;
 import org.zanata.util.Zanata;
 import org.zanata.webtrans.shared.model.DocumentId;
 import org.zanata.webtrans.shared.model.DocumentStatus;
@@ -58,6 +76,11 @@ import org.zanata.webtrans.shared.model.ValidationAction;
 import org.zanata.webtrans.shared.model.ValidationId;
 
 import com.google.common.cache.CacheLoader;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 /**
  * Default Implementation of the Translation State Cache.
@@ -81,7 +104,28 @@ public class TranslationStateCacheImpl implements TranslationStateCache {
     private static final String TFT_VALIDATION_CACHE_NAME = BASE
             + ".targetValidationCache";
 
-    private CacheWrapper<DocumentLocaleKey, WordStatistic> documentStatisticCache;
+    private static final String DOC_VALIDATION_INDEX_CACHE_NAME = BASE
+            + ".documentValidationIndexCache";
+
+    // above this many changed targets, rebuild a validation index instead of
+    // updating it
+    private static final int MAX_VALIDATION_INDEX_UPDATES = 50;
+
+    // documents whose validation indexes are loaded by one query
+    private static final int VALIDATION_INDEX_BATCH_SIZE = 50;
+
+    /**
+     * Markers for documents whose statistics have been cleared. This is a
+     * replicated cache in a cluster, so that every node can drop its own
+     * entries for the document.
+     */
+    @VisibleForTesting
+    static final String DOC_CLEARED_CACHE_NAME = BASE
+            + ".documentClearedCache";
+
+    private static final long DOC_CLEARED_LIFESPAN_MINUTES = 5;
+
+    private InfinispanCacheWrapper<DocumentLocaleKey, WordStatistic> documentStatisticCache;
     private CacheLoader<DocumentLocaleKey, WordStatistic> documentStatisticLoader;
 
     private CacheWrapper<DocumentLocaleKey, DocumentStatus> docStatusCache;
@@ -90,6 +134,21 @@ public class TranslationStateCacheImpl implements TranslationStateCache {
     private CacheWrapper<Long, Map<ValidationId, Boolean>> targetValidationCache;
     private CacheLoader<Long, Map<ValidationId, Boolean>> targetValidationLoader;
 
+    private InfinispanCacheWrapper<DocumentLocaleKey, DocumentValidationIndex> documentValidationIndexCache;
+
+    private InfinispanCacheWrapper<Long, Long> documentClearedCache;
+
+    // locales of each document with an entry in the above caches on this
+    // node, so that clearing a document doesn't scan the caches
+    private DocumentLocaleIndex<WordStatistic> documentStatisticLocales;
+    private DocumentLocaleIndex<DocumentValidationIndex> documentValidationIndexLocales;
+
+    private final Object documentStatisticLock = new Object();
+
+    private ExecutorService validationExecutor;
+
+    private ValidationIndexBuilder validationIndexBuilder;
+
     @Inject @Zanata
     private CacheContainer cacheContainer;
 
@@ -102,8 +161,6 @@ public class TranslationStateCacheImpl implements TranslationStateCache {
     @Inject
     private DocumentDAO documentDAO;
 
-    @Inject
-    private LocaleDAO localeDAO;
 
     // constructor for CDI
     public TranslationStateCacheImpl() {
@@ -143,28 +200,64 @@ public class TranslationStateCacheImpl implements TranslationStateCache {
                 InfinispanCacheWrapper.create(TFT_VALIDATION_CACHE_NAME,
                         cacheContainer,
                         targetValidationLoader);
+        documentValidationIndexCache =
+                InfinispanCacheWrapper.create(DOC_VALIDATION_INDEX_CACHE_NAME,
+                        cacheContainer);
+        documentStatisticLocales =
+                new DocumentLocaleIndex<>(documentStatisticCache);
+        documentValidationIndexLocales =
+                new DocumentLocaleIndex<>(documentValidationIndexCache);
+        documentClearedCache =
+                InfinispanCacheWrapper.create(DOC_CLEARED_CACHE_NAME,
+                        cacheContainer);
+        documentClearedCache.getCache().addListener(
+                new DocumentClearedListener());
+        int validationThreads = Runtime.getRuntime().availableProcessors();
+        validationExecutor = Executors.newFixedThreadPool(validationThreads,
+                new ThreadFactoryBuilder().setNameFormat("validation-%d")
+                        .setDaemon(true).build());
+        validationIndexBuilder = new ValidationIndexBuilder(
+                validationExecutor, validationThreads);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        validationExecutor.shutdown();
     }
 
     @Override
     public WordStatistic getDocumentStatistics(Long documentId,
             LocaleId localeId) {
-        return documentStatisticCache.getWithLoader(new DocumentLocaleKey(
+        return documentStatisticLocales.getWithLoader(new DocumentLocaleKey(
                 documentId, localeId));
     }
 
     @Override
     public void clearDocumentStatistics(Long documentId) {
-        for (HLocale locale : localeDAO.findAll()) {
-            DocumentLocaleKey key =
-                    new DocumentLocaleKey(documentId, locale.getLocaleId());
-            documentStatisticCache.remove(key);
-        }
+        // DocumentClearedListener clears the statistics on every node,
+        // including this one
+        documentClearedCache.getCache().put(documentId, System.nanoTime(),
+                DOC_CLEARED_LIFESPAN_MINUTES, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Clears the statistics for a document which were cached by this node.
+     */
+    private void clearLocalDocumentStatistics(Long documentId) {
+        documentStatisticLocales.removeLocal(documentId);
+        documentValidationIndexLocales.removeLocal(documentId);
+    }
+
+    @VisibleForTesting
+    Set<LocaleId> getCachedStatisticLocales(Long documentId) {
+        return documentStatisticLocales.getLocales(documentId);
     }
 
     @Override
     public void clearDocumentStatistics(Long documentId, LocaleId localeId) {
-        documentStatisticCache.remove(new DocumentLocaleKey(documentId,
-                localeId));
+        DocumentLocaleKey key = new DocumentLocaleKey(documentId, localeId);
+        documentStatisticCache.remove(key);
+        documentValidationIndexCache.remove(key);
     }
 
 
@@ -187,6 +280,164 @@ public class TranslationStateCacheImpl implements TranslationStateCache {
         }
     }
 
+    @Override
+    public List<Long> getTextFlowIdsWithWarningOrError(Long documentId,
+            LocaleId localeId, Collection<ValidationId> validationIds) {
+        DocumentLocaleKey key = new DocumentLocaleKey(documentId, localeId);
+        DocumentValidationIndex index = documentValidationIndexCache.get(key);
+        if (index != null) {
+            synchronized (index) {
+                if (index.getValidationIds().containsAll(validationIds)) {
+                    return index.getFailingTextFlowIds(validationIds);
+                }
+            }
+        }
+        Set<ValidationId> neededIds = new HashSet<>(validationIds);
+        if (index != null) {
+            synchronized (index) {
+                // keep the validations which were already indexed
+                neededIds.addAll(index.getValidationIds());
+            }
+        }
+        index = loadValidationIndex(documentId, localeId, neededIds);
+        putLoadedValidationIndex(key, index);
+        synchronized (index) {
+            return index.getFailingTextFlowIds(validationIds);
+        }
+    }
+
+    @Override
+    public Map<Long, Boolean> getDocumentsWithWarningOrError(
+            Collection<Long> documentIds, LocaleId localeId,
+            Collection<ValidationId> validationIds) {
+        Map<Long, Boolean> result =
+                Maps.newHashMapWithExpectedSize(documentIds.size());
+        List<Long> unindexed = Lists.newArrayList();
+        Set<ValidationId> neededIds = new HashSet<>(validationIds);
+        for (Long documentId : documentIds) {
+            DocumentValidationIndex index = documentValidationIndexCache
+                    .get(new DocumentLocaleKey(documentId, localeId));
+            if (index == null) {
+                unindexed.add(documentId);
+                continue;
+            }
+            synchronized (index) {
+                if (index.getValidationIds().containsAll(validationIds)) {
+                    result.put(documentId, index.hasFailures(validationIds));
+                } else {
+                    // keep the validations which were already indexed
+                    neededIds.addAll(index.getValidationIds());
+                    unindexed.add(documentId);
+                }
+            }
+        }
+        for (List<Long> batch : Iterables.partition(unindexed,
+                VALIDATION_INDEX_BATCH_SIZE)) {
+            Map<Long, DocumentValidationIndex> indexes =
+                    validationIndexBuilder.build(textFlowDAO
+                            .getContentsForValidation(batch, localeId),
+                            neededIds);
+            for (Map.Entry<Long, DocumentValidationIndex> entry : indexes
+                    .entrySet()) {
+                Long documentId = entry.getKey();
+                DocumentValidationIndex index = entry.getValue();
+                result.put(documentId, index.hasFailures(validationIds));
+                putLoadedValidationIndex(
+                        new DocumentLocaleKey(documentId, localeId), index);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Caches an index which was just loaded from the database. Other nodes'
+     * indexes are no older, so unlike an update this is not broadcast (which
+     * would evict them); it may replace a narrower index on this node.
+     */
+    private void putLoadedValidationIndex(DocumentLocaleKey key,
+            DocumentValidationIndex index) {
+        documentValidationIndexLocales.putLocal(key, index);
+    }
+
+    private DocumentValidationIndex loadValidationIndex(Long documentId,
+            LocaleId localeId, Collection<ValidationId> validationIds) {
+        // (text flow id, target id, source contents, target contents)
+        List<Object[]> rows =
+                textFlowDAO.getContentsForValidation(documentId, localeId);
+        return validationIndexBuilder
+                .build(ImmutableMap.of(documentId, rows), validationIds)
+                .get(documentId);
+    }
+
+    /**
+     * Updates the cached validation index of a document for changed
+     * targets, or evicts it if that would be more expensive than rebuilding
+     * it. The targets are loaded and validated before taking the lock on the
+     * index, which is only held to update it.
+     */
+    private void updateValidationIndex(TextFlowTargetStateEvent event) {
+        DocumentValidationIndex index =
+                documentValidationIndexCache.get(event.getKey());
+        if (index == null) {
+            return;
+        }
+        if (event.getStates().size() > MAX_VALIDATION_INDEX_UPDATES) {
+            documentValidationIndexCache.remove(event.getKey());
+            return;
+        }
+        List<ValidationId> validationIds;
+        synchronized (index) {
+            validationIds = Lists.newArrayList(index.getValidationIds());
+        }
+        List<Long> targetIds = Lists.newArrayList();
+        for (TextFlowTargetStateEvent.TextFlowTargetStateChange state : event
+                .getStates()) {
+            targetIds.add(state.getTextFlowTargetId());
+        }
+        // (text flow id, target id, source contents, target contents)
+        Map<Long, Object[]> rowsByTargetId = Maps.newHashMap();
+        for (Object[] row : textFlowDAO
+                .getTargetContentsForValidation(targetIds)) {
+            rowsByTargetId.put((Long) row[1], row);
+        }
+        List<ValidationAction> actions =
+                Lists.newArrayListWithCapacity(validationIds.size());
+        for (ValidationId validationId : validationIds) {
+            actions.add(ValidationFactoryProvider.getFactoryInstance()
+                    .getValidationAction(validationId));
+        }
+        // text flow id -> failures, in the order of validationIds
+        Map<Long, boolean[]> failuresByTextFlowId = Maps.newLinkedHashMap();
+        for (TextFlowTargetStateEvent.TextFlowTargetStateChange state : event
+                .getStates()) {
+            Object[] row = rowsByTargetId.get(state.getTextFlowTargetId());
+            boolean[] failures = new boolean[actions.size()];
+            for (int i = 0; row != null && i < actions.size(); i++) {
+                failures[i] = ValidationIndexBuilder.hasWarningOrError(
+                        actions.get(i),
+                        ValidationIndexBuilder.contents(row[2]),
+                        ValidationIndexBuilder.contents(row[3]));
+            }
+            failuresByTextFlowId.put(state.getTextFlowId(), failures);
+        }
+
+        synchronized (index) {
+            for (Map.Entry<Long, boolean[]> entry : failuresByTextFlowId
+                    .entrySet()) {
+                for (int i = 0; i < validationIds.size(); i++) {
+                    if (!index.update(entry.getKey(), validationIds.get(i),
+                            entry.getValue()[i])) {
+                        // text flow is not indexed; the index is stale
+                        documentValidationIndexCache.remove(event.getKey());
+                        return;
+                    }
+                }
+            }
+        }
+        // let other nodes in a cluster know that the index has changed
+        documentValidationIndexLocales.put(event.getKey(), index);
+    }
+
     /**
      * This method contains all logic to be run immediately after a Text Flow
      * Target has been successfully translated.
@@ -200,20 +451,54 @@ public class TranslationStateCacheImpl implements TranslationStateCache {
             // invalidate target validation
             targetValidationCache.remove(state.getTextFlowTargetId());
         }
+        updateValidationIndex(event);
     }
 
     public void docStatsUpdated(
         @Observes(during = TransactionPhase.AFTER_SUCCESS)
             DocStatsEvent event) {
-        // invalidate document statistic cache
-        clearDocumentStatistics(event.getKey().getDocumentId(),
-            event.getKey().getLocaleId());
+        // update document statistic cache
+        applyWordDeltas(event.getKey(), event.getWordDeltasByState());
 
         // update document status information
         updateDocStatusCache(event.getKey(),
             event.getLastModifiedTargetId());
     }
 
+    /**
+     * Applies word count deltas to a cached document statistic, instead of
+     * evicting it and re-running the aggregate query on the next read. If
+     * the result is inconsistent (a negative count), the entry is evicted
+     * instead.
+     */
+    private void applyWordDeltas(DocumentLocaleKey key,
+            Map<ContentState, Long> wordDeltasByState) {
+        synchronized (documentStatisticLock) {
+            WordStatistic stats = documentStatisticCache.get(key);
+            if (stats == null) {
+                return;
+            }
+            // cached values may be shared with readers, so update a copy
+            WordStatistic updated = StatisticsUtil.copyWordStatistic(stats);
+            for (Map.Entry<ContentState, Long> entry : wordDeltasByState
+                    .entrySet()) {
+                updated.increment(entry.getKey(),
+                        Math.toIntExact(entry.getValue()));
+            }
+            if (hasNegativeCount(updated)) {
+                documentStatisticCache.remove(key);
+            } else {
+                documentStatisticLocales.put(key, updated);
+            }
+        }
+    }
+
+    private static boolean hasNegativeCount(WordStatistic stats) {
+        return stats.getApproved() < 0 || stats.getTranslated() < 0
+                || stats.getNeedReview() < 0 || stats.getRejected() < 0
+                || stats.getUntranslated() < 0;
+    }
+
     private void updateDocStatusCache(DocumentLocaleKey key,
             Long updatedTargetId) {
         DocumentStatus documentStatus = docStatusCache.get(key);
@@ -222,6 +507,142 @@ public class TranslationStateCacheImpl implements TranslationStateCache {
                 textFlowTargetDAO.findById(updatedTargetId, false);
             updateDocumentStatus(documentDAO, documentStatus,
                 key.getDocumentId(), target);
+            // let other nodes in a cluster know that the status has changed
+            docStatusCache.put(key, documentStatus);
+        }
+    }
+
+    @VisibleForTesting
+    public void setCacheContainer(CacheContainer cacheContainer) {
+        this.cacheContainer = cacheContainer;
+    }
+
+    /**
+     * Clears the cached statistics of a document when it is marked as
+     * cleared, whether by this node or by another node in the cluster.
+     */
+    @Listener
+    public class DocumentClearedListener {
+        @CacheEntryCreated
+        @CacheEntryModified
+        public void documentCleared(CacheEntryEvent<Long, Long> event) {
+            if (!event.isPre()) {
+                clearLocalDocumentStatistics(event.getKey());
+            }
+        }
+    }
+
+    /**
+     * Keeps track of the locales of each document which have an entry in a
+     * cache on this node. Entries are indexed while holding the lock of the
+     * cache wrapper, which getWithLoader also loads under, and the listener
+     * drops locales whose entries have been evicted, removed or invalidated
+     * (also under that lock, so it can't undo a concurrent load). An entry
+     * which expires stays in the index until the document is cleared, which
+     * only costs a needless removal.
+     */
+    @Listener
+    public static class DocumentLocaleIndex<V> {
+        private final InfinispanCacheWrapper<DocumentLocaleKey, V> cache;
+        // guarded by cache
+        private final Map<Long, Set<LocaleId>> localesByDocument =
+                new HashMap<>();
+
+        DocumentLocaleIndex(InfinispanCacheWrapper<DocumentLocaleKey, V> cache) {
+            this.cache = cache;
+            cache.getCache().addListener(this);
+        }
+
+        V getWithLoader(DocumentLocaleKey key) {
+            synchronized (cache) {
+                V value = cache.getWithLoader(key);
+                if (value != null) {
+                    add(key);
+                }
+                return value;
+            }
+        }
+
+        void put(DocumentLocaleKey key, V value) {
+            synchronized (cache) {
+                cache.put(key, value);
+                add(key);
+            }
+        }
+
+        /**
+         * Caches a value on this node only.
+         */
+        void putLocal(DocumentLocaleKey key, V value) {
+            synchronized (cache) {
+                localCache().put(key, value);
+                add(key);
+            }
+        }
+
+        /**
+         * Removes this node's entries for a document. Every node does this
+         * for itself, so the removals are not broadcast.
+         */
+        void removeLocal(Long documentId) {
+            synchronized (cache) {
+                Set<LocaleId> localeIds = localesByDocument.remove(documentId);
+                if (localeIds == null) {
+                    return;
+                }
+                for (LocaleId localeId : localeIds) {
+                    localCache().remove(
+                            new DocumentLocaleKey(documentId, localeId));
+                }
+            }
+        }
+
+        Set<LocaleId> getLocales(Long documentId) {
+            synchronized (cache) {
+                Set<LocaleId> localeIds = localesByDocument.get(documentId);
+                return localeIds == null ? Collections.<LocaleId> emptySet()
+                        : new HashSet<>(localeIds);
+            }
+        }
+
+        private void add(DocumentLocaleKey key) {
+            localesByDocument.computeIfAbsent(key.getDocumentId(),
+                    id -> new HashSet<>()).add(key.getLocaleId());
+        }
+
+        private void prune(DocumentLocaleKey key) {
+            synchronized (cache) {
+                Set<LocaleId> localeIds =
+                        localesByDocument.get(key.getDocumentId());
+                if (localeIds == null || localCache().containsKey(key)) {
+                    return;
+                }
+                localeIds.remove(key.getLocaleId());
+                if (localeIds.isEmpty()) {
+                    localesByDocument.remove(key.getDocumentId());
+                }
+            }
+        }
+
+        private AdvancedCache<DocumentLocaleKey, V> localCache() {
+            return cache.getCache().getAdvancedCache()
+                    .withFlags(Flag.CACHE_MODE_LOCAL);
+        }
+
+        @CacheEntriesEvicted
+        public void entriesEvicted(
+                CacheEntriesEvictedEvent<DocumentLocaleKey, V> event) {
+            for (DocumentLocaleKey key : event.getEntries().keySet()) {
+                prune(key);
+            }
+        }
+
+        @CacheEntryRemoved
+        @CacheEntryInvalidated
+        public void entryRemoved(CacheEntryEvent<DocumentLocaleKey, V> event) {
+            if (!event.isPre()) {
+                prune(event.getKey());
+            }
         }
     }
 
@@ -233,10 +654,8 @@ public class TranslationStateCacheImpl implements TranslationStateCache {
             ValidationAction action =
                     ValidationFactoryProvider.getFactoryInstance()
                             .getValidationAction(validationId);
-            List<String> errorList =
-                    action.validate(tft.getTextFlow().getContents().get(0), tft
-                            .getContents().get(0));
-            return !errorList.isEmpty();
+            return ValidationIndexBuilder.hasWarningOrError(action,
+                    tft.getTextFlow().getContents(), tft.getContents());
         }
         return null;
     }
@@ -46,6 +46,9 @@ public class TranslationUpdatedManager {
     @Inject
     private DocumentDAO documentDAO;
 
+    @Inject
+    private WebHooksPublisher webHooksPublisher;
+
     @Async
     public void docStatsUpdated(
         @Observes(during = TransactionPhase.AFTER_SUCCESS)
@@ -94,15 +97,17 @@ public class TranslationUpdatedManager {
     public void publishWebhookEvent(List<WebHook> webHooks,
             DocumentStatsEvent event) {
         for (WebHook webHook : webHooks) {
-            WebHooksPublisher.publish(webHook.getUrl(), event,
+            webHooksPublisher.publish(webHook.getUrl(), event,
                     Optional.fromNullable(webHook.getSecret()));
         }
     }
 
     @VisibleForTesting
     public void init(DocumentDAO documentDAO,
-            TextFlowTargetDAO textFlowTargetDAO) {
+            TextFlowTargetDAO textFlowTargetDAO,
+            WebHooksPublisher webHooksPublisher) {
         this.documentDAO = documentDAO;
         this.textFlowTargetDAO = textFlowTargetDAO;
+        this.webHooksPublisher = webHooksPublisher;
     }
 }
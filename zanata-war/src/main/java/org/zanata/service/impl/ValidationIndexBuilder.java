@@ -0,0 +1,213 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.service.impl;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import javax.annotation.Nullable;
+
+import org.zanata.exception.ValidationException;
+import org.zanata.service.ValidationFactoryProvider;
+import org.zanata.webtrans.shared.model.ValidationAction;
+import org.zanata.webtrans.shared.model.ValidationId;
+
+import com.google.common.base.Strings;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+/**
+ * Builds {@link DocumentValidationIndex}es from (text flow id, target id,
+ * source contents, target contents) rows, where the contents are lists of
+ * plural forms.
+ * <p>
+ * Rows are validated in chunks, which run in parallel on the given executor,
+ * so that a large document, or many documents at once, can use all cores.
+ * Without an executor, chunks run on the calling thread.
+ */
+class ValidationIndexBuilder {
+    // smallest chunk worth handing to another thread
+    private static final int MIN_CHUNK_SIZE = 250;
+
+    private final @Nullable ExecutorService executor;
+    private final int parallelism;
+
+    ValidationIndexBuilder(@Nullable ExecutorService executor,
+            int parallelism) {
+        this.executor = executor;
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    /**
+     * @param rowsByDocument
+     *            document id -> rows in document order
+     * @return document id -> index
+     */
+    Map<Long, DocumentValidationIndex> build(
+            Map<Long, List<Object[]>> rowsByDocument,
+            Collection<ValidationId> validationIds) {
+        List<ValidationAction> actions =
+                Lists.newArrayListWithCapacity(validationIds.size());
+        for (ValidationId validationId : validationIds) {
+            actions.add(ValidationFactoryProvider.getFactoryInstance()
+                    .getValidationAction(validationId));
+        }
+        int totalRows = 0;
+        for (List<Object[]> rows : rowsByDocument.values()) {
+            totalRows += rows.size();
+        }
+        int chunkSize = Math.max(MIN_CHUNK_SIZE,
+                (totalRows + parallelism - 1) / parallelism);
+
+        List<Chunk> chunks = Lists.newArrayList();
+        Map<Long, DocumentValidationIndex> result =
+                Maps.newHashMapWithExpectedSize(rowsByDocument.size());
+        for (Map.Entry<Long, List<Object[]>> entry : rowsByDocument
+                .entrySet()) {
+            List<Object[]> rows = entry.getValue();
+            List<Long> textFlowIds = Lists.newArrayListWithCapacity(rows.size());
+            for (Object[] row : rows) {
+                textFlowIds.add((Long) row[0]);
+            }
+            DocumentValidationIndex index =
+                    new DocumentValidationIndex(textFlowIds);
+            for (ValidationId validationId : validationIds) {
+                index.putValidation(validationId, new BitSet(rows.size()));
+            }
+            result.put(entry.getKey(), index);
+            for (int from = 0; from < rows.size(); from += chunkSize) {
+                chunks.add(new Chunk(index, rows, from,
+                        Math.min(rows.size(), from + chunkSize), actions));
+            }
+        }
+        runAll(chunks);
+        return result;
+    }
+
+    private void runAll(List<Chunk> chunks) {
+        if (executor == null || chunks.size() < 2) {
+            for (Chunk chunk : chunks) {
+                chunk.call();
+            }
+            return;
+        }
+        List<Future<Void>> futures = Lists.newArrayList();
+        try {
+            for (Chunk chunk : chunks) {
+                futures.add(executor.submit(chunk));
+            }
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ValidationException("interrupted while validating");
+        } catch (ExecutionException e) {
+            throw new ValidationException("validation failed", e.getCause());
+        } finally {
+            for (Future<Void> future : futures) {
+                future.cancel(false);
+            }
+        }
+    }
+
+    /**
+     * Validates every plural form of a target. Each form is checked against
+     * the source form with the same index, or the last source form if the
+     * source has fewer forms (like the plural form of a gettext message).
+     */
+    static boolean hasWarningOrError(ValidationAction action,
+            List<String> sources, List<String> targets) {
+        int forms = Math.max(1, targets.size());
+        for (int i = 0; i < forms; i++) {
+            String source = sources.isEmpty() ? null
+                    : sources.get(Math.min(i, sources.size() - 1));
+            String target = i < targets.size() ? targets.get(i) : null;
+            List<String> errorList = action.validate(
+                    Strings.nullToEmpty(source), Strings.nullToEmpty(target));
+            if (!errorList.isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @SuppressWarnings("unchecked")
+    static List<String> contents(Object column) {
+        return (List<String>) column;
+    }
+
+    /**
+     * Validates a range of the rows of one document.
+     */
+    private static class Chunk implements Callable<Void> {
+        private final DocumentValidationIndex index;
+        private final List<Object[]> rows;
+        private final int from;
+        private final int to;
+        private final List<ValidationAction> actions;
+
+        Chunk(DocumentValidationIndex index, List<Object[]> rows, int from,
+                int to, List<ValidationAction> actions) {
+            this.index = index;
+            this.rows = rows;
+            this.from = from;
+            this.to = to;
+            this.actions = actions;
+        }
+
+        @Override
+        public Void call() {
+            List<BitSet> failures =
+                    Lists.newArrayListWithCapacity(actions.size());
+            for (int i = 0; i < actions.size(); i++) {
+                failures.add(new BitSet(to - from));
+            }
+            for (int i = from; i < to; i++) {
+                Object[] row = rows.get(i);
+                if (row[1] == null) {
+                    // no target
+                    continue;
+                }
+                for (int a = 0; a < actions.size(); a++) {
+                    if (hasWarningOrError(actions.get(a), contents(row[2]),
+                            contents(row[3]))) {
+                        failures.get(a).set(i - from);
+                    }
+                }
+            }
+            // chunks of one document share its bit sets
+            synchronized (index) {
+                for (int a = 0; a < actions.size(); a++) {
+                    index.mergeFailures(actions.get(a).getId(),
+                            failures.get(a), from);
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -6,8 +6,10 @@ package org.zanata.service.impl;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -20,12 +22,10 @@ import org.zanata.common.LocaleId;
 import org.zanata.dao.DocumentDAO;
 import org.zanata.dao.ProjectDAO;
 import org.zanata.dao.ProjectIterationDAO;
-import org.zanata.dao.TextFlowTargetDAO;
 import org.zanata.model.HDocument;
 import org.zanata.model.HProject;
 import org.zanata.model.HProjectIteration;
 import org.zanata.model.HTextFlow;
-import org.zanata.model.HTextFlowTarget;
 import org.zanata.service.TranslationStateCache;
 import org.zanata.service.ValidationFactoryProvider;
 import org.zanata.service.ValidationService;
@@ -35,7 +35,11 @@ import org.zanata.webtrans.shared.model.ValidationId;
 import org.zanata.webtrans.shared.validation.ValidationFactory;
 
 import com.google.common.base.Stopwatch;
+import com.google.common.collect.HashBasedTable;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.collect.Table;
 
 /**
  *
@@ -52,9 +56,6 @@ public class ValidationServiceImpl implements ValidationService {
     @Inject
     private ProjectIterationDAO projectIterationDAO;
 
-    @Inject
-    private TextFlowTargetDAO textFlowTargetDAO;
-
     @Inject
     private DocumentDAO documentDAO;
 
@@ -63,6 +64,10 @@ public class ValidationServiceImpl implements ValidationService {
 
     private ValidationFactory validationFactory;
 
+    // (version id, states) -> ids of the rules which are in those states
+    private final Table<Long, Set<State>, List<ValidationId>> serverRuleIds =
+            HashBasedTable.create();
+
     private ValidationFactory getValidationFactory() {
         if (validationFactory == null) {
             validationFactory = ValidationFactoryProvider.getFactoryInstance();
@@ -193,6 +198,19 @@ public class ValidationServiceImpl implements ValidationService {
         return hasError;
     }
 
+    @Override
+    public Map<Long, Boolean> runDocValidations(Collection<Long> hDocIds,
+            List<ValidationId> validationIds, LocaleId localeId) {
+        log.debug("Start runDocValidations for {} documents", hDocIds.size());
+        Stopwatch stopwatch = Stopwatch.createStarted();
+
+        Map<Long, Boolean> result = translationStateCacheImpl
+                .getDocumentsWithWarningOrError(hDocIds, localeId,
+                        validationIds);
+        log.debug("Finished runDocValidations in " + stopwatch);
+        return result;
+    }
+
     @Override
     public boolean runDocValidationsWithServerRules(HDocument hDoc,
             LocaleId localeId) {
@@ -212,16 +230,8 @@ public class ValidationServiceImpl implements ValidationService {
 
     private boolean documentHasWarningOrError(HDocument hDoc,
             List<ValidationId> validationIds, LocaleId localeId) {
-        for (HTextFlow textFlow : hDoc.getTextFlows()) {
-            boolean hasError =
-                    textFlowTargetHasWarningOrError(textFlow.getId(),
-                            validationIds, localeId);
-            if (hasError) {
-                // return true if error found, else continue
-                return true;
-            }
-        }
-        return false;
+        return !translationStateCacheImpl.getTextFlowIdsWithWarningOrError(
+                hDoc.getId(), localeId, validationIds).isEmpty();
     }
 
     @Override
@@ -231,18 +241,36 @@ public class ValidationServiceImpl implements ValidationService {
         log.debug("Start filter {} textFlows", textFlows.size());
         Stopwatch stopwatch = Stopwatch.createStarted();
 
+        // document id -> text flows which fail validation
+        Map<Long, Set<Long>> failingIdsByDocument = Maps.newHashMap();
         List<HTextFlow> result = new ArrayList<HTextFlow>();
 
         for (HTextFlow textFlow : textFlows) {
-            boolean hasWarningOrError =
-                    textFlowTargetHasWarningOrError(textFlow.getId(),
-                            validationIds, localeId);
-            if (hasWarningOrError) {
+            Long documentId = textFlow.getDocument().getId();
+            Set<Long> failingIds = failingIdsByDocument.computeIfAbsent(
+                    documentId, id -> Sets.newHashSet(translationStateCacheImpl
+                            .getTextFlowIdsWithWarningOrError(id, localeId,
+                                    validationIds)));
+            if (failingIds.contains(textFlow.getId())) {
                 result.add(textFlow);
             }
         }
         log.debug("Finished filter textFlows in " + stopwatch);
+        return page(result, startIndex, maxSize);
+    }
 
+    @Override
+    public List<Long> findHasWarningOrErrorTextFlowIds(Long documentId,
+            List<ValidationId> validationIds, LocaleId localeId,
+            int startIndex, int maxSize) {
+        List<Long> textFlowIds =
+                translationStateCacheImpl.getTextFlowIdsWithWarningOrError(
+                        documentId, localeId, validationIds);
+        return page(textFlowIds, startIndex, maxSize);
+    }
+
+    private static <T> List<T> page(List<T> result, int startIndex,
+            int maxSize) {
         if (result.size() <= maxSize) {
             return result;
         }
@@ -256,39 +284,43 @@ public class ValidationServiceImpl implements ValidationService {
         return result.subList(startIndex, toIndex);
     }
 
-    private boolean textFlowTargetHasWarningOrError(Long textFlowId,
-            List<ValidationId> validationIds, LocaleId localeId) {
-        HTextFlowTarget target =
-                textFlowTargetDAO.getTextFlowTarget(textFlowId, localeId);
-        if (target != null) {
-            for (ValidationId validationId : validationIds) {
-                Boolean value =
-                        translationStateCacheImpl
-                                .textFlowTargetHasWarningOrError(
-                                        target.getId(), validationId);
-                if (value != null && value.booleanValue()) {
-                    return value.booleanValue();
-                }
-            }
-        }
-        return false;
-    }
-
     @Override
     public List<String> validateWithServerRules(
             HProjectIteration projectVersion, List<String> sources,
             List<String> translations, State... actionStates) {
-        Collection<ValidationAction> validationActions =
-                getValidationActions(projectVersion, actionStates);
         List<String> errorList = Lists.newArrayList();
 
         String tf_content0 = sources.get(0);
         String tft_content0 = translations.get(0);
 
-        for (ValidationAction action : validationActions) {
+        for (ValidationId validationId : getServerRuleIds(projectVersion,
+                actionStates)) {
+            ValidationAction action =
+                    getValidationFactory().getValidationAction(validationId);
             errorList.addAll(action.validate(tf_content0, tft_content0));
         }
 
         return errorList;
     }
+
+    /**
+     * Looks up the rules of a version once per request, since this is called
+     * for every translation of an upload or a copy.
+     */
+    private List<ValidationId> getServerRuleIds(
+            HProjectIteration projectVersion, State... actionStates) {
+        Long versionId = projectVersion.getId();
+        if (versionId == null) {
+            return getValidationIds(projectVersion, actionStates);
+        }
+        Set<State> states = actionStates == null || actionStates.length == 0
+                ? EnumSet.allOf(State.class)
+                : EnumSet.copyOf(Arrays.asList(actionStates));
+        List<ValidationId> ids = serverRuleIds.get(versionId, states);
+        if (ids == null) {
+            ids = getValidationIds(projectVersion, actionStates);
+            serverRuleIds.put(versionId, states, ids);
+        }
+        return ids;
+    }
 }
@@ -22,7 +22,9 @@
 
 package org.zanata.service.impl;
 
+import java.util.Collection;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 import com.google.common.annotations.VisibleForTesting;
 import org.infinispan.manager.CacheContainer;
@@ -39,6 +41,7 @@ import org.zanata.events.DocStatsEvent;
 import org.zanata.model.HLocale;
 import org.zanata.service.VersionLocaleKey;
 import org.zanata.service.VersionStateCache;
+import org.zanata.ui.model.statistic.IterationStatistics;
 import org.zanata.ui.model.statistic.WordStatistic;
 import org.zanata.util.IServiceLocator;
 import org.zanata.util.ServiceLocator;
@@ -60,9 +63,19 @@ public class VersionStateCacheImpl implements VersionStateCache {
     private static final String VERSION_STATISTIC_CACHE_NAME = BASE
             + ".versionStatisticCache";
 
+    private static final String ITERATION_STATISTIC_CACHE_NAME = BASE
+            + ".iterationStatisticCache";
+
     private CacheWrapper<VersionLocaleKey, WordStatistic> versionStatisticCache;
     private CacheLoader<VersionLocaleKey, WordStatistic> versionStatisticLoader;
 
+    // statistics of all documents of a version, dropped on any change
+    private CacheWrapper<Long, IterationStatistics> iterationStatisticCache;
+
+    // invalidation counts, striped by version id; a load only goes into the
+    // cache if its version was not invalidated while it ran
+    private final AtomicLongArray invalidations = new AtomicLongArray(64);
+
     @Inject @Zanata
     private CacheContainer cacheContainer;
 
@@ -88,12 +101,16 @@ public class VersionStateCacheImpl implements VersionStateCache {
         versionStatisticCache =
                 InfinispanCacheWrapper.create(VERSION_STATISTIC_CACHE_NAME,
                         cacheContainer, versionStatisticLoader);
+        iterationStatisticCache =
+                InfinispanCacheWrapper.create(ITERATION_STATISTIC_CACHE_NAME,
+                        cacheContainer);
     }
 
     @Override
     public void docStatsUpdated(
         @Observes(during = TransactionPhase.AFTER_SUCCESS)
         DocStatsEvent event) {
+        invalidateIterationStatistics(event.getProjectVersionId());
         VersionLocaleKey key =
             new VersionLocaleKey(event.getProjectVersionId(),
                 event.getKey().getLocaleId());
@@ -115,8 +132,35 @@ public class VersionStateCacheImpl implements VersionStateCache {
                 projectIterationId, localeId));
     }
 
+    @Override
+    public IterationStatistics getIterationStatistics(Long projectIterationId,
+            Collection<LocaleId> localeIds) {
+        IterationStatistics statistics =
+                iterationStatisticCache.get(projectIterationId);
+        if (statistics != null && statistics.hasLocales(localeIds)) {
+            return statistics;
+        }
+        long invalidationCount = invalidations.get(stripe(projectIterationId));
+        statistics = serviceLocator.getInstance(ProjectIterationDAO.class)
+                .getIterationStatistics(projectIterationId, localeIds, false);
+        if (invalidations.get(stripe(projectIterationId)) == invalidationCount) {
+            iterationStatisticCache.put(projectIterationId, statistics);
+        }
+        return statistics;
+    }
+
+    private void invalidateIterationStatistics(Long versionId) {
+        invalidations.incrementAndGet(stripe(versionId));
+        iterationStatisticCache.remove(versionId);
+    }
+
+    private int stripe(Long versionId) {
+        return (int) Math.floorMod(versionId, (long) invalidations.length());
+    }
+
     @Override
     public void clearVersionStatsCache(Long versionId) {
+        invalidateIterationStatistics(versionId);
         LocaleDAO localeDAO = serviceLocator.getInstance(LocaleDAO.class);
         for (HLocale locale : localeDAO.findAll()) {
             VersionLocaleKey key =
@@ -130,6 +174,11 @@ public class VersionStateCacheImpl implements VersionStateCache {
         this.cacheContainer = cacheContainer;
     }
 
+    @VisibleForTesting
+    void setServiceLocator(IServiceLocator serviceLocator) {
+        this.serviceLocator = serviceLocator;
+    }
+
     private static class VersionStatisticLoader extends
             CacheLoader<VersionLocaleKey, WordStatistic> {
 
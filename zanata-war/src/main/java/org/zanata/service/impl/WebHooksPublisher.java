@@ -21,56 +21,326 @@
 
 package org.zanata.service.impl;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.ws.rs.ProcessingException;
 import javax.ws.rs.client.Entity;
 import javax.ws.rs.client.Invocation;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
 
 import org.apache.commons.lang.StringUtils;
 import org.jboss.resteasy.client.jaxrs.ResteasyClient;
 import org.jboss.resteasy.client.jaxrs.ResteasyClientBuilder;
-import org.jboss.resteasy.client.jaxrs.ResteasyWebTarget;
+import org.zanata.config.WebhookConfig;
 import org.zanata.events.WebhookEventType;
+import org.zanata.util.HmacUtil;
+import org.zanata.util.Introspectable;
+import org.zanata.util.ServiceLocator;
+import org.zanata.webhook.events.DocumentMilestoneEvent;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Optional;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import lombok.extern.slf4j.Slf4j;
-import org.zanata.util.HmacUtil;
 
 /**
- * Do http post for webhook event
+ * Delivers webhook events with http post.
+ * <p>
+ * All events go through one pooled http client. Each endpoint (callback URL)
+ * has its own bounded queue, which is drained by at most one thread at a
+ * time, so events reach an endpoint in order and a slow endpoint cannot tie
+ * up more than one thread. When an endpoint's queue is full, publishers wait
+ * a while for space before the event is dropped. Failed deliveries (network
+ * errors, 5xx, 408 and 429 responses) are retried with exponential backoff,
+ * and later events for that endpoint wait for the retry.
+ * <p>
+ * Document milestone events can optionally be posted together as a JSON
+ * array; see {@link WebhookConfig#getMilestoneBatchSize()}.
  *
  * @author Alex Eng <a href="mailto:aeng@redhat.com">aeng@redhat.com</a>
  */
+@Named("webHooksPublisher")
+@ApplicationScoped
 @Slf4j
-public class WebHooksPublisher {
+public class WebHooksPublisher implements Introspectable {
 
     public static final String WEBHOOK_HEADER = "X-Zanata-Webhook";
 
-    public static void publish(@Nonnull String callbackURL,
-        @Nonnull WebhookEventType event, Optional<String> secretKey) {
-        publish(callbackURL, event.getJSON(), MediaType.APPLICATION_JSON_TYPE,
-            MediaType.APPLICATION_JSON_TYPE, secretKey);
+    private static final String INTROSPECTABLE_FIELD_STATS = "Stats";
+    private static final String INTROSPECTABLE_FIELD_ENDPOINTS = "Endpoints";
+
+    private static final long QUEUE_FULL_TIMEOUT_MILLIS = 5000;
+    private static final long INITIAL_BACKOFF_MILLIS = 1000;
+    private static final long MAX_BACKOFF_MILLIS = 60000;
+
+    @Inject
+    private WebhookConfig webhookConfig;
+
+    private ResteasyClient client;
+
+    private ScheduledExecutorService executor;
+
+    private int queueSize;
+    private int maxRetries;
+    private int milestoneBatchSize;
+    private long queueFullTimeoutMillis;
+    private long initialBackoffMillis;
+
+    // callback URL -> endpoint
+    private final ConcurrentMap<String, Endpoint> endpoints =
+            Maps.newConcurrentMap();
+
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder posts = new LongAdder();
+    private final LongAdder retried = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    public static WebHooksPublisher getInstance() {
+        return ServiceLocator.instance().getInstance(WebHooksPublisher.class);
     }
 
-    protected static void publish(@Nonnull String callbackURL,
-            @Nonnull String data, @Nonnull MediaType acceptType,
-            @Nonnull MediaType mediaType, Optional<String> secretKey) {
+    @PostConstruct
+    public void init() {
+        init(webhookConfig.getThreadPoolSize(), webhookConfig.getQueueSize(),
+                webhookConfig.getMaxRetries(),
+                webhookConfig.getMilestoneBatchSize(),
+                QUEUE_FULL_TIMEOUT_MILLIS, INITIAL_BACKOFF_MILLIS);
+    }
+
+    @VisibleForTesting
+    void init(int poolSize, int queueSize, int maxRetries,
+            int milestoneBatchSize, long queueFullTimeoutMillis,
+            long initialBackoffMillis) {
+        poolSize = Math.max(1, poolSize);
+        this.queueSize = Math.max(1, queueSize);
+        this.maxRetries = Math.max(0, maxRetries);
+        this.milestoneBatchSize = Math.max(1, milestoneBatchSize);
+        this.queueFullTimeoutMillis = queueFullTimeoutMillis;
+        this.initialBackoffMillis = initialBackoffMillis;
+        client = new ResteasyClientBuilder()
+                .connectionPoolSize(poolSize * 2)
+                .maxPooledPerRoute(2)
+                .establishConnectionTimeout(10, TimeUnit.SECONDS)
+                .socketTimeout(30, TimeUnit.SECONDS)
+                .build();
+        executor = Executors.newScheduledThreadPool(poolSize,
+                new ThreadFactoryBuilder().setNameFormat("webhook-%d")
+                        .setDaemon(true).build());
+    }
+
+    @PreDestroy
+    public void cleanup() {
+        executor.shutdown();
         try {
-            ResteasyClient client = new ResteasyClientBuilder().build();
-            ResteasyWebTarget target = client.target(callbackURL);
-            Invocation.Builder postBuilder =
-                    target.request().accept(acceptType);
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        executor.shutdownNow();
+        client.close();
+        long pending = getPendingCount();
+        if (pending > 0) {
+            log.warn("discarding {} undelivered webhook events", pending);
+        }
+    }
 
-            if (secretKey.isPresent() &&
-                    StringUtils.isNotBlank(secretKey.get())) {
+    /**
+     * Queues an event for delivery to the given callback URL. Blocks for a
+     * while if the endpoint's queue is full, and drops the event if it is
+     * still full after that.
+     */
+    public void publish(@Nonnull String callbackURL,
+            @Nonnull WebhookEventType event, Optional<String> secretKey) {
+        String secret = secretKey.isPresent()
+                && StringUtils.isNotBlank(secretKey.get()) ? secretKey.get()
+                        : null;
+        Delivery delivery = new Delivery(event.getJSON(),
+                event instanceof DocumentMilestoneEvent, secret);
+        Endpoint endpoint =
+                endpoints.computeIfAbsent(callbackURL, Endpoint::new);
+        boolean queued;
+        try {
+            queued = endpoint.queue.offer(delivery, queueFullTimeoutMillis,
+                    TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            queued = false;
+        }
+        if (!queued) {
+            dropped.increment();
+            log.warn("webhook queue for {} is full, dropping {} event",
+                    callbackURL, event.getType());
+            return;
+        }
+        startDrain(endpoint);
+    }
+
+    /**
+     * @return number of events which are waiting for delivery, including
+     *         those waiting for a retry
+     */
+    public long getPendingCount() {
+        long pending = 0;
+        for (Endpoint endpoint : endpoints.values()) {
+            pending += endpoint.getPendingCount();
+        }
+        return pending;
+    }
+
+    private void startDrain(Endpoint endpoint) {
+        if (endpoint.draining.compareAndSet(false, true)) {
+            try {
+                executor.execute(() -> drain(endpoint));
+            } catch (RejectedExecutionException e) {
+                endpoint.draining.set(false);
+                log.warn("webhook delivery is shut down, not posting to {}",
+                        endpoint.url);
+            }
+        }
+    }
+
+    /**
+     * Posts queued events to the endpoint until its queue is empty, or a
+     * post needs to be retried later. Only one thread drains an endpoint at
+     * a time.
+     */
+    private void drain(Endpoint endpoint) {
+        while (true) {
+            Batch batch = endpoint.retrying != null ? endpoint.retrying
+                    : nextBatch(endpoint);
+            endpoint.retrying = null;
+            if (batch == null) {
+                endpoint.draining.set(false);
+                // an event may have been queued after we found the queue
+                // empty, but before we cleared the flag
+                if (endpoint.queue.isEmpty()
+                        || !endpoint.draining.compareAndSet(false, true)) {
+                    return;
+                }
+                continue;
+            }
+            Outcome outcome = post(endpoint.url, batch);
+            if (outcome == Outcome.DELIVERED) {
+                delivered.add(batch.size);
+            } else if (outcome == Outcome.RETRY
+                    && batch.attempts < maxRetries) {
+                batch.attempts++;
+                retried.add(batch.size);
+                long delay = getBackoffMillis(batch.attempts);
+                log.debug("retrying webhook post to {} in {} ms",
+                        endpoint.url, delay);
+                // the endpoint stays marked as draining, so that nothing
+                // overtakes the retry
+                endpoint.retrying = batch;
+                try {
+                    executor.schedule(() -> drain(endpoint), delay,
+                            TimeUnit.MILLISECONDS);
+                } catch (RejectedExecutionException e) {
+                    log.warn("webhook delivery is shut down, not retrying {}",
+                            endpoint.url);
+                }
+                return;
+            } else {
+                failed.add(batch.size);
+                log.warn("giving up on {} webhook event(s) for {} after {} attempt(s)",
+                        batch.size, endpoint.url, batch.attempts + 1);
+            }
+        }
+    }
+
+    @VisibleForTesting
+    long getBackoffMillis(int attempt) {
+        long delay = initialBackoffMillis << Math.min(attempt - 1, 20);
+        return Math.min(delay, MAX_BACKOFF_MILLIS);
+    }
+
+    private @Nullable Batch nextBatch(Endpoint endpoint) {
+        Delivery first = endpoint.queue.poll();
+        if (first == null) {
+            return null;
+        }
+        if (!first.batchable || milestoneBatchSize == 1) {
+            return new Batch(first.data, first.secret, 1);
+        }
+        List<Delivery> deliveries = Lists.newArrayList(first);
+        Delivery next;
+        // this is the only thread taking from the queue, so the peeked
+        // delivery is still there to be polled
+        while (deliveries.size() < milestoneBatchSize
+                && (next = endpoint.queue.peek()) != null
+                && next.batchable
+                && Objects.equals(next.secret, first.secret)) {
+            deliveries.add(endpoint.queue.poll());
+        }
+        if (deliveries.size() == 1) {
+            return new Batch(first.data, first.secret, 1);
+        }
+        String data = deliveries.stream().map(d -> d.data)
+                .collect(Collectors.joining(",", "[", "]"));
+        return new Batch(data, first.secret, deliveries.size());
+    }
+
+    private Outcome post(String callbackURL, Batch batch) {
+        posts.increment();
+        Response response = null;
+        try {
+            Invocation.Builder postBuilder = client.target(callbackURL)
+                    .request().accept(MediaType.APPLICATION_JSON_TYPE);
+            if (batch.secret != null) {
                 String sha =
-                        signWebhookHeader(data, secretKey.get(), callbackURL);
+                        signWebhookHeader(batch.data, batch.secret,
+                                callbackURL);
                 postBuilder.header(WEBHOOK_HEADER, sha);
             }
-            log.debug("firing async webhook: {}:{}", callbackURL, data);
-            postBuilder.async().post(Entity.entity(data, mediaType));
+            log.debug("posting webhook: {}:{}", callbackURL, batch.data);
+            response = postBuilder.post(Entity.entity(batch.data,
+                    MediaType.APPLICATION_JSON_TYPE));
+            int status = response.getStatus();
+            if (response.getStatusInfo()
+                    .getFamily() == Response.Status.Family.SUCCESSFUL) {
+                return Outcome.DELIVERED;
+            }
+            if (status >= 500 || status == 408 || status == 429) {
+                log.debug("webhook post to {} returned {}", callbackURL,
+                        status);
+                return Outcome.RETRY;
+            }
+            log.warn("webhook post to {} was rejected with status {}",
+                    callbackURL, status);
+            return Outcome.REJECTED;
+        } catch (ProcessingException e) {
+            log.debug("error on webhook post to {}", callbackURL, e);
+            return Outcome.RETRY;
         } catch (Exception e) {
             log.error("Error on webhooks post {}, {}", callbackURL, e);
+            return Outcome.REJECTED;
+        } finally {
+            if (response != null) {
+                response.close();
+            }
         }
     }
 
@@ -85,5 +355,112 @@ public class WebHooksPublisher {
             throw new IllegalArgumentException(e);
         }
     }
-}
 
+    // below are all monitoring stuff
+    @Override
+    public String getIntrospectableId() {
+        return getClass().getCanonicalName();
+    }
+
+    @Override
+    public Collection<String> getIntrospectableFieldNames() {
+        return Lists.newArrayList(INTROSPECTABLE_FIELD_STATS,
+                INTROSPECTABLE_FIELD_ENDPOINTS);
+    }
+
+    @Override
+    public String getFieldValueAsString(String fieldName) {
+        switch (fieldName) {
+            case INTROSPECTABLE_FIELD_STATS:
+                return "{pending=" + getPendingCount()
+                        + ", delivered=" + delivered.sum()
+                        + ", posts=" + posts.sum()
+                        + ", retried=" + retried.sum()
+                        + ", failed=" + failed.sum()
+                        + ", dropped=" + dropped.sum() + "}";
+            case INTROSPECTABLE_FIELD_ENDPOINTS:
+                return endpoints.values().toString();
+            default:
+                throw new IllegalArgumentException(
+                        "unknown field:" + fieldName);
+        }
+    }
+
+    @VisibleForTesting
+    long getDeliveredCount() {
+        return delivered.sum();
+    }
+
+    @VisibleForTesting
+    long getRetriedCount() {
+        return retried.sum();
+    }
+
+    @VisibleForTesting
+    long getFailedCount() {
+        return failed.sum();
+    }
+
+    @VisibleForTesting
+    long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    private enum Outcome {
+        DELIVERED, RETRY, REJECTED
+    }
+
+    private static final class Delivery {
+        private final String data;
+        private final boolean batchable;
+        private final @Nullable String secret;
+
+        private Delivery(String data, boolean batchable,
+                @Nullable String secret) {
+            this.data = data;
+            this.batchable = batchable;
+            this.secret = secret;
+        }
+    }
+
+    /**
+     * One http post, of one or more events.
+     */
+    private static final class Batch {
+        private final String data;
+        private final @Nullable String secret;
+        private final int size;
+        private int attempts;
+
+        private Batch(String data, @Nullable String secret, int size) {
+            this.data = data;
+            this.secret = secret;
+            this.size = size;
+        }
+    }
+
+    private final class Endpoint {
+        private final String url;
+        private final BlockingQueue<Delivery> queue;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        // only touched by the draining thread; handed over to the retry by
+        // the executor
+        private volatile @Nullable Batch retrying;
+
+        private Endpoint(String url) {
+            this.url = url;
+            this.queue = new ArrayBlockingQueue<>(queueSize);
+        }
+
+        private long getPendingCount() {
+            Batch batch = retrying;
+            return queue.size() + (batch == null ? 0 : batch.size);
+        }
+
+        @Override
+        public String toString() {
+            return url + "={pending=" + getPendingCount() + ", retrying="
+                    + (retrying != null) + "}";
+        }
+    }
+}
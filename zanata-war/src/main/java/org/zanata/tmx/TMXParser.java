@@ -21,6 +21,7 @@
 package org.zanata.tmx;
 
 import java.io.InputStream;
+import java.util.List;
 
 import javax.enterprise.context.Dependent;
 import javax.persistence.EntityExistsException;
@@ -35,7 +36,6 @@ import javax.xml.stream.XMLStreamConstants;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamReader;
 
-import lombok.AllArgsConstructor;
 import lombok.Cleanup;
 import lombok.extern.slf4j.Slf4j;
 import nu.xom.Element;
@@ -47,8 +47,8 @@ import javax.inject.Inject;
 import javax.inject.Named;
 import org.zanata.common.util.ElementBuilder;
 import org.zanata.model.tm.TransMemory;
+import org.zanata.model.tm.TransMemoryUnit;
 import org.zanata.transaction.TransactionUtil;
-import org.zanata.util.RunnableEx;
 import org.zanata.util.TMXParseException;
 import org.zanata.xml.TmxDtdResolver;
 import com.google.common.base.Throwables;
@@ -63,8 +63,13 @@ import com.google.common.base.Throwables;
 @Dependent
 @Slf4j
 public class TMXParser {
-    // Batch size to commit in a new transaction for long files
+    // Batch size to commit in a new transaction for long files (same as
+    // hibernate.jdbc.batch_size)
     private static final int BATCH_SIZE = 100;
+    // threads which build translation units while a batch is being saved
+    private static final int WORKER_COUNT =
+            Math.max(1, Math.min(4,
+                    Runtime.getRuntime().availableProcessors() - 1));
 
     @Inject
     private Session session;
@@ -98,11 +103,29 @@ public class TMXParser {
                 throw new TMXParseException("Wrong root element: expected tmx");
 
             // At this point, event = START_ELEMENT and name = tmx
-            while (reader.hasNext()) {
-                CommitBatch commitBatch =
-                        new CommitBatch(reader, 0, transMemory);
-                TransactionUtil.get().runEx(commitBatch);
-                handledTUs += commitBatch.handledTUs;
+            TransactionUtil.get().runEx(() -> {
+                processHeader(reader, transMemory);
+                session.flush();
+            });
+            // the header always precedes the body, so the source language
+            // is known before any tu is built
+            String tmSourceLanguage = transMemory.getSourceLanguage();
+            try (TransUnitPipeline pipeline = TransUnitPipeline.start(reader,
+                    tuElem -> transMemoryAdapter.buildTransUnit(
+                            tmSourceLanguage, tuElem),
+                    WORKER_COUNT, BATCH_SIZE * 2)) {
+                List<TransMemoryUnit> batch;
+                while (!(batch = pipeline.nextBatch(BATCH_SIZE)).isEmpty()) {
+                    List<TransMemoryUnit> units = batch;
+                    TransactionUtil.get().runEx(() -> {
+                        transMemoryAdapter.processTransUnits(transMemory,
+                                units);
+                        session.flush();
+                        // don't let the persistence context grow with the file
+                        session.clear();
+                    });
+                    handledTUs += units.size();
+                }
             }
         } catch (EntityExistsException e) {
             String msg =
@@ -124,36 +147,25 @@ public class TMXParser {
         }
     }
 
-
-
-    @AllArgsConstructor
-    private class CommitBatch implements RunnableEx {
-        private XMLStreamReader reader;
-        private int handledTUs;
-        private TransMemory transMemory;
-        private final QName header = new QName("header");
-        private final QName tu = new QName("tu");
-
-        @Override
-        public void run() throws Exception {
-            while (reader.hasNext() && handledTUs < BATCH_SIZE) {
-                int eventType = reader.next();
-                if (eventType == XMLStreamConstants.START_ELEMENT) {
-                    QName elemName = reader.getName();
-                    if (elemName.equals(tu)) {
-                        Element tuElem = ElementBuilder.buildElement(reader);
-                        transMemoryAdapter
-                                .processTransUnit(transMemory, tuElem);
-                        handledTUs++;
-                    } else if (elemName.equals(header)) {
-                        Element headerElem =
-                                ElementBuilder.buildElement(reader);
-                        transMemoryAdapter.processHeader(transMemory,
-                                headerElem);
-                    }
+    /**
+     * Reads up to the end of the header (or the start of the body if there is
+     * no header), and saves the header's metadata.
+     */
+    private void processHeader(XMLStreamReader reader,
+            TransMemory transMemory) throws Exception {
+        QName header = new QName("header");
+        QName body = new QName("body");
+        while (reader.hasNext()) {
+            if (reader.next() == XMLStreamConstants.START_ELEMENT) {
+                QName elemName = reader.getName();
+                if (elemName.equals(header)) {
+                    Element headerElem = ElementBuilder.buildElement(reader);
+                    transMemoryAdapter.processHeader(transMemory, headerElem);
+                    return;
+                } else if (elemName.equals(body)) {
+                    return;
                 }
             }
         }
     }
-
 }
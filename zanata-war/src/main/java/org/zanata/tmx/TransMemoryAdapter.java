@@ -21,6 +21,10 @@
 
 package org.zanata.tmx;
 
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 import javax.enterprise.context.Dependent;
 import javax.persistence.EntityManager;
 
@@ -37,6 +41,8 @@ import org.zanata.model.tm.TMXMetadataHelper;
 import org.zanata.model.tm.TransMemory;
 import org.zanata.util.TMXParseException;
 
+import com.google.common.collect.Sets;
+
 /**
  * Translation Memory Adapter for the TMX parser. Provides callback effects
  * (functions) to be used when the parser encounters certain specific events.
@@ -68,25 +74,53 @@ public class TransMemoryAdapter {
     }
 
     /**
-     * Persists a translation unit when a tu element is encountered while
-     * parsing.
+     * Builds a (transient) translation unit from a tu element, computing the
+     * plain text and hash of every variant. Does not touch the persistence
+     * context, so it may be called from any thread.
      *
+     * @param tmSourceLanguage
+     *            source language from the TMX header, used if the tu does not
+     *            specify one
      * @throws TMXParseException
      */
-    public void processTransUnit(TransMemory tm, Element tuElem)
-            throws TMXParseException {
+    public TransMemoryUnit buildTransUnit(String tmSourceLanguage,
+            Element tuElem) throws TMXParseException {
         TransMemoryUnit tu = new TransMemoryUnit();
-        tu.setTranslationMemory(tm);
 
-        TMXMetadataHelper.setMetadata(tu, tuElem, tm.getSourceLanguage());
+        TMXMetadataHelper.setMetadata(tu, tuElem, tmSourceLanguage);
         tu.setVersionNum(0);
 
         addTUVs(tu, tuElem.getChildElements("tuv"));
 
         tu.setUniqueId(determineUniqueId(tu));
+        return tu;
+    }
 
-        tu = mergeWithExistingTUIfAny(tu);
-        entityManager.merge(tu);
+    /**
+     * Persists a batch of translation units built by
+     * {@link #buildTransUnit(String, Element)}. Existing units are looked up
+     * with a single query for the whole batch. When a batch contains the same
+     * unique id more than once, the last unit wins, just as if they had been
+     * in different batches.
+     */
+    public void processTransUnits(TransMemory tm,
+            List<TransMemoryUnit> newTUs) {
+        Set<String> uniqueIds = Sets.newHashSet();
+        for (TransMemoryUnit tu : newTUs) {
+            uniqueIds.add(tu.getUniqueId());
+        }
+        Map<String, TransMemoryUnit> existingTUs =
+                transMemoryDAO.findTranslationUnits(tm.getSlug(), uniqueIds);
+        for (TransMemoryUnit newTU : newTUs) {
+            newTU.setTranslationMemory(tm);
+            TransMemoryUnit existingTU = existingTUs.get(newTU.getUniqueId());
+            if (existingTU != null) {
+                mergeInto(existingTU, newTU);
+            } else {
+                existingTUs.put(newTU.getUniqueId(),
+                        entityManager.merge(newTU));
+            }
+        }
     }
 
     private String determineUniqueId(TransMemoryUnit tu)
@@ -131,24 +165,16 @@ public class TransMemoryAdapter {
         tu.getTransUnitVariants().put(tuv.getLanguage(), tuv);
     }
 
-    private TransMemoryUnit mergeWithExistingTUIfAny(TransMemoryUnit newTU) {
-        TransMemoryUnit existingTu =
-                transMemoryDAO.findTranslationUnit(newTU.getTranslationMemory()
-                        .getSlug(), newTU.getUniqueId());
-        if (existingTu != null) {
-            existingTu
-                    .setMetadata(newTU.getMetadataType(), newTU.getMetadata());
-            existingTu.setPosition(newTU.getPosition());
-            existingTu.setSourceLanguage(newTU.getSourceLanguage());
-            existingTu.setTransUnitId(newTU.getTransUnitId());
-            existingTu.getTransUnitVariants().clear();
-            existingTu.getTransUnitVariants().putAll(
-                    newTU.getTransUnitVariants());
-            // No need to set the unique id or parent Trans Memory, it should be
-            // the same
-            return existingTu;
-        }
-        return newTU;
+    private static void mergeInto(TransMemoryUnit existingTu,
+            TransMemoryUnit newTU) {
+        existingTu.setMetadata(newTU.getMetadataType(), newTU.getMetadata());
+        existingTu.setPosition(newTU.getPosition());
+        existingTu.setSourceLanguage(newTU.getSourceLanguage());
+        existingTu.setTransUnitId(newTU.getTransUnitId());
+        existingTu.getTransUnitVariants().clear();
+        existingTu.getTransUnitVariants().putAll(newTU.getTransUnitVariants());
+        // No need to set the unique id or parent Trans Memory, it should be
+        // the same
     }
 
 }
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.tmx;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamReader;
+
+import lombok.extern.slf4j.Slf4j;
+import nu.xom.Element;
+
+import org.zanata.common.util.ElementBuilder;
+import org.zanata.model.tm.TransMemoryUnit;
+import org.zanata.util.TMXParseException;
+
+import com.google.common.base.Throwables;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Reads tu elements on a background thread and builds translation units from
+ * them on a small worker pool, so that parsing, building and persisting
+ * overlap. Units are handed out in document order, and the queue between the
+ * stages is bounded, so that a large file is never held in memory at once.
+ * <p>
+ * Not thread safe: only one thread may consume the units.
+ */
+@Slf4j
+class TransUnitPipeline implements AutoCloseable {
+
+    interface TransUnitBuilder {
+        TransMemoryUnit build(Element tuElem) throws TMXParseException;
+    }
+
+    // marks the end of the document
+    private static final Future<TransMemoryUnit> END =
+            Futures.immediateFuture(null);
+
+    private static final QName TU = new QName("tu");
+
+    private final XMLStreamReader reader;
+    private final TransUnitBuilder builder;
+    private final BlockingQueue<Future<TransMemoryUnit>> queue;
+    private final ExecutorService workers;
+    private final Thread readerThread;
+    private volatile boolean closed;
+    private boolean finished;
+
+    private TransUnitPipeline(XMLStreamReader reader,
+            TransUnitBuilder builder, int workerCount, int capacity) {
+        this.reader = reader;
+        this.builder = builder;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.workers = Executors.newFixedThreadPool(workerCount,
+                new ThreadFactoryBuilder().setNameFormat("tmx-worker-%d")
+                        .setDaemon(true).build());
+        this.readerThread = new ThreadFactoryBuilder()
+                .setNameFormat("tmx-reader-%d").setDaemon(true).build()
+                .newThread(this::readAll);
+    }
+
+    /**
+     * Starts reading tu elements from the current position of the reader.
+     * The reader must not be used by the caller until the pipeline is closed.
+     *
+     * @param workerCount
+     *            number of threads which build translation units
+     * @param capacity
+     *            maximum number of units read ahead of the consumer
+     */
+    static TransUnitPipeline start(XMLStreamReader reader,
+            TransUnitBuilder builder, int workerCount, int capacity) {
+        TransUnitPipeline pipeline =
+                new TransUnitPipeline(reader, builder, workerCount, capacity);
+        pipeline.readerThread.start();
+        return pipeline;
+    }
+
+    /**
+     * Waits for the next units, in document order.
+     *
+     * @return up to maxSize units, or an empty list at the end of the
+     *         document
+     * @throws Exception
+     *             the first error from reading or building units
+     */
+    List<TransMemoryUnit> nextBatch(int maxSize) throws Exception {
+        List<TransMemoryUnit> batch = Lists.newArrayListWithCapacity(maxSize);
+        while (!finished && batch.size() < maxSize) {
+            Future<TransMemoryUnit> next = queue.take();
+            if (next == END) {
+                finished = true;
+                break;
+            }
+            try {
+                batch.add(next.get());
+            } catch (ExecutionException e) {
+                finished = true;
+                Throwables.propagateIfPossible(e.getCause(), Exception.class);
+                throw e;
+            }
+        }
+        return batch;
+    }
+
+    private void readAll() {
+        Future<TransMemoryUnit> last = END;
+        try {
+            while (!closed && reader.hasNext()) {
+                if (reader.next() == XMLStreamConstants.START_ELEMENT
+                        && reader.getName().equals(TU)) {
+                    Element tuElem = ElementBuilder.buildElement(reader);
+                    queue.put(workers.submit(() -> builder.build(tuElem)));
+                }
+            }
+        } catch (InterruptedException e) {
+            log.debug("TMX reader interrupted");
+            return;
+        } catch (Exception e) {
+            last = Futures.immediateFailedFuture(e);
+        }
+        try {
+            if (!closed) {
+                queue.put(last);
+            }
+        } catch (InterruptedException e) {
+            log.debug("TMX reader interrupted");
+        }
+    }
+
+    /**
+     * Stops reading and building units. Any units which have not been
+     * consumed are discarded.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        readerThread.interrupt();
+        try {
+            readerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        workers.shutdownNow();
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.ui.model.statistic;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+
+import org.zanata.common.ContentState;
+import org.zanata.common.LocaleId;
+import org.zanata.events.DocumentLocaleKey;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+
+/**
+ * Message and word counts for every (document, locale) pair of a version,
+ * with the time and author of the last translation, as loaded in one pass by
+ * {@link org.zanata.dao.ProjectIterationDAO#getIterationStatistics}.
+ * Version-level statistics are summed from the document statistics, so both
+ * views always agree.
+ * <p>
+ * Untranslated counts are not stored: they are the document total minus the
+ * counts of all other states.
+ */
+public class IterationStatistics implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Set<LocaleId> localeIds;
+
+    // document id -> (message count, word count) of active text flows
+    private final Map<Long, long[]> documentTotals = Maps.newHashMap();
+
+    private final Map<DocumentLocaleKey, MessageStatistic> messages =
+            Maps.newHashMap();
+
+    private final Map<DocumentLocaleKey, WordStatistic> words =
+            Maps.newHashMap();
+
+    private final Map<DocumentLocaleKey, Date> lastTranslatedDates =
+            Maps.newHashMap();
+
+    private final Map<DocumentLocaleKey, String> lastTranslatedBy =
+            Maps.newHashMap();
+
+    public IterationStatistics() {
+        this(Collections.<LocaleId> emptySet());
+    }
+
+    /**
+     * @param localeIds
+     *            the locales which statistics are loaded for
+     */
+    public IterationStatistics(Collection<LocaleId> localeIds) {
+        this.localeIds = ImmutableSet.copyOf(localeIds);
+    }
+
+    /**
+     * @return true if statistics were loaded for all of the given locales
+     */
+    public boolean hasLocales(Collection<LocaleId> localeIds) {
+        return this.localeIds.containsAll(localeIds);
+    }
+
+    public void addDocument(Long documentId, long messageCount,
+            long wordCount) {
+        documentTotals.put(documentId, new long[] { messageCount, wordCount });
+    }
+
+    /**
+     * Adds the targets of one document in one locale and state.
+     */
+    public void addTargets(Long documentId, LocaleId localeId,
+            ContentState state, long messageCount, long wordCount,
+            @Nullable Date lastChanged) {
+        DocumentLocaleKey key = new DocumentLocaleKey(documentId, localeId);
+        if (state != ContentState.New) {
+            messages.computeIfAbsent(key, k -> new MessageStatistic())
+                    .increment(state, (int) messageCount);
+            words.computeIfAbsent(key, k -> new WordStatistic())
+                    .increment(state, (int) wordCount);
+        }
+        Date current = lastTranslatedDates.get(key);
+        if (lastChanged != null
+                && (current == null || lastChanged.after(current))) {
+            lastTranslatedDates.put(key, lastChanged);
+        }
+    }
+
+    public void setLastTranslatedBy(Long documentId, LocaleId localeId,
+            String username) {
+        lastTranslatedBy.put(new DocumentLocaleKey(documentId, localeId),
+                username);
+    }
+
+    /**
+     * @return ids of the documents which have any active text flows
+     */
+    public Set<Long> getDocumentIds() {
+        return documentTotals.keySet();
+    }
+
+    public MessageStatistic getMessageStatistic(Long documentId,
+            LocaleId localeId) {
+        MessageStatistic result = new MessageStatistic();
+        addTo(result, messages.get(new DocumentLocaleKey(documentId,
+                localeId)), getTotal(documentId, 0));
+        return result;
+    }
+
+    public WordStatistic getWordStatistic(Long documentId, LocaleId localeId) {
+        WordStatistic result = new WordStatistic();
+        addTo(result, words.get(new DocumentLocaleKey(documentId, localeId)),
+                getTotal(documentId, 1));
+        return result;
+    }
+
+    /**
+     * @return message statistic of the whole version
+     */
+    public MessageStatistic getMessageStatistic(LocaleId localeId) {
+        MessageStatistic result = new MessageStatistic();
+        for (Long documentId : documentTotals.keySet()) {
+            addTo(result, messages.get(new DocumentLocaleKey(documentId,
+                    localeId)), getTotal(documentId, 0));
+        }
+        return result;
+    }
+
+    /**
+     * @return word statistic of the whole version
+     */
+    public WordStatistic getWordStatistic(LocaleId localeId) {
+        WordStatistic result = new WordStatistic();
+        for (Long documentId : documentTotals.keySet()) {
+            addTo(result, words.get(new DocumentLocaleKey(documentId,
+                    localeId)), getTotal(documentId, 1));
+        }
+        return result;
+    }
+
+    public @Nullable Date getLastTranslatedDate(Long documentId,
+            LocaleId localeId) {
+        return lastTranslatedDates.get(new DocumentLocaleKey(documentId,
+                localeId));
+    }
+
+    /**
+     * @return username of the last translator, or an empty string
+     */
+    public String getLastTranslatedBy(Long documentId, LocaleId localeId) {
+        String username =
+                lastTranslatedBy.get(new DocumentLocaleKey(documentId,
+                        localeId));
+        return username == null ? "" : username;
+    }
+
+    /**
+     * @return the last document of the version to be translated in the
+     *         locale, or null if nothing is translated
+     */
+    public @Nullable Long getLastTranslatedDocument(LocaleId localeId) {
+        Long lastDocumentId = null;
+        Date lastDate = null;
+        for (Map.Entry<DocumentLocaleKey, Date> entry : lastTranslatedDates
+                .entrySet()) {
+            if (entry.getKey().getLocaleId().equals(localeId)
+                    && (lastDate == null || entry.getValue().after(lastDate))) {
+                lastDocumentId = entry.getKey().getDocumentId();
+                lastDate = entry.getValue();
+            }
+        }
+        return lastDocumentId;
+    }
+
+    private long getTotal(Long documentId, int index) {
+        long[] totals = documentTotals.get(documentId);
+        return totals == null ? 0 : totals[index];
+    }
+
+    private static void addTo(AbstractStatistic result,
+            @Nullable AbstractStatistic targets, long total) {
+        int untranslated = (int) total;
+        if (targets != null) {
+            result.add(targets);
+            untranslated -= targets.getTotal();
+        }
+        result.increment(ContentState.New, untranslated);
+    }
+}
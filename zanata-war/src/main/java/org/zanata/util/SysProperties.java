@@ -55,10 +55,37 @@ public class SysProperties {
      * Override Lucene value for project iteration (slug)
      */
     public static final String TM_BOOST_ITERATION = "zanata.tm.boost.iteration";
+    /**
+     * Maximum total weight (roughly, chars of source and target content) of
+     * cached TM search results.
+     */
+    public static final String TM_CACHE_MAX_WEIGHT = "zanata.tm.cache.max.weight";
+    /**
+     * Minutes after which a cached TM search result is discarded, even if no
+     * change to the relevant translations has been seen.
+     */
+    public static final String TM_CACHE_EXPIRY_MINUTES = "zanata.tm.cache.expiry.minutes";
     /**
      * Override default lock timeout for @Synchronized beans
      */
     public static final String LOCK_TIMEOUT = "zanata.lock.timeout.millis";
+    /**
+     * If true, a REST call which can't immediately get an [active] permit is
+     * rejected with status 429, instead of waiting for one.
+     */
+    public static final String RATE_LIMIT_REJECT_WHEN_BUSY =
+            "zanata.ratelimit.reject.when.busy";
+    /**
+     * Minutes after which an unused rate limiter is discarded.
+     */
+    public static final String RATE_LIMIT_IDLE_EXPIRY_MINUTES =
+            "zanata.ratelimit.idle.expiry.minutes";
+    /**
+     * Seconds for which permission decisions are remembered for a session (in
+     * addition to the current request). 0 (the default) disables this.
+     */
+    public static final String PERMISSION_CACHE_SESSION_TTL_SECONDS =
+            "zanata.permission.cache.session.ttl.seconds";
 
     /**
      * Gets the value of a system property as a float if available,
@@ -6,6 +6,7 @@ import de.novanic.eventservice.client.config.EventServiceConfigurationTransferab
 import net.customware.gwt.presenter.client.EventBus;
 
 import org.zanata.webtrans.client.events.CommentChangedEvent;
+import org.zanata.webtrans.client.events.DocumentUpdatedEvent;
 import org.zanata.webtrans.client.events.EnterWorkspaceEvent;
 import org.zanata.webtrans.client.events.ExitWorkspaceEvent;
 import org.zanata.webtrans.client.events.PublishWorkspaceChatEvent;
@@ -14,6 +15,7 @@ import org.zanata.webtrans.client.events.TransUnitUpdatedEvent;
 import org.zanata.webtrans.client.events.WorkspaceContextUpdateEvent;
 import org.zanata.webtrans.shared.model.UserWorkspaceContext;
 import org.zanata.webtrans.shared.rpc.AddReviewComment;
+import org.zanata.webtrans.shared.rpc.DocumentUpdated;
 import org.zanata.webtrans.shared.rpc.EnterWorkspace;
 import org.zanata.webtrans.shared.rpc.ExitWorkspace;
 import org.zanata.webtrans.shared.rpc.HasEnterWorkspaceData;
@@ -26,6 +28,7 @@ import org.zanata.webtrans.shared.rpc.PublishWorkspaceChat;
 import org.zanata.webtrans.shared.rpc.SessionEventData;
 import org.zanata.webtrans.shared.rpc.TransUnitEdit;
 import org.zanata.webtrans.shared.rpc.TransUnitUpdated;
+import org.zanata.webtrans.shared.rpc.TransUnitUpdatedBatch;
 import org.zanata.webtrans.shared.rpc.WorkspaceContextUpdate;
 
 import com.allen_sauer.gwt.log.client.Log;
@@ -126,6 +129,16 @@ public class EventProcessor implements RemoteEventListener {
                     return new CommentChangedEvent(comment.getTransUnitId(), comment.getCommentCount());
                 }
             });
+            factories.put(DocumentUpdated.class,
+                    new EventFactory<DocumentUpdatedEvent>() {
+                        @Override
+                        public DocumentUpdatedEvent create(
+                                SessionEventData event) {
+                            return new DocumentUpdatedEvent(
+                                    ((DocumentUpdated) event)
+                                            .getDocumentId());
+                        }
+                    });
 
         }
 
@@ -189,7 +202,13 @@ public class EventProcessor implements RemoteEventListener {
     @Override
     public void apply(Event event) {
         // Log.info("received remote event "+event);
-        if (event instanceof SessionEventData) {
+        if (event instanceof TransUnitUpdatedBatch) {
+            // coalesced on the server; handlers still see one event per unit
+            for (TransUnitUpdated update : ((TransUnitUpdatedBatch) event)
+                    .getUpdates()) {
+                apply(update);
+            }
+        } else if (event instanceof SessionEventData) {
             SessionEventData ed = (SessionEventData) event;
             GwtEvent<?> gwtEvent = eventRegistry.getEvent(ed);
             if (gwtEvent != null) {
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.webtrans.client.events;
+
+import org.zanata.webtrans.shared.model.DocumentId;
+
+import com.google.gwt.event.shared.GwtEvent;
+
+/**
+ * Fired when many text flows of a document have been changed by someone
+ * else, and the document should be reloaded.
+ */
+public class DocumentUpdatedEvent extends
+        GwtEvent<DocumentUpdatedEventHandler> {
+    public static final Type<DocumentUpdatedEventHandler> TYPE =
+            new Type<DocumentUpdatedEventHandler>();
+
+    private final DocumentId documentId;
+
+    public DocumentUpdatedEvent(DocumentId documentId) {
+        this.documentId = documentId;
+    }
+
+    public DocumentId getDocumentId() {
+        return documentId;
+    }
+
+    @Override
+    public Type<DocumentUpdatedEventHandler> getAssociatedType() {
+        return TYPE;
+    }
+
+    @Override
+    protected void dispatch(DocumentUpdatedEventHandler handler) {
+        handler.onDocumentUpdated(this);
+    }
+}
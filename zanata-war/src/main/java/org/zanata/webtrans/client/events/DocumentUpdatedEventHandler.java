@@ -0,0 +1,7 @@
+package org.zanata.webtrans.client.events;
+
+import com.google.gwt.event.shared.EventHandler;
+
+public interface DocumentUpdatedEventHandler extends EventHandler {
+    void onDocumentUpdated(DocumentUpdatedEvent event);
+}
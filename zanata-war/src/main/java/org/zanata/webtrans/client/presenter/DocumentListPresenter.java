@@ -42,6 +42,8 @@ import org.zanata.webtrans.client.events.DocValidationResultEvent;
 import org.zanata.webtrans.client.events.DocumentSelectionEvent;
 import org.zanata.webtrans.client.events.DocumentSelectionHandler;
 import org.zanata.webtrans.client.events.DocumentStatsUpdatedEvent;
+import org.zanata.webtrans.client.events.DocumentUpdatedEvent;
+import org.zanata.webtrans.client.events.DocumentUpdatedEventHandler;
 import org.zanata.webtrans.client.events.NotificationEvent;
 import org.zanata.webtrans.client.events.RefreshProjectStatsEvent;
 import org.zanata.webtrans.client.events.RunDocValidationEvent;
@@ -90,7 +92,8 @@ import com.google.inject.Inject;
 public class DocumentListPresenter extends WidgetPresenter<DocumentListDisplay>
         implements DocumentListDisplay.Listener, DocumentSelectionHandler,
         UserConfigChangeHandler, TransUnitUpdatedEventHandler,
-        WorkspaceContextUpdateEventHandler, RunDocValidationEventHandler {
+        DocumentUpdatedEventHandler, WorkspaceContextUpdateEventHandler,
+        RunDocValidationEventHandler {
     private final UserWorkspaceContext userWorkspaceContext;
     private DocumentInfo currentDocument;
     private final WebTransMessages messages;
@@ -145,6 +148,7 @@ public class DocumentListPresenter extends WidgetPresenter<DocumentListDisplay>
                 this));
         registerHandler(eventBus.addHandler(TransUnitUpdatedEvent.getType(),
                 this));
+        registerHandler(eventBus.addHandler(DocumentUpdatedEvent.TYPE, this));
         registerHandler(eventBus.addHandler(UserConfigChangeEvent.TYPE, this));
         registerHandler(eventBus.addHandler(
                 WorkspaceContextUpdateEvent.getType(), this));
@@ -321,31 +325,62 @@ public class DocumentListPresenter extends WidgetPresenter<DocumentListDisplay>
 
                 @Override
                 public void onSuccess(GetDocumentStatsResult result) {
-                    for (Entry<DocumentId, ContainerTranslationStatistics> entry : result
-                            .getStatsMap().entrySet()) {
-                        DocumentInfo docInfo = getDocumentInfo(entry.getKey());
-                        docInfo.setStats(entry.getValue());
-
-                        docInfo.setLastTranslated(result.getLastTranslatedMap()
-                                .get(entry.getKey()));
-
-                        Integer row = pageRows.get(entry.getKey());
-                        if (row != null) {
-                            display.updateStats(row, docInfo.getStats());
-                            display.updateLastTranslated(row,
-                                    docInfo.getLastTranslated());
-                        }
-
-                        eventBus.fireEvent(new DocumentStatsUpdatedEvent(entry
-                                .getKey(), docInfo.getStats()));
-                    }
-                    eventBus.fireEvent(new RefreshProjectStatsEvent(Lists
-                            .newArrayList(nodes.values())));
+                    updateStats(result);
                     docStatQueueDispatcher.executeQueue();
 
                 }
             };
 
+    /**
+     * For a document which changed too much to send individual updates, the
+     * stats are queried again instead of being adjusted.
+     */
+    private final AsyncCallback<GetDocumentStatsResult> reloadDocumentStatCallBack =
+            new AsyncCallback<GetDocumentStatsResult>() {
+                @Override
+                public void onFailure(Throwable caught) {
+                    eventBus.fireEvent(new NotificationEvent(
+                            NotificationEvent.Severity.Error,
+                            "Unable get stats for documents"));
+                }
+
+                @Override
+                public void onSuccess(GetDocumentStatsResult result) {
+                    updateStats(result);
+                }
+            };
+
+    private void updateStats(GetDocumentStatsResult result) {
+        for (Entry<DocumentId, ContainerTranslationStatistics> entry : result
+                .getStatsMap().entrySet()) {
+            DocumentInfo docInfo = getDocumentInfo(entry.getKey());
+            docInfo.setStats(entry.getValue());
+
+            docInfo.setLastTranslated(result.getLastTranslatedMap().get(
+                    entry.getKey()));
+
+            Integer row = pageRows.get(entry.getKey());
+            if (row != null) {
+                display.updateStats(row, docInfo.getStats());
+                display.updateLastTranslated(row, docInfo.getLastTranslated());
+            }
+
+            eventBus.fireEvent(new DocumentStatsUpdatedEvent(entry.getKey(),
+                    docInfo.getStats()));
+        }
+        eventBus.fireEvent(new RefreshProjectStatsEvent(Lists
+                .newArrayList(nodes.values())));
+    }
+
+    @Override
+    public void onDocumentUpdated(DocumentUpdatedEvent event) {
+        if (nodes.containsKey(event.getDocumentId())) {
+            dispatcher.execute(new GetDocumentStats(Lists
+                    .newArrayList(event.getDocumentId())),
+                    reloadDocumentStatCallBack);
+        }
+    }
+
     private List<DocumentId> convertFromNodetoId(List<DocumentNode> nodes) {
         ArrayList<DocumentId> documentIds = Lists.newArrayList();
 
@@ -92,6 +92,9 @@ public class SearchResultsPresenter extends
 
     private static final int TRUNCATED_TARGET_LENGTH = 24;
 
+    // text flows to fetch per search request
+    private static final int SEARCH_PAGE_SIZE = 100;
+
     public interface Display extends WidgetDisplay {
         HasText getSearchResponseLabel();
 
@@ -217,7 +220,9 @@ public class SearchResultsPresenter extends
     private final Provider<UndoLink> undoLinkProvider;
     private final UserWorkspaceContext userWorkspaceContext;
 
-    private AsyncCallback<GetProjectTransUnitListsResult> projectSearchCallback;
+    // the first page of the search which is currently displayed
+    private GetProjectTransUnitLists currentSearch;
+    private int resultCount;
     private Delegate<TransUnitReplaceInfo> previewButtonDelegate;
     private Delegate<TransUnitReplaceInfo> replaceButtonDelegate;
     private Delegate<TransUnitReplaceInfo> undoButtonDelegate;
@@ -267,7 +272,6 @@ public class SearchResultsPresenter extends
 
     @Override
     protected void onBind() {
-        projectSearchCallback = buildProjectSearchCallback();
         selectionChangeHandler = buildSelectionChangeHandler();
         documentDataProviders =
                 new HashMap<Long, ListDataProvider<TransUnitReplaceInfo>>();
@@ -514,12 +518,20 @@ public class SearchResultsPresenter extends
                 ShortcutContext.ProjectWideSearch, false);
     }
 
+    /**
+     * @param search
+     *            the first page of the search which this page belongs to
+     */
     private AsyncCallback<GetProjectTransUnitListsResult>
-            buildProjectSearchCallback() {
+            buildProjectSearchCallback(
+                    final GetProjectTransUnitLists search) {
         return new AsyncCallback<GetProjectTransUnitListsResult>() {
 
             @Override
             public void onFailure(Throwable caught) {
+                if (search != currentSearch) {
+                    return;
+                }
                 Log.error("[SearchResultsPresenter] failed project-wide search request: "
                         + caught.getMessage());
                 eventBus.fireEvent(new NotificationEvent(Severity.Error,
@@ -531,8 +543,13 @@ public class SearchResultsPresenter extends
 
             @Override
             public void onSuccess(GetProjectTransUnitListsResult result) {
-                int textFlowCount = displaySearchResults(result);
-                if (result.getDocumentIds().size() == 0) {
+                if (search != currentSearch) {
+                    // a newer search has started
+                    return;
+                }
+                resultCount += displaySearchResults(result);
+                int textFlowCount = resultCount;
+                if (documentDataProviders.isEmpty()) {
                     // TODO add case sensitivity and scope
                     display.getSearchResponseLabel().setText(
                             messages.searchForPhraseReturnedNoResults(result
@@ -542,10 +559,16 @@ public class SearchResultsPresenter extends
                     display.getSearchResponseLabel().setText(
                             messages.showingResultsForProjectWideSearch(result
                                     .getSearchAction().getSearchString(),
-                                    textFlowCount, result.getDocumentIds()
+                                    textFlowCount, documentDataProviders
                                             .size()));
                 }
-                display.setSearching(false);
+                if (result.hasMore()) {
+                    // keep showing results as each page arrives
+                    dispatcher.execute(
+                            search.forOffset(result.getNextOffset()), this);
+                } else {
+                    display.setSearching(false);
+                }
             }
 
         };
@@ -1069,34 +1092,39 @@ public class SearchResultsPresenter extends
     }
 
     /**
-     * Show search results as documents in the display. This will replace any
-     * existing results being displayed.
+     * Show a page of search results as documents in the display. Results for
+     * a document which is already displayed are added to its table.
      *
      * @param result
      *            results to display
      * @return the number of text flows that were displayed
      */
     private int displaySearchResults(GetProjectTransUnitListsResult result) {
-        clearAllExistingData();
         int totalTransUnits = 0;
         for (Long docId : result.getDocumentIds()) {
             docPaths.put(docId, result.getDocPath(docId));
             List<TransUnit> transUnits = result.getUnits(docId);
             totalTransUnits += transUnits.size();
-            displayDocumentResults(docId, result.getDocPath(docId), transUnits);
+            ListDataProvider<TransUnitReplaceInfo> dataProvider =
+                    documentDataProviders.get(docId);
+            if (dataProvider == null) {
+                dataProvider =
+                        displayDocument(docId, result.getDocPath(docId));
+            }
+            addDocumentResults(docId, dataProvider, transUnits, result);
         }
         return totalTransUnits;
     }
 
     /**
-     * Display header and all results for a single document.
+     * Display header and an empty table for a single document.
      *
      * @param docId
      * @param docPathName
-     * @param transUnits
+     * @return the data provider for the document's table
      */
-    private void displayDocumentResults(final Long docId,
-            final String docPathName, List<TransUnit> transUnits) {
+    private ListDataProvider<TransUnitReplaceInfo> displayDocument(
+            final Long docId, final String docPathName) {
         final ListDataProvider<TransUnitReplaceInfo> dataProvider;
         final MultiSelectionModel<TransUnitReplaceInfo> selectionModel =
                 display.createMultiSelectionModel();
@@ -1134,19 +1162,30 @@ public class SearchResultsPresenter extends
 
         selectionModel.addSelectionChangeHandler(selectionChangeHandler);
 
+        selectionModel
+                .addSelectionChangeHandler(buildSelectionChangeDeselectHandler(
+                        docId, selectionModel, dataProvider));
+        return dataProvider;
+    }
+
+    /**
+     * Add results for a single document to its table.
+     */
+    private void addDocumentResults(Long docId,
+            ListDataProvider<TransUnitReplaceInfo> dataProvider,
+            List<TransUnit> transUnits, GetProjectTransUnitListsResult result) {
         List<TransUnitReplaceInfo> data = dataProvider.getList();
         for (TransUnit tu : transUnits) {
             TransUnitReplaceInfo info = new TransUnitReplaceInfo(docId, tu);
+            Long textFlowId = tu.getId().getId();
+            info.setMatches(result.getSourceMatches(textFlowId),
+                    result.getTargetMatches(textFlowId));
             // default state is NotReplaced, this call triggers read-only check
             setReplaceState(info, ReplacementState.NotReplaced);
             data.add(info);
             allReplaceInfos.put(tu.getId(), info);
         }
 
-        selectionModel
-                .addSelectionChangeHandler(buildSelectionChangeDeselectHandler(
-                        docId, selectionModel, dataProvider));
-
         Collections.sort(data, TransUnitReplaceInfo.getRowComparator());
     }
 
@@ -1206,8 +1245,12 @@ public class SearchResultsPresenter extends
             GetProjectTransUnitLists action =
                     new GetProjectTransUnitLists(searchText, searchInSource,
                             searchInTarget, caseSensitive,
-                            windowLocation.getQueryDocuments());
-            dispatcher.execute(action, projectSearchCallback);
+                            windowLocation.getQueryDocuments(), 0,
+                            SEARCH_PAGE_SIZE);
+            currentSearch = action;
+            dispatcher.execute(action, buildProjectSearchCallback(action));
+        } else {
+            currentSearch = null;
         }
     }
 
@@ -1230,6 +1273,7 @@ public class SearchResultsPresenter extends
      * all documents from the display
      */
     private void clearAllExistingData() {
+        resultCount = 0;
         documentDataProviders.clear();
         documentSelectionModels.clear();
         display.getSelectAllChk().setValue(false, false);
@@ -21,8 +21,10 @@
 package org.zanata.webtrans.client.presenter;
 
 import java.util.Comparator;
+import java.util.List;
 
 import org.zanata.webtrans.client.ui.SearchResultsDocumentTable;
+import org.zanata.webtrans.shared.model.ContentMatch;
 import org.zanata.webtrans.shared.model.TransUnit;
 import org.zanata.webtrans.shared.model.TransUnitUpdateInfo;
 import org.zanata.webtrans.shared.model.TransUnitUpdatePreview;
@@ -43,6 +45,8 @@ public class TransUnitReplaceInfo {
     private TransUnit tu;
     private TransUnitUpdatePreview preview;
     private TransUnitUpdateInfo replaceInfo;
+    private List<ContentMatch> sourceMatches;
+    private List<ContentMatch> targetMatches;
 
     public TransUnitReplaceInfo(Long containingDocId, TransUnit tu) {
         this.docId = containingDocId;
@@ -59,6 +63,30 @@ public class TransUnitReplaceInfo {
 
     public void setTransUnit(TransUnit tu) {
         this.tu = tu;
+        // offsets from the search do not apply to updated targets
+        targetMatches = null;
+    }
+
+    /**
+     * @return positions of the search matches in the source contents, or null
+     *         if they are not known
+     */
+    public List<ContentMatch> getSourceMatches() {
+        return sourceMatches;
+    }
+
+    /**
+     * @return positions of the search matches in the target contents, or null
+     *         if they are not known
+     */
+    public List<ContentMatch> getTargetMatches() {
+        return targetMatches;
+    }
+
+    public void setMatches(List<ContentMatch> sourceMatches,
+            List<ContentMatch> targetMatches) {
+        this.sourceMatches = sourceMatches;
+        this.targetMatches = targetMatches;
     }
 
     public TransUnitUpdatePreview getPreview() {
@@ -308,6 +308,11 @@ public class TransUnitsTablePresenter extends
         targetContentsPresenter.highlightSearch(findMessage);
     }
 
+    @Override
+    public boolean hasUnsavedEdit() {
+        return targetContentsPresenter.currentEditorContentHasChanged();
+    }
+
     @Override
     public void refreshView() {
         List<TargetContentsDisplay> targetContentsDisplays =
@@ -14,6 +14,9 @@ public interface TableEditorMessages extends Messages {
     @DefaultMessage("Failed to load data from server")
     String notifyLoadFailed();
 
+    @DefaultMessage("This document has been updated by someone else. It will be reloaded once your current edit is saved.")
+    String notifyDocumentReloadDeferred();
+
     @DefaultMessage("Save FAILED: {0}, messages: {1}")
     String notifyUpdateFailed(String id, String errorMessage);
 
@@ -30,6 +30,8 @@ import org.zanata.webtrans.client.events.BookmarkedTextFlowEvent;
 import org.zanata.webtrans.client.events.BookmarkedTextFlowEventHandler;
 import org.zanata.webtrans.client.events.DocumentSelectionEvent;
 import org.zanata.webtrans.client.events.DocumentSelectionHandler;
+import org.zanata.webtrans.client.events.DocumentUpdatedEvent;
+import org.zanata.webtrans.client.events.DocumentUpdatedEventHandler;
 import org.zanata.webtrans.client.events.EditorPageSizeChangeEvent;
 import org.zanata.webtrans.client.events.EditorPageSizeChangeEventHandler;
 import org.zanata.webtrans.client.events.InitEditorEvent;
@@ -74,7 +76,8 @@ import com.google.inject.Singleton;
  */
 @Singleton
 public class NavigationService implements TransUnitUpdatedEventHandler,
-        DocumentSelectionHandler, NavTransUnitHandler,
+        DocumentUpdatedEventHandler, DocumentSelectionHandler,
+        NavTransUnitHandler,
         EditorPageSizeChangeEventHandler, BookmarkedTextFlowEventHandler,
         InitEditorEventHandler, RequestSelectTableRowEventHandler {
     public static final int FIRST_PAGE = 0;
@@ -87,6 +90,7 @@ public class NavigationService implements TransUnitUpdatedEventHandler,
     private final TableEditorMessages messages;
     private final SinglePageDataModelImpl pageModel;
     private NavigationService.PageDataChangeListener pageDataChangeListener;
+    private boolean documentReloadPending;
 
     private final History history;
 
@@ -111,6 +115,7 @@ public class NavigationService implements TransUnitUpdatedEventHandler,
     private void bindHandlers() {
         eventBus.addHandler(DocumentSelectionEvent.getType(), this);
         eventBus.addHandler(TransUnitUpdatedEvent.getType(), this);
+        eventBus.addHandler(DocumentUpdatedEvent.TYPE, this);
         eventBus.addHandler(NavTransUnitEvent.getType(), this);
         eventBus.addHandler(EditorPageSizeChangeEvent.TYPE, this);
         eventBus.addHandler(BookmarkedTextFlowEvent.TYPE, this);
@@ -127,9 +132,13 @@ public class NavigationService implements TransUnitUpdatedEventHandler,
             final boolean needReloadIndex) {
         eventBus.fireEvent(LoadingEvent.START_EVENT);
 
+        // a deferred document reload is satisfied by any page load that
+        // also reloads the navigation index
+        boolean reloadIndex = needReloadIndex || documentReloadPending;
+        documentReloadPending = false;
         GetTransUnitList action =
                 GetTransUnitList.newAction(actionContext).setNeedReloadIndex(
-                        needReloadIndex);
+                        reloadIndex);
         Log.info("requesting transUnits: " + action);
         dispatcher.execute(action, new AsyncCallback<GetTransUnitListResult>() {
             @Override
@@ -266,10 +275,38 @@ public class NavigationService implements TransUnitUpdatedEventHandler,
                     pageDataChangeListener.refreshRow(updatedTU,
                             event.getEditorClientId(), event.getUpdateType());
                 }
+                reloadIfPending();
             }
         }
     }
 
+    @Override
+    public void onDocumentUpdated(DocumentUpdatedEvent event) {
+        if (contextHolder.isContextInitialized()
+                && Objects.equal(event.getDocumentId(), contextHolder
+                        .getContext().getDocument().getId())) {
+            // too many changes to apply one by one; reload the current page
+            if (pageDataChangeListener.hasUnsavedEdit()) {
+                // reloading now would discard the user's edit; wait until
+                // it has been saved or the user moves to another page
+                documentReloadPending = true;
+                eventBus.fireEvent(new NotificationEvent(
+                        NotificationEvent.Severity.Warning, messages
+                                .notifyDocumentReloadDeferred()));
+            } else {
+                requestTransUnitsAndUpdatePageIndex(contextHolder.getContext(),
+                        true);
+            }
+        }
+    }
+
+    private void reloadIfPending() {
+        if (documentReloadPending && !pageDataChangeListener.hasUnsavedEdit()) {
+            requestTransUnitsAndUpdatePageIndex(contextHolder.getContext(),
+                    true);
+        }
+    }
+
     public boolean updateDataModel(TransUnit updatedTU) {
         navigationStateHolder.updateState(updatedTU.getId(),
                 updatedTU.getStatus());
@@ -398,5 +435,7 @@ public class NavigationService implements TransUnitUpdatedEventHandler,
                 TransUnitUpdated.UpdateType updateType);
 
         void highlightSearch(String findMessage);
+
+        boolean hasUnsavedEdit();
     }
 }
@@ -21,6 +21,7 @@
 package org.zanata.webtrans.client.ui;
 
 import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.core.client.JsArrayInteger;
 import com.google.gwt.dom.client.Element;
 import org.zanata.util.CoverageIgnore;
 
@@ -74,6 +75,57 @@ public class Highlighting {
     }
     }-*/;
 
+    /**
+     * Highlight ranges of the text inside an element. Offsets count the
+     * characters of the element's text nodes, so markup added by syntax
+     * highlighting does not affect them. Ranges must not overlap.
+     *
+     * @param begins
+     *            offset of the first character of each range, ascending
+     * @param ends
+     *            offset after the last character of each range
+     */
+    @CoverageIgnore("JSNI")
+    public static native void rangeHighlight(JsArrayInteger begins,
+            JsArrayInteger ends, Element elem)/*-{
+    var nodes = [];
+    var starts = [];
+    var length = 0;
+    var collect = function(node) {
+      if (node.nodeType == 3) {
+        nodes.push(node);
+        starts.push(length);
+        length += node.nodeValue.length;
+      } else {
+        for (var child = node.firstChild; child; child = child.nextSibling) {
+          collect(child);
+        }
+      }
+    };
+    collect(elem);
+
+    // work backwards so that splitting a text node leaves the offsets of
+    // the earlier ranges and nodes unchanged
+    for (var r = begins.length - 1; r >= 0; r--) {
+      for (var n = nodes.length - 1; n >= 0; n--) {
+        var node = nodes[n];
+        var from = Math.max(begins[r] - starts[n], 0);
+        var to = Math.min(ends[r] - starts[n], node.nodeValue.length);
+        if (from >= to) {
+          continue;
+        }
+        if (to < node.nodeValue.length) {
+          node.splitText(to);
+        }
+        var match = from > 0 ? node.splitText(from) : node;
+        var font = $doc.createElement("font");
+        font.setAttribute("style", "color:blue; background-color:yellow;");
+        match.parentNode.replaceChild(font, match);
+        font.appendChild(match);
+      }
+    }
+    }-*/;
+
     public static String diffAsHtml(String text1, String text2) {
         JavaScriptObject diffs = diff(text1, text2, true);
         return diffsToHtml(diffs);
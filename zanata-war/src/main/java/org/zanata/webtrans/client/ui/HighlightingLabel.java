@@ -20,7 +20,13 @@
  */
 package org.zanata.webtrans.client.ui;
 
+import java.util.List;
+
+import org.zanata.webtrans.shared.model.ContentMatch;
+
 import com.google.common.base.Strings;
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.core.client.JsArrayInteger;
 import com.google.gwt.dom.client.Element;
 import com.google.gwt.user.client.ui.HTML;
 
@@ -75,4 +81,20 @@ public class HighlightingLabel extends HTML implements SourceContentWrapper {
             Highlighting.searchHighlight(searchTerm, element);
         }
     }
+
+    /**
+     * Highlight matches at known positions in the text.
+     *
+     * @param matches
+     *            non-overlapping matches in ascending order
+     */
+    public void highlightMatches(List<ContentMatch> matches) {
+        JsArrayInteger begins = JavaScriptObject.createArray().cast();
+        JsArrayInteger ends = JavaScriptObject.createArray().cast();
+        for (ContentMatch match : matches) {
+            begins.push(match.getBegin());
+            ends.push(match.getEnd());
+        }
+        Highlighting.rangeHighlight(begins, ends, getElement());
+    }
 }
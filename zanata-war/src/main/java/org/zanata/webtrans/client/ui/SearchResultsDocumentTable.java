@@ -121,7 +121,7 @@ public class SearchResultsDocumentTable extends CellTable<TransUnitReplaceInfo>
         checkboxColumnHeader = new CheckboxHeader();
         checkboxColumnHeader.addValueChangeHandler(selectAllHandler);
         TextColumn<TransUnitReplaceInfo> rowIndexColumn = buildRowIndexColumn();
-        Column<TransUnitReplaceInfo, List<String>> sourceColumn =
+        Column<TransUnitReplaceInfo, TransUnitReplaceInfo> sourceColumn =
                 buildSourceColumn();
         Column<TransUnitReplaceInfo, TransUnitReplaceInfo> targetColumn =
                 buildTargetColumn();
@@ -229,26 +229,40 @@ public class SearchResultsDocumentTable extends CellTable<TransUnitReplaceInfo>
     /**
      * @return a column that displays the source contents for the text flow
      */
-    private static Column<TransUnitReplaceInfo, List<String>>
+    private static Column<TransUnitReplaceInfo, TransUnitReplaceInfo>
             buildSourceColumn() {
-        return new Column<TransUnitReplaceInfo, List<String>>(
-                new AbstractCell<List<String>>() {
+        return new Column<TransUnitReplaceInfo, TransUnitReplaceInfo>(
+                new AbstractCell<TransUnitReplaceInfo>() {
                     @Override
-                    public void render(Context context, List<String> contents,
-                            SafeHtmlBuilder sb) {
-                        Iterable<String> notEmptyContents =
-                                Iterables.filter(contents,
-                                        StringNotEmptyPredicate.INSTANCE);
-                        SafeHtml safeHtml =
-                                TextContentsDisplay.asSyntaxHighlightAndSearch(
-                                        notEmptyContents, highlightString)
-                                        .toSafeHtml();
+                    public void render(Context context,
+                            TransUnitReplaceInfo info, SafeHtmlBuilder sb) {
+                        List<String> contents =
+                                info.getTransUnit().getSources();
+                        SafeHtml safeHtml;
+                        if (info.getSourceMatches() != null) {
+                            safeHtml =
+                                    TextContentsDisplay
+                                            .asSyntaxHighlightAndMatches(
+                                                    contents,
+                                                    info.getSourceMatches(),
+                                                    true).toSafeHtml();
+                        } else {
+                            Iterable<String> notEmptyContents =
+                                    Iterables.filter(contents,
+                                            StringNotEmptyPredicate.INSTANCE);
+                            safeHtml =
+                                    TextContentsDisplay
+                                            .asSyntaxHighlightAndSearch(
+                                                    notEmptyContents,
+                                                    highlightString)
+                                            .toSafeHtml();
+                        }
                         sb.appendHtmlConstant(safeHtml.asString());
                     }
                 }) {
             @Override
-            public List<String> getValue(TransUnitReplaceInfo info) {
-                return info.getTransUnit().getSources();
+            public TransUnitReplaceInfo getValue(TransUnitReplaceInfo info) {
+                return info;
             }
         };
     }
@@ -271,6 +285,14 @@ public class SearchResultsDocumentTable extends CellTable<TransUnitReplaceInfo>
                                             info.getPreview().getContents())
                                             .toSafeHtml();
                             sb.appendHtmlConstant(safeHtml.asString());
+                        } else if (info.getTargetMatches() != null) {
+                            SafeHtml safeHtml =
+                                    TextContentsDisplay
+                                            .asSyntaxHighlightAndMatches(
+                                                    contents,
+                                                    info.getTargetMatches(),
+                                                    false).toSafeHtml();
+                            sb.appendHtmlConstant(safeHtml.asString());
                         } else {
                             SafeHtml safeHtml =
                                     TextContentsDisplay
@@ -2,8 +2,10 @@ package org.zanata.webtrans.client.ui;
 
 import java.util.List;
 
+import org.zanata.webtrans.shared.model.ContentMatch;
 import org.zanata.webtrans.shared.model.DiffMode;
 import com.google.common.base.Strings;
+import com.google.common.collect.Lists;
 import com.google.gwt.safehtml.shared.SafeHtml;
 import com.google.gwt.safehtml.shared.SafeHtmlBuilder;
 
@@ -20,6 +22,10 @@ public class TextContentsDisplay {
         safeHtml = convertToSafeHtml(contents, highlightString);
     }
 
+    private TextContentsDisplay(SafeHtml safeHtml) {
+        this.safeHtml = safeHtml;
+    }
+
     private TextContentsDisplay(List<String> originalContents,
             List<String> diffContent, DiffMode diffMode) {
         if (diffMode == DiffMode.HIGHLIGHT) {
@@ -36,6 +42,23 @@ public class TextContentsDisplay {
         return new TextContentsDisplay(contents, highlightString);
     }
 
+    /**
+     * Display contents with the matches found by a search highlighted.
+     *
+     * @param contents
+     *            all contents of a text flow or target, including empty ones
+     * @param matches
+     *            positions of the matches, indexed by content
+     * @param skipEmpty
+     *            true to leave out empty contents
+     */
+    public static TextContentsDisplay asSyntaxHighlightAndMatches(
+            List<String> contents, List<ContentMatch> matches,
+            boolean skipEmpty) {
+        return new TextContentsDisplay(convertToSafeHtml(contents, matches,
+                skipEmpty));
+    }
+
     public static TextContentsDisplay asSyntaxHighlight(
             Iterable<String> contents) {
         return new TextContentsDisplay(contents, EMPTY_SEARCH_TERM);
@@ -90,6 +113,29 @@ public class TextContentsDisplay {
         return builder.toSafeHtml();
     }
 
+    private static SafeHtml convertToSafeHtml(List<String> contents,
+            List<ContentMatch> matches, boolean skipEmpty) {
+        SafeHtmlBuilder builder = new SafeHtmlBuilder();
+        for (int i = 0; i < contents.size(); i++) {
+            String content = contents.get(i);
+            if (skipEmpty && Strings.isNullOrEmpty(content)) {
+                continue;
+            }
+            List<ContentMatch> contentMatches = Lists.newArrayList();
+            for (ContentMatch match : matches) {
+                if (match.getContentIndex() == i) {
+                    contentMatches.add(match);
+                }
+            }
+            HighlightingLabel label = new HighlightingLabel(content);
+            if (!contentMatches.isEmpty()) {
+                label.highlightMatches(contentMatches);
+            }
+            appendContent(builder, label.getElement().getString());
+        }
+        return builder.toSafeHtml();
+    }
+
     private static void appendContent(SafeHtmlBuilder sb, String content) {
         sb.appendHtmlConstant("<div class='textFlowEntry'>")
                 .appendHtmlConstant(content).appendHtmlConstant("</div>");
@@ -0,0 +1,209 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.webtrans.server;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Named;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.zanata.webtrans.shared.model.DocumentId;
+import org.zanata.webtrans.shared.model.TransUnitId;
+import org.zanata.webtrans.shared.model.TransUnitUpdateInfo;
+import org.zanata.webtrans.shared.rpc.DocumentUpdated;
+import org.zanata.webtrans.shared.rpc.SessionEventData;
+import org.zanata.webtrans.shared.rpc.TransUnitUpdated;
+import org.zanata.webtrans.shared.rpc.TransUnitUpdatedBatch;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Objects;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Publishes TransUnitUpdated events to editor clients in short coalesced
+ * windows rather than one remote event per text flow target.
+ * <p>
+ * Within a window, repeated updates of the same trans unit (by the same
+ * editor client) are merged, the updates for a document are sent as a single
+ * {@link TransUnitUpdatedBatch}, and a document with more than
+ * {@link #MAX_UPDATES_PER_DOCUMENT} updates is sent as a single
+ * {@link DocumentUpdated} which tells clients to reload it.
+ */
+@Named("transUnitUpdatePublisher")
+@ApplicationScoped
+@Slf4j
+public class TransUnitUpdatePublisher {
+    static final long WINDOW_MILLIS = 200;
+    static final int MAX_UPDATES_PER_DOCUMENT = 50;
+
+    private final ConcurrentMap<TranslationWorkspace, PendingUpdates> pending =
+            Maps.newConcurrentMap();
+
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    public void init() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder().setDaemon(true)
+                        .setNameFormat("transunit-publisher-%d").build());
+    }
+
+    @PreDestroy
+    public void cleanup() {
+        scheduler.shutdown();
+    }
+
+    /**
+     * Queues an update for the workspace. It will be sent to the workspace's
+     * editor clients (possibly merged with other updates) once the current
+     * window for the workspace closes.
+     */
+    public void publish(TranslationWorkspace workspace,
+            TransUnitUpdated update) {
+        while (true) {
+            PendingUpdates updates = pending.computeIfAbsent(workspace,
+                    w -> {
+                        PendingUpdates created = new PendingUpdates();
+                        scheduler.schedule(() -> flush(w, created),
+                                WINDOW_MILLIS, TimeUnit.MILLISECONDS);
+                        return created;
+                    });
+            if (updates.add(update)) {
+                return;
+            }
+            // the window was flushed under us; start a new one
+        }
+    }
+
+    private void flush(TranslationWorkspace workspace, PendingUpdates updates) {
+        pending.remove(workspace, updates);
+        List<TransUnitUpdated> drained = updates.drain();
+        try {
+            for (SessionEventData event : coalesce(drained)) {
+                workspace.publish(event);
+            }
+        } catch (RuntimeException e) {
+            log.error("fail to publish {} TransUnitUpdated events",
+                    drained.size(), e);
+        }
+    }
+
+    /**
+     * @param updates
+     *            updates in the order they happened
+     * @return events to publish, in the order of each document's first update
+     */
+    @VisibleForTesting
+    static List<SessionEventData> coalesce(List<TransUnitUpdated> updates) {
+        Map<DocumentId, List<TransUnitUpdated>> byDocument =
+                Maps.newLinkedHashMap();
+        // latest merged update of each trans unit
+        Map<TransUnitId, TransUnitUpdated> latest = Maps.newHashMap();
+        for (TransUnitUpdated update : updates) {
+            TransUnitUpdateInfo info = update.getUpdateInfo();
+            List<TransUnitUpdated> docUpdates =
+                    byDocument.computeIfAbsent(info.getDocumentId(),
+                            id -> Lists.newArrayList());
+            TransUnitId id = info.getTransUnit().getId();
+            TransUnitUpdated previous = latest.get(id);
+            if (previous != null && isSameEditor(previous, update)) {
+                TransUnitUpdated merged = merge(previous, update);
+                docUpdates.set(docUpdates.lastIndexOf(previous), merged);
+                latest.put(id, merged);
+            } else {
+                docUpdates.add(update);
+                latest.put(id, update);
+            }
+        }
+        List<SessionEventData> events = Lists.newArrayList();
+        for (Map.Entry<DocumentId, List<TransUnitUpdated>> entry : byDocument
+                .entrySet()) {
+            List<TransUnitUpdated> docUpdates = entry.getValue();
+            if (docUpdates.size() > MAX_UPDATES_PER_DOCUMENT) {
+                events.add(new DocumentUpdated(entry.getKey()));
+            } else if (docUpdates.size() == 1) {
+                events.add(docUpdates.get(0));
+            } else {
+                events.add(new TransUnitUpdatedBatch(docUpdates));
+            }
+        }
+        return events;
+    }
+
+    private static boolean isSameEditor(TransUnitUpdated first,
+            TransUnitUpdated second) {
+        return Objects.equal(first.getEditorClientId(),
+                second.getEditorClientId())
+                && first.getUpdateType() == second.getUpdateType();
+    }
+
+    /**
+     * Combines two updates of the same trans unit, so that clients see the
+     * change from the state before the first to the state after the second.
+     */
+    private static TransUnitUpdated merge(TransUnitUpdated first,
+            TransUnitUpdated second) {
+        TransUnitUpdateInfo before = first.getUpdateInfo();
+        TransUnitUpdateInfo after = second.getUpdateInfo();
+        TransUnitUpdateInfo merged = new TransUnitUpdateInfo(
+                after.isSuccess(),
+                before.isTargetChanged() || after.isTargetChanged(),
+                after.getDocumentId(), after.getTransUnit(),
+                after.getSourceWordCount(), before.getPreviousVersionNum(),
+                before.getPreviousState(), after.getErrorMessage());
+        return new TransUnitUpdated(merged, second.getEditorClientId(),
+                second.getUpdateType());
+    }
+
+    private static class PendingUpdates {
+        private List<TransUnitUpdated> updates = new ArrayList<>();
+
+        /**
+         * @return false if the updates have already been drained
+         */
+        synchronized boolean add(TransUnitUpdated update) {
+            if (updates == null) {
+                return false;
+            }
+            updates.add(update);
+            return true;
+        }
+
+        synchronized List<TransUnitUpdated> drain() {
+            List<TransUnitUpdated> drained = updates;
+            updates = null;
+            return drained == null ? Collections.emptyList() : drained;
+        }
+    }
+}
@@ -98,6 +98,11 @@ public class TranslationUpdateListener implements PostUpdateEventListener,
         }
         final HTextFlowTarget target =
                 HTextFlowTarget.class.cast(event.getEntity());
+        if (!translationWorkspaceManager.hasActiveWorkspace(target
+                .getLocaleId())) {
+            // nobody is editing this locale, so nobody needs the event
+            return;
+        }
         try {
             runInTransaction(() -> {
                 ContentState oldContentState =
@@ -130,7 +135,8 @@ public class TranslationUpdateListener implements PostUpdateEventListener,
                         iterationSlug, projectType), localeId);
         Optional<TranslationWorkspace> workspaceOptional =
                 translationWorkspaceManager.tryGetWorkspace(workspaceId);
-        if (!workspaceOptional.isPresent()) {
+        if (!workspaceOptional.isPresent()
+                || workspaceOptional.get().getUsers().isEmpty()) {
             return;
         }
 
@@ -191,6 +197,11 @@ public class TranslationUpdateListener implements PostUpdateEventListener,
         }
         final HTextFlowTarget target =
                 HTextFlowTarget.class.cast(event.getEntity());
+        if (!translationWorkspaceManager.hasActiveWorkspace(target
+                .getLocaleId())) {
+            // nobody is editing this locale, so nobody needs the event
+            return;
+        }
         try {
             runInTransaction(() -> prepareTransUnitUpdatedEvent(0,
                     ContentState.New, target));
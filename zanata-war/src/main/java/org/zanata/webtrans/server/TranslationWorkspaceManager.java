@@ -21,6 +21,7 @@
 
 package org.zanata.webtrans.server;
 
+import org.zanata.common.LocaleId;
 import org.zanata.webtrans.shared.NoSuchWorkspaceException;
 import org.zanata.webtrans.shared.model.WorkspaceId;
 import com.google.common.base.Optional;
@@ -36,4 +37,12 @@ public interface TranslationWorkspaceManager {
             throws NoSuchWorkspaceException;
 
     Optional<TranslationWorkspace> tryGetWorkspace(WorkspaceId workspaceId);
+
+    /**
+     * Cheap check (no database access) used to skip preparing editor events
+     * which nobody would receive.
+     *
+     * @return true if any workspace for the given locale has editor clients
+     */
+    boolean hasActiveWorkspace(LocaleId localeId);
 }
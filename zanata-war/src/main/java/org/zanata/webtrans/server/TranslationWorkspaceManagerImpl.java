@@ -16,6 +16,7 @@ import de.novanic.eventservice.service.registry.user.UserManagerFactory;
 import lombok.extern.slf4j.Slf4j;
 import org.zanata.async.Async;
 import org.zanata.common.EntityStatus;
+import org.zanata.common.LocaleId;
 import org.zanata.common.ProjectType;
 import org.zanata.dao.ProjectIterationDAO;
 import org.zanata.events.LogoutEvent;
@@ -313,4 +314,15 @@ public class TranslationWorkspaceManagerImpl implements
     public Optional<TranslationWorkspace> tryGetWorkspace(WorkspaceId workspaceId) {
         return Optional.fromNullable(workspaceMap.get(workspaceId));
     }
+
+    @Override
+    public boolean hasActiveWorkspace(LocaleId localeId) {
+        for (TranslationWorkspace workspace : workspaceMap.values()) {
+            if (workspace.getWorkspaceContext().getWorkspaceId().getLocaleId()
+                    .equals(localeId) && !workspace.getUsers().isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
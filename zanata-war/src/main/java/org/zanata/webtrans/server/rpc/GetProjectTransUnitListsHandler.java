@@ -31,10 +31,13 @@ import org.zanata.exception.ZanataServiceException;
 import org.zanata.model.HLocale;
 import org.zanata.model.HTextFlow;
 import org.zanata.search.FilterConstraints;
+import org.zanata.search.TextFlowSearchResult;
+import org.zanata.search.TextMatcher;
 import org.zanata.security.ZanataIdentity;
 import org.zanata.service.LocaleService;
 import org.zanata.service.TextFlowSearchService;
 import org.zanata.webtrans.server.ActionHandlerFor;
+import org.zanata.webtrans.shared.model.ContentMatch;
 import org.zanata.webtrans.shared.model.TransUnit;
 import org.zanata.webtrans.shared.rpc.GetProjectTransUnitLists;
 import org.zanata.webtrans.shared.rpc.GetProjectTransUnitListsResult;
@@ -108,32 +111,34 @@ public class GetProjectTransUnitListsHandler
                         .checkInSource(action.isSearchInSource())
                         .checkInTarget(action.isSearchInTarget()).build();
 
-        List<HTextFlow> matchingFlows =
-                textFlowSearchServiceImpl.findTextFlows(
+        TextFlowSearchResult searchResult =
+                textFlowSearchServiceImpl.searchTextFlows(
                         action.getWorkspaceId(), action.getDocumentPaths(),
-                        filterConstraints);
-        log.info("Returned {} results for search", matchingFlows.size());
+                        filterConstraints, action.getOffset(),
+                        action.getMaxResults());
+        log.info("Returned {} results for search",
+                searchResult.getHits().size());
 
         // FIXME remove when analyzer handles leading & trailing whitespace
         boolean needsWhitespaceCheck =
                 !action.getSearchString().equals(
                         action.getSearchString().trim());
-        Iterable<HTextFlow> result = matchingFlows;
-        if (needsWhitespaceCheck) {
-            // FIXME temporary check for leading and trailing whitespace to
-            // compensate
-            // for NGramAnalyzer trimming strings before tokenization. This
-            // should
-            // be removed when updating to a lucene version with the whitespace
-            // issue resolved.
-            result =
-                    Iterables.filter(
-                            matchingFlows,
-                            new WhitespaceMatchPredicate(action, hLocale
-                                    .getId()));
-        }
-
-        for (HTextFlow textFlow : result) {
+        WhitespaceMatchPredicate whitespaceMatch =
+                new WhitespaceMatchPredicate(action, hLocale.getId());
+
+        HashMap<Long, List<ContentMatch>> sourceMatches =
+                new HashMap<Long, List<ContentMatch>>();
+        HashMap<Long, List<ContentMatch>> targetMatches =
+                new HashMap<Long, List<ContentMatch>>();
+        for (TextFlowSearchResult.Hit hit : searchResult.getHits()) {
+            HTextFlow textFlow = hit.getTextFlow();
+            if (needsWhitespaceCheck && !whitespaceMatch.apply(textFlow)) {
+                // FIXME temporary check for leading and trailing whitespace
+                // to compensate for NGramAnalyzer trimming strings before
+                // tokenization. This should be removed when updating to a
+                // lucene version with the whitespace issue resolved.
+                continue;
+            }
             List<TransUnit> listForDoc =
                     matchingTUs.get(textFlow.getDocument().getId());
             if (listForDoc == null) {
@@ -146,8 +151,25 @@ public class GetProjectTransUnitListsHandler
             matchingTUs.put(textFlow.getDocument().getId(), listForDoc);
             docPaths.put(textFlow.getDocument().getId(), textFlow.getDocument()
                     .getDocId());
+            sourceMatches.put(textFlow.getId(),
+                    toContentMatches(hit.getSourceMatches()));
+            targetMatches.put(textFlow.getId(),
+                    toContentMatches(hit.getTargetMatches()));
+        }
+        return new GetProjectTransUnitListsResult(action, docPaths,
+                matchingTUs, sourceMatches, targetMatches,
+                searchResult.isMore(), searchResult.getNextOffset());
+    }
+
+    private static List<ContentMatch> toContentMatches(
+            List<TextMatcher.Match> matches) {
+        List<ContentMatch> result =
+                new ArrayList<ContentMatch>(matches.size());
+        for (TextMatcher.Match match : matches) {
+            result.add(new ContentMatch(match.getContentIndex(),
+                    match.getBegin(), match.getEnd()));
         }
-        return new GetProjectTransUnitListsResult(action, docPaths, matchingTUs);
+        return result;
     }
 
     private static String foldCase(String original) {
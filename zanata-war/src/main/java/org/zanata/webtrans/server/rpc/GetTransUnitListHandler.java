@@ -21,7 +21,13 @@
 package org.zanata.webtrans.server.rpc;
 
 import java.util.List;
+import java.util.Map;
 
+import javax.annotation.Nullable;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import net.customware.gwt.dispatch.server.ExecutionContext;
 import net.customware.gwt.dispatch.shared.ActionException;
@@ -36,6 +42,7 @@ import org.zanata.dao.TextFlowDAO;
 import org.zanata.exception.ZanataServiceException;
 import org.zanata.model.HLocale;
 import org.zanata.model.HTextFlow;
+import org.zanata.model.HTextFlowTarget;
 import org.zanata.search.FilterConstraints;
 import org.zanata.security.ZanataIdentity;
 import org.zanata.service.LocaleService;
@@ -53,6 +60,7 @@ import com.google.common.base.Function;
 import com.google.common.base.Strings;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 
 @Named("webtrans.gwt.GetTransUnitListHandler")
 @RequestScoped
@@ -139,7 +147,7 @@ public class GetTransUnitListHandler extends
             }
         }
 
-        List<HTextFlow> textFlows =
+        TextFlowPage textFlows =
                 getTextFlows(action, hLocale, targetOffset, constraints);
 
         GetTransUnitListResult result =
@@ -160,30 +168,26 @@ public class GetTransUnitListHandler extends
         return totalPageNumber > 0 ? totalPageNumber - 1 : totalPageNumber;
     }
 
-    private List<HTextFlow> getTextFlows(GetTransUnitList action,
+    private TextFlowPage getTextFlows(GetTransUnitList action,
             HLocale hLocale, int offset, FilterConstraints constraints) {
         List<HTextFlow> textFlows;
         if (!hasStatusAndSearchFilter(action)) {
             log.debug("Fetch TransUnits:*");
             if (!hasValidationFilter(action)) {
-                // TODO debt: this should use a left join to fetch target (and
-                // possibly comments)
-                textFlows =
-                        textFlowDAO.getTextFlowsByDocumentId(action
-                                .getDocumentId().getId(), offset,
-                                action.getCount());
+                return TextFlowPage.withTargets(
+                        textFlowDAO.getTextFlowPageWithTargets(action
+                                .getDocumentId().getId(), hLocale.getId(),
+                                offset, action.getCount()));
             } else {
-                // TODO debt: this is not scalable. But we may not have other
-                // choice
-                // for validation filter. Maybe use scrollable result will help?
-                textFlows =
-                        textFlowDAO.getTextFlowsByDocumentId(action
-                                .getDocumentId().getId(), null, null);
-                textFlows =
-                        validationServiceImpl.filterHasWarningOrErrorTextFlow(
-                                textFlows, action.getValidationIds(),
+                List<Long> textFlowIds =
+                        validationServiceImpl.findHasWarningOrErrorTextFlowIds(
+                                action.getDocumentId().getId(),
+                                action.getValidationIds(),
                                 hLocale.getLocaleId(), offset,
                                 action.getCount());
+                return TextFlowPage.withTargets(
+                        textFlowDAO.getTextFlowsWithTargets(textFlowIds,
+                                hLocale.getId()));
             }
         } else {
             // has status and other search field filter
@@ -206,7 +210,7 @@ public class GetTransUnitListHandler extends
                                 action.getCount());
             }
         }
-        return textFlows;
+        return TextFlowPage.withoutTargets(textFlows);
     }
 
     private boolean hasStatusAndSearchFilter(GetTransUnitList action) {
@@ -234,10 +238,12 @@ public class GetTransUnitListHandler extends
 
     private GetTransUnitListResult transformToTransUnits(
             GetTransUnitList action, HLocale hLocale,
-            List<HTextFlow> textFlows, int targetOffset, int targetPage) {
+            TextFlowPage textFlows, int targetOffset, int targetPage) {
         List<TransUnit> units =
-                Lists.transform(textFlows, new HTextFlowToTransUnitFunction(
-                        hLocale, transUnitTransformer));
+                Lists.transform(textFlows.getTextFlows(),
+                        new HTextFlowToTransUnitFunction(hLocale,
+                                transUnitTransformer,
+                                textFlows.getTargets()));
 
         int gotoRow = 0;
         if (action.getTargetTransUnitId() != null) {
@@ -264,16 +270,54 @@ public class GetTransUnitListHandler extends
             Function<HTextFlow, TransUnit> {
         private final HLocale hLocale;
         private final TransUnitTransformer transformer;
+        private final @Nullable Map<Long, HTextFlowTarget> targets;
 
         public HTextFlowToTransUnitFunction(HLocale hLocale,
-                TransUnitTransformer transformer) {
+                TransUnitTransformer transformer,
+                @Nullable Map<Long, HTextFlowTarget> targets) {
             this.hLocale = hLocale;
             this.transformer = transformer;
+            this.targets = targets;
         }
 
         @Override
         public TransUnit apply(HTextFlow input) {
-            return transformer.transform(input, hLocale);
+            if (targets == null) {
+                return transformer.transform(input, hLocale);
+            }
+            return transformer.transform(input, targets.get(input.getId()),
+                    hLocale);
+        }
+    }
+
+    /**
+     * A page of text flows, and their targets for the workspace locale if
+     * they were fetched at the same time.
+     */
+    @AllArgsConstructor(access = AccessLevel.PRIVATE)
+    @Getter
+    private static class TextFlowPage {
+        private final List<HTextFlow> textFlows;
+        // text flow id -> target (or null); null if targets were not fetched
+        private final @Nullable Map<Long, HTextFlowTarget> targets;
+
+        static TextFlowPage withoutTargets(List<HTextFlow> textFlows) {
+            return new TextFlowPage(textFlows, null);
+        }
+
+        /**
+         * @param rows
+         *            pairs of [HTextFlow, HTextFlowTarget or null]
+         */
+        static TextFlowPage withTargets(List<Object[]> rows) {
+            List<HTextFlow> textFlows = Lists.newArrayListWithCapacity(rows.size());
+            Map<Long, HTextFlowTarget> targets = Maps.newHashMap();
+            for (Object[] row : rows) {
+                HTextFlow textFlow = (HTextFlow) row[0];
+                textFlows.add(textFlow);
+                targets.put(textFlow.getId(), (HTextFlowTarget) row[1]);
+            }
+            return new TextFlowPage(textFlows, targets);
         }
     }
 }
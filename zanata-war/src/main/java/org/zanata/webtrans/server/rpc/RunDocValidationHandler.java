@@ -1,6 +1,7 @@
 package org.zanata.webtrans.server.rpc;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import net.customware.gwt.dispatch.server.ExecutionContext;
@@ -15,6 +16,8 @@ import org.zanata.webtrans.shared.model.DocumentId;
 import org.zanata.webtrans.shared.rpc.RunDocValidationAction;
 import org.zanata.webtrans.shared.rpc.RunDocValidationResult;
 
+import com.google.common.collect.Lists;
+
 @Named("webtrans.gwt.RunDocValidationHandler")
 @RequestScoped
 @ActionHandlerFor(RunDocValidationAction.class)
@@ -27,13 +30,17 @@ public class RunDocValidationHandler extends
     public RunDocValidationResult execute(RunDocValidationAction action,
             ExecutionContext context) throws ActionException {
         Map<DocumentId, Boolean> result = new HashMap<DocumentId, Boolean>();
-
+        List<Long> docIds = Lists.newArrayList();
+        for (DocumentId documentId : action.getDocIds()) {
+            docIds.add(documentId.getId());
+        }
+        Map<Long, Boolean> hasErrorByDocId =
+                validationServiceImpl.runDocValidations(docIds,
+                        action.getValidationIds(), action.getWorkspaceId()
+                                .getLocaleId());
         for (DocumentId documentId : action.getDocIds()) {
-            boolean hasError =
-                    validationServiceImpl.runDocValidations(documentId.getId(),
-                            action.getValidationIds(), action.getWorkspaceId()
-                                    .getLocaleId());
-            result.put(documentId, hasError);
+            result.put(documentId, Boolean.TRUE
+                    .equals(hasErrorByDocId.get(documentId.getId())));
         }
 
         return new RunDocValidationResult(result, action.getWorkspaceId()
@@ -30,6 +30,7 @@ import org.zanata.events.TextFlowTargetUpdatedEvent;
 import org.zanata.model.*;
 import org.zanata.service.*;
 import org.zanata.util.IServiceLocator;
+import org.zanata.webtrans.server.TransUnitUpdatePublisher;
 import org.zanata.webtrans.shared.model.*;
 import org.zanata.webtrans.shared.rpc.*;
 
@@ -54,13 +55,17 @@ public class TransUnitUpdateHelper {
     @Inject
     private IServiceLocator serviceLocator;
 
+    @Inject
+    private TransUnitUpdatePublisher transUnitUpdatePublisher;
+
     private static Cache<CacheKey, TransUnitUpdateInfo> cache = CacheBuilder
             .newBuilder().expireAfterAccess(1, TimeUnit.MILLISECONDS)
             .softValues().maximumSize(100).build();
 
     public void onTargetUpdatedSuccessful(@Observes(during = TransactionPhase.AFTER_SUCCESS) TextFlowTargetUpdatedEvent event) {
         TransUnitUpdated transUnitUpdated = event.getTransUnitUpdated();
-        event.getWorkspace().publish(transUnitUpdated);
+        transUnitUpdatePublisher.publish(event.getWorkspace(),
+                transUnitUpdated);
         TransUnit transUnit = transUnitUpdated.getUpdateInfo().getTransUnit();
         cache.put(
                 new CacheKey(event.getTextFlowTargetId(), transUnit.getVerNum()),
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.webtrans.server.validation;
+
+import java.util.ArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Finds all matches of a regular expression which is compiled once, with
+ * {@link java.util.regex}, instead of once per call like the GWT
+ * {@code RegExp} used by the shared validation rules. Safe to share between
+ * threads.
+ * <p>
+ * Matches in source strings are cached, because a source string is validated
+ * against its translations in every locale.
+ */
+class PatternExtractor {
+    private static final int MAX_CACHED_SOURCES = 10000;
+
+    private final Pattern pattern;
+
+    // source content -> matches
+    private final Cache<String, ImmutableList<String>> sourceMatches =
+            CacheBuilder.newBuilder().maximumSize(MAX_CACHED_SOURCES)
+                    .build();
+
+    PatternExtractor(String regex) {
+        this.pattern = Pattern.compile(regex);
+    }
+
+    /**
+     * @return all matches in the text, in order
+     */
+    ArrayList<String> findAll(String text) {
+        ArrayList<String> matches = new ArrayList<String>();
+        Matcher matcher = pattern.matcher(text);
+        while (matcher.find()) {
+            matches.add(matcher.group());
+        }
+        return matches;
+    }
+
+    /**
+     * Same as {@link #findAll(String)}, for a source string.
+     *
+     * @return a new list, which the caller may modify
+     */
+    ArrayList<String> findAllInSource(String source) {
+        ImmutableList<String> matches = sourceMatches.getIfPresent(source);
+        if (matches == null) {
+            matches = ImmutableList.copyOf(findAll(source));
+            sourceMatches.put(source, matches);
+        }
+        return new ArrayList<String>(matches);
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.webtrans.server.validation;
+
+import java.util.ArrayList;
+
+import org.zanata.webtrans.client.resources.ValidationMessages;
+import org.zanata.webtrans.shared.model.ValidationId;
+import org.zanata.webtrans.shared.validation.action.PrintfVariablesValidation;
+
+/**
+ * {@link PrintfVariablesValidation} with a precompiled variable pattern, and
+ * cached source variables.
+ */
+public class ServerPrintfVariablesValidation extends PrintfVariablesValidation {
+    // shared with the positional printf rule, which finds the same variables
+    static final PatternExtractor VARIABLES = new PatternExtractor(VAR_REGEX);
+
+    public ServerPrintfVariablesValidation(ValidationId id,
+            ValidationMessages messages) {
+        super(id, messages);
+    }
+
+    @Override
+    protected ArrayList<String> findSourceVars(String source) {
+        return VARIABLES.findAllInSource(source);
+    }
+
+    @Override
+    protected ArrayList<String> findVars(String inString) {
+        return VARIABLES.findAll(inString);
+    }
+}
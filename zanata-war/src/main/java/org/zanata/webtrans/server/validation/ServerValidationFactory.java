@@ -0,0 +1,58 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.webtrans.server.validation;
+
+import org.zanata.webtrans.client.resources.ValidationMessages;
+import org.zanata.webtrans.shared.model.ValidationAction;
+import org.zanata.webtrans.shared.model.ValidationId;
+import org.zanata.webtrans.shared.validation.ValidationFactory;
+
+/**
+ * Validation factory for the server, where rules which extract tags or
+ * variables with regular expressions use precompiled patterns.
+ * <p>
+ * Rule instances from {@link #getValidationAction(ValidationId)} are shared:
+ * validation itself does not depend on the rule state, and is safe to run
+ * from several threads at once.
+ */
+public class ServerValidationFactory extends ValidationFactory {
+
+    public ServerValidationFactory(ValidationMessages validationMessages) {
+        super(validationMessages);
+    }
+
+    @Override
+    protected ValidationAction createAction(ValidationId id) {
+        switch (id) {
+        case HTML_XML:
+            return new ServerHtmlXmlTagValidation(id,
+                    getValidationMessages());
+        case PRINTF_VARIABLES:
+            return new ServerPrintfVariablesValidation(id,
+                    getValidationMessages());
+        case PRINTF_XSI_EXTENSION:
+            return new ServerPrintfXSIExtensionValidation(id,
+                    getValidationMessages());
+        default:
+            return super.createAction(id);
+        }
+    }
+}
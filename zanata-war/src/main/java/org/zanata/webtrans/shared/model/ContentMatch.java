@@ -0,0 +1,68 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.webtrans.shared.model;
+
+import java.io.Serializable;
+
+import com.google.gwt.user.client.rpc.IsSerializable;
+
+/**
+ * The location of one occurrence of a search string in the contents of a
+ * text flow or translation.
+ */
+public class ContentMatch implements IsSerializable, Serializable {
+    private static final long serialVersionUID = 1L;
+    private int contentIndex;
+    private int begin;
+    private int end;
+
+    // for GWT
+    @SuppressWarnings("unused")
+    private ContentMatch() {
+    }
+
+    public ContentMatch(int contentIndex, int begin, int end) {
+        this.contentIndex = contentIndex;
+        this.begin = begin;
+        this.end = end;
+    }
+
+    /**
+     * @return index of the plural form which contains the match
+     */
+    public int getContentIndex() {
+        return contentIndex;
+    }
+
+    /**
+     * @return offset of the first matched character
+     */
+    public int getBegin() {
+        return begin;
+    }
+
+    /**
+     * @return offset after the last matched character
+     */
+    public int getEnd() {
+        return end;
+    }
+}
@@ -23,8 +23,8 @@ package org.zanata.webtrans.shared.rpc;
 import java.util.List;
 
 /**
- * Get all text flows from a project that contain the given search string,
- * grouped by document.
+ * Get the text flows from a project that contain the given search string,
+ * grouped by document, one page at a time.
  *
  * @author David Mason, <a
  *         href="mailto:damason@redhat.com">damason@redhat.com</a>
@@ -38,6 +38,8 @@ public class GetProjectTransUnitLists extends
     private boolean searchInSource;
     private boolean searchInTarget;
     private List<String> documentPaths;
+    private int offset;
+    private int maxResults = Integer.MAX_VALUE;
 
     @SuppressWarnings("unused")
     private GetProjectTransUnitLists() {
@@ -59,6 +61,36 @@ public class GetProjectTransUnitLists extends
         this.documentPaths = documentPaths;
     }
 
+    /**
+     * @param offset
+     *            0 for the first page of results, otherwise the next offset
+     *            of the previous page
+     * @param maxResults
+     *            maximum number of text flows to return
+     */
+    public GetProjectTransUnitLists(String searchString,
+            boolean searchInSource, boolean searchInTarget,
+            boolean caseSensitive, List<String> documentPaths, int offset,
+            int maxResults) {
+        this(searchString, searchInSource, searchInTarget, caseSensitive,
+                documentPaths);
+        this.offset = offset;
+        this.maxResults = maxResults;
+    }
+
+    /**
+     * @return an action for the page of results which starts at the given
+     *         offset
+     */
+    public GetProjectTransUnitLists forOffset(int offset) {
+        GetProjectTransUnitLists action =
+                new GetProjectTransUnitLists(searchString, searchInSource,
+                        searchInTarget, caseSensitive, documentPaths, offset,
+                        maxResults);
+        action.setWorkspaceId(getWorkspaceId());
+        return action;
+    }
+
     public String getSearchString() {
         return this.searchString;
     }
@@ -78,4 +110,12 @@ public class GetProjectTransUnitLists extends
     public List<String> getDocumentPaths() {
         return documentPaths;
     }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    public int getMaxResults() {
+        return maxResults;
+    }
 }
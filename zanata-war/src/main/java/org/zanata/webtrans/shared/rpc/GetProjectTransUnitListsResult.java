@@ -20,10 +20,12 @@
  */
 package org.zanata.webtrans.shared.rpc;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import org.zanata.webtrans.shared.model.ContentMatch;
 import org.zanata.webtrans.shared.model.TransUnit;
 
 /**
@@ -46,6 +48,15 @@ public class GetProjectTransUnitListsResult implements DispatchResult {
      */
     private Map<Long, String> docPaths;
 
+    /**
+     * Text flow id, matches to highlight in source and target contents
+     */
+    private Map<Long, List<ContentMatch>> sourceMatches;
+    private Map<Long, List<ContentMatch>> targetMatches;
+
+    private boolean more;
+    private int nextOffset;
+
     @SuppressWarnings("unused")
     private GetProjectTransUnitListsResult() {
     }
@@ -53,9 +64,24 @@ public class GetProjectTransUnitListsResult implements DispatchResult {
     public GetProjectTransUnitListsResult(
             GetProjectTransUnitLists searchAction, Map<Long, String> docPaths,
             Map<Long, List<TransUnit>> documents) {
+        this(searchAction, docPaths, documents,
+                new HashMap<Long, List<ContentMatch>>(),
+                new HashMap<Long, List<ContentMatch>>(), false, 0);
+    }
+
+    public GetProjectTransUnitListsResult(
+            GetProjectTransUnitLists searchAction, Map<Long, String> docPaths,
+            Map<Long, List<TransUnit>> documents,
+            Map<Long, List<ContentMatch>> sourceMatches,
+            Map<Long, List<ContentMatch>> targetMatches, boolean more,
+            int nextOffset) {
         this.searchAction = searchAction;
         this.docPaths = docPaths;
         this.documents = documents;
+        this.sourceMatches = sourceMatches;
+        this.targetMatches = targetMatches;
+        this.more = more;
+        this.nextOffset = nextOffset;
     }
 
     public GetProjectTransUnitLists getSearchAction() {
@@ -74,4 +100,35 @@ public class GetProjectTransUnitListsResult implements DispatchResult {
         return docPaths.keySet();
     }
 
+    /**
+     * @return the matches in the source contents of a text flow, or null if
+     *         they are not known
+     */
+    public List<ContentMatch> getSourceMatches(Long textFlowId) {
+        return sourceMatches.get(textFlowId);
+    }
+
+    /**
+     * @return the matches in the target contents of a text flow, or null if
+     *         they are not known
+     */
+    public List<ContentMatch> getTargetMatches(Long textFlowId) {
+        return targetMatches.get(textFlowId);
+    }
+
+    /**
+     * @return true if there may be more results after this page
+     */
+    public boolean hasMore() {
+        return more;
+    }
+
+    /**
+     * @return offset of the next page of results
+     * @see GetProjectTransUnitLists#forOffset(int)
+     */
+    public int getNextOffset() {
+        return nextOffset;
+    }
+
 }
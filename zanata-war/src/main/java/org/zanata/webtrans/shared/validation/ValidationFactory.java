@@ -21,11 +21,11 @@ import java.util.Map;
 
 /**
  * Validation Factory - provides list of available validation rules to run on
- * server or client.
+ * server or client. The server uses a subclass with precompiled rules.
  *
  * @author Alex Eng <a href="mailto:aeng@redhat.com">aeng@redhat.com</a>
  */
-public final class ValidationFactory {
+public class ValidationFactory {
     private final ValidationMessages validationMessages;
 
     private final Map<ValidationId, ValidationAction> referenceMap;
@@ -60,35 +60,49 @@ public final class ValidationFactory {
     private Map<ValidationId, ValidationAction> generateActions() {
         Map<ValidationId, ValidationAction> validationMap = Maps.newHashMap();
 
-        validationMap.put(ValidationId.HTML_XML, new HtmlXmlTagValidation(
-                ValidationId.HTML_XML, validationMessages));
-        validationMap.put(ValidationId.JAVA_VARIABLES,
-                new JavaVariablesValidation(ValidationId.JAVA_VARIABLES,
-                        validationMessages));
-        validationMap.put(ValidationId.NEW_LINE,
-                new NewlineLeadTrailValidation(ValidationId.NEW_LINE,
-                        validationMessages));
+        for (ValidationId id : ValidationId.values()) {
+            validationMap.put(id, createAction(id));
+        }
 
-        PrintfVariablesValidation printfVariablesValidation =
-                new PrintfVariablesValidation(ValidationId.PRINTF_VARIABLES,
-                        validationMessages);
-        PrintfXSIExtensionValidation positionalPrintfValidation =
-                new PrintfXSIExtensionValidation(
-                        ValidationId.PRINTF_XSI_EXTENSION, validationMessages);
+        ValidationAction printfVariablesValidation =
+                validationMap.get(ValidationId.PRINTF_VARIABLES);
+        ValidationAction positionalPrintfValidation =
+                validationMap.get(ValidationId.PRINTF_XSI_EXTENSION);
         positionalPrintfValidation.setState(State.Off);
 
         printfVariablesValidation.mutuallyExclusive(positionalPrintfValidation);
         positionalPrintfValidation.mutuallyExclusive(printfVariablesValidation);
 
-        validationMap.put(ValidationId.PRINTF_VARIABLES,
-                printfVariablesValidation);
-        validationMap.put(ValidationId.PRINTF_XSI_EXTENSION,
-                positionalPrintfValidation);
-        validationMap.put(ValidationId.TAB, new TabValidation(ValidationId.TAB,
-                validationMessages));
-        validationMap.put(ValidationId.XML_ENTITY, new XmlEntityValidation(
-                ValidationId.XML_ENTITY, validationMessages));
-
         return validationMap;
     }
+
+    protected ValidationMessages getValidationMessages() {
+        return validationMessages;
+    }
+
+    /**
+     * Creates a new instance of a validation rule, in the default state.
+     * Called from the constructor, so overrides must not depend on fields of
+     * the subclass.
+     */
+    protected ValidationAction createAction(ValidationId id) {
+        switch (id) {
+        case HTML_XML:
+            return new HtmlXmlTagValidation(id, validationMessages);
+        case JAVA_VARIABLES:
+            return new JavaVariablesValidation(id, validationMessages);
+        case NEW_LINE:
+            return new NewlineLeadTrailValidation(id, validationMessages);
+        case PRINTF_VARIABLES:
+            return new PrintfVariablesValidation(id, validationMessages);
+        case PRINTF_XSI_EXTENSION:
+            return new PrintfXSIExtensionValidation(id, validationMessages);
+        case TAB:
+            return new TabValidation(id, validationMessages);
+        case XML_ENTITY:
+            return new XmlEntityValidation(id, validationMessages);
+        default:
+            throw new IllegalArgumentException("unknown validation: " + id);
+        }
+    }
 }
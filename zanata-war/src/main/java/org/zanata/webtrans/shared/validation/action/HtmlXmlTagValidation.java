@@ -40,25 +40,24 @@ public class HtmlXmlTagValidation extends AbstractValidationAction {
         super(id, messages.xmlHtmlValidatorDesc(), messages);
     }
 
-    private final static String tagRegex = "<[^>]+>";
+    protected final static String tagRegex = "<[^>]+>";
 
     @Override
     public List<String> doValidate(String source, String target) {
         ArrayList<String> errors = new ArrayList<String>();
+        ArrayList<String> sourceTags = getSourceTagList(source);
+        ArrayList<String> targetTags = getTagList(target);
 
-        List<String> foundErrors = listMissing(source, target);
+        List<String> foundErrors = listMissing(sourceTags, target);
         if (!foundErrors.isEmpty()) {
             errors.add(getMessages().tagsMissing(foundErrors));
         }
-        foundErrors = listMissing(target, source);
+        foundErrors = listMissing(targetTags, source);
         if (!foundErrors.isEmpty()) {
             errors.add(getMessages().tagsAdded(foundErrors));
         }
 
         if (errors.isEmpty()) {
-            ArrayList<String> sourceTags = getTagList(source);
-            ArrayList<String> targetTags = getTagList(target);
-
             errors.addAll(orderValidation(sourceTags, targetTags));
         }
         return errors;
@@ -130,7 +129,15 @@ public class HtmlXmlTagValidation extends AbstractValidationAction {
         return -1;
     }
 
-    private ArrayList<String> getTagList(String src) {
+    /**
+     * Same as {@link #getTagList(String)}. Source strings are validated
+     * against many translations, so implementations may cache the result.
+     */
+    protected ArrayList<String> getSourceTagList(String source) {
+        return getTagList(source);
+    }
+
+    protected ArrayList<String> getTagList(String src) {
         final RegExp regExp = RegExp.compile(tagRegex, "g");
 
         ArrayList<String> list = new ArrayList<String>();
@@ -143,15 +150,12 @@ public class HtmlXmlTagValidation extends AbstractValidationAction {
         return list;
     }
 
-    private List<String> listMissing(String compareFrom, String compareTo) {
-        final RegExp regExp = RegExp.compile(tagRegex, "g");
-
+    private List<String> listMissing(List<String> compareFromTags,
+            String compareTo) {
         String tmp = compareTo;
         ArrayList<String> unmatched = new ArrayList<String>();
-        MatchResult result = regExp.exec(compareFrom);
 
-        while (result != null) {
-            String node = result.getGroup(0);
+        for (String node : compareFromTags) {
             if (!tmp.contains(node)) {
                 unmatched.add(node);
             } else {
@@ -160,7 +164,6 @@ public class HtmlXmlTagValidation extends AbstractValidationAction {
                 String afterNode = tmp.substring(index + node.length());
                 tmp = beforeNode + afterNode; // remove matched node from
             }
-            result = regExp.exec(compareFrom);
         }
         return unmatched;
     }
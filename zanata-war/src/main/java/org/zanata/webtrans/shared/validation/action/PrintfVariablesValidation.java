@@ -42,7 +42,7 @@ public class PrintfVariablesValidation extends AbstractValidationAction {
 
     // derived from translate toolkit printf style variable matching regex. See:
     // http://translate.svn.sourceforge.net/viewvc/translate/src/trunk/translate/filters/checks.py?revision=17978&view=markup
-    private static final String VAR_REGEX =
+    protected static final String VAR_REGEX =
             "%((?:\\d+\\$|\\(\\w+\\))?[+#-]*(\\d+)?(\\.\\d+)?(hh|h|ll|l|L|z|j|t)?[\\w%])";
 
     public PrintfVariablesValidation(ValidationId id,
@@ -59,7 +59,7 @@ public class PrintfVariablesValidation extends AbstractValidationAction {
     public List<String> doValidate(String source, String target) {
         ArrayList<String> errors = new ArrayList<String>();
 
-        ArrayList<String> sourceVars = findVars(source);
+        ArrayList<String> sourceVars = findSourceVars(source);
         ArrayList<String> targetVars = findVars(target);
 
         String message = findMissingVariables(sourceVars, targetVars);
@@ -110,6 +110,14 @@ public class PrintfVariablesValidation extends AbstractValidationAction {
         return unmatched;
     }
 
+    /**
+     * Same as {@link #findVars(String)}. Source strings are validated against
+     * many translations, so implementations may cache the result.
+     */
+    protected ArrayList<String> findSourceVars(String source) {
+        return findVars(source);
+    }
+
     protected ArrayList<String> findVars(String inString) {
         ArrayList<String> vars = new ArrayList<String>();
         // compile each time to reset index
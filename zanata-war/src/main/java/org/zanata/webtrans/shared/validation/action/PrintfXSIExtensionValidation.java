@@ -33,7 +33,7 @@ public class PrintfXSIExtensionValidation extends PrintfVariablesValidation {
     public List<String> doValidate(String source, String target) {
         ArrayList<String> errors = new ArrayList<String>();
 
-        ArrayList<String> sourceVars = findVars(source);
+        ArrayList<String> sourceVars = findSourceVars(source);
         ArrayList<String> targetVars = findVars(target);
 
         if (PrintfXSIExtensionValidation.hasPosition(targetVars)) {
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.async;
+
+import java.io.Serializable;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AsyncTaskHandleManagerTest {
+    private AsyncTaskHandleManager manager;
+
+    @Before
+    public void setUp() {
+        manager = new AsyncTaskHandleManager();
+    }
+
+    @Test
+    public void finishedHandleIsStillFoundByKey() {
+        AsyncTaskHandle handle = new AsyncTaskHandle();
+        AsyncTaskHandle other = new AsyncTaskHandle();
+        Serializable key = manager.registerTaskHandle(handle);
+        manager.registerTaskHandle(other, "other");
+
+        manager.taskFinished(handle);
+
+        assertThat(manager.getHandleByKey(key)).isSameAs(handle);
+        assertThat(manager.getHandleByKey("other")).isSameAs(other);
+        assertThat(manager.getAllHandles()).containsOnly(handle, other);
+    }
+
+    @Test
+    public void unregisteredHandleIsIgnored() {
+        AsyncTaskHandle handle = new AsyncTaskHandle();
+        manager.registerTaskHandle(handle, "key");
+
+        manager.taskFinished(new AsyncTaskHandle());
+
+        assertThat(manager.getAllHandles()).containsOnly(handle);
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void cannotRegisterHandleTwice() {
+        AsyncTaskHandle handle = new AsyncTaskHandle();
+        manager.registerTaskHandle(handle, "key1");
+        manager.registerTaskHandle(handle, "key2");
+    }
+}
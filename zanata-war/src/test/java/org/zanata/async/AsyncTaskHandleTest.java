@@ -110,4 +110,21 @@ public class AsyncTaskHandleTest {
         handle.increaseProgress(1);
         assertThat(handle.getEstimatedTimeRemaining().isPresent()).isTrue();
     }
+
+    @Test
+    public void testProgressPerSecond() throws Exception {
+        AsyncTaskHandle handle = new AsyncTaskHandle();
+        handle.startTiming();
+
+        assertThat(handle.getProgressPerSecond().isPresent()).describedAs(
+                "Throughput is not available before any progress").isFalse();
+
+        Thread.sleep(10); // Sleep as if something was executed
+        handle.increaseProgress(5);
+        handle.finishTiming();
+
+        long executingTime = handle.getExecutingTime();
+        assertThat(handle.getProgressPerSecond().get())
+                .isEqualTo(5 * 1000d / executingTime);
+    }
 }
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.async;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AsyncTaskPoolTest {
+    private final AsyncTaskPool pool = new AsyncTaskPool("test", 1);
+    private final List<String> runOrder =
+            Collections.synchronizedList(Lists.newArrayList());
+
+    @After
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    private Runnable record(String name) {
+        return () -> runOrder.add(name);
+    }
+
+    @Test
+    public void sharesThreadsFairlyBetweenOwners() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        // occupy the only thread, so that everything else is queued
+        pool.execute("alice", () -> {
+            started.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        started.await(10, TimeUnit.SECONDS);
+        pool.execute("alice", record("alice2"));
+        pool.execute("alice", record("alice3"));
+        pool.execute("bob", record("bob1"));
+        pool.execute(null, record("system1"));
+        assertThat(pool.getQueueDepth()).isEqualTo(4);
+
+        CountDownLatch done = new CountDownLatch(1);
+        // alice's fourth task, so it runs last
+        pool.execute("alice", done::countDown);
+        release.countDown();
+        assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+
+        // each owner's first queued task goes before anyone's second
+        assertThat(runOrder).containsExactly("bob1", "system1", "alice2",
+                "alice3");
+    }
+}
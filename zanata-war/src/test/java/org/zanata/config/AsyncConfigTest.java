@@ -62,4 +62,12 @@ public class AsyncConfigTest {
 
         assertThat(asyncConfig.getThreadPoolSize()).isEqualTo(10);
     }
+
+    @Test
+    public void parallelCopyTransIsOffByDefault() {
+        doReturn(null).when(configStore)
+                .get(AsyncConfig.COPY_TRANS_THREAD_POOL_SIZE);
+
+        assertThat(asyncConfig.getCopyTransThreadPoolSize()).isEqualTo(1);
+    }
 }
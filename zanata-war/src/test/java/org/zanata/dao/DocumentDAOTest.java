@@ -24,6 +24,8 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.not;
 
+import java.sql.Timestamp;
+
 import javax.annotation.Nullable;
 
 import org.dbunit.operation.DatabaseOperation;
@@ -84,17 +86,23 @@ public class DocumentDAOTest extends ZanataDbunitJpaTest {
                 DatabaseOperation.CLEAN_INSERT));
     }
 
+    private String getDocumentState() {
+        HDocument doc =
+                documentDAO.getByProjectIterationAndDocId(PROJECT_SLUG,
+                        ITERATION_SLUG, DOC_ID);
+        return new Timestamp(documentDAO.getTranslatedDocumentLastChanged(
+                doc.getId(), as.getLocaleId()).getTime()).toString();
+    }
+
     @Test
     public void repeatableDocumentStateHash() throws Exception {
         String docHash =
-                documentDAO.getTranslatedDocumentStateHash(PROJECT_SLUG,
-                        ITERATION_SLUG, DOC_ID, as);
+                getDocumentState();
 
         // Make sure it's repeatable
         for (int i = 0; i < 5; i++) {
             String unchangedHash =
-                    documentDAO.getTranslatedDocumentStateHash(PROJECT_SLUG,
-                            ITERATION_SLUG, DOC_ID, as);
+                    getDocumentState();
             assertThat(
                     "Translated Document state hash function not repeatable",
                     unchangedHash, equalTo(docHash));
@@ -104,8 +112,7 @@ public class DocumentDAOTest extends ZanataDbunitJpaTest {
     private void testHashChange(Function<HDocument, Void> mutator,
             boolean expectHashChange) throws Exception {
         String docHash =
-                documentDAO.getTranslatedDocumentStateHash(PROJECT_SLUG,
-                        ITERATION_SLUG, DOC_ID, as);
+                getDocumentState();
         // Translate something in the document
         HDocument doc =
                 documentDAO.getByProjectIterationAndDocId(PROJECT_SLUG,
@@ -117,8 +124,7 @@ public class DocumentDAOTest extends ZanataDbunitJpaTest {
 
         // Hash must change
         String changedDocHash =
-                documentDAO.getTranslatedDocumentStateHash(PROJECT_SLUG,
-                        ITERATION_SLUG, DOC_ID, as);
+                getDocumentState();
         if (expectHashChange) {
             assertThat(
                     "Translated document hash must change when something is changed",
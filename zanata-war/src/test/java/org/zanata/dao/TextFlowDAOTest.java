@@ -19,6 +19,7 @@ import org.junit.Ignore;
 import org.junit.Test;
 import org.zanata.ZanataDbunitJpaTest;
 import org.zanata.common.ContentState;
+import org.zanata.common.LocaleId;
 import org.zanata.model.HLocale;
 import org.zanata.model.HProjectIteration;
 import org.zanata.model.HTextFlow;
@@ -121,6 +122,25 @@ public class TextFlowDAOTest extends ZanataDbunitJpaTest {
         assertThat(result, Matchers.hasSize(1));
     }
 
+    @Test
+    public void canGetContentsForValidation() {
+        Map<Long, List<Object[]>> result =
+                dao.getContentsForValidation(Lists.newArrayList(1L, 2L),
+                        LocaleId.DE);
+
+        // (text flow id, target id, source contents, target contents)
+        List<Object[]> doc1 = result.get(1L);
+        assertThat(doc1, Matchers.hasSize(1));
+        assertThat(doc1.get(0), Matchers.<Object> arrayContaining(1L, 2L,
+                Lists.newArrayList("hello world"),
+                Lists.newArrayList("hello welt")));
+        // no German targets in document 2
+        List<Object[]> doc2 = result.get(2L);
+        assertThat(doc2, Matchers.hasSize(3));
+        assertThat(doc2.get(0), Matchers.<Object> arrayContaining(2L, null,
+                Lists.newArrayList("mssgId1"), null));
+    }
+
     @Test
     public void canGetTextFlowsByStatusNotNew() {
         HLocale enUSLocale = getEm().find(HLocale.class, 4L);
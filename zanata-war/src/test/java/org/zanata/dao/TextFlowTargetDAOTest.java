@@ -116,4 +116,12 @@ public class TextFlowTargetDAOTest extends ZanataDbunitJpaTest {
         assertThat(history1.getSourceType()).isEqualTo(sourceType1);
         assertThat(history1.getCopiedEntityId()).isEqualTo(copiedEntityId1);
     }
+
+    @Test
+    public void getTextFlowIdsWithTarget() {
+        long[] textFlowIds =
+                textFlowTargetDAO.getTextFlowIdsWithTarget(1L, 1L);
+
+        assertThat(textFlowIds).containsOnly(1L);
+    }
 }
@@ -38,22 +38,42 @@ public class RateLimitingProcessorTest {
     }
 
     @Test
-    public void restCallLimiterReturnsFalseWillCauseErrorResponse()
+    public void concurrentLimitWillCauseErrorResponse()
             throws Exception {
-        when(restCallLimiter.tryAcquireAndRun(runnable)).thenReturn(false);
+        when(restCallLimiter.tryAcquireAndRun(runnable)).thenReturn(
+                RestCallLimiter.Result.CONCURRENT_LIMIT);
+        when(restCallLimiter.getMaxConcurrentPermits()).thenReturn(4);
         doReturn(restCallLimiter).when(rateLimitManager).getLimiter(
                 RateLimiterToken.fromApiKey(API_KEY));
 
         processor.processForApiKey(API_KEY, response, runnable);
 
         verify(restCallLimiter).tryAcquireAndRun(runnable);
-        verify(response).sendError(eq(429), anyString());
+        verify(response).setHeader("Retry-After", "1");
+        verify(response).sendError(429,
+                "Too many concurrent requests for client API key (maximum is 4)");
     }
 
     @Test
-    public void restCallLimiterReturnsTrueWillNotReturnErrorResponse()
+    public void activeLimitWillCauseErrorResponse() throws Exception {
+        when(restCallLimiter.tryAcquireAndRun(runnable)).thenReturn(
+                RestCallLimiter.Result.ACTIVE_LIMIT);
+        when(restCallLimiter.getMaxActivePermits()).thenReturn(2);
+        doReturn(restCallLimiter).when(rateLimitManager).getLimiter(
+                RateLimiterToken.fromUsername("admin"));
+
+        processor.processForUser("admin", response, runnable);
+
+        verify(response).setHeader("Retry-After", "1");
+        verify(response).sendError(429,
+                "Too many active requests for client 'admin' (maximum is 2)");
+    }
+
+    @Test
+    public void restCallLimiterRunsTaskWillNotReturnErrorResponse()
             throws Exception {
-        when(restCallLimiter.tryAcquireAndRun(runnable)).thenReturn(true);
+        when(restCallLimiter.tryAcquireAndRun(runnable)).thenReturn(
+                RestCallLimiter.Result.RAN);
         doReturn(restCallLimiter).when(rateLimitManager).getLimiter(
             RateLimiterToken.fromApiKey(API_KEY));
 
@@ -93,7 +93,8 @@ public class RestCallLimiterTest {
         for (int i = 0; i < numTasks; i++) {
             final int jobNum = i;
             threadPool.submit(runnable(() -> {
-                if (limiter.tryAcquireAndRun(blockingTask)) {
+                if (limiter.tryAcquireAndRun(
+                        blockingTask) == RestCallLimiter.Result.RAN) {
                     log.debug(
                             "request #" + jobNum + ": acquired and executed");
                     execsFinished.countDown();
@@ -189,6 +190,54 @@ public class RestCallLimiterTest {
         execsFinished.awaitAndVerify();
     }
 
+    @Test
+    public void shouldRejectRequestsAboveMaxActiveWhenBusy()
+            throws Exception {
+        String testName = "shouldRejectRequestsAboveMaxActiveWhenBusy";
+        limiter = new RestCallLimiter(maxConcurrent, maxActive, true);
+
+        // When: max concurrent threads are accessing simultaneously
+        // Then: only max active threads will be served, and the others will
+        // be rejected instead of blocking
+        int numTasks = maxConcurrent;
+        int excessRequests = maxConcurrent - maxActive;
+        final CountingLatch execsStarted =
+                new CountingLatch(maxActive, "execs started");
+        final CountingLatch expectedRejects =
+                new CountingLatch(excessRequests, "rejected requests");
+        final CountingLatch execsFinished =
+                new CountingLatch(maxActive, "execs finished");
+        submitTasks(numTasks,
+            execsStarted, expectedRejects, execsFinished,
+            testName);
+
+        SoftAssertions softly = new SoftAssertions();
+        execsStarted.awaitAndVerify(softly);
+        expectedRejects.awaitAndVerify(softly);
+        softly.assertAll();
+        awakenBlockedRunnables();
+        execsFinished.awaitAndVerify();
+        // rejected requests must not keep their [concurrent] permits
+        assertThat(limiter.availableConcurrentPermit()).isEqualTo(maxConcurrent);
+    }
+
+    @Test
+    public void shouldBeIdleOnlyWhenUnusedSinceGivenTime() throws Exception {
+        long before = System.nanoTime();
+        limiter.tryAcquireAndRun(nullRunnable);
+        assertThat(limiter.isIdleSince(before - 1)).isFalse();
+        assertThat(limiter.isIdleSince(System.nanoTime())).isTrue();
+    }
+
+    @Test
+    public void shouldNotBeIdleWhileReserved() throws Exception {
+        limiter.reserve();
+        assertThat(limiter.isIdleSince(System.nanoTime())).isFalse();
+
+        limiter.tryAcquireAndRun(nullRunnable);
+        assertThat(limiter.isIdleSince(System.nanoTime())).isTrue();
+    }
+
     @Test
     public void shouldChangeMaxConcurrent()
             throws Exception {
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.zanata.limits;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import com.google.common.base.Ticker;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+public class TokenBucketTest {
+
+    private static final long REFILL_NANOS = TimeUnit.MILLISECONDS.toNanos(20);
+    @Mock
+    private Ticker ticker;
+    private ExecutorService executorService;
+
+    @Before
+    public void beforeMethod() {
+        MockitoAnnotations.initMocks(this);
+        when(ticker.read()).thenReturn(0L);
+        executorService = Executors.newFixedThreadPool(3);
+    }
+
+    @After
+    public void afterMethod() {
+        executorService.shutdownNow();
+    }
+
+    private TokenBucket bucket(long capacity) {
+        return new TokenBucket(capacity, 20, TimeUnit.MILLISECONDS, ticker);
+    }
+
+    @Test
+    public void willWaitUntilRefill() {
+        TokenBucket bucket = bucket(1);
+
+        assertThat(bucket.tryAcquire()).isTrue();
+        assertThat(bucket.tryAcquire()).isFalse();
+
+        when(ticker.read()).thenReturn(REFILL_NANOS);
+        assertThat(bucket.tryAcquire()).isTrue();
+        assertThat(bucket.tryAcquire()).isFalse();
+    }
+
+    @Test
+    public void willRefillPartOfTheBucketPartWayThroughThePeriod() {
+        TokenBucket bucket = bucket(4);
+        assertThat(bucket.tryAcquire(4)).isTrue();
+        assertThat(bucket.tryAcquire()).isFalse();
+
+        // half the period gives back half the permits
+        when(ticker.read()).thenReturn(REFILL_NANOS / 2);
+        assertThat(bucket.tryAcquire(3)).isFalse();
+        assertThat(bucket.tryAcquire(2)).isTrue();
+        assertThat(bucket.tryAcquire()).isFalse();
+    }
+
+    @Test
+    public void willNotRefillBeyondCapacity() {
+        TokenBucket bucket = bucket(2);
+        assertThat(bucket.tryAcquire()).isTrue();
+
+        when(ticker.read()).thenReturn(REFILL_NANOS * 10);
+        assertThat(bucket.tryAcquire(3)).isFalse();
+        assertThat(bucket.tryAcquire(2)).isTrue();
+    }
+
+    @Test
+    public void concurrentTest() throws Exception {
+        TokenBucket bucket = bucket(1);
+        Callable<Boolean> callable = bucket::tryAcquire;
+        List<Callable<Boolean>> callables = Collections.nCopies(3, callable);
+
+        assertThat(countAcquired(executorService.invokeAll(callables)))
+                .isEqualTo(1);
+
+        // here we simulate that we have waited enough time and try again
+        when(ticker.read()).thenReturn(REFILL_NANOS);
+        assertThat(countAcquired(executorService.invokeAll(callables)))
+                .isEqualTo(1);
+    }
+
+    private static int countAcquired(List<Future<Boolean>> futures)
+            throws Exception {
+        int acquired = 0;
+        for (Future<Boolean> future : futures) {
+            if (future.get()) {
+                acquired++;
+            }
+        }
+        return acquired;
+    }
+}
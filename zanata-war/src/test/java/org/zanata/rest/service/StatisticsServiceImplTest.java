@@ -237,6 +237,42 @@ public class StatisticsServiceImplTest extends ZanataDbunitJpaTest {
         }
     }
 
+    @Test
+    public void detailedIterationStatisticsMatchDocumentStatistics() {
+        String[] locales = new String[] { "en-US", "es", "as" };
+
+        ContainerTranslationStatistics stats =
+                statisticsService.getStatistics("sample-project", "1.0", true,
+                        true, locales);
+
+        assertThat(stats.getDetailedStats()).isNotEmpty();
+        for (ContainerTranslationStatistics docStats : stats
+                .getDetailedStats()) {
+            ContainerTranslationStatistics expected =
+                    statisticsService.getStatistics("sample-project", "1.0",
+                            docStats.getId(), true, locales);
+            assertThat(docStats.getStats()).hasSameSizeAs(
+                    expected.getStats());
+            for (TranslationStatistics transStat : docStats.getStats()) {
+                TranslationStatistics expectedStat =
+                        expected.getStats(transStat.getLocale(),
+                                transStat.getUnit());
+                String description = docStats.getId() + " "
+                        + transStat.getLocale() + " " + transStat.getUnit();
+                assertThat(transStat.getTotal()).as(description).isEqualTo(
+                        expectedStat.getTotal());
+                assertThat(transStat.getUntranslated()).as(description)
+                        .isEqualTo(expectedStat.getUntranslated());
+                assertThat(transStat.getDraft()).as(description).isEqualTo(
+                        expectedStat.getDraft());
+                assertThat(transStat.getApproved()).as(description)
+                        .isEqualTo(expectedStat.getApproved());
+                assertThat(transStat.getTranslatedOnly()).as(description)
+                        .isEqualTo(expectedStat.getTranslatedOnly());
+            }
+        }
+    }
+
     @Test
     public void getSimpleDocumentStatisticsForAllLocales() {
         ContainerTranslationStatistics stats =
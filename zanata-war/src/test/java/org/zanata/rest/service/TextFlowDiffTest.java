@@ -0,0 +1,159 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.rest.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+import org.zanata.common.LocaleId;
+import org.zanata.rest.dto.extensions.comment.SimpleComment;
+import org.zanata.rest.service.TextFlowDiff.StoredTextFlow;
+import org.zanata.rest.dto.resource.TextFlow;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+public class TextFlowDiffTest {
+    private static final Set<String> NO_EXTENSIONS = Collections.emptySet();
+
+    private static TextFlow incoming(String resId, String content) {
+        return new TextFlow(resId, LocaleId.EN_US, content);
+    }
+
+    private static StoredTextFlow stored(long id, String resId,
+            String content, boolean obsolete) {
+        return stored(id, resId, content, obsolete, null);
+    }
+
+    private static StoredTextFlow stored(long id, String resId,
+            String content, boolean obsolete, String comment) {
+        return new StoredTextFlow(id, resId, ImmutableList.of(content), false,
+                obsolete, false, null, null, null, comment);
+    }
+
+    @Test
+    public void onlyChangedContentIsReported() {
+        List<TextFlow> incoming = ImmutableList.of(incoming("a", "one"),
+                incoming("b", "two (changed)"), incoming("c", "three"));
+        List<StoredTextFlow> stored = ImmutableList.of(
+                stored(1, "a", "one", false), stored(2, "b", "two", false),
+                stored(3, "c", "three", false));
+
+        TextFlowDiff diff =
+                TextFlowDiff.compute(incoming, stored, NO_EXTENSIONS);
+
+        assertThat(diff.isSameSequence()).isTrue();
+        assertThat(diff.getChanged().keySet()).containsOnly(2L);
+        assertThat(diff.getChanged().get(2L)).isSameAs(incoming.get(1));
+    }
+
+    @Test
+    public void obsoleteTextFlowsAreIgnored() {
+        List<TextFlow> incoming =
+                ImmutableList.of(incoming("a", "one"), incoming("c", "three"));
+        List<StoredTextFlow> stored = ImmutableList.of(
+                stored(1, "a", "one", false), stored(3, "c", "three", false),
+                stored(2, "b", "two", true));
+
+        TextFlowDiff diff =
+                TextFlowDiff.compute(incoming, stored, NO_EXTENSIONS);
+
+        assertThat(diff.isSameSequence()).isTrue();
+        assertThat(diff.getChanged()).isEmpty();
+    }
+
+    @Test
+    public void addedTextFlowChangesSequence() {
+        List<TextFlow> incoming =
+                ImmutableList.of(incoming("a", "one"), incoming("b", "two"));
+        List<StoredTextFlow> stored =
+                ImmutableList.of(stored(1, "a", "one", false));
+
+        assertThat(TextFlowDiff.compute(incoming, stored, NO_EXTENSIONS)
+                .isSameSequence()).isFalse();
+    }
+
+    @Test
+    public void removedTextFlowChangesSequence() {
+        List<TextFlow> incoming = ImmutableList.of(incoming("a", "one"));
+        List<StoredTextFlow> stored = ImmutableList.of(
+                stored(1, "a", "one", false), stored(2, "b", "two", false));
+
+        assertThat(TextFlowDiff.compute(incoming, stored, NO_EXTENSIONS)
+                .isSameSequence()).isFalse();
+    }
+
+    @Test
+    public void reorderedTextFlowsChangeSequence() {
+        List<TextFlow> incoming =
+                ImmutableList.of(incoming("b", "two"), incoming("a", "one"));
+        List<StoredTextFlow> stored = ImmutableList.of(
+                stored(1, "a", "one", false), stored(2, "b", "two", false));
+
+        assertThat(TextFlowDiff.compute(incoming, stored, NO_EXTENSIONS)
+                .isSameSequence()).isFalse();
+    }
+
+    @Test
+    public void resurrectedTextFlowChangesSequence() {
+        List<TextFlow> incoming =
+                ImmutableList.of(incoming("a", "one"), incoming("b", "two"));
+        List<StoredTextFlow> stored = ImmutableList.of(
+                stored(1, "a", "one", false), stored(2, "b", "two", true));
+
+        assertThat(TextFlowDiff.compute(incoming, stored, NO_EXTENSIONS)
+                .isSameSequence()).isFalse();
+    }
+
+    @Test
+    public void changedCommentIsReportedOnlyWhenEnabled() {
+        TextFlow textFlow = incoming("a", "one");
+        textFlow.getExtensions(true).add(new SimpleComment("new comment"));
+        List<TextFlow> incoming = ImmutableList.of(textFlow);
+        List<StoredTextFlow> stored =
+                ImmutableList.of(stored(1, "a", "one", false, "old comment"));
+
+        assertThat(TextFlowDiff.compute(incoming, stored, NO_EXTENSIONS)
+                .getChanged()).isEmpty();
+        assertThat(TextFlowDiff.compute(incoming, stored,
+                ImmutableSet.of(SimpleComment.ID)).getChanged().keySet())
+                .containsOnly(1L);
+    }
+
+    @Test
+    public void pluralFormsAreComparedExactly() {
+        // both would be joined as "a|b|c"
+        TextFlow textFlow = incoming("a", "a|b");
+        textFlow.setPlural(true);
+        textFlow.setContents("a|b", "c");
+        List<TextFlow> incoming = ImmutableList.of(textFlow);
+        List<StoredTextFlow> stored = ImmutableList.of(new StoredTextFlow(1L,
+                "a", ImmutableList.of("a", "b|c"), true, false, false, null,
+                null, null, null));
+
+        assertThat(TextFlowDiff.compute(incoming, stored, NO_EXTENSIONS)
+                .getChanged().keySet()).containsOnly(1L);
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.rest.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.jboss.resteasy.spi.BadRequestException;
+import org.junit.Test;
+import org.zanata.ZanataTest;
+import org.zanata.common.ContentState;
+import org.zanata.rest.dto.DTOUtil;
+import org.zanata.rest.dto.extensions.comment.SimpleComment;
+import org.zanata.rest.dto.extensions.gettext.PoTargetHeader;
+import org.zanata.rest.dto.extensions.gettext.TranslationsResourceExtension;
+import org.zanata.rest.dto.resource.ExtensionSet;
+import org.zanata.rest.dto.resource.TextFlowTarget;
+import org.zanata.rest.dto.resource.TranslationsResource;
+
+import com.google.common.collect.Lists;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TranslationsResourceStreamReaderTest extends ZanataTest {
+
+    private static InputStream toStream(String xml) {
+        return new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void readsExtensionsAndEachTarget() throws Exception {
+        TranslationsResource resource =
+                new TranslationsResourceTestObjectFactory().getAllExtension();
+        TextFlowTarget target2 = new TextFlowTarget("rest2");
+        target2.setContents("greeting world");
+        target2.setState(ContentState.NeedReview);
+        resource.getTextFlowTargets().add(target2);
+
+        TranslationsResourceStreamReader streamReader =
+                new TranslationsResourceStreamReader(
+                        toStream(DTOUtil.toXML(resource)));
+
+        ExtensionSet<TranslationsResourceExtension> extensions =
+                streamReader.getExtensions();
+        assertThat(extensions).hasSize(1);
+        PoTargetHeader header =
+                (PoTargetHeader) extensions.iterator().next();
+        assertThat(header.getComment()).startsWith("target header comment");
+
+        List<TextFlowTarget> targets =
+                Lists.newArrayList(streamReader.getTextFlowTargets());
+        assertThat(targets).hasSize(2);
+        assertThat(targets.get(0).getResId()).isEqualTo("rest1");
+        assertThat(targets.get(0).getContents())
+                .containsExactly("hello world");
+        assertThat(targets.get(0).getState()).isEqualTo(ContentState.Approved);
+        assertThat(targets.get(0).getExtensions(true)
+                .findByType(SimpleComment.class).getValue())
+                .isEqualTo("textflowtarget comment");
+        assertThat(targets.get(1).getResId()).isEqualTo("rest2");
+        assertThat(targets.get(1).getContents())
+                .containsExactly("greeting world");
+        assertThat(targets.get(1).getState())
+                .isEqualTo(ContentState.NeedReview);
+    }
+
+    @Test
+    public void readsDocumentWithoutExtensionsOrTargets() throws Exception {
+        TranslationsResourceStreamReader streamReader =
+                new TranslationsResourceStreamReader(toStream(
+                        DTOUtil.toXML(new TranslationsResource())));
+
+        assertThat(streamReader.getExtensions()).isEmpty();
+        assertThat(streamReader.getTextFlowTargets().hasNext()).isFalse();
+    }
+
+    @Test(expected = BadRequestException.class)
+    public void rejectsOtherRootElements() throws Exception {
+        new TranslationsResourceStreamReader(toStream("<resource/>"));
+    }
+}
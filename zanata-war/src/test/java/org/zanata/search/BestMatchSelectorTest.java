@@ -0,0 +1,100 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.zanata.search;
+
+import java.util.Date;
+import java.util.Map;
+
+import org.junit.Test;
+import org.zanata.common.LocaleId;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BestMatchSelectorTest {
+    private static final BestMatchSelector.Source SOURCE =
+            new BestMatchSelector.Source(1L, "hash", "res1", "doc1", 10L);
+
+    @Test
+    public void prefersSameContextOverMoreRecent() {
+        BestMatchSelector selector = new BestMatchSelector(false, false, false);
+        selector.addCandidate(candidate(100L, "res1", "doc2", 20L, 1000L));
+        selector.addCandidate(candidate(101L, "res2", "doc1", 10L, 2000L));
+
+        Map<LocaleId, BestMatchSelector.Candidate> best =
+                selector.selectBestMatches(SOURCE);
+
+        assertThat(best.get(LocaleId.DE).getTargetId()).isEqualTo(100L);
+    }
+
+    @Test
+    public void prefersMostRecentWhenOtherwiseEqual() {
+        BestMatchSelector selector = new BestMatchSelector(false, false, false);
+        selector.addCandidate(candidate(100L, "res1", "doc1", 10L, 1000L));
+        selector.addCandidate(candidate(101L, "res1", "doc1", 10L, 2000L));
+        selector.addCandidate(candidate(102L, "res1", "doc1", 10L, null));
+
+        assertThat(selector.selectBestMatches(SOURCE).get(LocaleId.DE)
+                .getTargetId()).isEqualTo(101L);
+    }
+
+    @Test
+    public void rejectsMismatchWhenChecked() {
+        BestMatchSelector selector = new BestMatchSelector(false, false, true);
+        selector.addCandidate(candidate(100L, "res1", "doc1", 20L, 1000L));
+
+        assertThat(selector.selectBestMatches(SOURCE)).isEmpty();
+    }
+
+    @Test
+    public void ignoresOwnTranslationAndOtherContent() {
+        BestMatchSelector selector = new BestMatchSelector(false, false, false);
+        selector.addCandidate(new BestMatchSelector.Candidate(100L, 1L, "hash",
+                LocaleId.DE, "res1", "doc1", 10L, new Date(1000L)));
+        selector.addCandidate(new BestMatchSelector.Candidate(101L, 2L,
+                "other", LocaleId.DE, "res1", "doc1", 10L, new Date(1000L)));
+
+        assertThat(selector.selectBestMatches(SOURCE)).isEmpty();
+    }
+
+    @Test
+    public void ranksGroupsOfCandidates() {
+        // groups have no target id, and no text flow id or mismatching
+        // resId/docId/project when those aren't in the batch
+        BestMatchSelector selector = new BestMatchSelector(false, false, false);
+        BestMatchSelector.Candidate sameDocument =
+                new BestMatchSelector.Candidate(null, null, "hash",
+                        LocaleId.DE, null, "doc1", 10L, new Date(1000L));
+        selector.addCandidate(sameDocument);
+        selector.addCandidate(new BestMatchSelector.Candidate(null, null,
+                "hash", LocaleId.DE, null, null, null, new Date(2000L)));
+
+        assertThat(selector.selectBestMatches(SOURCE).get(LocaleId.DE))
+                .isSameAs(sameDocument);
+    }
+
+    private static BestMatchSelector.Candidate candidate(Long targetId,
+            String resId, String docId, Long projectId, Long lastChanged) {
+        return new BestMatchSelector.Candidate(targetId, targetId + 1000,
+                "hash", LocaleId.DE, resId, docId, projectId,
+                lastChanged == null ? null : new Date(lastChanged));
+    }
+}
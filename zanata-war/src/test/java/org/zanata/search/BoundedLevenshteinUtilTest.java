@@ -0,0 +1,131 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.zanata.search;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.assertj.core.data.Offset;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.data.Offset.offset;
+
+public class BoundedLevenshteinUtilTest {
+    private static final Offset<Double> DELTA = offset(0.0001);
+
+    @Test
+    public void distanceWithinCapIsExact() {
+        assertThat(BoundedLevenshteinUtil.getLevenshteinDistance("kitten",
+                "sitting", 3)).isEqualTo(3);
+        assertThat(BoundedLevenshteinUtil.getLevenshteinDistance("", "abc", 3))
+                .isEqualTo(3);
+        assertThat(BoundedLevenshteinUtil.getLevenshteinDistance("abc", "abc",
+                0)).isEqualTo(0);
+    }
+
+    @Test
+    public void distanceAboveCapIsCapPlusOne() {
+        assertThat(BoundedLevenshteinUtil.getLevenshteinDistance("kitten",
+                "sitting", 2)).isEqualTo(3);
+        assertThat(BoundedLevenshteinUtil.getLevenshteinDistance("a",
+                "abcdefgh", 1)).isEqualTo(2);
+    }
+
+    @Test
+    public void matchesUnboundedDistanceForShortAndLongStrings() {
+        Random random = new Random(42);
+        String alphabet = "abcde f\u00e9\u4e2d";
+        for (int i = 0; i < 2000; i++) {
+            // lengths either side of the 64 char bit-parallel limit
+            String s = randomString(random, alphabet, random.nextInt(150));
+            String t = randomString(random, alphabet, random.nextInt(150));
+            int expected = LevenshteinUtil.getLevenshteinDistance(s, t);
+            int cap = random.nextInt(160);
+            assertThat(BoundedLevenshteinUtil.getLevenshteinDistance(s, t, cap))
+                    .as("distance(%s, %s) with cap %s", s, t, cap)
+                    .isEqualTo(Math.min(expected, cap + 1));
+        }
+    }
+
+    @Test
+    public void matchesUnboundedDistanceInWords() {
+        Random random = new Random(7);
+        for (int i = 0; i < 2000; i++) {
+            String[] s = randomString(random, "abc", random.nextInt(40))
+                    .split("");
+            String[] t = randomString(random, "abc", random.nextInt(40))
+                    .split("");
+            int expected =
+                    LevenshteinTokenUtil.getLevenshteinDistanceInWords(s, t);
+            int cap = random.nextInt(45);
+            assertThat(BoundedLevenshteinUtil.getLevenshteinDistanceInWords(
+                    s, t, cap)).isEqualTo(Math.min(expected, cap + 1));
+        }
+    }
+
+    @Test
+    public void similarityAboveMinimumIsExact() {
+        List<String> strings1 = Arrays.asList("one two three", "four five");
+        List<String> strings2 = Arrays.asList("one two tree", "four five");
+        double expected = LevenshteinUtil.getSimilarity(strings1, strings2);
+        assertThat(BoundedLevenshteinUtil.getSimilarity(strings1, strings2,
+                0.8)).isEqualTo(expected, DELTA);
+
+        double expectedTokens =
+                LevenshteinTokenUtil.getSimilarity(strings1, strings2);
+        assertThat(BoundedLevenshteinUtil.getTokenSimilarity(strings1,
+                strings2, 0.5)).isEqualTo(expectedTokens, DELTA);
+    }
+
+    @Test
+    public void similarityBelowMinimumIsBelowMinimum() {
+        List<String> strings1 = Arrays.asList("one two three");
+        List<String> strings2 = Arrays.asList("dbnoicgjnedbitnhjudbioe");
+        assertThat(BoundedLevenshteinUtil.getSimilarity(strings1, strings2,
+                0.9)).isLessThan(0.9);
+        assertThat(BoundedLevenshteinUtil.getTokenSimilarity(strings1,
+                strings2, 0.9)).isLessThan(0.9);
+        assertThat(BoundedLevenshteinUtil.getSimilarity("one two three",
+                strings2, 0.9)).isLessThan(0.9);
+        assertThat(BoundedLevenshteinUtil.getTokenSimilarity("one two three",
+                strings2, 0.9)).isLessThan(0.9);
+    }
+
+    @Test
+    public void emptyListsAreIdenticalInWords() {
+        List<String> empty = Collections.emptyList();
+        assertThat(BoundedLevenshteinUtil.getTokenSimilarity(empty, empty,
+                1.0)).isEqualTo(1.0, DELTA);
+    }
+
+    private static String randomString(Random random, String alphabet,
+            int length) {
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return sb.toString();
+    }
+}
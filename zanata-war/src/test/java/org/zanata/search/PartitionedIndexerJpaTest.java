@@ -0,0 +1,219 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doCallRealMethod;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.util.concurrent.ExecutionException;
+
+import javax.persistence.EntityManager;
+
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.dbunit.operation.DatabaseOperation;
+import org.hibernate.Session;
+import org.hibernate.search.FullTextSession;
+import org.hibernate.search.Search;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.zanata.async.AsyncTaskHandle;
+import org.zanata.model.HTextFlowTarget;
+import org.zanata.test.DBUnitDataSetRunner;
+import org.zanata.test.rule.DataSetOperation;
+import org.zanata.test.rule.JpaRule;
+
+/**
+ * Indexes the ten text flow targets of TranslationMemoryData (ids 60 to 65
+ * and 100 to 103) in ranges of two ids.
+ */
+public class PartitionedIndexerJpaTest {
+    @ClassRule
+    @Rule
+    public static JpaRule jpaRule = new JpaRule();
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static final int RANGE_SIZE = 2;
+    private static final int TARGET_COUNT = 10;
+
+    private ReindexCheckpoints checkpoints;
+    private AsyncTaskHandle<Void> handle;
+
+    @Before
+    public void setUp() throws Exception {
+        new DBUnitDataSetRunner(jpaRule.getEntityManager())
+                .runDataSetOperations(
+                        new DataSetOperation(
+                                "org/zanata/test/model/ClearAllTables.dbunit.xml",
+                                DatabaseOperation.CLEAN_INSERT),
+                        new DataSetOperation(
+                                "org/zanata/test/model/LocalesData.dbunit.xml",
+                                DatabaseOperation.CLEAN_INSERT),
+                        new DataSetOperation(
+                                "org/zanata/test/model/TranslationMemoryData.dbunit.xml",
+                                DatabaseOperation.CLEAN_INSERT));
+        // the indexer reads through entity managers of its own
+        commit();
+        purgeIndex();
+        checkpoints = new ReindexCheckpoints(
+                new File(folder.getRoot(), ReindexCheckpoints.FILE_NAME)
+                        .toPath());
+        handle = new AsyncTaskHandle<>();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        new DBUnitDataSetRunner(jpaRule.getEntityManager())
+                .runDataSetOperations(new DataSetOperation(
+                        "org/zanata/test/model/ClearAllTables.dbunit.xml",
+                        DatabaseOperation.CLEAN_INSERT));
+        commit();
+        purgeIndex();
+    }
+
+    private static void commit() {
+        EntityManager em = jpaRule.getEntityManager();
+        em.getTransaction().commit();
+        em.getTransaction().begin();
+    }
+
+    private static void purgeIndex() {
+        EntityManager em =
+                jpaRule.getEntityManagerFactory().createEntityManager();
+        try {
+            em.getTransaction().begin();
+            FullTextSession session =
+                    Search.getFullTextSession(em.unwrap(Session.class));
+            session.purgeAll(HTextFlowTarget.class);
+            session.flushToIndexes();
+            em.getTransaction().commit();
+        } finally {
+            em.close();
+        }
+    }
+
+    private static int indexedCount() {
+        EntityManager em =
+                jpaRule.getEntityManagerFactory().createEntityManager();
+        try {
+            FullTextSession session =
+                    Search.getFullTextSession(em.unwrap(Session.class));
+            return session.createFullTextQuery(new MatchAllDocsQuery(),
+                    HTextFlowTarget.class).getResultSize();
+        } finally {
+            em.close();
+        }
+    }
+
+    private PartitionedIndexer<HTextFlowTarget> indexer(
+            ReindexCheckpoints checkpoints, AsyncTaskHandle<?> handle,
+            int threads) {
+        return new PartitionedIndexer<>(HTextFlowTarget.class,
+                jpaRule.getEntityManagerFactory(), checkpoints, handle,
+                threads, RANGE_SIZE);
+    }
+
+    private int entityCount(PartitionedIndexer<?> indexer) {
+        return indexer.getEntityCount(
+                Search.getFullTextSession(jpaRule.getSession()));
+    }
+
+    @Test
+    public void indexesAllRanges() throws Exception {
+        PartitionedIndexer<HTextFlowTarget> indexer =
+                indexer(checkpoints, handle, 2);
+        assertThat(entityCount(indexer)).isEqualTo(TARGET_COUNT);
+
+        indexer.index();
+
+        assertThat(handle.getCurrentProgress()).isEqualTo(TARGET_COUNT);
+        assertThat(indexedCount()).isEqualTo(TARGET_COUNT);
+        assertThat(checkpoints.get(HTextFlowTarget.class).isPresent())
+                .describedAs("checkpoint of a finished reindex").isFalse();
+    }
+
+    @Test
+    public void resumesAfterCheckpoint() throws Exception {
+        checkpoints.save(HTextFlowTarget.class, 65L);
+        PartitionedIndexer<HTextFlowTarget> indexer =
+                indexer(checkpoints, handle, 2);
+        assertThat(entityCount(indexer)).isEqualTo(4);
+
+        indexer.index();
+
+        assertThat(handle.getCurrentProgress()).isEqualTo(4);
+        assertThat(indexedCount()).isEqualTo(4);
+        assertThat(checkpoints.get(HTextFlowTarget.class).isPresent())
+                .isFalse();
+    }
+
+    @Test
+    public void keepsCheckpointOfLastContiguousRangeOnFailure()
+            throws Exception {
+        ReindexCheckpoints failingCheckpoints = spy(checkpoints);
+        doCallRealMethod().doThrow(new IllegalStateException("disk full"))
+                .when(failingCheckpoints)
+                .save(eq(HTextFlowTarget.class), anyLong());
+
+        try {
+            indexer(failingCheckpoints, handle, 1).index();
+            throw new AssertionError("expected ExecutionException");
+        } catch (ExecutionException e) {
+            assertThat(e.getCause()).hasMessage("disk full");
+        }
+        // only the first range (ids 60 and 61) was recorded
+        assertThat(checkpoints.get(HTextFlowTarget.class).get())
+                .isEqualTo(61L);
+
+        AsyncTaskHandle<Void> resumed = new AsyncTaskHandle<>();
+        indexer(checkpoints, resumed, 1).index();
+
+        assertThat(resumed.getCurrentProgress()).isEqualTo(TARGET_COUNT - 2);
+        assertThat(indexedCount()).isEqualTo(TARGET_COUNT);
+        assertThat(checkpoints.get(HTextFlowTarget.class).isPresent())
+                .isFalse();
+    }
+
+    @Test
+    public void stopsAndKeepsCheckpointWhenCancelled() throws Exception {
+        AsyncTaskHandle<?> cancelledHandle = mock(AsyncTaskHandle.class);
+        // cancelled once the first range has been submitted
+        when(cancelledHandle.isCancelled()).thenReturn(false, true);
+
+        indexer(checkpoints, cancelledHandle, 1).index();
+
+        assertThat(indexedCount()).isEqualTo(2);
+        assertThat(checkpoints.get(HTextFlowTarget.class).get())
+                .isEqualTo(61L);
+    }
+}
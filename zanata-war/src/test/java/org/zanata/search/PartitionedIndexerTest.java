@@ -0,0 +1,48 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+import org.zanata.search.PartitionedIndexer.CompletedRanges;
+
+public class PartitionedIndexerTest {
+
+    @Test
+    public void contiguousRangesAdvanceInOrder() {
+        CompletedRanges ranges = new CompletedRanges();
+        assertThat(ranges.markDone(0)).isEqualTo(1);
+        assertThat(ranges.markDone(1)).isEqualTo(2);
+    }
+
+    @Test
+    public void outOfOrderCompletionWaitsForGaps() {
+        CompletedRanges ranges = new CompletedRanges();
+        assertThat(ranges.markDone(2)).isEqualTo(0);
+        assertThat(ranges.markDone(1)).isEqualTo(0);
+        assertThat(ranges.markDone(4)).isEqualTo(0);
+        // filling the gap releases everything up to the next gap
+        assertThat(ranges.markDone(0)).isEqualTo(3);
+        assertThat(ranges.getContiguous()).isEqualTo(3);
+        assertThat(ranges.markDone(3)).isEqualTo(5);
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.nio.file.Path;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.zanata.model.HAccount;
+import org.zanata.model.HTextFlowTarget;
+
+import com.google.common.base.Optional;
+
+public class ReindexCheckpointsTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path file;
+
+    @Before
+    public void setUp() throws Exception {
+        file = new File(folder.getRoot(), ReindexCheckpoints.FILE_NAME)
+                .toPath();
+    }
+
+    @Test
+    public void noCheckpointByDefault() {
+        ReindexCheckpoints checkpoints = new ReindexCheckpoints(file);
+        assertThat(checkpoints.get(HTextFlowTarget.class).isPresent())
+                .isFalse();
+    }
+
+    @Test
+    public void checkpointSurvivesRestart() {
+        new ReindexCheckpoints(file).save(HTextFlowTarget.class, 1999L);
+
+        ReindexCheckpoints afterRestart = new ReindexCheckpoints(file);
+        assertThat(afterRestart.get(HTextFlowTarget.class))
+                .isEqualTo(Optional.of(1999L));
+        assertThat(afterRestart.get(HAccount.class).isPresent()).isFalse();
+    }
+
+    @Test
+    public void removeOnlyAffectsOneClass() {
+        ReindexCheckpoints checkpoints = new ReindexCheckpoints(file);
+        checkpoints.save(HTextFlowTarget.class, 10L);
+        checkpoints.save(HAccount.class, 20L);
+
+        checkpoints.remove(HTextFlowTarget.class);
+
+        assertThat(checkpoints.get(HTextFlowTarget.class).isPresent())
+                .isFalse();
+        assertThat(checkpoints.get(HAccount.class))
+                .isEqualTo(Optional.of(20L));
+    }
+
+    @Test
+    public void nothingIsRememberedWithoutAFile() {
+        ReindexCheckpoints checkpoints = new ReindexCheckpoints(null);
+        checkpoints.save(HTextFlowTarget.class, 10L);
+        assertThat(checkpoints.get(HTextFlowTarget.class).isPresent())
+                .isFalse();
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.search;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.util.Version;
+import org.junit.Test;
+import org.zanata.hibernate.search.DefaultAnalyzer;
+import org.zanata.hibernate.search.UnigramAnalyzer;
+
+import com.google.common.base.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SubstringCandidateQueryTest {
+    private static final String FIELD = "textFlow.content-nocase0";
+    private static final String[] FIELDS = { FIELD };
+
+    private final Analyzer defaultAnalyzer =
+            new DefaultAnalyzer(Version.LUCENE_36);
+    private final Analyzer unigramAnalyzer =
+            new UnigramAnalyzer(Version.LUCENE_36);
+
+    @Test
+    public void requiresWholeWordsAndPrefixOfLastWord() {
+        Optional<Query> query = SubstringCandidateQuery.build(
+                "lo Wonderful Wor", FIELDS, defaultAnalyzer, false);
+
+        assertThat(query.isPresent()).isTrue();
+        String queryString = query.get().toString();
+        assertThat(queryString).contains("+" + FIELD + ":wonderful");
+        assertThat(queryString).contains("+" + FIELD + ":wor*");
+        assertThat(queryString).doesNotContain(FIELD + ":lo");
+    }
+
+    @Test
+    public void singleWordCanBePartOfAnyWord() {
+        assertThat(SubstringCandidateQuery.build("file", FIELDS,
+                defaultAnalyzer, false).isPresent()).isFalse();
+    }
+
+    @Test
+    public void lastWordMayEndAnywhere() {
+        Optional<Query> query = SubstringCandidateQuery.build("open fi",
+                FIELDS, defaultAnalyzer, false);
+
+        assertThat(query.get().toString()).isEqualTo(
+                "(+" + FIELD + ":fi*)");
+    }
+
+    @Test
+    public void trailingWhitespaceDoesNotMakeAWholeWord() {
+        // "file " could be the end of "profile "
+        assertThat(SubstringCandidateQuery.build("file ", FIELDS,
+                defaultAnalyzer, false).isPresent()).isFalse();
+    }
+
+    @Test
+    public void ignoresShortOrNonLetterPrefixes() {
+        assertThat(SubstringCandidateQuery.build("open f", FIELDS,
+                defaultAnalyzer, false).isPresent()).isFalse();
+        assertThat(SubstringCandidateQuery.build("open 1.5", FIELDS,
+                defaultAnalyzer, false).isPresent()).isFalse();
+    }
+
+    @Test
+    public void unigramsAreAlwaysWhole() {
+        Optional<Query> query = SubstringCandidateQuery.build("中文", FIELDS,
+                unigramAnalyzer, true);
+
+        String queryString = query.get().toString();
+        assertThat(queryString).contains("+" + FIELD + ":中");
+        assertThat(queryString).contains("+" + FIELD + ":文");
+    }
+
+    @Test
+    public void matchesInAnyPluralForm() {
+        String field1 = "textFlow.content-nocase1";
+        Optional<Query> query = SubstringCandidateQuery.build("a file b",
+                new String[] { FIELD, field1 }, defaultAnalyzer, false);
+
+        assertThat(query.get().toString()).isEqualTo(
+                "(+" + FIELD + ":file) (+" + field1 + ":file)");
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.search;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TextMatcherTest {
+
+    @Test
+    public void findsEveryOccurrenceIgnoringCase() {
+        TextMatcher matcher = new TextMatcher("file", false);
+
+        assertThat(matcher.findMatches(
+                ImmutableList.of("File or file", "no match", "a FILE")))
+                .containsExactly(new TextMatcher.Match(0, 0, 4),
+                        new TextMatcher.Match(0, 8, 12),
+                        new TextMatcher.Match(2, 2, 6));
+    }
+
+    @Test
+    public void caseSensitiveMatch() {
+        TextMatcher matcher = new TextMatcher("File", true);
+
+        assertThat(matcher.findMatches(ImmutableList.of("File or file")))
+                .containsExactly(new TextMatcher.Match(0, 0, 4));
+    }
+
+    @Test
+    public void matchesDoNotOverlap() {
+        TextMatcher matcher = new TextMatcher("aa", false);
+
+        assertThat(matcher.findMatches(ImmutableList.of("aaaaa")))
+                .containsExactly(new TextMatcher.Match(0, 0, 2),
+                        new TextMatcher.Match(0, 2, 4));
+    }
+
+    @Test
+    public void whitespaceIsPartOfTheSearch() {
+        TextMatcher matcher = new TextMatcher(" file", false);
+
+        assertThat(matcher.findMatches(ImmutableList.of("file", "open file")))
+                .containsExactly(new TextMatcher.Match(1, 4, 9));
+    }
+
+    @Test
+    public void skipsMissingContents() {
+        TextMatcher matcher = new TextMatcher("file", false);
+
+        assertThat(matcher.findMatches(Arrays.asList(null, "file")))
+                .containsExactly(new TextMatcher.Match(1, 0, 4));
+    }
+
+    @Test
+    public void emptySearchMatchesNothing() {
+        TextMatcher matcher = new TextMatcher("", false);
+
+        assertThat(matcher.findMatches(ImmutableList.of("file"))).isEmpty();
+    }
+}
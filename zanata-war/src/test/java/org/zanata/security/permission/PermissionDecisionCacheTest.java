@@ -0,0 +1,107 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.security.permission;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.zanata.common.LocaleId;
+import org.zanata.model.HProject;
+import org.zanata.model.HProjectIteration;
+import org.zanata.security.permission.PermissionDecisionCache.DecisionKey;
+
+import com.google.common.base.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PermissionDecisionCacheTest {
+    private PermissionDecisionCache cache;
+    private HProject project;
+
+    @Before
+    public void setUp() {
+        cache = new PermissionDecisionRequestCache();
+        project = new HProject();
+        project.setId(1L);
+    }
+
+    @Test
+    public void remembersDecisionForSameGeneration() {
+        DecisionKey key = key("bob", "update", project).get();
+        cache.put(key, true, 0);
+
+        assertThat(cache.get(key, 0)).isTrue();
+        assertThat(cache.get(key("bob", "update", project).get(), 0)).isTrue();
+    }
+
+    @Test
+    public void forgetsDecisionForLaterGeneration() {
+        DecisionKey key = key("bob", "update", project).get();
+        cache.put(key, true, 0);
+
+        assertThat(cache.get(key, 1)).isNull();
+    }
+
+    @Test
+    public void keyDependsOnPrincipalActionAndTargets() {
+        HProject otherProject = new HProject();
+        otherProject.setId(2L);
+        HProjectIteration iteration = new HProjectIteration();
+        iteration.setId(1L);
+        cache.put(key("bob", "update", project).get(), true, 0);
+
+        assertThat(cache.get(key("alice", "update", project).get(), 0))
+                .isNull();
+        assertThat(cache.get(key("bob", "delete", project).get(), 0))
+                .isNull();
+        assertThat(cache.get(key("bob", "update", otherProject).get(), 0))
+                .isNull();
+        // same id, different entity type
+        assertThat(cache.get(key("bob", "update", iteration).get(), 0))
+                .isNull();
+    }
+
+    @Test
+    public void valueTargetsCanBeCached() {
+        assertThat(key("bob", "translate", new LocaleId("de"), project,
+                "a string", null).isPresent()).isTrue();
+    }
+
+    @Test
+    public void transientEntitiesAreNotCached() {
+        assertThat(key("bob", "insert", new HProject()).isPresent()).isFalse();
+    }
+
+    @Test
+    public void unknownTargetsAreNotCached() {
+        assertThat(key("bob", "any", new StringBuilder()).isPresent())
+                .isFalse();
+    }
+
+    @Test
+    public void sessionCacheIsDisabledByDefault() {
+        assertThat(new PermissionDecisionSessionCache().isEnabled()).isFalse();
+    }
+
+    private static Optional<DecisionKey> key(String principal, String action,
+            Object... targets) {
+        return PermissionDecisionCache.keyFor(principal, action, targets);
+    }
+}
@@ -36,6 +36,7 @@ import org.zanata.security.SecurityFunctions;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -325,6 +326,18 @@ public class PermissionEvaluatorTest {
                 .isFalse();
     }
 
+    @Test
+    public void grantersAreWorkedOutOncePerTargetTypes() {
+        List<PermissionGranter> granters = complexPermissionEvaluator
+                .getGranters("project-action", new Object[] { new HProject() });
+        assertThat(granters).isNotEmpty();
+        assertThat(complexPermissionEvaluator.getGranters("project-action",
+                new Object[] { new HProject() })).isSameAs(granters);
+        assertThat(complexPermissionEvaluator.getGranters("project-action",
+                new Object[] { new HProjectIteration() }))
+                .isNotSameAs(granters);
+    }
+
     @Test
     public void exceptionInGranterIsPropagated() {
         try {
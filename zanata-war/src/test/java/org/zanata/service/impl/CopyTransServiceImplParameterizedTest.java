@@ -31,7 +31,9 @@ import org.infinispan.manager.CacheContainer;
 import org.jglue.cdiunit.AdditionalClasses;
 import org.jglue.cdiunit.InRequestScope;
 import org.jglue.cdiunit.deltaspike.SupportDeltaspikeCore;
+import org.junit.AfterClass;
 import org.junit.Before;
+import org.junit.BeforeClass;
 import org.junit.ClassRule;
 import org.junit.Rule;
 import org.junit.Test;
@@ -42,6 +44,7 @@ import org.zanata.SlowTest;
 import org.zanata.async.handle.CopyTransTaskHandle;
 import org.zanata.cache.InfinispanTestCacheContainer;
 import org.zanata.cdi.TestTransaction;
+import org.zanata.config.AsyncConfig;
 import org.zanata.common.ContentState;
 import org.zanata.common.ContentType;
 import org.zanata.common.LocaleId;
@@ -103,6 +106,7 @@ import static org.zanata.test.rule.FunctionalTestRule.reentrant;
         TranslationMemoryServiceImpl.class,
         VersionStateCacheImpl.class,
         TranslationStateCacheImpl.class,
+        TranslatedDocumentStateCacheImpl.class,
         ValidationServiceImpl.class,
         TransactionUtil.class
 })
@@ -157,6 +161,17 @@ public class CopyTransServiceImplParameterizedTest {
         return accountDAO.getByUsername("demo");
     }
 
+    @BeforeClass
+    public static void runSequentially() {
+        // parallel units would need real async contexts
+        System.setProperty(AsyncConfig.COPY_TRANS_THREAD_POOL_SIZE, "1");
+    }
+
+    @AfterClass
+    public static void clearThreadPoolSize() {
+        System.clearProperty(AsyncConfig.COPY_TRANS_THREAD_POOL_SIZE);
+    }
+
     @Before
     public void prepareDBUnitOperations() {
         DBUnitDataSetRunner runner =
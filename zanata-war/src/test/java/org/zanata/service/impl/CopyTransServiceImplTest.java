@@ -74,6 +74,7 @@ import static org.zanata.model.HCopyTransOptions.ConditionRuleAction.IGNORE;
         TranslationMemoryServiceImpl.class,
         VersionStateCacheImpl.class,
         TranslationStateCacheImpl.class,
+        TranslatedDocumentStateCacheImpl.class,
         ValidationServiceImpl.class
 })
 public class CopyTransServiceImplTest extends ZanataDbunitJpaTest {
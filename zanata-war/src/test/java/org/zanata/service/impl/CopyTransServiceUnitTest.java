@@ -20,9 +20,13 @@
  */
 package org.zanata.service.impl;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyInt;
 import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.anyMapOf;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.zanata.model.HCopyTransOptions.ConditionRuleAction.DOWNGRADE_TO_FUZZY;
@@ -30,15 +34,20 @@ import static org.zanata.model.HCopyTransOptions.ConditionRuleAction.IGNORE;
 import static org.zanata.model.HCopyTransOptions.ConditionRuleAction.REJECT;
 
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Callable;
 
+import org.hibernate.ScrollableResults;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.zanata.async.handle.CopyTransTaskHandle;
 import org.zanata.common.LocaleId;
 import org.zanata.dao.DocumentDAO;
+import org.zanata.dao.HTextFlowTargetStreamingDAO;
 import org.zanata.dao.ProjectDAO;
 import org.zanata.dao.TextFlowDAO;
 import org.zanata.dao.TextFlowTargetDAO;
@@ -49,11 +58,15 @@ import org.zanata.model.HProject;
 import org.zanata.model.HProjectIteration;
 import org.zanata.model.HTextFlow;
 import org.zanata.service.LocaleService;
+import org.zanata.service.TranslatedDocumentStateCache;
 import org.zanata.service.TranslationFinder;
 import org.zanata.service.TranslationStateCache;
 import org.zanata.service.ValidationService;
 import org.zanata.service.VersionStateCache;
 
+import com.google.common.base.Optional;
+import com.google.common.collect.Lists;
+
 
 /**
  * @author Sean Flanigan <a href="mailto:sflaniga@redhat.com">sflaniga@redhat.com</a>
@@ -82,6 +95,12 @@ public class CopyTransServiceUnitTest {
     TranslationStateCache translationStateCacheImpl;
     @Mock
     TextFlowDAO textFlowDAO;
+    @Mock
+    HTextFlowTargetStreamingDAO textFlowTargetStreamingDAO;
+    @Mock
+    CopyTransExecutor copyTransExecutor;
+    @Mock
+    TranslatedDocumentStateCache translatedDocumentStateCache;
 
     @Before
     public void initializeSeam() {
@@ -103,7 +122,9 @@ public class CopyTransServiceUnitTest {
                 new CopyTransServiceImpl(
                         localeServiceImpl, projectDAO, documentDAO,
                         copyTransWorkFactory, textFlowTargetDAO,
-                        translationStateCacheImpl, textFlowDAO);
+                        translationStateCacheImpl, textFlowDAO,
+                        textFlowTargetStreamingDAO, copyTransExecutor,
+                        translatedDocumentStateCache);
 
         HCopyTransOptions projOptions = new HCopyTransOptions(IGNORE, IGNORE, IGNORE);
 
@@ -141,6 +162,92 @@ public class CopyTransServiceUnitTest {
         //verify(copyTransWork).call();
     }
 
+    @Test
+    public void iteratesCandidatesOnlyWhenFewAndBounded() {
+        // unbounded: the options don't limit the candidates
+        assertThat(CopyTransServiceImpl.shouldIterateCandidates(-1, 1000))
+                .isFalse();
+        assertThat(CopyTransServiceImpl.shouldIterateCandidates(10, 1000))
+                .isTrue();
+        assertThat(CopyTransServiceImpl.shouldIterateCandidates(100000, 1000))
+                .isFalse();
+        assertThat(CopyTransServiceImpl.shouldIterateCandidates(1000000,
+                1000000)).isFalse();
+    }
+
+    @Test
+    public void reportsProgressAfterEachBatchOfCandidateMatches()
+            throws Exception {
+        CopyTransServiceImpl ctService =
+                new CopyTransServiceImpl(
+                        localeServiceImpl, projectDAO, documentDAO,
+                        copyTransWorkFactory, textFlowTargetDAO,
+                        translationStateCacheImpl, textFlowDAO,
+                        textFlowTargetStreamingDAO, copyTransExecutor,
+                        translatedDocumentStateCache);
+        HProject proj = createProject("projslug", 123L,
+                new HCopyTransOptions(IGNORE, IGNORE, IGNORE));
+        HProjectIteration iter = createIter("iterslug", proj, false);
+        HDocument doc = createDoc(iter, Lists.<HTextFlow> newArrayList());
+        doc.setDocId("doc");
+        doc.setLocale(new HLocale(LocaleId.EN_US));
+        HLocale de = new HLocale(LocaleId.DE);
+
+        // 50 text flows: the first 45 have a match, the last 5 don't
+        List<Object[]> candidates = Lists.newArrayList();
+        for (int i = 0; i < 50; i++) {
+            HTextFlow textFlow = new HTextFlow(doc, "res" + i, "content " + i);
+            textFlow.setId((long) i);
+            doc.getTextFlows().add(textFlow);
+            if (i < 45) {
+                candidates.add(new Object[] { 1000L + i, 1000L + i,
+                        textFlow.getContentHash(), "res" + i, "doc", 123L,
+                        null });
+            }
+        }
+        when(documentDAO.findById(doc.getId())).thenReturn(doc);
+        when(textFlowTargetDAO.getTranslationCandidateCountWithDocIdAndLocale(
+                doc, de)).thenReturn((long) candidates.size());
+        ScrollableResults results = scroll(candidates);
+        when(textFlowTargetStreamingDAO.getCopyTransCandidates(doc, de, true,
+                false)).thenReturn(results);
+
+        CopyTransTaskHandle handle = new CopyTransTaskHandle();
+        List<Integer> progressBeforeBatches = Lists.newArrayList();
+        when(copyTransWorkFactory.runCopyTransForMatchesInNewTx(
+                any(HLocale.class), any(HCopyTransOptions.class), anyBoolean(),
+                anyMapOf(Long.class, Long.class))).thenAnswer(invocation -> {
+                    progressBeforeBatches.add(handle.getCurrentProgress());
+                    return ((Map<?, ?>) invocation.getArguments()[3]).size();
+                });
+
+        ctService.copyTransForDocumentLocale(doc, de,
+                new HCopyTransOptions(IGNORE, REJECT, IGNORE),
+                Optional.of(handle));
+
+        assertThat(progressBeforeBatches).containsExactly(0, 20, 40);
+        assertThat(handle.getCurrentProgress()).isEqualTo(50);
+    }
+
+    /**
+     * @return results which scroll through the given rows
+     */
+    private static ScrollableResults scroll(List<Object[]> rows) {
+        Iterator<Object[]> iterator = rows.iterator();
+        Object[][] current = new Object[1][];
+        ScrollableResults results = mock(ScrollableResults.class);
+        when(results.next()).thenAnswer(invocation -> {
+            if (!iterator.hasNext()) {
+                return false;
+            }
+            current[0] = iterator.next();
+            return true;
+        });
+        when(results.get(anyInt())).thenAnswer(
+                invocation -> current[0][(Integer) invocation.getArguments()[0]]);
+        return results;
+    }
+
     private HDocument createDoc(HProjectIteration iter,
             List<HTextFlow> textFlows) {
         HDocument doc = new HDocument();
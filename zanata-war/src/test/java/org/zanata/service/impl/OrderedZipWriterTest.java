@@ -0,0 +1,109 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+import com.google.common.io.ByteStreams;
+
+public class OrderedZipWriterTest {
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static List<String> readEntries(byte[] zip) throws IOException {
+        List<String> entries = Lists.newArrayList();
+        try (ZipInputStream in =
+                new ZipInputStream(new ByteArrayInputStream(zip))) {
+            ZipEntry entry;
+            while ((entry = in.getNextEntry()) != null) {
+                entries.add(entry.getName() + "="
+                        + new String(ByteStreams.toByteArray(in),
+                                StandardCharsets.UTF_8));
+            }
+        }
+        return entries;
+    }
+
+    @Test
+    public void writesEntriesInOrderAdded() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ZipOutputStream zipOutput = new ZipOutputStream(out);
+        OrderedZipWriter writer = new OrderedZipWriter(zipOutput, 4);
+        CompletableFuture<byte[]> first = new CompletableFuture<>();
+        CompletableFuture<byte[]> second = new CompletableFuture<>();
+
+        writer.add("a.po", first);
+        writer.add("b.po", second);
+        // the second document finishes rendering first
+        second.complete(bytes("b"));
+        first.complete(bytes("a"));
+        writer.finish();
+        zipOutput.close();
+
+        assertThat(readEntries(out.toByteArray())).containsExactly("a.po=a",
+                "b.po=b");
+    }
+
+    @Test
+    public void writesOldestEntryWhenTooManyArePending() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ZipOutputStream zipOutput = new ZipOutputStream(out);
+        OrderedZipWriter writer = new OrderedZipWriter(zipOutput, 1);
+        CompletableFuture<byte[]> first =
+                CompletableFuture.completedFuture(bytes("a"));
+        CompletableFuture<byte[]> second = new CompletableFuture<>();
+
+        writer.add("a.po", first);
+        writer.add("b.po", second);
+        zipOutput.close();
+
+        // only the first entry has been written; the second is still pending
+        assertThat(readEntries(out.toByteArray())).containsExactly("a.po=a");
+    }
+
+    @Test
+    public void abortCancelsPendingEntries() throws Exception {
+        ZipOutputStream zipOutput =
+                new ZipOutputStream(new ByteArrayOutputStream());
+        OrderedZipWriter writer = new OrderedZipWriter(zipOutput, 4);
+        CompletableFuture<byte[]> pending = new CompletableFuture<>();
+        writer.add("a.po", pending);
+
+        writer.abort();
+
+        assertThat(pending.isCancelled()).isTrue();
+    }
+}
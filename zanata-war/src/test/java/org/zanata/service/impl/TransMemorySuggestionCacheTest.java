@@ -0,0 +1,108 @@
+package org.zanata.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.zanata.common.ContentState;
+import org.zanata.common.LocaleId;
+import org.zanata.events.DocumentLocaleKey;
+import org.zanata.events.TextFlowTargetStateEvent;
+import org.zanata.webtrans.shared.model.TransMemoryQuery;
+import org.zanata.webtrans.shared.model.TransMemoryResultItem;
+import org.zanata.webtrans.shared.rpc.HasSearchType;
+
+import com.google.common.collect.Lists;
+
+public class TransMemorySuggestionCacheTest {
+
+    private TransMemorySuggestionCache cache;
+    private CountingLoader loader;
+    private TransMemoryQuery query;
+
+    @Before
+    public void setUp() {
+        cache = new TransMemorySuggestionCache(1024 * 1024, 10);
+        loader = new CountingLoader();
+        query = new TransMemoryQuery("Hello world",
+                HasSearchType.SearchType.FUZZY);
+    }
+
+    @Test
+    public void secondLookupIsAHit() {
+        cache.getResults(LocaleId.DE, LocaleId.EN_US, query, loader);
+        List<TransMemoryResultItem> results =
+                cache.getResults(LocaleId.DE, LocaleId.EN_US,
+                        new TransMemoryQuery("Hello world",
+                                HasSearchType.SearchType.FUZZY), loader);
+
+        assertThat(results).hasSize(1);
+        assertThat(loader.calls.get()).isEqualTo(1);
+        assertThat(cache.getHitCount()).isEqualTo(1);
+        assertThat(cache.getMissCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void differentTargetLocaleIsAMiss() {
+        cache.getResults(LocaleId.DE, LocaleId.EN_US, query, loader);
+        cache.getResults(LocaleId.FR, LocaleId.EN_US, query, loader);
+
+        assertThat(loader.calls.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void translationInSameLocaleInvalidates() {
+        cache.getResults(LocaleId.DE, LocaleId.EN_US, query, loader);
+        cache.getResults(LocaleId.FR, LocaleId.EN_US, query, loader);
+
+        cache.textFlowStateUpdated(stateEvent(LocaleId.DE));
+        cache.getResults(LocaleId.DE, LocaleId.EN_US, query, loader);
+        cache.getResults(LocaleId.FR, LocaleId.EN_US, query, loader);
+
+        // only the German entry is reloaded
+        assertThat(loader.calls.get()).isEqualTo(3);
+    }
+
+    @Test
+    public void invalidateAllReloadsEverything() {
+        cache.getResults(LocaleId.DE, LocaleId.EN_US, query, loader);
+        cache.invalidateAll();
+        cache.getResults(LocaleId.DE, LocaleId.EN_US, query, loader);
+
+        assertThat(loader.calls.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void callersCannotModifyCachedResults() {
+        cache.getResults(LocaleId.DE, LocaleId.EN_US, query, loader).clear();
+
+        assertThat(cache.getResults(LocaleId.DE, LocaleId.EN_US, query,
+                loader)).hasSize(1);
+    }
+
+    private static TextFlowTargetStateEvent stateEvent(LocaleId localeId) {
+        return new TextFlowTargetStateEvent(
+                new DocumentLocaleKey(1L, localeId), 1L, null,
+                new TextFlowTargetStateEvent.TextFlowTargetStateChange(1L, 1L,
+                        ContentState.Translated, ContentState.New));
+    }
+
+    private static class CountingLoader
+            implements Callable<List<TransMemoryResultItem>> {
+        private final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public List<TransMemoryResultItem> call() {
+            calls.incrementAndGet();
+            return Lists.newArrayList(new TransMemoryResultItem(
+                    Lists.newArrayList("Hello world"),
+                    Lists.newArrayList("Hallo Welt"),
+                    TransMemoryResultItem.MatchType.TranslatedInternal, 1.0f,
+                    100));
+        }
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.anyCollectionOf;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.Date;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.zanata.cache.InfinispanTestCacheContainer;
+import org.zanata.common.ContentState;
+import org.zanata.common.LocaleId;
+import org.zanata.dao.TextFlowTargetDAO;
+import org.zanata.events.DocumentLocaleKey;
+import org.zanata.events.DocumentUploadedEvent;
+import org.zanata.events.TextFlowTargetStateEvent;
+import org.zanata.model.HDocument;
+import org.zanata.model.TestFixture;
+
+import com.google.common.cache.CacheLoader;
+
+public class TranslatedDocumentStateCacheImplTest {
+    private static final LocaleId LOCALE = LocaleId.DE;
+
+    private TranslatedDocumentStateCacheImpl cache;
+
+    @Mock
+    private CacheLoader<DocumentLocaleKey, Date> lastChangedLoader;
+    @Mock
+    private TextFlowTargetDAO textFlowTargetDAO;
+
+    private HDocument document;
+    private DocumentLocaleKey key;
+
+    @Before
+    public void beforeMethod() {
+        MockitoAnnotations.initMocks(this);
+        cache = new TranslatedDocumentStateCacheImpl(lastChangedLoader,
+                textFlowTargetDAO);
+        cache.setCacheContainer(new InfinispanTestCacheContainer());
+        cache.create();
+        document = TestFixture.setId(1L, new HDocument());
+        document.setLastChanged(new Date(1000));
+        key = new DocumentLocaleKey(document.getId(), LOCALE);
+    }
+
+    private static TextFlowTargetStateEvent stateEvent(DocumentLocaleKey key,
+            Long targetId) {
+        return new TextFlowTargetStateEvent(key, 1L, null,
+                new TextFlowTargetStateEvent.TextFlowTargetStateChange(1L,
+                        targetId, ContentState.Translated,
+                        ContentState.New));
+    }
+
+    @Test
+    public void loadsWatermarkOnce() throws Exception {
+        when(lastChangedLoader.load(key)).thenReturn(new Date(2000));
+
+        assertThat(cache.getLastChanged(document, LOCALE).getTime())
+                .isEqualTo(2000);
+        assertThat(cache.getLastChanged(document, LOCALE).getTime())
+                .isEqualTo(2000);
+
+        verify(lastChangedLoader).load(key);
+    }
+
+    @Test
+    public void documentChangeIsAppliedWhenReading() throws Exception {
+        when(lastChangedLoader.load(key)).thenReturn(new Date(2000));
+        cache.getLastChanged(document, LOCALE);
+
+        document.setLastChanged(new Date(3000));
+
+        assertThat(cache.getLastChanged(document, LOCALE).getTime())
+                .isEqualTo(3000);
+        verify(lastChangedLoader).load(key);
+    }
+
+    @Test
+    public void targetChangesMoveWatermarkForward() throws Exception {
+        when(lastChangedLoader.load(key)).thenReturn(new Date(2000));
+        cache.getLastChanged(document, LOCALE);
+        when(textFlowTargetDAO.getLastChanged(anyCollectionOf(Long.class)))
+                .thenReturn(new Date(5000));
+
+        cache.textFlowStateUpdated(stateEvent(key, 10L));
+
+        assertThat(cache.getLastChanged(document, LOCALE).getTime())
+                .isEqualTo(5000);
+        verify(lastChangedLoader).load(key);
+    }
+
+    @Test
+    public void watermarkNeverMovesBackwards() throws Exception {
+        when(lastChangedLoader.load(key)).thenReturn(new Date(6000));
+        cache.getLastChanged(document, LOCALE);
+        when(textFlowTargetDAO.getLastChanged(anyCollectionOf(Long.class)))
+                .thenReturn(new Date(5000));
+
+        cache.textFlowStateUpdated(stateEvent(key, 10L));
+
+        assertThat(cache.getLastChanged(document, LOCALE).getTime())
+                .isEqualTo(6000);
+    }
+
+    @Test
+    public void targetChangesAreIgnoredIfNotCached() {
+        cache.textFlowStateUpdated(stateEvent(key, 10L));
+
+        verifyZeroInteractions(textFlowTargetDAO);
+    }
+
+    @Test
+    public void translationUploadReloadsWatermark() throws Exception {
+        when(lastChangedLoader.load(key)).thenReturn(new Date(2000),
+                new Date(7000));
+        cache.getLastChanged(document, LOCALE);
+
+        cache.documentUploaded(new DocumentUploadedEvent(1L,
+                document.getId(), false, LOCALE));
+
+        assertThat(cache.getLastChanged(document, LOCALE).getTime())
+                .isEqualTo(7000);
+        verify(lastChangedLoader, times(2)).load(key);
+    }
+
+    @Test(timeout = 10000)
+    public void targetChangeDuringLoadIsNotLost() throws Exception {
+        CountDownLatch loadStarted = new CountDownLatch(1);
+        CountDownLatch finishLoad = new CountDownLatch(1);
+        // the load read the targets before the change was committed
+        when(lastChangedLoader.load(key)).thenAnswer(invocation -> {
+            loadStarted.countDown();
+            finishLoad.await();
+            return new Date(2000);
+        });
+        when(textFlowTargetDAO.getLastChanged(anyCollectionOf(Long.class)))
+                .thenReturn(new Date(5000));
+        Thread reader =
+                new Thread(() -> cache.getLastChanged(document, LOCALE));
+        reader.start();
+        loadStarted.await();
+
+        Thread eventThread =
+                new Thread(() -> cache.textFlowStateUpdated(stateEvent(key,
+                        10L)));
+        eventThread.start();
+        while (eventThread.getState() != Thread.State.BLOCKED) {
+            Thread.sleep(10);
+        }
+        finishLoad.countDown();
+        reader.join();
+        eventThread.join();
+
+        assertThat(cache.getLastChanged(document, LOCALE).getTime())
+                .isEqualTo(5000);
+    }
+}
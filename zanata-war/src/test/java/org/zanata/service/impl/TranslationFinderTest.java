@@ -45,6 +45,7 @@ import java.lang.reflect.InvocationTargetException;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import static java.util.Arrays.asList;
@@ -370,6 +371,37 @@ public class TranslationFinderTest {
             checkTargetContents(match.get(), "most recent content");
         }
 
+        @Test
+        @InRequestScope
+        public void testTextFlowTargetDAOBatchMostRecent() {
+            testBatchMostRecentMatch(textFlowTargetDAO);
+        }
+
+        /**
+         * Makes sure that the batch lookup picks the same match as the single
+         * text flow lookup.
+         */
+        private void testBatchMostRecentMatch(TextFlowTargetDAO service) {
+            HProjectIteration version =
+                    projectIterationDAO.getBySlug("same-project", "same-version");
+            assert version != null;
+
+            HDocument hDoc = version.getDocuments().get("/same/document0");
+
+            HTextFlow textFlow = hDoc.getTextFlows().get(0);
+            Map<Long, Map<LocaleId, HTextFlowTarget>> matches =
+                    service.searchBestMatchTransMemory(
+                            hDoc.getTextFlows(),
+                            new HashSet<>(asList(LocaleId.DE)),
+                            hDoc.getSourceLocaleId(), true, true, true);
+            assertThat(matches).containsKey(textFlow.getId());
+            HTextFlowTarget match =
+                    matches.get(textFlow.getId()).get(LocaleId.DE);
+            checkTargetContents(match, "most recent content");
+            assertThat(match.getTextFlow().getId())
+                    .isNotEqualTo(textFlow.getId());
+        }
+
         private void checkTargetContents(HTextFlowTarget target,
                 final String searchString) {
             assertThat(target.getContents()).has(
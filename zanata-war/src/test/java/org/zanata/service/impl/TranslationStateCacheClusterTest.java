@@ -0,0 +1,181 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.zanata.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.global.GlobalConfigurationBuilder;
+import org.infinispan.manager.DefaultCacheManager;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.zanata.common.ContentState;
+import org.zanata.common.LocaleId;
+import org.zanata.events.DocStatsEvent;
+import org.zanata.events.DocumentLocaleKey;
+import org.zanata.ui.model.statistic.WordStatistic;
+import org.zanata.webtrans.shared.model.DocumentStatus;
+import org.zanata.webtrans.shared.model.ValidationId;
+
+import com.google.common.cache.CacheLoader;
+
+/**
+ * Runs two cluster nodes in one JVM, each with its own cache manager and
+ * TranslationStateCacheImpl.
+ */
+public class TranslationStateCacheClusterTest {
+    private static final Long DOC_ID = 100L;
+
+    @Mock
+    private CacheLoader<DocumentLocaleKey, WordStatistic> loader1;
+    @Mock
+    private CacheLoader<DocumentLocaleKey, WordStatistic> loader2;
+    @Mock
+    private CacheLoader<DocumentLocaleKey, DocumentStatus> docStatusLoader;
+    @Mock
+    private CacheLoader<Long, Map<ValidationId, Boolean>> targetValidationLoader;
+
+    private DefaultCacheManager manager1;
+    private DefaultCacheManager manager2;
+    private TranslationStateCacheImpl node1;
+    private TranslationStateCacheImpl node2;
+
+    @Before
+    public void startCluster() throws Exception {
+        MockitoAnnotations.initMocks(this);
+        String clusterName = "zanata-test-" + UUID.randomUUID();
+        manager1 = startCacheManager(clusterName);
+        manager2 = startCacheManager(clusterName);
+        node1 = startNode(manager1, loader1);
+        node2 = startNode(manager2, loader2);
+        long deadline = System.currentTimeMillis() + 10000;
+        while (manager1.getMembers().size() < 2
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertThat(manager1.getMembers()).hasSize(2);
+
+        when(loader1.load(new DocumentLocaleKey(DOC_ID, LocaleId.DE)))
+                .thenReturn(new WordStatistic(0, 0, 10, 0, 0));
+        when(loader2.load(new DocumentLocaleKey(DOC_ID, LocaleId.DE)))
+                .thenReturn(new WordStatistic(0, 0, 10, 0, 0));
+        when(loader2.load(new DocumentLocaleKey(DOC_ID, LocaleId.FR)))
+                .thenReturn(new WordStatistic(0, 0, 10, 0, 0));
+    }
+
+    @After
+    public void stopCluster() {
+        manager2.stop();
+        manager1.stop();
+    }
+
+    @Test
+    public void loadingOnOneNodeKeepsOtherNodesEntries() throws Exception {
+        node1.getDocumentStatistics(DOC_ID, LocaleId.DE);
+        node2.getDocumentStatistics(DOC_ID, LocaleId.DE);
+
+        node1.getDocumentStatistics(DOC_ID, LocaleId.DE);
+        verify(loader1, times(1))
+                .load(new DocumentLocaleKey(DOC_ID, LocaleId.DE));
+    }
+
+    @Test
+    public void deltaOnOneNodeInvalidatesOtherNodes() throws Exception {
+        node1.getDocumentStatistics(DOC_ID, LocaleId.DE);
+        node2.getDocumentStatistics(DOC_ID, LocaleId.DE);
+
+        Map<ContentState, Long> deltas = new HashMap<>();
+        DocStatsEvent.updateContentStateDeltas(deltas,
+                ContentState.Translated, ContentState.New, 4L);
+        node1.docStatsUpdated(new DocStatsEvent(
+                new DocumentLocaleKey(DOC_ID, LocaleId.DE), 1L, deltas, 1L));
+
+        // node1 applied the delta in place
+        assertThat(node1.getDocumentStatistics(DOC_ID, LocaleId.DE)
+                .getTranslated()).isEqualTo(4);
+        verify(loader1, times(1))
+                .load(new DocumentLocaleKey(DOC_ID, LocaleId.DE));
+        // node2 had to reload
+        node2.getDocumentStatistics(DOC_ID, LocaleId.DE);
+        verify(loader2, times(2))
+                .load(new DocumentLocaleKey(DOC_ID, LocaleId.DE));
+    }
+
+    @Test
+    public void clearingDocumentClearsLocalesCachedOnOtherNodes()
+            throws Exception {
+        // only node2 knows about the French statistic
+        node2.getDocumentStatistics(DOC_ID, LocaleId.DE);
+        node2.getDocumentStatistics(DOC_ID, LocaleId.FR);
+
+        node1.clearDocumentStatistics(DOC_ID);
+
+        node2.getDocumentStatistics(DOC_ID, LocaleId.DE);
+        node2.getDocumentStatistics(DOC_ID, LocaleId.FR);
+        verify(loader2, times(2))
+                .load(new DocumentLocaleKey(DOC_ID, LocaleId.DE));
+        verify(loader2, times(2))
+                .load(new DocumentLocaleKey(DOC_ID, LocaleId.FR));
+    }
+
+    private static DefaultCacheManager startCacheManager(String clusterName) {
+        GlobalConfigurationBuilder global =
+                GlobalConfigurationBuilder.defaultClusteredBuilder();
+        global.transport().clusterName(clusterName)
+                .addProperty("configurationFile",
+                        "org/zanata/cache/jgroups-loopback.xml");
+        global.globalJmxStatistics().allowDuplicateDomains(true);
+        // same cache modes as zanata-infinispan-clustered.xml
+        ConfigurationBuilder invalidation = new ConfigurationBuilder();
+        invalidation.clustering().cacheMode(CacheMode.INVALIDATION_SYNC);
+        DefaultCacheManager manager =
+                new DefaultCacheManager(global.build(), invalidation.build(),
+                        false);
+        ConfigurationBuilder replicated = new ConfigurationBuilder();
+        replicated.clustering().cacheMode(CacheMode.REPL_SYNC);
+        manager.defineConfiguration(
+                TranslationStateCacheImpl.DOC_CLEARED_CACHE_NAME,
+                replicated.build());
+        manager.start();
+        return manager;
+    }
+
+    private TranslationStateCacheImpl startNode(DefaultCacheManager manager,
+            CacheLoader<DocumentLocaleKey, WordStatistic> loader) {
+        TranslationStateCacheImpl node =
+                new TranslationStateCacheImpl(loader, docStatusLoader,
+                        targetValidationLoader);
+        node.setCacheContainer(manager);
+        node.create();
+        return node;
+    }
+}
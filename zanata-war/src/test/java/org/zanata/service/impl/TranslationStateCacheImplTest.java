@@ -21,6 +21,8 @@
 package org.zanata.service.impl;
 
 import com.google.common.cache.CacheLoader;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
 import org.apache.deltaspike.core.api.provider.BeanProvider;
 import org.hibernate.Session;
 import org.infinispan.manager.CacheContainer;
@@ -30,12 +32,15 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.zanata.cache.InfinispanTestCacheContainer;
+import org.zanata.common.ContentState;
 import org.zanata.common.LocaleId;
 import org.zanata.dao.DocumentDAO;
 import org.zanata.dao.LocaleDAO;
 import org.zanata.dao.TextFlowDAO;
 import org.zanata.dao.TextFlowTargetDAO;
+import org.zanata.events.DocStatsEvent;
 import org.zanata.events.DocumentLocaleKey;
+import org.zanata.events.TextFlowTargetStateEvent;
 import org.zanata.test.CdiUnitRunner;
 import org.zanata.ui.model.statistic.WordStatistic;
 import org.zanata.util.Zanata;
@@ -44,12 +49,16 @@ import org.zanata.webtrans.shared.model.DocumentStatus;
 import org.zanata.webtrans.shared.model.ValidationId;
 
 import javax.enterprise.inject.Produces;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.equalTo;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -151,4 +160,190 @@ public class TranslationStateCacheImplTest {
                                                        // once
         assertThat(result, equalTo(true));
     }
+
+    @Test
+    public void docStatsUpdateAppliesDeltasWithoutReloading() throws Exception {
+        // Given:
+        DocumentLocaleKey key = new DocumentLocaleKey(100L, LocaleId.DE);
+        when(docStatisticLoader.load(key)).thenReturn(
+                new WordStatistic(0, 0, 10, 0, 0));
+        tsCache.getDocumentStatistics(100L, LocaleId.DE);
+
+        // When:
+        Map<ContentState, Long> deltas = new HashMap<>();
+        DocStatsEvent.updateContentStateDeltas(deltas,
+                ContentState.Translated, ContentState.New, 4L);
+        tsCache.docStatsUpdated(new DocStatsEvent(key, 1L, deltas, 1000L));
+        WordStatistic result = tsCache.getDocumentStatistics(100L, LocaleId.DE);
+
+        // Then:
+        verify(docStatisticLoader).load(key); // only load the value once
+        assertThat(result.getUntranslated(), equalTo(6));
+        assertThat(result.getTranslated(), equalTo(4));
+    }
+
+    @Test
+    public void clearDocumentStatisticsEvictsAllCachedLocales()
+            throws Exception {
+        // Given:
+        DocumentLocaleKey deKey = new DocumentLocaleKey(100L, LocaleId.DE);
+        DocumentLocaleKey frKey = new DocumentLocaleKey(100L, LocaleId.FR);
+        when(docStatisticLoader.load(deKey)).thenReturn(new WordStatistic());
+        when(docStatisticLoader.load(frKey)).thenReturn(new WordStatistic());
+        tsCache.getDocumentStatistics(100L, LocaleId.DE);
+        tsCache.getDocumentStatistics(100L, LocaleId.FR);
+
+        // When:
+        tsCache.clearDocumentStatistics(100L);
+        tsCache.getDocumentStatistics(100L, LocaleId.DE);
+        tsCache.getDocumentStatistics(100L, LocaleId.FR);
+
+        // Then:
+        verify(docStatisticLoader, times(2)).load(deKey);
+        verify(docStatisticLoader, times(2)).load(frKey);
+    }
+
+    @Test
+    public void removedStatisticIsDroppedFromLocaleIndex() throws Exception {
+        // Given:
+        DocumentLocaleKey deKey = new DocumentLocaleKey(100L, LocaleId.DE);
+        DocumentLocaleKey frKey = new DocumentLocaleKey(100L, LocaleId.FR);
+        when(docStatisticLoader.load(deKey)).thenReturn(new WordStatistic());
+        when(docStatisticLoader.load(frKey)).thenReturn(new WordStatistic());
+        tsCache.getDocumentStatistics(100L, LocaleId.DE);
+        tsCache.getDocumentStatistics(100L, LocaleId.FR);
+
+        // When:
+        tsCache.clearDocumentStatistics(100L, LocaleId.DE);
+
+        // Then:
+        assertThat(tsCache.getCachedStatisticLocales(100L),
+                equalTo(Collections.singleton(LocaleId.FR)));
+        tsCache.clearDocumentStatistics(100L);
+        assertThat(tsCache.getCachedStatisticLocales(100L).isEmpty(),
+                equalTo(true));
+    }
+
+    @Test
+    public void clearDocumentStatisticsKeepsOtherDocuments()
+            throws Exception {
+        // Given:
+        DocumentLocaleKey key100 = new DocumentLocaleKey(100L, LocaleId.DE);
+        DocumentLocaleKey key200 = new DocumentLocaleKey(200L, LocaleId.DE);
+        when(docStatisticLoader.load(key100)).thenReturn(new WordStatistic());
+        when(docStatisticLoader.load(key200)).thenReturn(new WordStatistic());
+        tsCache.getDocumentStatistics(100L, LocaleId.DE);
+        tsCache.getDocumentStatistics(200L, LocaleId.DE);
+
+        // When:
+        tsCache.clearDocumentStatistics(100L);
+        tsCache.getDocumentStatistics(100L, LocaleId.DE);
+        tsCache.getDocumentStatistics(200L, LocaleId.DE);
+
+        // Then:
+        verify(docStatisticLoader, times(2)).load(key100);
+        verify(docStatisticLoader).load(key200);
+    }
+
+    @Test
+    public void validationIndexIsBuiltOnceAndUpdatedByEvents()
+            throws Exception {
+        // Given: (text flow id, target id, sources, targets)
+        List<Object[]> rows = Lists.newArrayList(
+                new Object[] { 1L, 11L, ImmutableList.of("<b>a</b>"),
+                        ImmutableList.of("a") },
+                new Object[] { 2L, 12L, ImmutableList.of("<b>a</b>"),
+                        ImmutableList.of("<b>b</b>") },
+                new Object[] { 3L, null, ImmutableList.of("<b>a</b>"),
+                        null });
+        when(textFlowDAO.getContentsForValidation(100L, LocaleId.DE))
+                .thenReturn(rows);
+        List<ValidationId> validationIds =
+                Lists.newArrayList(ValidationId.HTML_XML);
+
+        // When:
+        List<Long> result = tsCache.getTextFlowIdsWithWarningOrError(100L,
+                LocaleId.DE, validationIds);
+
+        // Then:
+        assertThat(result, contains(1L));
+
+        // When: text flow 2 gets a bad translation
+        List<Object[]> changedRows = Lists.<Object[]> newArrayList(
+                new Object[] { 2L, 12L, ImmutableList.of("<b>a</b>"),
+                        ImmutableList.of("b") });
+        when(textFlowDAO.getTargetContentsForValidation(
+                Lists.newArrayList(12L))).thenReturn(changedRows);
+        tsCache.textFlowStateUpdated(new TextFlowTargetStateEvent(
+                new DocumentLocaleKey(100L, LocaleId.DE), 1L, null,
+                new TextFlowTargetStateEvent.TextFlowTargetStateChange(2L,
+                        12L, ContentState.Translated,
+                        ContentState.Translated)));
+        result = tsCache.getTextFlowIdsWithWarningOrError(100L, LocaleId.DE,
+                validationIds);
+
+        // Then:
+        assertThat(result, contains(1L, 2L));
+        // the document was only scanned once
+        verify(textFlowDAO).getContentsForValidation(100L, LocaleId.DE);
+    }
+
+    @Test
+    public void validatesEveryPluralForm() throws Exception {
+        // Given: (text flow id, target id, sources, targets)
+        List<Object[]> rows = Lists.newArrayList(
+                new Object[] { 1L, 11L,
+                        ImmutableList.of("<b>one</b>", "<b>many</b>"),
+                        ImmutableList.of("<b>1</b>", "<b>2</b>", "3") },
+                new Object[] { 2L, 12L,
+                        ImmutableList.of("<b>one</b>", "<b>many</b>"),
+                        ImmutableList.of("<b>1</b>", "<b>2</b>",
+                                "<b>3</b>") });
+        when(textFlowDAO.getContentsForValidation(100L, LocaleId.DE))
+                .thenReturn(rows);
+
+        // When:
+        List<Long> result = tsCache.getTextFlowIdsWithWarningOrError(100L,
+                LocaleId.DE, Lists.newArrayList(ValidationId.HTML_XML));
+
+        // Then: the third form is checked against the last source form
+        assertThat(result, contains(1L));
+    }
+
+    @Test
+    public void validatesManyDocumentsWithOneQuery() throws Exception {
+        // Given: (text flow id, target id, sources, targets)
+        Map<Long, List<Object[]>> rows = new HashMap<>();
+        rows.put(100L, Lists.<Object[]> newArrayList(
+                new Object[] { 1L, 11L, ImmutableList.of("<b>a</b>"),
+                        ImmutableList.of("a") }));
+        rows.put(200L, Lists.<Object[]> newArrayList(
+                new Object[] { 2L, 12L, ImmutableList.of("<b>a</b>"),
+                        ImmutableList.of("<b>b</b>") }));
+        List<Long> documentIds = Lists.newArrayList(100L, 200L);
+        when(textFlowDAO.getContentsForValidation(documentIds, LocaleId.DE))
+                .thenReturn(rows);
+        List<ValidationId> validationIds =
+                Lists.newArrayList(ValidationId.HTML_XML);
+
+        // When:
+        Map<Long, Boolean> result = tsCache.getDocumentsWithWarningOrError(
+                documentIds, LocaleId.DE, validationIds);
+
+        // Then:
+        assertThat(result.get(100L), equalTo(true));
+        assertThat(result.get(200L), equalTo(false));
+
+        // When: the indexes are already cached
+        result = tsCache.getDocumentsWithWarningOrError(documentIds,
+                LocaleId.DE, validationIds);
+        List<Long> textFlowIds = tsCache.getTextFlowIdsWithWarningOrError(
+                100L, LocaleId.DE, validationIds);
+
+        // Then:
+        assertThat(result.get(100L), equalTo(true));
+        assertThat(textFlowIds, contains(1L));
+        verify(textFlowDAO).getContentsForValidation(documentIds,
+                LocaleId.DE);
+    }
 }
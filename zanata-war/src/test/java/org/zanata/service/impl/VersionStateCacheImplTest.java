@@ -2,20 +2,31 @@ package org.zanata.service.impl;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.Collections;
+import java.util.List;
+
 import org.infinispan.manager.CacheContainer;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.zanata.cache.InfinispanTestCacheContainer;
+import org.zanata.common.ContentState;
 import org.zanata.common.LocaleId;
+import org.zanata.dao.ProjectIterationDAO;
+import org.zanata.events.DocStatsEvent;
+import org.zanata.events.DocumentLocaleKey;
 import org.zanata.service.VersionLocaleKey;
+import org.zanata.ui.model.statistic.IterationStatistics;
 import org.zanata.ui.model.statistic.WordStatistic;
+import org.zanata.util.IServiceLocator;
 
 import com.google.common.cache.CacheLoader;
+import com.google.common.collect.ImmutableList;
 
 /**
  * @author Alex Eng <a href="mailto:aeng@redhat.com">aeng@redhat.com</a>
@@ -26,13 +37,20 @@ public class VersionStateCacheImplTest {
 
     @Mock
     private CacheLoader<VersionLocaleKey, WordStatistic> versionStatisticLoader;
+    @Mock
+    private IServiceLocator serviceLocator;
+    @Mock
+    private ProjectIterationDAO projectIterationDAO;
 
     @Before
     public void beforeMethod() {
         MockitoAnnotations.initMocks(this);
         cache = new VersionStateCacheImpl(versionStatisticLoader);
         cache.setCacheContainer(new InfinispanTestCacheContainer());
+        cache.setServiceLocator(serviceLocator);
         cache.create();
+        when(serviceLocator.getInstance(ProjectIterationDAO.class))
+                .thenReturn(projectIterationDAO);
     }
 
     @Test
@@ -54,4 +72,45 @@ public class VersionStateCacheImplTest {
         verify(versionStatisticLoader).load(key); // only load the value once
         assertThat(result, equalTo(wordStatistic));
     }
+
+    @Test
+    public void iterationStatisticsAreCachedUntilVersionChanges() {
+        Long versionId = 1L;
+        List<LocaleId> localeIds = ImmutableList.of(LocaleId.DE);
+        when(projectIterationDAO.getIterationStatistics(versionId, localeIds,
+                false)).thenReturn(new IterationStatistics(localeIds));
+
+        cache.getIterationStatistics(versionId, localeIds);
+        cache.getIterationStatistics(versionId, localeIds);
+        verify(projectIterationDAO, times(1)).getIterationStatistics(
+                versionId, localeIds, false);
+
+        cache.docStatsUpdated(new DocStatsEvent(new DocumentLocaleKey(2L,
+                LocaleId.DE), versionId,
+                Collections.<ContentState, Long> emptyMap(), 3L));
+        cache.getIterationStatistics(versionId, localeIds);
+        verify(projectIterationDAO, times(2)).getIterationStatistics(
+                versionId, localeIds, false);
+    }
+
+    @Test
+    public void iterationStatisticsAreReloadedForMissingLocales() {
+        Long versionId = 1L;
+        List<LocaleId> german = ImmutableList.of(LocaleId.DE);
+        List<LocaleId> both = ImmutableList.of(LocaleId.DE, LocaleId.FR);
+        when(projectIterationDAO.getIterationStatistics(versionId, german,
+                false)).thenReturn(new IterationStatistics(german));
+        when(projectIterationDAO.getIterationStatistics(versionId, both,
+                false)).thenReturn(new IterationStatistics(both));
+
+        cache.getIterationStatistics(versionId, german);
+        IterationStatistics result =
+                cache.getIterationStatistics(versionId, both);
+
+        assertThat(result.hasLocales(both), equalTo(true));
+        // the wider result also serves the narrower request
+        cache.getIterationStatistics(versionId, german);
+        verify(projectIterationDAO, times(1)).getIterationStatistics(
+                versionId, german, false);
+    }
 }
@@ -21,8 +21,23 @@
 
 package org.zanata.service.impl;
 
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.junit.After;
+import org.junit.Rule;
 import org.junit.Test;
+import org.zanata.common.ContentState;
+import org.zanata.common.LocaleId;
+import org.zanata.test.rule.StubHttpServer;
+import org.zanata.test.rule.StubHttpServer.StubRequest;
 import org.zanata.util.HmacUtil;
+import org.zanata.webhook.events.DocumentMilestoneEvent;
+import org.zanata.webhook.events.DocumentStatsEvent;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableMap;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -31,6 +46,18 @@ import static org.assertj.core.api.Assertions.assertThat;
  */
 public class WebhooksPublisherTest {
 
+    @Rule
+    public StubHttpServer server = new StubHttpServer();
+
+    private WebHooksPublisher publisher;
+
+    @After
+    public void tearDown() {
+        if (publisher != null) {
+            publisher.cleanup();
+        }
+    }
+
     @Test
     public void test1() {
         final String key = "secret_key";
@@ -64,4 +91,172 @@ public class WebhooksPublisherTest {
         return HmacUtil
             .hmacSha1(key, HmacUtil.hmacSha1(key, valueToDigest));
     }
+
+    @Test
+    public void postsSignedEvent() throws Exception {
+        publisher = newPublisher(0, 10, 1, 1000);
+        String url = server.getUrl("/hook");
+        DocumentStatsEvent event = statsEvent("doc1");
+
+        publisher.publish(url, event, Optional.of("secret_key"));
+
+        StubRequest request = server.takeRequest(5, TimeUnit.SECONDS);
+        assertThat(request).isNotNull();
+        assertThat(request.getMethod()).isEqualTo("POST");
+        assertThat(request.getBody()).isEqualTo(event.getJSON());
+        assertThat(request.getHeader(WebHooksPublisher.WEBHOOK_HEADER))
+                .isEqualTo(WebHooksPublisher.signWebhookHeader(
+                        event.getJSON(), "secret_key", url));
+        waitFor(() -> publisher.getDeliveredCount() == 1);
+    }
+
+    @Test
+    public void postsEventsToAnEndpointInOrder() throws Exception {
+        publisher = newPublisher(0, 10, 1, 1000);
+        String url = server.getUrl("/hook");
+
+        for (int i = 0; i < 5; i++) {
+            publisher.publish(url, statsEvent("doc" + i), Optional.absent());
+        }
+
+        for (int i = 0; i < 5; i++) {
+            StubRequest request = server.takeRequest(5, TimeUnit.SECONDS);
+            assertThat(request.getBody())
+                    .isEqualTo(statsEvent("doc" + i).getJSON());
+            assertThat(request.getHeader(WebHooksPublisher.WEBHOOK_HEADER))
+                    .isNull();
+        }
+        waitFor(() -> publisher.getDeliveredCount() == 5);
+    }
+
+    @Test
+    public void retriesServerErrors() throws Exception {
+        publisher = newPublisher(3, 10, 1, 1000);
+        server.respondWith(503, 500);
+        DocumentStatsEvent event = statsEvent("doc1");
+
+        publisher.publish(server.getUrl("/hook"), event, Optional.absent());
+
+        for (int i = 0; i < 3; i++) {
+            StubRequest request = server.takeRequest(5, TimeUnit.SECONDS);
+            assertThat(request.getBody()).isEqualTo(event.getJSON());
+        }
+        waitFor(() -> publisher.getDeliveredCount() == 1);
+        assertThat(publisher.getRetriedCount()).isEqualTo(2);
+        assertThat(publisher.getFailedCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void givesUpAfterMaxRetries() throws Exception {
+        publisher = newPublisher(1, 10, 1, 1000);
+        server.respondWith(500, 500);
+
+        publisher.publish(server.getUrl("/hook"), statsEvent("doc1"),
+                Optional.absent());
+
+        waitFor(() -> publisher.getFailedCount() == 1);
+        assertThat(server.getRequestCount()).isEqualTo(2);
+        assertThat(publisher.getPendingCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void doesNotRetryClientErrors() throws Exception {
+        publisher = newPublisher(3, 10, 1, 1000);
+        server.respondWith(404);
+
+        publisher.publish(server.getUrl("/hook"), statsEvent("doc1"),
+                Optional.absent());
+
+        waitFor(() -> publisher.getFailedCount() == 1);
+        assertThat(server.getRequestCount()).isEqualTo(1);
+        assertThat(publisher.getRetriedCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void dropsEventsWhenEndpointQueueIsFull() throws Exception {
+        publisher = newPublisher(0, 1, 1, 50);
+        String url = server.getUrl("/hook");
+        CountDownLatch release = new CountDownLatch(1);
+        server.holdRequests(release);
+
+        publisher.publish(url, statsEvent("doc1"), Optional.absent());
+        // the first event is in flight, so the second one fills the queue
+        StubRequest first = server.takeRequest(5, TimeUnit.SECONDS);
+        publisher.publish(url, statsEvent("doc2"), Optional.absent());
+        publisher.publish(url, statsEvent("doc3"), Optional.absent());
+        assertThat(publisher.getDroppedCount()).isEqualTo(1);
+
+        release.countDown();
+        StubRequest second = server.takeRequest(5, TimeUnit.SECONDS);
+        assertThat(first.getBody()).isEqualTo(statsEvent("doc1").getJSON());
+        assertThat(second.getBody()).isEqualTo(statsEvent("doc2").getJSON());
+        waitFor(() -> publisher.getDeliveredCount() == 2);
+    }
+
+    @Test
+    public void batchesQueuedMilestoneEvents() throws Exception {
+        publisher = newPublisher(0, 10, 10, 1000);
+        String url = server.getUrl("/hook");
+        CountDownLatch release = new CountDownLatch(1);
+        server.holdRequests(release);
+        DocumentMilestoneEvent m1 = milestoneEvent("doc1");
+        DocumentMilestoneEvent m2 = milestoneEvent("doc2");
+        DocumentMilestoneEvent m3 = milestoneEvent("doc3");
+        DocumentStatsEvent stats = statsEvent("doc4");
+
+        publisher.publish(url, m1, Optional.absent());
+        StubRequest first = server.takeRequest(5, TimeUnit.SECONDS);
+        publisher.publish(url, m2, Optional.absent());
+        publisher.publish(url, m3, Optional.absent());
+        publisher.publish(url, stats, Optional.absent());
+        server.holdRequests(null);
+        release.countDown();
+
+        StubRequest second = server.takeRequest(5, TimeUnit.SECONDS);
+        StubRequest third = server.takeRequest(5, TimeUnit.SECONDS);
+        assertThat(first.getBody()).isEqualTo(m1.getJSON());
+        assertThat(second.getBody())
+                .isEqualTo("[" + m2.getJSON() + "," + m3.getJSON() + "]");
+        assertThat(third.getBody()).isEqualTo(stats.getJSON());
+        waitFor(() -> publisher.getDeliveredCount() == 4);
+    }
+
+    @Test
+    public void backoffDoublesUpToALimit() {
+        publisher = new WebHooksPublisher();
+        publisher.init(1, 10, 5, 1, 1000, 1000);
+
+        assertThat(publisher.getBackoffMillis(1)).isEqualTo(1000);
+        assertThat(publisher.getBackoffMillis(2)).isEqualTo(2000);
+        assertThat(publisher.getBackoffMillis(5)).isEqualTo(16000);
+        assertThat(publisher.getBackoffMillis(30)).isEqualTo(60000);
+    }
+
+    private static WebHooksPublisher newPublisher(int maxRetries,
+            int queueSize, int milestoneBatchSize,
+            long queueFullTimeoutMillis) {
+        WebHooksPublisher publisher = new WebHooksPublisher();
+        publisher.init(2, queueSize, maxRetries, milestoneBatchSize,
+                queueFullTimeoutMillis, 10);
+        return publisher;
+    }
+
+    private static DocumentStatsEvent statsEvent(String docId) {
+        return new DocumentStatsEvent("user", "project", "master", docId,
+                LocaleId.DE, ImmutableMap.of(ContentState.Translated, 10L));
+    }
+
+    private static DocumentMilestoneEvent milestoneEvent(String docId) {
+        return new DocumentMilestoneEvent("project", "master", docId,
+                LocaleId.DE, "100% Translated", "http://localhost/editor");
+    }
+
+    private static void waitFor(BooleanSupplier condition)
+            throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
 }
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.test.rule;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nullable;
+
+import org.junit.rules.ExternalResource;
+
+import com.google.common.io.ByteStreams;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * A local http server for tests of outgoing http requests. It records every
+ * request it receives, and answers with scripted status codes (200 once the
+ * script runs out).
+ */
+public class StubHttpServer extends ExternalResource {
+
+    private HttpServer server;
+    private ExecutorService executor;
+    private final Queue<Integer> statuses = new ConcurrentLinkedQueue<>();
+    private final BlockingQueue<StubRequest> requests =
+            new LinkedBlockingQueue<>();
+    private volatile @Nullable CountDownLatch gate;
+
+    @Override
+    protected void before() throws IOException {
+        server = HttpServer.create(
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        executor = Executors.newCachedThreadPool();
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    @Override
+    protected void after() {
+        CountDownLatch latch = gate;
+        if (latch != null) {
+            latch.countDown();
+        }
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    /**
+     * @return a URL on this server
+     */
+    public String getUrl(String path) {
+        return "http://" + server.getAddress().getHostString() + ":"
+                + server.getAddress().getPort() + path;
+    }
+
+    /**
+     * Answers the next requests with these status codes, in order.
+     */
+    public void respondWith(int... statusCodes) {
+        for (int status : statusCodes) {
+            statuses.add(status);
+        }
+    }
+
+    /**
+     * Holds every request (after recording it) until the latch is released.
+     */
+    public void holdRequests(@Nullable CountDownLatch latch) {
+        this.gate = latch;
+    }
+
+    /**
+     * @return the next recorded request, or null if none arrives in time
+     */
+    public @Nullable StubRequest takeRequest(long timeout, TimeUnit unit)
+            throws InterruptedException {
+        return requests.poll(timeout, unit);
+    }
+
+    /**
+     * @return number of recorded requests which have not been taken
+     */
+    public int getRequestCount() {
+        return requests.size();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            String body = new String(ByteStreams.toByteArray(in),
+                    StandardCharsets.UTF_8);
+            requests.add(new StubRequest(exchange.getRequestMethod(),
+                    exchange.getRequestURI().getPath(),
+                    exchange.getRequestHeaders(), body));
+        }
+        CountDownLatch latch = gate;
+        if (latch != null) {
+            try {
+                latch.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        Integer status = statuses.poll();
+        exchange.sendResponseHeaders(status == null ? 200 : status, -1);
+        exchange.close();
+    }
+
+    @AllArgsConstructor
+    @Getter
+    @ToString(exclude = "headers")
+    public static class StubRequest {
+        private final String method;
+        private final String path;
+        private final Headers headers;
+        private final String body;
+
+        public @Nullable String getHeader(String name) {
+            return headers.getFirst(name);
+        }
+    }
+}
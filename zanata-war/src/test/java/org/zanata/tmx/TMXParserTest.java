@@ -363,4 +363,20 @@ public class TMXParserTest {
         tm = getEm().find(TransMemory.class, tm.getId());
         assertThat(tm.getTranslationUnits().size(), is(8));
     }
+
+    @Test
+    @InRequestScope
+    public void lastDuplicateTuidInFileWins() throws Exception {
+        TransMemory tm =
+                createTMFromFile("/tmx/valid-tm-with-duplicate-tuids.tmx");
+
+        tm = getEm().find(TransMemory.class, tm.getId());
+        assertThat(tm.getTranslationUnits().size(), is(2));
+
+        TransMemoryUnit tu1 = findInCollection(tm.getTranslationUnits(), "1");
+        assertThat(tu1.getTransUnitVariants().keySet(),
+                equalTo((Set<String>) Sets.newHashSet("en", "fr")));
+        assertThat(tu1.getTransUnitVariants().get("en").getPlainTextSegment(),
+                is("This is the first entry, revised."));
+    }
 }
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.ui.model.statistic;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Date;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.zanata.common.ContentState;
+import org.zanata.common.LocaleId;
+
+public class IterationStatisticsTest {
+    private IterationStatistics statistics;
+
+    @Before
+    public void setUp() {
+        statistics = new IterationStatistics();
+        statistics.addDocument(1L, 10, 100);
+        statistics.addDocument(2L, 5, 50);
+    }
+
+    @Test
+    public void documentWithoutTargetsIsUntranslated() {
+        MessageStatistic messages =
+                statistics.getMessageStatistic(1L, LocaleId.DE);
+        WordStatistic words = statistics.getWordStatistic(1L, LocaleId.DE);
+
+        assertThat(messages.getUntranslated()).isEqualTo(10);
+        assertThat(messages.getTotal()).isEqualTo(10);
+        assertThat(words.getUntranslated()).isEqualTo(100);
+        assertThat(statistics.getLastTranslatedDate(1L, LocaleId.DE))
+                .isNull();
+        assertThat(statistics.getLastTranslatedBy(1L, LocaleId.DE))
+                .isEqualTo("");
+    }
+
+    @Test
+    public void untranslatedIsTotalMinusOtherStates() {
+        statistics.addTargets(1L, LocaleId.DE, ContentState.Approved, 3, 30,
+                new Date(1000));
+        statistics.addTargets(1L, LocaleId.DE, ContentState.NeedReview, 2,
+                20, new Date(2000));
+        // new targets only count towards the last translated date
+        statistics.addTargets(1L, LocaleId.DE, ContentState.New, 4, 40,
+                new Date(3000));
+
+        MessageStatistic messages =
+                statistics.getMessageStatistic(1L, LocaleId.DE);
+        WordStatistic words = statistics.getWordStatistic(1L, LocaleId.DE);
+
+        assertThat(messages.getApproved()).isEqualTo(3);
+        assertThat(messages.getNeedReview()).isEqualTo(2);
+        assertThat(messages.getUntranslated()).isEqualTo(5);
+        assertThat(words.getApproved()).isEqualTo(30);
+        assertThat(words.getNeedReview()).isEqualTo(20);
+        assertThat(words.getUntranslated()).isEqualTo(50);
+        assertThat(statistics.getLastTranslatedDate(1L, LocaleId.DE))
+                .isEqualTo(new Date(3000));
+    }
+
+    @Test
+    public void versionStatisticIsSumOfDocuments() {
+        statistics.addTargets(1L, LocaleId.DE, ContentState.Translated, 4,
+                40, new Date(1000));
+        statistics.addTargets(2L, LocaleId.DE, ContentState.Rejected, 1, 10,
+                new Date(2000));
+        statistics.addTargets(2L, LocaleId.FR, ContentState.Translated, 5,
+                50, new Date(3000));
+        statistics.setLastTranslatedBy(2L, LocaleId.DE, "demo");
+
+        MessageStatistic messages = statistics.getMessageStatistic(LocaleId.DE);
+        WordStatistic words = statistics.getWordStatistic(LocaleId.DE);
+
+        assertThat(messages.get(ContentState.Translated)).isEqualTo(4);
+        assertThat(messages.getRejected()).isEqualTo(1);
+        assertThat(messages.getUntranslated()).isEqualTo(10);
+        assertThat(messages.getTotal()).isEqualTo(15);
+        assertThat(words.getUntranslated()).isEqualTo(100);
+        assertThat(statistics.getLastTranslatedDocument(LocaleId.DE))
+                .isEqualTo(2L);
+        assertThat(statistics.getLastTranslatedBy(2L, LocaleId.DE))
+                .isEqualTo("demo");
+        assertThat(statistics.getLastTranslatedDocument(LocaleId.ES))
+                .isNull();
+    }
+}
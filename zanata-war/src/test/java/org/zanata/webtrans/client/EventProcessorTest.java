@@ -9,11 +9,18 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.zanata.common.ProjectType;
 import org.zanata.model.TestFixture;
+import org.zanata.webtrans.client.events.TransUnitUpdatedEvent;
 import org.zanata.webtrans.client.events.WorkspaceContextUpdateEvent;
+import org.zanata.webtrans.shared.auth.EditorClientId;
+import org.zanata.webtrans.shared.model.DocumentId;
+import org.zanata.webtrans.shared.model.TransUnitUpdateInfo;
 import org.zanata.webtrans.shared.model.UserWorkspaceContext;
 import org.zanata.webtrans.shared.rpc.SessionEventData;
+import org.zanata.webtrans.shared.rpc.TransUnitUpdated;
+import org.zanata.webtrans.shared.rpc.TransUnitUpdatedBatch;
 import org.zanata.webtrans.shared.rpc.WorkspaceContextUpdate;
 import com.allen_sauer.gwt.log.client.Log;
+import com.google.common.collect.Lists;
 import com.google.gwt.user.client.rpc.AsyncCallback;
 
 import de.novanic.eventservice.client.config.EventServiceConfigurationTransferable;
@@ -25,6 +32,7 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
@@ -117,4 +125,30 @@ public class EventProcessorTest {
 
         verifyZeroInteractions(eventBus);
     }
+
+    @Test
+    public void applyUnpacksTransUnitUpdatedBatch() {
+        DocumentId docId = new DocumentId(1L, "doc");
+        TransUnitUpdated first = new TransUnitUpdated(
+                new TransUnitUpdateInfo(true, true, docId,
+                        TestFixture.makeTransUnit(1), 1, 0, null),
+                new EditorClientId("sessionId", 1),
+                TransUnitUpdated.UpdateType.WebEditorSave);
+        TransUnitUpdated second = new TransUnitUpdated(
+                new TransUnitUpdateInfo(true, true, docId,
+                        TestFixture.makeTransUnit(2), 1, 0, null),
+                new EditorClientId("sessionId", 1),
+                TransUnitUpdated.UpdateType.WebEditorSave);
+        ArgumentCaptor<TransUnitUpdatedEvent> eventCaptor =
+                ArgumentCaptor.forClass(TransUnitUpdatedEvent.class);
+
+        eventProcessor.apply(new TransUnitUpdatedBatch(Lists.newArrayList(
+                first, second)));
+
+        verify(eventBus, times(2)).fireEvent(eventCaptor.capture());
+        assertThat(eventCaptor.getAllValues().get(0).getUpdateInfo(),
+                Matchers.sameInstance(first.getUpdateInfo()));
+        assertThat(eventCaptor.getAllValues().get(1).getUpdateInfo(),
+                Matchers.sameInstance(second.getUpdateInfo()));
+    }
 }
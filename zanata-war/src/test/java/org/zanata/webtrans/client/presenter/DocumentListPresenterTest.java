@@ -37,6 +37,7 @@ import org.zanata.rest.dto.stats.TranslationStatistics;
 import org.zanata.rest.dto.stats.TranslationStatistics.StatUnit;
 import org.zanata.webtrans.client.events.DocumentSelectionEvent;
 import org.zanata.webtrans.client.events.DocumentStatsUpdatedEvent;
+import org.zanata.webtrans.client.events.DocumentUpdatedEvent;
 import org.zanata.webtrans.client.events.RefreshProjectStatsEvent;
 import org.zanata.webtrans.client.events.TransUnitUpdatedEvent;
 import org.zanata.webtrans.client.events.UserConfigChangeEvent;
@@ -150,6 +151,8 @@ public class DocumentListPresenterTest {
                 documentListPresenter);
         verify(mockEventBus).addHandler(TransUnitUpdatedEvent.getType(),
                 documentListPresenter);
+        verify(mockEventBus).addHandler(DocumentUpdatedEvent.TYPE,
+                documentListPresenter);
         verify(mockEventBus).addHandler(UserConfigChangeEvent.TYPE,
                 documentListPresenter);
         verify(mockEventBus).addHandler(WorkspaceContextUpdateEvent.getType(),
@@ -19,6 +19,7 @@ import org.zanata.common.ContentState;
 import org.zanata.model.TestFixture;
 import org.zanata.webtrans.client.events.BookmarkedTextFlowEvent;
 import org.zanata.webtrans.client.events.DocumentSelectionEvent;
+import org.zanata.webtrans.client.events.DocumentUpdatedEvent;
 import org.zanata.webtrans.client.events.EditorPageSizeChangeEvent;
 import org.zanata.webtrans.client.events.NavTransUnitEvent;
 import org.zanata.webtrans.client.events.RequestSelectTableRowEvent;
@@ -282,6 +283,52 @@ public class NavigationServiceUnitTest {
 
     }
 
+    @Test
+    public void documentUpdateReloadsCurrentPage() throws Exception {
+        service.init(initContext);
+        when(pageDataChangeListener.hasUnsavedEdit()).thenReturn(false);
+
+        service.onDocumentUpdated(new DocumentUpdatedEvent(initContext
+                .getDocument().getId()));
+
+        verify(dispatcher, times(2)).execute(actionCaptor.capture(),
+                resultCaptor.capture());
+        assertThat(actionCaptor.getValue().isNeedReloadIndex(),
+                Matchers.equalTo(true));
+    }
+
+    @Test
+    public void documentUpdateIsDeferredWhileEditIsUnsaved() throws Exception {
+        // Given: the user has an unsaved edit on the current row
+        service.init(initContext);
+        when(pageDataChangeListener.hasUnsavedEdit()).thenReturn(true);
+
+        // When: another user changes many rows in the document
+        service.onDocumentUpdated(new DocumentUpdatedEvent(initContext
+                .getDocument().getId()));
+
+        // Then: the page is not reloaded under the user
+        verify(dispatcher, times(1)).execute(actionCaptor.capture(),
+                resultCaptor.capture());
+
+        // When: the edit is saved
+        when(pageDataChangeListener.hasUnsavedEdit()).thenReturn(false);
+        HasTransUnitUpdatedData updatedData =
+                mock(HasTransUnitUpdatedData.class, withSettings()
+                        .defaultAnswer(RETURNS_DEEP_STUBS));
+        when(updatedData.getUpdateInfo().getDocumentId()).thenReturn(
+                initContext.getDocument().getId());
+        when(updatedData.getUpdateInfo().getTransUnit()).thenReturn(
+                data.get(0));
+        service.onTransUnitUpdated(new TransUnitUpdatedEvent(updatedData));
+
+        // Then: the deferred reload happens
+        verify(dispatcher, times(2)).execute(actionCaptor.capture(),
+                resultCaptor.capture());
+        assertThat(actionCaptor.getValue().isNeedReloadIndex(),
+                Matchers.equalTo(true));
+    }
+
     @Test
     public void testUpdateDataModel() throws Exception {
         service.init(initContext);
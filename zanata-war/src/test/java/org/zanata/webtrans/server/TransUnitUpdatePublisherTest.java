@@ -0,0 +1,139 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.webtrans.server;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.Test;
+import org.zanata.common.ContentState;
+import org.zanata.model.TestFixture;
+import org.zanata.webtrans.shared.auth.EditorClientId;
+import org.zanata.webtrans.shared.model.DocumentId;
+import org.zanata.webtrans.shared.model.TransUnitUpdateInfo;
+import org.zanata.webtrans.shared.rpc.DocumentUpdated;
+import org.zanata.webtrans.shared.rpc.SessionEventData;
+import org.zanata.webtrans.shared.rpc.TransUnitUpdated;
+import org.zanata.webtrans.shared.rpc.TransUnitUpdatedBatch;
+
+import com.google.common.collect.Lists;
+
+public class TransUnitUpdatePublisherTest {
+    private final DocumentId doc1 = new DocumentId(1L, "doc1");
+    private final DocumentId doc2 = new DocumentId(2L, "doc2");
+    private final EditorClientId editor = new EditorClientId("session", 1);
+
+    private TransUnitUpdated update(DocumentId docId, long tuId,
+            int previousVersion, ContentState previousState,
+            ContentState newState, EditorClientId editorClientId) {
+        return new TransUnitUpdated(new TransUnitUpdateInfo(true, true,
+                docId, TestFixture.makeTransUnit(tuId, newState), 1,
+                previousVersion, previousState), editorClientId,
+                TransUnitUpdated.UpdateType.WebEditorSave);
+    }
+
+    @Test
+    public void singleUpdateIsPublishedAsIs() {
+        TransUnitUpdated update = update(doc1, 1, 0, ContentState.New,
+                ContentState.Translated, editor);
+
+        List<SessionEventData> events =
+                TransUnitUpdatePublisher.coalesce(Lists.newArrayList(update));
+
+        assertThat(events).containsExactly(update);
+    }
+
+    @Test
+    public void updatesAreBatchedPerDocument() {
+        TransUnitUpdated tu1 = update(doc1, 1, 0, ContentState.New,
+                ContentState.Translated, editor);
+        TransUnitUpdated tu2 = update(doc2, 2, 0, ContentState.New,
+                ContentState.Translated, editor);
+        TransUnitUpdated tu3 = update(doc1, 3, 0, ContentState.New,
+                ContentState.Translated, editor);
+
+        List<SessionEventData> events = TransUnitUpdatePublisher
+                .coalesce(Lists.newArrayList(tu1, tu2, tu3));
+
+        assertThat(events).hasSize(2);
+        assertThat(events.get(0)).isInstanceOf(TransUnitUpdatedBatch.class);
+        assertThat(((TransUnitUpdatedBatch) events.get(0)).getUpdates())
+                .containsExactly(tu1, tu3);
+        assertThat(events.get(1)).isSameAs(tu2);
+    }
+
+    @Test
+    public void repeatedUpdatesOfSameTransUnitAreMerged() {
+        TransUnitUpdated first = update(doc1, 1, 3, ContentState.New,
+                ContentState.NeedReview, editor);
+        TransUnitUpdated second = update(doc1, 1, 4, ContentState.NeedReview,
+                ContentState.Translated, editor);
+
+        List<SessionEventData> events = TransUnitUpdatePublisher
+                .coalesce(Lists.newArrayList(first, second));
+
+        assertThat(events).hasSize(1);
+        TransUnitUpdateInfo merged =
+                ((TransUnitUpdated) events.get(0)).getUpdateInfo();
+        assertThat(merged.getPreviousVersionNum()).isEqualTo(3);
+        assertThat(merged.getPreviousState()).isEqualTo(ContentState.New);
+        assertThat(merged.getTransUnit()).isSameAs(
+                second.getUpdateInfo().getTransUnit());
+    }
+
+    @Test
+    public void updatesFromDifferentEditorsAreNotMerged() {
+        TransUnitUpdated first = update(doc1, 1, 3, ContentState.New,
+                ContentState.NeedReview, editor);
+        TransUnitUpdated second = update(doc1, 1, 4, ContentState.NeedReview,
+                ContentState.Translated, new EditorClientId("other", 1));
+
+        List<SessionEventData> events = TransUnitUpdatePublisher
+                .coalesce(Lists.newArrayList(first, second));
+
+        assertThat(events).hasSize(1);
+        assertThat(((TransUnitUpdatedBatch) events.get(0)).getUpdates())
+                .containsExactly(first, second);
+    }
+
+    @Test
+    public void documentWithTooManyUpdatesIsReloaded() {
+        int max = TransUnitUpdatePublisher.MAX_UPDATES_PER_DOCUMENT;
+        List<TransUnitUpdated> updates = Lists.newArrayList();
+        for (int i = 0; i <= max; i++) {
+            updates.add(update(doc1, i, 0, ContentState.New,
+                    ContentState.Translated, editor));
+        }
+        TransUnitUpdated other = update(doc2, 1000, 0, ContentState.New,
+                ContentState.Translated, editor);
+        updates.add(other);
+
+        List<SessionEventData> events =
+                TransUnitUpdatePublisher.coalesce(updates);
+
+        assertThat(events).hasSize(2);
+        assertThat(events.get(0)).isInstanceOf(DocumentUpdated.class);
+        assertThat(((DocumentUpdated) events.get(0)).getDocumentId())
+                .isEqualTo(doc1);
+        assertThat(events.get(1)).isSameAs(other);
+    }
+}
@@ -20,14 +20,18 @@ import org.zanata.model.HTextFlow;
 import org.zanata.model.TestFixture;
 import org.zanata.rest.service.ResourceUtils;
 import org.zanata.search.FilterConstraints;
+import org.zanata.search.TextFlowSearchResult;
+import org.zanata.search.TextMatcher;
 import org.zanata.security.ZanataIdentity;
 import org.zanata.service.LocaleService;
 import org.zanata.service.TextFlowSearchService;
 import org.zanata.test.CdiUnitRunner;
+import org.zanata.webtrans.shared.model.ContentMatch;
 import org.zanata.webtrans.shared.model.WorkspaceId;
 import org.zanata.webtrans.shared.rpc.GetProjectTransUnitLists;
 import org.zanata.webtrans.shared.rpc.GetProjectTransUnitListsResult;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 
 import lombok.extern.slf4j.Slf4j;
@@ -110,6 +114,17 @@ public class GetProjectTransUnitListsHandlerTest extends ZanataTest {
         return hTextFlow;
     }
 
+    private static TextFlowSearchResult searchResult(List<HTextFlow> textFlows,
+            boolean more, int nextOffset) {
+        List<TextFlowSearchResult.Hit> hits = Lists.newArrayList();
+        for (HTextFlow textFlow : textFlows) {
+            hits.add(new TextFlowSearchResult.Hit(textFlow,
+                    ImmutableList.<TextMatcher.Match> of(),
+                    ImmutableList.<TextMatcher.Match> of()));
+        }
+        return new TextFlowSearchResult(hits, more, nextOffset, true);
+    }
+
     @Test(expected = ActionException.class)
     @InRequestScope
     public void exceptionIfLocaleIsInvalid() throws Exception {
@@ -146,10 +161,12 @@ public class GetProjectTransUnitListsHandlerTest extends ZanataTest {
                 new GetProjectTransUnitLists("file", true, true, true);
         action.setWorkspaceId(workspaceId);
         when(
-                textFlowSearchServiceImpl.findTextFlows(
+                textFlowSearchServiceImpl.searchTextFlows(
                         eq(action.getWorkspaceId()),
                         eq(action.getDocumentPaths()),
-                        constraintCaptor.capture())).thenReturn(textFlows);
+                        constraintCaptor.capture(), eq(0),
+                        eq(Integer.MAX_VALUE))).thenReturn(
+                searchResult(textFlows, false, 0));
 
         // When: search in target only and case sensitive
         GetProjectTransUnitListsResult result = handler.execute(action, null);
@@ -171,10 +188,12 @@ public class GetProjectTransUnitListsHandlerTest extends ZanataTest {
                 new GetProjectTransUnitLists(" file", true, true, true);
         action.setWorkspaceId(workspaceId);
         when(
-                textFlowSearchServiceImpl.findTextFlows(
+                textFlowSearchServiceImpl.searchTextFlows(
                         eq(action.getWorkspaceId()),
                         eq(action.getDocumentPaths()),
-                        constraintCaptor.capture())).thenReturn(textFlows);
+                        constraintCaptor.capture(), eq(0),
+                        eq(Integer.MAX_VALUE))).thenReturn(
+                searchResult(textFlows, false, 0));
 
         // When: search in source and target and case sensitive
         GetProjectTransUnitListsResult result = handler.execute(action, null);
@@ -196,10 +215,12 @@ public class GetProjectTransUnitListsHandlerTest extends ZanataTest {
                 new GetProjectTransUnitLists("file ", true, false, false);
         action.setWorkspaceId(workspaceId);
         when(
-                textFlowSearchServiceImpl.findTextFlows(
+                textFlowSearchServiceImpl.searchTextFlows(
                         eq(action.getWorkspaceId()),
                         eq(action.getDocumentPaths()),
-                        constraintCaptor.capture())).thenReturn(textFlows);
+                        constraintCaptor.capture(), eq(0),
+                        eq(Integer.MAX_VALUE))).thenReturn(
+                searchResult(textFlows, false, 0));
 
         // When: search in source only and case insensitive
         GetProjectTransUnitListsResult result = handler.execute(action, null);
@@ -214,6 +235,42 @@ public class GetProjectTransUnitListsHandlerTest extends ZanataTest {
                 Matchers.contains(1, 3));
     }
 
+    @Test
+    @InRequestScope
+    public void searchPageKeepsMatchOffsets() throws Exception {
+        GetProjectTransUnitLists action =
+                new GetProjectTransUnitLists("file", true, true, false, null,
+                        100, 50);
+        action.setWorkspaceId(workspaceId);
+        HTextFlow textFlow = textFlows.get(1);
+        TextFlowSearchResult.Hit hit =
+                new TextFlowSearchResult.Hit(textFlow,
+                        ImmutableList.of(new TextMatcher.Match(0, 0, 4)),
+                        ImmutableList.of(new TextMatcher.Match(0, 5, 9)));
+        when(
+                textFlowSearchServiceImpl.searchTextFlows(
+                        eq(action.getWorkspaceId()),
+                        eq(action.getDocumentPaths()),
+                        any(FilterConstraints.class), eq(100), eq(50)))
+                .thenReturn(new TextFlowSearchResult(ImmutableList.of(hit),
+                        true, 600, true));
+
+        GetProjectTransUnitListsResult result = handler.execute(action, null);
+
+        assertThat(result.hasMore(), Matchers.equalTo(true));
+        assertThat(result.getNextOffset(), Matchers.equalTo(600));
+        List<ContentMatch> sourceMatches =
+                result.getSourceMatches(textFlow.getId());
+        assertThat(sourceMatches, Matchers.hasSize(1));
+        assertThat(sourceMatches.get(0).getBegin(), Matchers.equalTo(0));
+        assertThat(sourceMatches.get(0).getEnd(), Matchers.equalTo(4));
+        List<ContentMatch> targetMatches =
+                result.getTargetMatches(textFlow.getId());
+        assertThat(targetMatches, Matchers.hasSize(1));
+        assertThat(targetMatches.get(0).getBegin(), Matchers.equalTo(5));
+        assertThat(targetMatches.get(0).getEnd(), Matchers.equalTo(9));
+    }
+
     @Test
     @InRequestScope
     public void testRollback() throws Exception {
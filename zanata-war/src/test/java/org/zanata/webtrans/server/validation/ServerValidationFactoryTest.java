@@ -0,0 +1,103 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.webtrans.server.validation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.zanata.webtrans.client.resources.ValidationMessages;
+import org.zanata.webtrans.server.locale.Gwti18nReader;
+import org.zanata.webtrans.shared.model.ValidationAction;
+import org.zanata.webtrans.shared.model.ValidationId;
+import org.zanata.webtrans.shared.validation.ValidationFactory;
+
+public class ServerValidationFactoryTest {
+    // @formatter:off
+    private static final String[][] PAIRS = {
+        { "<b>Hello</b> world", "<b>Hallo</b> Welt" },
+        { "<b>Hello</b> world", "Hallo <b>Welt" },
+        { "<p><b>a</b></p>", "<b><p>a</b></p>" },
+        { "value %s of %d", "Wert %d von %s" },
+        { "value %s of %d", "Wert %s" },
+        { "value %1$s of %2$d", "Wert %2$d von %1$s" },
+        { "value %s of %d", "Wert %2$d von %1$s" },
+        { "value %s of %d", "Wert %3$d von %1$s %1$s" },
+        { "no placeholders", "keine Platzhalter %x <i>" },
+    };
+    // @formatter:on
+
+    private ValidationFactory sharedFactory;
+    private ValidationFactory serverFactory;
+
+    @Before
+    public void setUp() throws IOException {
+        ValidationMessages messages =
+                Gwti18nReader.create(ValidationMessages.class);
+        sharedFactory = new ValidationFactory(messages);
+        serverFactory = new ServerValidationFactory(messages);
+    }
+
+    @Test
+    public void serverRulesGiveSameErrorsAsSharedRules() {
+        for (ValidationId id : ValidationId.values()) {
+            ValidationAction shared = sharedFactory.getValidationAction(id);
+            ValidationAction server = serverFactory.getValidationAction(id);
+            for (String[] pair : PAIRS) {
+                // twice, so that the second run uses cached source matches
+                for (int i = 0; i < 2; i++) {
+                    List<String> errors = server.validate(pair[0], pair[1]);
+                    assertThat(errors).as(id + " " + pair[0] + " -> "
+                            + pair[1]).isEqualTo(
+                            shared.validate(pair[0], pair[1]));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void defaultStatesAreUnchanged() {
+        for (ValidationAction action : serverFactory.getAllValidationActions()
+                .values()) {
+            assertThat(action.getState()).as(action.getId().name())
+                    .isEqualTo(sharedFactory.getValidationAction(
+                            action.getId()).getState());
+        }
+        assertThat(serverFactory
+                .getValidationAction(ValidationId.PRINTF_VARIABLES)
+                .getExclusiveValidations())
+                .containsExactly(serverFactory.getValidationAction(
+                        ValidationId.PRINTF_XSI_EXTENSION));
+    }
+
+    @Test
+    public void cachedSourceMatchesAreCopied() {
+        PatternExtractor extractor = new PatternExtractor("<[^>]+>");
+        List<String> first = extractor.findAllInSource("<b>a</b>");
+        first.clear();
+
+        assertThat(extractor.findAllInSource("<b>a</b>")).containsExactly(
+                "<b>", "</b>");
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.webtrans.server.validation;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.zanata.webtrans.client.resources.ValidationMessages;
+import org.zanata.webtrans.server.locale.Gwti18nReader;
+import org.zanata.webtrans.shared.model.ValidationAction;
+import org.zanata.webtrans.shared.model.ValidationId;
+import org.zanata.webtrans.shared.validation.ValidationFactory;
+
+/**
+ * Compares each shared validation rule with its server version from
+ * {@link ServerValidationFactory}, for a mix of strings typical of an upload
+ * with validation enabled. Not run as part of the build; run the main method
+ * (from the IDE, or with the test classpath) to get numbers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class ValidationBenchmark {
+    // @formatter:off
+    private final String[][] pairs = {
+        { "Graphic Design", "Grafikdesign" },
+        { "Could not open file %s: %s", "Datei %s konnte nicht geöffnet werden: %s" },
+        { "Deleted %1$d of %2$d files", "%2$d Dateien, davon %1$d gelöscht" },
+        { "<b>Warning:</b> this cannot be undone.", "<b>Warnung:</b> dies kann nicht rückgängig gemacht werden." },
+        { "Click <a href=\"#\">here</a> to {0}", "Klicken Sie <a href=\"#\">hier</a>, um {0}" },
+        { "Tab\tseparated &amp; escaped\n", "Tabulator\tgetrennt &amp; maskiert\n" },
+    };
+    // @formatter:on
+
+    @Param({ "HTML_XML", "JAVA_VARIABLES", "NEW_LINE", "PRINTF_VARIABLES",
+            "PRINTF_XSI_EXTENSION", "TAB", "XML_ENTITY" })
+    private ValidationId validationId;
+
+    private ValidationAction sharedRule;
+    private ValidationAction serverRule;
+
+    @Setup
+    public void setUp() throws IOException {
+        ValidationMessages messages =
+                Gwti18nReader.create(ValidationMessages.class);
+        sharedRule = new ValidationFactory(messages)
+                .getValidationAction(validationId);
+        serverRule = new ServerValidationFactory(messages)
+                .getValidationAction(validationId);
+    }
+
+    @Benchmark
+    public void shared(Blackhole blackhole) {
+        for (String[] pair : pairs) {
+            blackhole.consume(sharedRule.validate(pair[0], pair[1]));
+        }
+    }
+
+    @Benchmark
+    public void server(Blackhole blackhole) {
+        for (String[] pair : pairs) {
+            blackhole.consume(serverRule.validate(pair[0], pair[1]));
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ValidationBenchmark.class.getSimpleName()).build())
+                .run();
+    }
+}